@@ -12,6 +12,8 @@ import androidx.recyclerview.widget.GridLayoutManager;
 
 import com.example.moviecast.databinding.ActivityFavoritesBinding;
 import com.example.moviecast.ui.adapter.FavoritesAdapter;
+import com.example.moviecast.ui.adapter.MovieCardPool;
+import com.example.moviecast.ui.metrics.JankMonitor;
 import com.example.moviecast.ui.utils.ThemeManager;
 import com.example.moviecast.ui.viewmodel.FavoritesViewModel;
 
@@ -48,14 +50,18 @@ public class FavoritesActivity extends AppCompatActivity {
     private void setupRecyclerView() {
         GridLayoutManager layoutManager = new GridLayoutManager(this, 2);
         binding.recyclerView.setLayoutManager(layoutManager);
+        MovieCardPool.configure(binding.recyclerView, layoutManager);
+        // Карточки для следующего возврата сюда - в простое после первого кадра
+        MovieCardPool.getInstance().warmUp(this);
         
-        adapter = new FavoritesAdapter(mediaItem -> {
+        adapter = new FavoritesAdapter(movieId -> {
             Intent intent = new Intent(FavoritesActivity.this, MovieDetailsActivity.class);
-            intent.putExtra("movie_id", mediaItem.getId());
+            intent.putExtra("movie_id", movieId);
             startActivity(intent);
         });
         
         binding.recyclerView.setAdapter(adapter);
+        binding.recyclerView.addOnScrollListener(JankMonitor.getInstance().scrollStateListener());
     }
 
     // Подписка на список избранного из Room
@@ -95,6 +101,13 @@ public class FavoritesActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         binding.bottomNavigation.setSelectedItemId(R.id.nav_favorites);
+        JankMonitor.getInstance().startSession(this, JankMonitor.SCREEN_FAVORITES);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        JankMonitor.getInstance().endSession();
     }
     
     @Override
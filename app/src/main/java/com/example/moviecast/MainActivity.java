@@ -5,21 +5,35 @@ import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
-import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SearchView;
 import androidx.core.app.ActivityOptionsCompat;
 import androidx.core.view.ViewCompat;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
+import com.example.moviecast.data.model.MovieSort;
+import com.example.moviecast.data.repository.PaginationStats;
 import com.example.moviecast.databinding.ActivityMainBinding;
 import com.example.moviecast.ui.adapter.MovieAdapter;
+import com.example.moviecast.ui.adapter.MovieCardPool;
+import com.example.moviecast.ui.image.ImageCacheStats;
+import com.example.moviecast.ui.image.PosterPreloadStats;
+import com.example.moviecast.ui.image.PosterPreloader;
+import com.example.moviecast.ui.metrics.JankMonitor;
+import com.example.moviecast.ui.metrics.StartupMetrics;
 import com.example.moviecast.ui.utils.PaginationScrollListener;
 import com.example.moviecast.ui.utils.ThemeManager;
 import com.example.moviecast.ui.viewmodel.MainViewModel;
 import com.google.android.material.chip.Chip;
+import com.google.android.material.snackbar.Snackbar;
+
+import java.io.File;
 
 /**
  * MainActivity - главный экран: сетка фильмов, поиск, фильтры, избранное.
@@ -68,6 +82,11 @@ public class MainActivity extends AppCompatActivity {
         this.menu = menu;
         // Обновляем иконку темы (солнце/луна) в зависимости от текущей темы
         updateThemeIcon();
+        // Отмечаем выбранную сортировку (после поворота экрана она хранится во ViewModel)
+        MenuItem sortItem = menu.findItem(sortMenuId(viewModel.getSort()));
+        if (sortItem != null) {
+            sortItem.setChecked(true);
+        }
         return true;
     }
     
@@ -84,9 +103,33 @@ public class MainActivity extends AppCompatActivity {
             updateThemeIcon();
             return true;
         }
+        // Пункты сортировки - порядок загруженного списка меняется без запросов к API
+        MovieSort sort = sortForMenuId(item.getItemId());
+        if (sort != null) {
+            item.setChecked(true);
+            viewModel.setSort(sort);
+            return true;
+        }
         return super.onOptionsItemSelected(item);
     }
     
+    private static MovieSort sortForMenuId(int itemId) {
+        if (itemId == R.id.sort_default) return MovieSort.DEFAULT;
+        if (itemId == R.id.sort_rating) return MovieSort.RATING;
+        if (itemId == R.id.sort_release_date) return MovieSort.RELEASE_DATE;
+        if (itemId == R.id.sort_title) return MovieSort.TITLE;
+        return null;
+    }
+    
+    private static int sortMenuId(MovieSort sort) {
+        switch (sort) {
+            case RATING: return R.id.sort_rating;
+            case RELEASE_DATE: return R.id.sort_release_date;
+            case TITLE: return R.id.sort_title;
+            default: return R.id.sort_default;
+        }
+    }
+    
     /**
      * Обновление иконки переключения темы
      * Показывает солнце в темной теме (переключение на светлую)
@@ -117,6 +160,8 @@ public class MainActivity extends AppCompatActivity {
         // Создаем GridLayoutManager для сетки из 2 колонок
         layoutManager = new GridLayoutManager(this, 2);
         binding.recyclerView.setLayoutManager(layoutManager);
+        MovieCardPool.configure(binding.recyclerView, layoutManager);
+        MovieCardPool.getInstance().warmUp(this);
         
         // Создаем адаптер с двумя слушателями (клик по фильму и клик по кнопке избранного)
         adapter = new MovieAdapter(
@@ -142,6 +187,7 @@ public class MainActivity extends AppCompatActivity {
                 // Слушатель клика по кнопке избранного (сердечко)
                 (movieId, currentStatus) -> {
                     // Переключаем статус избранного через ViewModel (Room операция)
+                    JankMonitor.getInstance().markFavoriteToggle();
                     viewModel.toggleFavorite(movieId);
                 }
         );
@@ -149,6 +195,23 @@ public class MainActivity extends AppCompatActivity {
         // Устанавливаем адаптер в RecyclerView
         binding.recyclerView.setAdapter(adapter);
         
+        // Предзагрузка постеров на несколько рядов вперёд по направлению прокрутки
+        ViewPreloadSizeProvider<String> preloadSizeProvider = new ViewPreloadSizeProvider<>();
+        adapter.setPreloadSizeProvider(preloadSizeProvider);
+        PosterPreloader.attach(binding.recyclerView, Glide.with(this), adapter, preloadSizeProvider);
+        
+        // Кадры во время прокрутки считаются отдельно
+        binding.recyclerView.addOnScrollListener(JankMonitor.getInstance().scrollStateListener());
+        
+        // Видимые карточки - ViewModel держит в памяти только страницы вокруг них
+        binding.recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                viewModel.onVisibleRangeChanged(layoutManager.findFirstVisibleItemPosition(),
+                        layoutManager.findLastVisibleItemPosition());
+            }
+        });
+        
         // Добавляем слушатель прокрутки для бесконечной пагинации
         binding.recyclerView.addOnScrollListener(new PaginationScrollListener(layoutManager) {
             @Override
@@ -183,8 +246,12 @@ public class MainActivity extends AppCompatActivity {
         // НАБЛЮДЕНИЕ ЗА ИЗМЕНЕНИЯМИ: Подписываемся на список фильмов из ViewModel
         viewModel.getMovies().observe(this, movies -> {
             if (movies != null) {
-                // Обновляем адаптер новыми данными
-                adapter.setMovies(movies);
+                // Обновляем адаптер новыми данными; первый непустой список - конец запуска (TTFD)
+                if (movies.isEmpty()) {
+                    adapter.setMovies(movies);
+                } else {
+                    adapter.setMovies(movies, () -> StartupMetrics.reportFullyDrawn(this));
+                }
                 // Сбрасываем флаг загрузки после получения данных
                 isLoadingMore = false;
                 
@@ -201,19 +268,38 @@ public class MainActivity extends AppCompatActivity {
             }
         });
         
+        // НАБЛЮДЕНИЕ ЗА ИЗМЕНЕНИЯМИ: Точечные изменения избранного - только сердечко одной карточки
+        viewModel.getFavoriteChanges().observe(this, change -> {
+            if (change != null) {
+                adapter.applyFavoriteChange(change);
+            }
+        });
+        
         // НАБЛЮДЕНИЕ ЗА ИЗМЕНЕНИЯМИ: Подписываемся на состояние загрузки
         viewModel.getLoading().observe(this, isLoading -> {
             if (isLoading != null) {
                 // Показываем/скрываем ProgressBar в зависимости от состояния загрузки
                 binding.progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
+                JankMonitor.getInstance().setState(JankMonitor.STATE_LOADING, isLoading);
             }
         });
         
         // НАБЛЮДЕНИЕ ЗА ИЗМЕНЕНИЯМИ: Подписываемся на ошибки
         viewModel.getError().observe(this, error -> {
             if (error != null) {
-                // Показываем Toast с текстом ошибки (например, "Нет подключения к интернету")
-                Toast.makeText(this, error, Toast.LENGTH_SHORT).show();
+                // Страница не загрузилась - курсор не сдвинут, пагинацию можно запустить снова
+                isLoadingMore = false;
+                // Показываем ошибку (например, "Нет подключения к интернету") с кнопкой повтора
+                Snackbar.make(binding.getRoot(), error, Snackbar.LENGTH_LONG)
+                        .setAction("Повторить", v -> viewModel.retry())
+                        .show();
+            }
+        });
+        
+        // Запись избранного в базу не удалась - статус уже откатен во ViewModel
+        viewModel.getFavoriteError().observe(this, error -> {
+            if (error != null) {
+                Snackbar.make(binding.getRoot(), error, Snackbar.LENGTH_SHORT).show();
             }
         });
     }
@@ -281,11 +367,9 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                // Текст поиска изменился
-                if (newText.isEmpty()) {
-                    // Если поле очищено - возвращаемся к популярным фильмам
-                    viewModel.loadPopularMovies(); // Retrofit запрос к /movie/popular
-                }
+                // Текст поиска изменился - сразу локальные совпадения (загруженное и избранное),
+                // пустое поле возвращает к популярным фильмам
+                viewModel.onSearchQueryChanged(newText);
                 return false;
             }
         });
@@ -320,5 +404,27 @@ public class MainActivity extends AppCompatActivity {
         super.onResume();
         // Устанавливаем активным пункт "Фильмы" в нижней навигации
         binding.bottomNavigation.setSelectedItemId(R.id.nav_movies);
+        JankMonitor.getInstance().startSession(this, JankMonitor.SCREEN_MAIN);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        JankMonitor.getInstance().endSession();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Статистика - только в отладочной сборке: onStop бывает при каждом переходе на детали
+        if (!BuildConfig.DEBUG) return;
+        // Доля постеров, которые предзагрузка успела положить в кэш памяти
+        PosterPreloadStats.getInstance().log();
+        ImageCacheStats.getInstance().log();
+        // Повторы фильмов между страницами, отброшенные при пагинации
+        PaginationStats.getInstance().log();
+        // Гистограммы кадров по экранам - в лог и в файл (files/frame_stats, последние выгрузки)
+        JankMonitor.getInstance().log();
+        JankMonitor.getInstance().dumpAsync(new File(getFilesDir(), "frame_stats"));
     }
 }
\ No newline at end of file
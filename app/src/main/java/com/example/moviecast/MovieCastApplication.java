@@ -0,0 +1,18 @@
+package com.example.moviecast;
+
+import android.app.Application;
+
+import com.example.moviecast.data.repository.StartupWarmup;
+
+/**
+ * MovieCastApplication - запуск подготовки первого экрана как можно раньше,
+ * ещё до создания сплэша (см. StartupWarmup).
+ */
+public class MovieCastApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupWarmup.getInstance().start(this);
+    }
+}
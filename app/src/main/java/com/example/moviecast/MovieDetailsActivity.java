@@ -4,6 +4,7 @@ import android.animation.ObjectAnimator;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.text.TextUtils;
 import android.view.View;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.widget.Toast;
@@ -14,9 +15,13 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.bumptech.glide.Glide; // Glide - библиотека для загрузки изображений
+import com.example.moviecast.data.remote.model.Movie;
 import com.example.moviecast.databinding.ActivityMovieDetailsBinding;
 import com.example.moviecast.ui.adapter.CastAdapter;
+import com.example.moviecast.ui.metrics.JankMonitor;
+import com.example.moviecast.ui.utils.ImageSizeSelector;
 import com.example.moviecast.ui.utils.ThemeManager;
+import com.example.moviecast.ui.viewmodel.DetailsState;
 import com.example.moviecast.ui.viewmodel.MovieDetailsViewModel;
 
 /**
@@ -25,14 +30,18 @@ import com.example.moviecast.ui.viewmodel.MovieDetailsViewModel;
  */
 public class MovieDetailsActivity extends AppCompatActivity {
 
-    private static final String IMAGE_BASE_URL = "https://image.tmdb.org/t/p/w500";
+    // Размер постера под ширину экрана деталей, с учётом типа сети
+    private final ImageSizeSelector posterSizes = new ImageSizeSelector(ImageSizeSelector.Kind.POSTER);
     private static final String YOUTUBE_BASE_URL = "https://www.youtube.com/watch?v=";
+    // Фото актёров 80dp: на экране телефона видно около четырёх
+    private static final int CAST_PREFETCH_ITEMS = 4;
     
     private ActivityMovieDetailsBinding binding;
     private MovieDetailsViewModel viewModel;
     private CastAdapter castAdapter;
     private int movieId;
     private String trailerKey;
+    private DetailsState renderedState;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -61,28 +70,68 @@ public class MovieDetailsActivity extends AppCompatActivity {
         viewModel.loadMovieDetails(movieId);
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        JankMonitor.getInstance().startSession(this, JankMonitor.SCREEN_DETAILS);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        JankMonitor.getInstance().endSession();
+    }
+
     // Настройка горизонтального списка актеров
     private void setupCastRecyclerView() {
         castAdapter = new CastAdapter();
-        binding.castRecyclerView.setLayoutManager(
-                new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false));
+        LinearLayoutManager castLayoutManager =
+                new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false);
+        // Вложенный горизонтальный список: при предвыборке готовим столько фото, сколько видно сразу
+        castLayoutManager.setInitialPrefetchItemCount(CAST_PREFETCH_ITEMS);
+        binding.castRecyclerView.setLayoutManager(castLayoutManager);
         binding.castRecyclerView.setAdapter(castAdapter);
+        binding.castRecyclerView.addOnScrollListener(JankMonitor.getInstance().scrollStateListener());
     }
 
-    // Подписка на LiveData из ViewModel
+    // Подписка на единое состояние экрана из ViewModel
     private void setupViewModel() {
         viewModel = new ViewModelProvider(this).get(MovieDetailsViewModel.class);
         
+        // Состояние приходит не чаще раза за кадр
+        viewModel.getState().observe(this, this::render);
+        
+        // Ошибки
+        viewModel.getError().observe(this, error -> {
+            if (error != null) {
+                Toast.makeText(this, error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+    
+    // Отрисовка состояния: обновляем только части, изменившиеся с прошлой отрисовки
+    private void render(DetailsState state) {
+        if (state == null || state == renderedState) return;
+        DetailsState previous = renderedState;
+        renderedState = state;
+        
         // Основные данные о фильме
-        viewModel.getMovie().observe(this, movie -> {
-            if (movie != null) {
-                binding.titleTextView.setText(movie.getTitle());
-                binding.releaseDateTextView.setText(movie.getReleaseDate());
-                binding.ratingTextView.setText(String.format("%.1f/10", movie.getVoteAverage()));
-                binding.overviewTextView.setText(movie.getOverview());
-                
-                // Загружаем постер через Glide
-                String posterUrl = IMAGE_BASE_URL + movie.getPosterPath();
+        Movie movie = state.getMovie();
+        if (movie != null && (previous == null || movie != previous.getMovie())) {
+            binding.titleTextView.setText(movie.getTitle());
+            binding.releaseDateTextView.setText(movie.getReleaseDate());
+            binding.ratingTextView.setText(String.format("%.1f/10", movie.getVoteAverage()));
+            binding.overviewTextView.setText(movie.getOverview());
+            
+            // Постер перезагружаем только если он изменился (кэш -> сеть обычно тот же)
+            String posterPath = movie.getPosterPath();
+            if (previous == null || previous.getMovie() == null
+                    || !TextUtils.equals(posterPath, previous.getMovie().getPosterPath())) {
+                // Загружаем постер через Glide: у избранного - локальная копия (работает офлайн)
+                String posterUrl = state.getLocalPosterPath() != null
+                        ? state.getLocalPosterPath()
+                        : posterSizes.baseUrl(this,
+                                ImageSizeSelector.viewWidthPx(binding.posterImageView)) + posterPath;
                 Glide.with(this)
                         .load(posterUrl)
                         .into(binding.posterImageView);
@@ -90,61 +139,46 @@ public class MovieDetailsActivity extends AppCompatActivity {
                 // Запускаем анимацию после загрузки
                 binding.posterImageView.post(() -> startPostponedEnterTransition());
             }
-        });
+        }
         
         // Жанры
-        viewModel.getGenres().observe(this, genres -> {
-            if (genres != null && !genres.isEmpty()) {
-                binding.genresTextView.setText(genres);
-            }
-        });
+        String genres = state.getGenres();
+        if (genres != null && !genres.isEmpty()
+                && (previous == null || !genres.equals(previous.getGenres()))) {
+            binding.genresTextView.setText(genres);
+        }
         
         // Актеры
-        viewModel.getCast().observe(this, cast -> {
-            if (cast != null) {
-                castAdapter.setCastList(cast);
-            }
-        });
+        if (previous == null || state.getCast() != previous.getCast()) {
+            castAdapter.setCastList(state.getCast());
+        }
         
         // Трейлер
-        viewModel.getTrailerKey().observe(this, key -> {
-            trailerKey = key;
-            binding.trailerButton.setEnabled(key != null);
-        });
+        trailerKey = state.getTrailerKey();
+        binding.trailerButton.setEnabled(trailerKey != null);
         
         // Прогресс загрузки
-        viewModel.getLoading().observe(this, isLoading -> {
-            if (isLoading != null) {
-                binding.progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
-            }
-        });
-        
-        // Ошибки
-        viewModel.getError().observe(this, error -> {
-            if (error != null) {
-                Toast.makeText(this, error, Toast.LENGTH_SHORT).show();
-            }
-        });
+        binding.progressBar.setVisibility(state.isLoading() ? View.VISIBLE : View.GONE);
+        JankMonitor.getInstance().setState(JankMonitor.STATE_LOADING, state.isLoading());
         
         // Статус избранного (Room)
-        viewModel.getIsFavorite().observe(this, isFavorite -> {
-            if (isFavorite != null) {
-                updateFavoriteIcon(isFavorite);
-            }
-        });
+        if (previous == null || state.isFavorite() != previous.isFavorite()) {
+            updateFavoriteIcon(state.isFavorite());
+        }
         
         // Комментарий пользователя (Room)
-        viewModel.getUserComment().observe(this, comment -> {
-            if (comment != null && !comment.equals(binding.commentEditText.getText().toString())) {
-                binding.commentEditText.setText(comment);
-            }
-        });
+        String comment = state.getUserComment();
+        if (!comment.equals(binding.commentEditText.getText().toString())
+                && (previous == null || !comment.equals(previous.getUserComment()))) {
+            binding.commentEditText.setText(comment);
+        }
     }
 
     // Обработчики кликов
     private void setupListeners() {
         // Добавление/удаление из избранного (Room)
         binding.favoriteImageButton.setOnClickListener(v -> {
+            JankMonitor.getInstance().markFavoriteToggle();
             animateFavoriteButton();
             viewModel.toggleFavorite(movieId);
         });
@@ -191,8 +225,9 @@ public class MovieDetailsActivity extends AppCompatActivity {
 
     // Отправка информации о фильме через другие приложения
     private void shareMovie() {
-        if (viewModel.getMovie().getValue() != null) {
-            String movieTitle = viewModel.getMovie().getValue().getTitle();
+        Movie movie = viewModel.getCurrentMovie();
+        if (movie != null) {
+            String movieTitle = movie.getTitle();
             String shareText = "Посмотрите этот фильм: " + movieTitle;
             
             Intent shareIntent = new Intent(Intent.ACTION_SEND);
@@ -2,20 +2,23 @@ package com.example.moviecast;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.moviecast.data.repository.StartupWarmup;
+import com.example.moviecast.ui.adapter.MovieCardPool;
+import com.example.moviecast.ui.metrics.StartupMetrics;
 import com.example.moviecast.ui.utils.ThemeManager;
 
 /**
  * SplashActivity - стартовый экран с логотипом.
- * Показывается 2 секунды, затем переход на MainActivity.
+ * Показывается, пока готовится первая страница популярных (StartupWarmup),
+ * но не дольше MAX_SPLASH_MS, затем переход на MainActivity.
  */
 public class SplashActivity extends AppCompatActivity {
 
-    private static final int SPLASH_DURATION = 2000;
+    // Без сети ждать нечего: дальше главный экран покажет загрузку или ошибку сам
+    private static final long MAX_SPLASH_MS = 1500;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -23,12 +26,18 @@ public class SplashActivity extends AppCompatActivity {
         
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_splash);
+        StartupMetrics.trackInitialDisplay(this);
 
-        // Через 2 сек открываем главный экран
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
+        // Пока ждём - карточки сетки для главного экрана
+        MovieCardPool.getInstance().warmUp(this);
+
+        StartupWarmup warmup = StartupWarmup.getInstance();
+        warmup.start(this);
+        warmup.awaitFirstPage(MAX_SPLASH_MS, () -> {
+            if (isFinishing() || isDestroyed()) return;
             Intent intent = new Intent(SplashActivity.this, MainActivity.class);
             startActivity(intent);
             finish();
-        }, SPLASH_DURATION);
+        });
     }
 }
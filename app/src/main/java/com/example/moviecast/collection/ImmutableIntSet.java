@@ -0,0 +1,85 @@
+package com.example.moviecast.collection;
+
+import java.util.Arrays;
+
+/**
+ * ImmutableIntSet - неизменяемое множество int без boxing (отсортированный массив).
+ * Подходит для небольших множеств, которые часто читаются и редко меняются,
+ * например ID избранных фильмов в загруженном списке.
+ */
+public final class ImmutableIntSet {
+
+    public static final ImmutableIntSet EMPTY = new ImmutableIntSet(new int[0]);
+
+    private final int[] values;
+
+    private ImmutableIntSet(int[] values) {
+        this.values = values;
+    }
+
+    public static ImmutableIntSet of(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return new ImmutableIntSet(unique(sorted));
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /** index-е значение по возрастанию */
+    public int get(int index) {
+        return values[index];
+    }
+
+    public ImmutableIntSet with(int value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(values, insertAt, result, insertAt + 1, values.length - insertAt);
+        return new ImmutableIntSet(result);
+    }
+
+    public ImmutableIntSet without(int value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return this;
+        }
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return new ImmutableIntSet(result);
+    }
+
+    public ImmutableIntSet withAll(int[] extra) {
+        if (extra.length == 0) {
+            return this;
+        }
+        int[] merged = Arrays.copyOf(values, values.length + extra.length);
+        System.arraycopy(extra, 0, merged, values.length, extra.length);
+        Arrays.sort(merged);
+        return new ImmutableIntSet(unique(merged));
+    }
+
+    private static int[] unique(int[] sorted) {
+        if (sorted.length < 2) {
+            return sorted;
+        }
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+}
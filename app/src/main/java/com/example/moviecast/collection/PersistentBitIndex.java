@@ -0,0 +1,258 @@
+package com.example.moviecast.collection;
+
+import java.util.Arrays;
+
+/**
+ * PersistentBitIndex - неизменяемый инвертированный индекс "int-ключ -> позиции" на битсетах.
+ *
+ * Позиции только добавляются в конец (как элементы PersistentList), у каждой позиции
+ * может быть несколько ключей или ни одного. Для каждого ключа хранится битсет позиций
+ * (long[]), ключи отсортированы - диапазон ключей находится бинарным поиском.
+ * Выборки (any, all, range) возвращают битсет на size() позиций: объединение и
+ * пересечение стоят O(size / 64) на ключ, без обхода элементов.
+ *
+ * Снимки разделяют битсеты: самый свежий снимок дописывает биты новых позиций
+ * в них же за O(k), старые снимки читают только свои первые size бит.
+ * Ветвление от старого снимка копирует битсеты (см. PersistentList).
+ */
+public final class PersistentBitIndex {
+
+    private static final PersistentBitIndex EMPTY =
+            new PersistentBitIndex(new Claim(), new int[0], new long[0][], 0);
+
+    // Сколько позиций занято в общих битсетах цепочки снимков; меняется под монитором
+    private static final class Claim {
+        int claimed;
+    }
+
+    private final Claim claim;
+    private final int[] keys;       // отсортированы
+    private final long[][] bits;    // bits[i] - позиции ключа keys[i]; длина может быть меньше нужной
+    private final int size;
+
+    private PersistentBitIndex(Claim claim, int[] keys, long[][] bits, int size) {
+        this.claim = claim;
+        this.keys = keys;
+        this.bits = bits;
+        this.size = size;
+    }
+
+    public static PersistentBitIndex empty() {
+        return EMPTY;
+    }
+
+    /** Число позиций */
+    public int size() {
+        return size;
+    }
+
+    /** Число различных ключей среди позиций снимка */
+    public int keyCount() {
+        return keys.length;
+    }
+
+    /**
+     * Новый снимок с позициями size() .. size() + keysPerPosition.length - 1;
+     * keysPerPosition[i] - ключи позиции size() + i (null - нет ключей)
+     */
+    public PersistentBitIndex append(int[][] keysPerPosition) {
+        if (keysPerPosition.length == 0) {
+            return this;
+        }
+        int newSize = size + keysPerPosition.length;
+        if (this != EMPTY) {
+            synchronized (claim) {
+                if (claim.claimed == size) {
+                    // Самый свежий снимок - биты дописываются в общие массивы
+                    claim.claimed = newSize;
+                    return appendTo(claim, keys, bits.clone(), keysPerPosition, newSize);
+                }
+            }
+        }
+        // Пустой индекс или ветвление: чужие биты за size обрезаются в копиях
+        long[][] copies = new long[bits.length][];
+        for (int i = 0; i < bits.length; i++) {
+            copies[i] = truncate(bits[i], size);
+        }
+        Claim fresh = new Claim();
+        fresh.claimed = newSize;
+        return appendTo(fresh, keys, copies, keysPerPosition, newSize);
+    }
+
+    private PersistentBitIndex appendTo(Claim claim, int[] keys, long[][] bits,
+                                        int[][] keysPerPosition, int newSize) {
+        int words = wordCount(newSize);
+        for (int i = 0; i < keysPerPosition.length; i++) {
+            int[] positionKeys = keysPerPosition[i];
+            if (positionKeys == null) continue;
+            int position = size + i;
+            for (int key : positionKeys) {
+                int slot = Arrays.binarySearch(keys, key);
+                if (slot < 0) {
+                    // Новый ключ - редкость (жанров и лет немного), копия массивов ссылок
+                    slot = -slot - 1;
+                    keys = insert(keys, slot, key);
+                    bits = insert(bits, slot, new long[words]);
+                }
+                long[] set = bits[slot];
+                if (set.length < words) {
+                    // Рост - новый массив; снимки со старым продолжают его читать
+                    set = Arrays.copyOf(set, Math.max(words, set.length * 2));
+                    bits[slot] = set;
+                }
+                set[position >>> 6] |= 1L << position;
+            }
+        }
+        return new PersistentBitIndex(claim, keys, bits, newSize);
+    }
+
+    /** Все позиции снимка */
+    public long[] all() {
+        long[] result = new long[wordCount(size)];
+        Arrays.fill(result, -1L);
+        trimTail(result, size);
+        return result;
+    }
+
+    /** Позиции ключа */
+    public long[] get(int key) {
+        long[] result = new long[wordCount(size)];
+        int slot = Arrays.binarySearch(keys, key);
+        if (slot >= 0) {
+            or(result, bits[slot]);
+            trimTail(result, size);
+        }
+        return result;
+    }
+
+    /** Позиции, у которых есть хотя бы один из ключей */
+    public long[] any(int[] anyKeys) {
+        long[] result = new long[wordCount(size)];
+        for (int key : anyKeys) {
+            int slot = Arrays.binarySearch(keys, key);
+            if (slot >= 0) {
+                or(result, bits[slot]);
+            }
+        }
+        trimTail(result, size);
+        return result;
+    }
+
+    /** Позиции, у которых есть все ключи (пустой набор - все позиции) */
+    public long[] every(int[] allKeys) {
+        long[] result = all();
+        for (int key : allKeys) {
+            int slot = Arrays.binarySearch(keys, key);
+            if (slot < 0) {
+                return new long[result.length];
+            }
+            and(result, bits[slot]);
+        }
+        return result;
+    }
+
+    /** Позиции с ключом в диапазоне [fromKey, toKey] */
+    public long[] range(int fromKey, int toKey) {
+        long[] result = new long[wordCount(size)];
+        if (fromKey > toKey) {
+            return result;
+        }
+        int from = Arrays.binarySearch(keys, fromKey);
+        if (from < 0) from = -from - 1;
+        for (int slot = from; slot < keys.length && keys[slot] <= toKey; slot++) {
+            or(result, bits[slot]);
+        }
+        trimTail(result, size);
+        return result;
+    }
+
+    // ---- Операции над битсетами выборок ----
+
+    /** target &= other */
+    public static void and(long[] target, long[] other) {
+        int common = Math.min(target.length, other.length);
+        for (int i = 0; i < common; i++) {
+            target[i] &= other[i];
+        }
+        for (int i = common; i < target.length; i++) {
+            target[i] = 0;
+        }
+    }
+
+    /** Есть ли позиция в битсете */
+    public static boolean contains(long[] set, int position) {
+        int word = position >>> 6;
+        return word < set.length && (set[word] & (1L << position)) != 0;
+    }
+
+    /** Число позиций в битсете */
+    public static int count(long[] set) {
+        int count = 0;
+        for (long word : set) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /** Позиции битсета по возрастанию */
+    public static int[] positions(long[] set) {
+        int[] result = new int[count(set)];
+        int next = 0;
+        for (int i = 0; i < set.length; i++) {
+            long word = set[i];
+            while (word != 0) {
+                result[next++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    // target |= other по длине target; хвост other за пределами target не нужен
+    private static void or(long[] target, long[] other) {
+        int common = Math.min(target.length, other.length);
+        for (int i = 0; i < common; i++) {
+            target[i] |= other[i];
+        }
+    }
+
+    // Биты позиций >= size (их дописали более новые снимки) обнуляются
+    private static void trimTail(long[] set, int size) {
+        if ((size & 63) != 0 && set.length > 0) {
+            set[set.length - 1] &= -1L >>> (64 - (size & 63));
+        }
+    }
+
+    private static long[] truncate(long[] set, int size) {
+        long[] copy = Arrays.copyOf(set, Math.min(set.length, wordCount(size)));
+        if (copy.length == wordCount(size)) {
+            trimTail(copy, size);
+        }
+        return copy;
+    }
+
+    private static int wordCount(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static long[][] insert(long[][] array, int index, long[] value) {
+        long[][] result = new long[array.length + 1][];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentBitIndex{size=" + size + ", keys=" + keys.length + "}";
+    }
+}
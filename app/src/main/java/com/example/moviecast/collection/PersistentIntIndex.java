@@ -0,0 +1,193 @@
+package com.example.moviecast.collection;
+
+/**
+ * PersistentIntIndex - неизменяемый индекс "положительный int-ключ -> позиция" без boxing.
+ *
+ * Устроен как PersistentList: снимки разделяют хеш-таблицу с открытой адресацией,
+ * самый свежий снимок дописывает новые ключи в неё же за O(k), старые снимки
+ * продолжают работать. Сохраняется первая позиция ключа (putIfAbsent), поэтому
+ * позиции, известные старому снимку, никогда не меняются.
+ *
+ * Таблица может содержать ключи, добавленные более новыми снимками, поэтому
+ * найденная позиция должна проверяться вызывающим кодом по своему списку
+ * (см. MovieListState.indexOf). Позиции по цепочке только растут (как индексы
+ * PersistentList), поэтому свои ключи снимка - это ключи с позицией меньше его limit:
+ * по ним строится собственная таблица при ветвлении от старого снимка.
+ */
+public final class PersistentIntIndex {
+
+    private static final int EMPTY_KEY = 0;
+    private static final int MIN_CAPACITY = 32; // степень двойки
+    private static final PersistentIntIndex EMPTY =
+            new PersistentIntIndex(new Table(new int[0], new int[0]), 0, 0);
+
+    // Общая таблица цепочки снимков; изменяется только под её монитором
+    private static final class Table {
+        int[] keys;
+        int[] values;
+        int claimed;
+
+        Table(int[] keys, int[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+    }
+
+    private final Table table;
+    private final int[] keys;
+    private final int[] values;
+    private final int size;
+    private final int limit; // позиции снимка - меньше limit
+
+    private PersistentIntIndex(Table table, int size, int limit) {
+        this.table = table;
+        this.keys = table.keys;
+        this.values = table.values;
+        this.size = size;
+        this.limit = limit;
+    }
+
+    public static PersistentIntIndex empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Позиция ключа или -1. Ключ 0 и отрицательные ключи не поддерживаются.
+     */
+    public int get(int key) {
+        int[] keys = this.keys;
+        if (keys.length == 0 || key <= EMPTY_KEY) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    public boolean contains(int key) {
+        return get(key) >= 0;
+    }
+
+    /**
+     * Новый снимок, в котором keys[i] (если его ещё нет) указывает на startPosition + i.
+     * Неположительные ключи пропускаются. startPosition - не меньше позиций этого снимка.
+     */
+    public PersistentIntIndex putAllIfAbsent(int[] newKeys, int startPosition) {
+        if (newKeys.length == 0) {
+            return this;
+        }
+        int newLimit = Math.max(limit, startPosition + newKeys.length);
+        if (this != EMPTY) {
+            synchronized (table) {
+                if (table.claimed == size) {
+                    // Самый свежий снимок - дописываем в общую таблицу
+                    ensureCapacity(table, size + newKeys.length);
+                    int added = insertAll(table.keys, table.values, newKeys, startPosition);
+                    table.claimed = size + added;
+                    return new PersistentIntIndex(table, size + added, newLimit);
+                }
+                // Ветвление от старого снимка - своя таблица только из своих ключей:
+                // ключи более новых снимков в общей таблице заняли бы место и дали бы чужие позиции
+                Table fresh = ownEntries(size + newKeys.length);
+                int added = insertAll(fresh.keys, fresh.values, newKeys, startPosition);
+                fresh.claimed = size + added;
+                return new PersistentIntIndex(fresh, size + added, newLimit);
+            }
+        }
+        Table fresh = new Table(new int[0], new int[0]);
+        ensureCapacity(fresh, newKeys.length);
+        int added = insertAll(fresh.keys, fresh.values, newKeys, startPosition);
+        fresh.claimed = added;
+        return new PersistentIntIndex(fresh, added, newLimit);
+    }
+
+    // Таблица на required ключей из ключей этого снимка; под монитором table - общие массивы
+    // могут дописываться
+    private Table ownEntries(int required) {
+        Table fresh = new Table(new int[0], new int[0]);
+        ensureCapacity(fresh, required);
+        int mask = fresh.keys.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int key = keys[i];
+            if (key != EMPTY_KEY && values[i] < limit) {
+                int slot = mix(key) & mask;
+                while (fresh.keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                fresh.values[slot] = values[i];
+                fresh.keys[slot] = key;
+            }
+        }
+        return fresh;
+    }
+
+    // Коэффициент заполнения не выше 1/2; при росте создаётся новая таблица,
+    // старая остаётся неизменной для снимков, которые на неё ссылаются
+    private static void ensureCapacity(Table table, int required) {
+        int capacity = table.keys.length;
+        if (required * 2 <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(MIN_CAPACITY, capacity);
+        while (required * 2 > newCapacity) {
+            newCapacity <<= 1;
+        }
+        int[] newKeys = new int[newCapacity];
+        int[] newValues = new int[newCapacity];
+        int mask = newCapacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            int key = table.keys[i];
+            if (key != EMPTY_KEY) {
+                int slot = mix(key) & mask;
+                while (newKeys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                newValues[slot] = table.values[i];
+                newKeys[slot] = key;
+            }
+        }
+        table.keys = newKeys;
+        table.values = newValues;
+    }
+
+    private static int insertAll(int[] keys, int[] values, int[] newKeys, int startPosition) {
+        int mask = keys.length - 1;
+        int added = 0;
+        for (int i = 0; i < newKeys.length; i++) {
+            int key = newKeys[i];
+            if (key <= EMPTY_KEY) continue;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY_KEY) {
+                // Сначала значение, потом ключ - читатель не увидит ключ без позиции
+                values[slot] = startPosition + i;
+                keys[slot] = key;
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentIntIndex{size=" + size + ", limit=" + limit + ", capacity=" + keys.length + "}";
+    }
+}
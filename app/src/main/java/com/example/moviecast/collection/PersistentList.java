@@ -0,0 +1,168 @@
+package com.example.moviecast.collection;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * PersistentList - неизменяемый список с дешёвым добавлением в конец.
+ *
+ * Снимки разделяют один массив: снимок видит только первые size элементов,
+ * а добавление к самому свежему снимку дописывает хвост в общий массив
+ * и возвращает новый снимок. Поэтому добавление страницы стоит O(k), а не O(n),
+ * а старые снимки остаются валидными и читаются из любого потока без блокировок.
+ * Добавление к устаревшему снимку (ветвление) копирует данные.
+ */
+public final class PersistentList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final PersistentList<Object> EMPTY = new PersistentList<>(new Backing(new Object[0]), 0);
+
+    // Общее хранилище цепочки снимков; изменяется только под его монитором
+    private static final class Backing {
+        Object[] array;
+        int claimed;
+
+        Backing(Object[] array) {
+            this.array = array;
+        }
+    }
+
+    private final Backing backing;
+    private final Object[] items; // массив, актуальный на момент создания снимка
+    private final int size;
+
+    private PersistentList(Backing backing, int size) {
+        this.backing = backing;
+        this.items = backing.array;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    public static <T> PersistentList<T> copyOf(Collection<? extends T> items) {
+        return PersistentList.<T>empty().appendAll(items);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) items[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Новый снимок с добавленными в конец элементами. Текущий снимок не меняется.
+     */
+    public PersistentList<T> appendAll(Collection<? extends T> extra) {
+        int count = extra.size();
+        if (count == 0) {
+            return this;
+        }
+        int newSize = size + count;
+        if (this != EMPTY) {
+            synchronized (backing) {
+                if (isLatest()) {
+                    // Самый свежий снимок - дописываем в общий массив
+                    if (backing.array.length < newSize) {
+                        backing.array = Arrays.copyOf(backing.array, grow(backing.array.length, newSize));
+                    }
+                    write(backing.array, size, extra);
+                    backing.claimed = newSize;
+                    return new PersistentList<>(backing, newSize);
+                }
+            }
+        }
+        // Пустой список или ветвление от старого снимка - новое хранилище
+        Object[] array = Arrays.copyOf(items, grow(0, newSize));
+        write(array, size, extra);
+        Backing fresh = new Backing(array);
+        fresh.claimed = newSize;
+        return new PersistentList<>(fresh, newSize);
+    }
+
+    /**
+     * Новый снимок того же размера, в котором элементы from .. from + k - 1 заменены на replacement.
+     * Текущий снимок не меняется: массив копируется (O(n) ссылок), старые снимки читают прежний.
+     * Замена в самом свежем снимке остаётся в цепочке - следующие добавления видят её,
+     * а startsWith для прежних снимков по-прежнему true (так выгружаются и возвращаются
+     * страницы списка, см. MoviePageWindow.withEvicted).
+     */
+    public PersistentList<T> withReplaced(int from, List<? extends T> replacement) {
+        int to = from + replacement.size();
+        if (from < 0 || to > size) {
+            throw new IndexOutOfBoundsException("Range: " + from + ".." + to + ", Size: " + size);
+        }
+        if (replacement.isEmpty()) {
+            return this;
+        }
+        synchronized (backing) {
+            if (isLatest()) {
+                Object[] array = backing.array.clone();
+                write(array, from, replacement);
+                backing.array = array;
+                return new PersistentList<>(backing, size);
+            }
+        }
+        // Замена в старом снимке - ветвление, как при добавлении
+        Object[] array = Arrays.copyOf(items, grow(0, size));
+        write(array, from, replacement);
+        Backing fresh = new Backing(array);
+        fresh.claimed = size;
+        return new PersistentList<>(fresh, size);
+    }
+
+    /**
+     * true, если prefix - начало этого снимка, т.е. снимок получен из prefix добавлениями в конец
+     * (и заменами, см. withReplaced). O(1): цепочка делит одно хранилище, ветвление создаёт
+     * новое (тогда false).
+     */
+    public boolean startsWith(PersistentList<?> prefix) {
+        return prefix.size == 0 || (prefix.backing == backing && prefix.size <= size);
+    }
+
+    // Под монитором backing: хвост цепочки - этот снимок, и замен после него не было
+    // (иначе снимок того же размера дописал бы чужую замену, см. withReplaced)
+    private boolean isLatest() {
+        return backing.claimed == size && backing.array == items;
+    }
+
+    private static int grow(int capacity, int required) {
+        int newCapacity = Math.max(MIN_CAPACITY, capacity + (capacity >> 1));
+        return Math.max(newCapacity, required);
+    }
+
+    private static void write(Object[] array, int offset, Collection<?> extra) {
+        if (extra instanceof List && extra instanceof RandomAccess) {
+            List<?> list = (List<?>) extra;
+            for (int i = 0, n = list.size(); i < n; i++) {
+                array[offset + i] = list.get(i);
+            }
+        } else {
+            int i = offset;
+            for (Object item : extra) {
+                array[i++] = item;
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(items, size);
+    }
+}
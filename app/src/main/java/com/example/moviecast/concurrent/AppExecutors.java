@@ -0,0 +1,102 @@
+package com.example.moviecast.concurrent;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * AppExecutors - единые пулы потоков приложения вместо разрозненных newSingleThreadExecutor().
+ * diskIO - Room и файлы, network - пост-обработка ответов API, cpu - фильтрация/сортировка списков.
+ * Все фоновые потоки именованы и работают с фоновым приоритетом, чтобы не конкурировать с UI.
+ * Singleton.
+ */
+public class AppExecutors {
+
+    private static final String TAG = "AppExecutors";
+
+    private static final int DISK_THREADS = 2;
+    private static final int NETWORK_THREADS = 2;
+    private static final int CPU_THREADS =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static AppExecutors instance;
+
+    private final MonitoredThreadPoolExecutor diskIO;
+    private final MonitoredThreadPoolExecutor network;
+    private final MonitoredThreadPoolExecutor cpu;
+    private final SerialExecutor diskWrites;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        diskIO = new MonitoredThreadPoolExecutor("disk", DISK_THREADS, QUEUE_CAPACITY,
+                Process.THREAD_PRIORITY_BACKGROUND);
+        network = new MonitoredThreadPoolExecutor("network", NETWORK_THREADS, QUEUE_CAPACITY,
+                Process.THREAD_PRIORITY_BACKGROUND);
+        cpu = new MonitoredThreadPoolExecutor("cpu", CPU_THREADS, QUEUE_CAPACITY,
+                Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+        diskWrites = new SerialExecutor(diskIO);
+        mainThread = new MainThreadExecutor();
+    }
+
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            instance = new AppExecutors();
+        }
+        return instance;
+    }
+
+    // Чтение из Room и файлов
+    public Executor diskIO() {
+        return diskIO;
+    }
+
+    // Записи в Room: одна общая очередь сохраняет порядок insert/update/delete
+    public Executor diskWrites() {
+        return diskWrites;
+    }
+
+    // Обработка ответов API (парсинг, сопоставление с Room)
+    public Executor network() {
+        return network;
+    }
+
+    // Вычисления над списками (фильтры, подготовка данных для UI)
+    public Executor cpu() {
+        return cpu;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    public List<ExecutorStats> getStats() {
+        List<ExecutorStats> stats = new ArrayList<>();
+        stats.add(diskIO.getStats());
+        stats.add(network.getStats());
+        stats.add(cpu.getStats());
+        return stats;
+    }
+
+    public void logStats() {
+        for (ExecutorStats stats : getStats()) {
+            Log.d(TAG, stats.toString());
+        }
+    }
+
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mainHandler.post(command);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.moviecast.concurrent;
+
+import java.util.Locale;
+
+/**
+ * ExecutorStats - неизменяемый снимок метрик пула потоков.
+ * Время ожидания - от постановки в очередь до начала выполнения.
+ */
+public final class ExecutorStats {
+
+    private final String name;
+    private final int queueLength;
+    private final int activeThreads;
+    private final long completedTasks;
+    private final long rejectedTasks;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long totalRunNanos;
+    private final long maxRunNanos;
+
+    ExecutorStats(String name, int queueLength, int activeThreads, long completedTasks,
+                  long rejectedTasks, long totalWaitNanos, long maxWaitNanos,
+                  long totalRunNanos, long maxRunNanos) {
+        this.name = name;
+        this.queueLength = queueLength;
+        this.activeThreads = activeThreads;
+        this.completedTasks = completedTasks;
+        this.rejectedTasks = rejectedTasks;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.totalRunNanos = totalRunNanos;
+        this.maxRunNanos = maxRunNanos;
+    }
+
+    public String getName() { return name; }
+    public int getQueueLength() { return queueLength; }
+    public int getActiveThreads() { return activeThreads; }
+    public long getCompletedTasks() { return completedTasks; }
+    public long getRejectedTasks() { return rejectedTasks; }
+    public long getMaxWaitNanos() { return maxWaitNanos; }
+    public long getMaxRunNanos() { return maxRunNanos; }
+
+    public double getAverageWaitMillis() {
+        return completedTasks == 0 ? 0 : totalWaitNanos / 1_000_000.0 / completedTasks;
+    }
+
+    public double getAverageRunMillis() {
+        return completedTasks == 0 ? 0 : totalRunNanos / 1_000_000.0 / completedTasks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s: queue=%d active=%d done=%d rejected=%d wait(avg=%.2fms max=%.2fms) run(avg=%.2fms max=%.2fms)",
+                name, queueLength, activeThreads, completedTasks, rejectedTasks,
+                getAverageWaitMillis(), maxWaitNanos / 1_000_000.0,
+                getAverageRunMillis(), maxRunNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.moviecast.concurrent;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MonitoredThreadPoolExecutor - пул с ограниченным числом потоков и очередью,
+ * который считает длину очереди, время ожидания и время выполнения задач.
+ */
+public class MonitoredThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    public MonitoredThreadPoolExecutor(String name, int threads, int queueCapacity, int threadPriority) {
+        super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                new PriorityThreadFactory(name, threadPriority));
+        this.name = name;
+        // Простаивающие потоки завершаются - фоновый пул не держит ресурсы, когда приложение бездействует
+        allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        try {
+            super.execute(new TimedTask(command));
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public ExecutorStats getStats() {
+        return new ExecutorStats(
+                name,
+                getQueue().size(),
+                getActiveCount(),
+                completedTasks.get(),
+                rejectedTasks.get(),
+                totalWaitNanos.get(),
+                maxWaitNanos.get(),
+                totalRunNanos.get(),
+                maxRunNanos.get());
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    // Обёртка запоминает момент постановки в очередь
+    private final class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long enqueuedAt = System.nanoTime();
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            long waited = startedAt - enqueuedAt;
+            totalWaitNanos.addAndGet(waited);
+            updateMax(maxWaitNanos, waited);
+            try {
+                delegate.run();
+            } finally {
+                long ran = System.nanoTime() - startedAt;
+                totalRunNanos.addAndGet(ran);
+                updateMax(maxRunNanos, ran);
+                completedTasks.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.moviecast.concurrent;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PriorityThreadFactory - именованные потоки с заданным Linux-приоритетом.
+ * Имя вида "moviecast-disk-1" видно в трейсах и дампах потоков.
+ */
+public class PriorityThreadFactory implements ThreadFactory {
+
+    private final String namePrefix;
+    private final int threadPriority;
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    /**
+     * @param poolName - короткое имя пула (disk, network, cpu)
+     * @param threadPriority - приоритет из android.os.Process (например THREAD_PRIORITY_BACKGROUND)
+     */
+    public PriorityThreadFactory(String poolName, int threadPriority) {
+        this.namePrefix = "moviecast-" + poolName + "-";
+        this.threadPriority = threadPriority;
+    }
+
+    @Override
+    public Thread newThread(@NonNull Runnable runnable) {
+        Runnable prioritized = () -> {
+            // Приоритет выставляется внутри потока - Process.setThreadPriority действует на текущий tid
+            Process.setThreadPriority(threadPriority);
+            runnable.run();
+        };
+        Thread thread = new Thread(prioritized, namePrefix + threadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
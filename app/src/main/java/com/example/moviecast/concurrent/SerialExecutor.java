@@ -0,0 +1,93 @@
+package com.example.moviecast.concurrent;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * SerialExecutor - последовательная "полоса" поверх общего пула.
+ * Задачи выполняются строго по одной и в порядке постановки,
+ * но не требуют отдельного потока (как newSingleThreadExecutor).
+ *
+ * Общие пулы ограничены и отклоняют задачи при полной очереди (AbortPolicy).
+ * Отказ при постановке возвращается вызывающему, как у самого пула; отказ при передаче
+ * полосы следующей задаче не останавливает полосу - она продолжается в текущем потоке.
+ */
+public class SerialExecutor implements Executor {
+
+    private final Executor executor;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final Runnable drain = this::drain;
+    private boolean scheduled; // задача полосы стоит в пуле или выполняется
+
+    public SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void execute(@NonNull Runnable command) {
+        tasks.offer(command);
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        try {
+            executor.execute(drain);
+        } catch (RejectedExecutionException e) {
+            // Задача не принята; полоса свободна для следующих
+            tasks.pollLast();
+            scheduled = false;
+            throw e;
+        }
+    }
+
+    // В потоке пула: задача полосы, затем передача следующей
+    private void drain() {
+        Throwable failure = null;
+        Runnable task = poll();
+        while (task != null) {
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                // Падение задачи не останавливает полосу; ошибка выходит в поток пула после передачи
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            task = handOff();
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    private synchronized Runnable poll() {
+        Runnable task = tasks.poll();
+        if (task == null) {
+            scheduled = false;
+        }
+        return task;
+    }
+
+    /**
+     * Следующая задача уходит в пул отдельно, чтобы полоса не держала поток.
+     * Пул переполнен - задача возвращается и выполняется в текущем потоке
+     */
+    private synchronized Runnable handOff() {
+        if (tasks.isEmpty()) {
+            scheduled = false;
+            return null;
+        }
+        try {
+            executor.execute(drain);
+            return null;
+        } catch (RejectedExecutionException e) {
+            return tasks.poll();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.moviecast.concurrent;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * TaskScope - набор фоновых задач, привязанный к жизненному циклу владельца (ViewModel).
+ * cancelAll() вызывается в onCleared(): ожидающие задачи отменяются,
+ * новые задачи после отмены не принимаются.
+ *
+ * Задачи - обычные Runnable, не FutureTask: исключение задачи доходит до потока пула
+ * (и до обработчика необработанных исключений), а не теряется в непрочитанном Future.
+ */
+public class TaskScope implements Executor {
+
+    private final Executor executor;
+    private final Set<ScopedTask> pending =
+            Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile boolean cancelled = false;
+
+    public TaskScope(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        if (cancelled) return;
+
+        ScopedTask task = new ScopedTask(command);
+        pending.add(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            pending.remove(task);
+            throw e;
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Отмена всех ещё не выполненных задач.
+     * Уже запущенные задачи не прерываются, чтобы не оборвать транзакцию Room на середине.
+     */
+    public void cancelAll() {
+        cancelled = true;
+        for (ScopedTask task : pending) {
+            task.cancel();
+        }
+        pending.clear();
+    }
+
+    private final class ScopedTask implements Runnable {
+        // null после отмены: ожидающая в очереди задача не держит ссылки владельца
+        private volatile Runnable command;
+
+        ScopedTask(Runnable command) {
+            this.command = command;
+        }
+
+        void cancel() {
+            command = null;
+        }
+
+        @Override
+        public void run() {
+            Runnable current = command;
+            try {
+                if (current != null && !cancelled) {
+                    current.run();
+                }
+            } finally {
+                pending.remove(this);
+            }
+        }
+    }
+}
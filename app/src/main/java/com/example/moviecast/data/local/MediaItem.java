@@ -6,6 +6,7 @@ import androidx.room.PrimaryKey;
 /**
  * MediaItem - сущность Room (таблица media_items).
  * Избранные фильмы + комментарий, жанры и актёры в JSON для offline.
+ * localPosterPath - постер, сохранённый в файлах приложения (OfflineImageStore).
  */
 @Entity(tableName = "media_items")
 public class MediaItem {
@@ -24,6 +25,9 @@ public class MediaItem {
     // Жанры и актёры в JSON (GSON) для офлайн-режима
     private String genresJson;
     private String castJson;
+    
+    // Абсолютный путь к локальной копии постера; null - ещё не скачан
+    private String localPosterPath;
 
     public MediaItem(int id, String title, String overview, String posterPath, 
                      String releaseDate, double voteAverage, boolean isFavorite, String userComment,
@@ -119,4 +123,12 @@ public class MediaItem {
     public void setCastJson(String castJson) {
         this.castJson = castJson;
     }
+
+    public String getLocalPosterPath() {
+        return localPosterPath;
+    }
+
+    public void setLocalPosterPath(String localPosterPath) {
+        this.localPosterPath = localPosterPath;
+    }
 }
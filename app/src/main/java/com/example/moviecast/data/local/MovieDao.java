@@ -27,15 +27,39 @@ public interface MovieDao {
     @Query("SELECT * FROM media_items WHERE isFavorite = 1")
     LiveData<List<MediaItem>> getAllFavorites();
     
+    // Тот же запрос, что перезапускает LiveData getAllFavorites() после каждой записи
+    @Query("SELECT * FROM media_items WHERE isFavorite = 1")
+    List<MediaItem> getAllFavoritesSync();
+    
+    // Избранное для локального поиска главного экрана: без castJson (самое тяжёлое поле)
+    @Query("SELECT id, title, overview, posterPath, releaseDate, voteAverage, isFavorite, "
+            + "userComment, genresJson, NULL AS castJson, localPosterPath "
+            + "FROM media_items WHERE isFavorite = 1")
+    LiveData<List<MediaItem>> getFavoriteTitles();
+    
     @Query("SELECT * FROM media_items WHERE id = :id")
     LiveData<MediaItem> getMediaItemById(int id);
     
     @Query("SELECT * FROM media_items WHERE id = :id")
     MediaItem getMediaItemByIdSync(int id);
     
+    // ID избранных среди переданных - один запрос на страницу вместо запроса на каждый фильм
+    @Query("SELECT id FROM media_items WHERE isFavorite = 1 AND id IN (:ids)")
+    List<Integer> getFavoriteIdsSync(List<Integer> ids);
+    
     @Query("UPDATE media_items SET isFavorite = :isFavorite WHERE id = :id")
     void updateFavoriteStatus(int id, boolean isFavorite);
     
     @Query("DELETE FROM media_items WHERE id = :id")
     void deleteById(int id);
+    
+    // Офлайн-картинки избранного: только UPDATE, чтобы не воскресить удалённую запись
+    @Query("SELECT id FROM media_items WHERE isFavorite = 1")
+    List<Integer> getAllFavoriteIdsSync();
+    
+    @Query("UPDATE media_items SET localPosterPath = :path WHERE id = :id")
+    void updateLocalPosterPath(int id, String path);
+    
+    @Query("UPDATE media_items SET castJson = :castJson WHERE id = :id")
+    void updateCastJson(int id, String castJson);
 }
@@ -5,16 +5,26 @@ import android.content.Context;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 /**
  * MovieDatabase - база Room: таблицы media_items и genres.
- * Singleton, fallbackToDestructiveMigration при смене версии.
+ * Singleton, fallbackToDestructiveMigration при смене версии без миграции.
  */
-@Database(entities = {MediaItem.class, GenreEntity.class}, version = 2, exportSchema = false)
+@Database(entities = {MediaItem.class, GenreEntity.class}, version = 3, exportSchema = false)
 public abstract class MovieDatabase extends RoomDatabase {
 
     private static MovieDatabase instance;
 
+    // 2 -> 3: путь к локальному постеру; избранное при обновлении не теряется
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE media_items ADD COLUMN localPosterPath TEXT");
+        }
+    };
+
     public abstract MovieDao movieDao();
     public abstract GenreDao genreDao();
 
@@ -25,6 +35,7 @@ public abstract class MovieDatabase extends RoomDatabase {
                             MovieDatabase.class,
                             "movie_database"
                     )
+                    .addMigrations(MIGRATION_2_3)
                     .fallbackToDestructiveMigration()
                     .build();
         }
@@ -0,0 +1,33 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.collection.ImmutableIntSet;
+
+/**
+ * FavoriteChange - точечное изменение избранного для главного экрана.
+ * movieId/isFavorite - что изменилось (movieId = 0 для пакетных изменений, например
+ * статусов новой страницы), favoriteIds - полный набор избранного на момент изменения.
+ * Набор неизменяем и передаётся без копирования. Создаётся только в главном потоке,
+ * поэтому каждое следующее изменение содержит набор не старше предыдущего.
+ */
+public final class FavoriteChange {
+
+    public static final int BULK = 0;
+
+    private final int movieId;
+    private final boolean isFavorite;
+    private final ImmutableIntSet favoriteIds;
+
+    public FavoriteChange(int movieId, boolean isFavorite, ImmutableIntSet favoriteIds) {
+        this.movieId = movieId;
+        this.isFavorite = isFavorite;
+        this.favoriteIds = favoriteIds;
+    }
+
+    public int getMovieId() { return movieId; }
+    public boolean isFavorite() { return isFavorite; }
+    public ImmutableIntSet getFavoriteIds() { return favoriteIds; }
+
+    public boolean isBulk() {
+        return movieId == BULK;
+    }
+}
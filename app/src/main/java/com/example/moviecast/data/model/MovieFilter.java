@@ -0,0 +1,139 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.data.remote.model.Movie;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MovieFilter - неизменяемый набор фильтров главного экрана.
+ * Жанры: любой из набора (ИЛИ) или все сразу (И); годы: диапазон [yearFrom, yearTo],
+ * любая граница может отсутствовать. Пустой фильтр (NONE) пропускает все фильмы.
+ * Выборку по фильтру делает MovieFilterIndex; matches() - проверка одного фильма.
+ */
+public final class MovieFilter {
+
+    public static final MovieFilter NONE = new MovieFilter(new int[0], false, null, null);
+
+    private final int[] genreIds; // отсортированы, без повторов
+    private final boolean matchAllGenres;
+    private final Integer yearFrom;
+    private final Integer yearTo;
+
+    private MovieFilter(int[] genreIds, boolean matchAllGenres, Integer yearFrom, Integer yearTo) {
+        this.genreIds = genreIds;
+        this.matchAllGenres = matchAllGenres;
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+    }
+
+    /**
+     * Жанры фильтра; matchAll - фильм должен иметь все жанры, иначе хотя бы один
+     * Пустой или null набор снимает фильтр по жанру
+     */
+    public MovieFilter withGenres(int[] ids, boolean matchAll) {
+        int[] sorted = ids != null ? ids.clone() : new int[0];
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new MovieFilter(Arrays.copyOf(sorted, size), matchAll, yearFrom, yearTo);
+    }
+
+    /** Один жанр вместо прежних; null снимает фильтр по жанру */
+    public MovieFilter withGenre(Integer genreId) {
+        return withGenres(genreId != null ? new int[]{genreId} : null, false);
+    }
+
+    /** Диапазон годов включительно; null - граница не задана */
+    public MovieFilter withYearRange(Integer from, Integer to) {
+        return new MovieFilter(genreIds, matchAllGenres, from, to);
+    }
+
+    /** Один год; null снимает фильтр по году */
+    public MovieFilter withYear(Integer year) {
+        return withYearRange(year, year);
+    }
+
+    public int[] getGenreIds() { return genreIds.clone(); }
+    public boolean isMatchAllGenres() { return matchAllGenres; }
+    public Integer getYearFrom() { return yearFrom; }
+    public Integer getYearTo() { return yearTo; }
+
+    public boolean hasGenres() {
+        return genreIds.length > 0;
+    }
+
+    public boolean hasYears() {
+        return yearFrom != null || yearTo != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasGenres() && !hasYears();
+    }
+
+    // Для MovieFilterIndex без копирования
+    int[] genreIdsInternal() {
+        return genreIds;
+    }
+
+    /**
+     * Проверка одного фильма - обход всего списка этим методом стоит O(n) на каждый фильтр,
+     * для списка используется MovieFilterIndex
+     */
+    public boolean matches(Movie movie) {
+        if (hasGenres()) {
+            List<Integer> movieGenres = movie.getGenreIds();
+            if (movieGenres == null) {
+                return false;
+            }
+            boolean any = false;
+            for (int genreId : genreIds) {
+                boolean has = movieGenres.contains(genreId);
+                if (matchAllGenres && !has) {
+                    return false;
+                }
+                any |= has;
+            }
+            if (!any) {
+                return false;
+            }
+        }
+        if (hasYears()) {
+            int year = MovieFilterIndex.releaseYear(movie);
+            if (year == MovieFilterIndex.UNKNOWN_YEAR
+                    || (yearFrom != null && year < yearFrom)
+                    || (yearTo != null && year > yearTo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MovieFilter)) return false;
+        MovieFilter other = (MovieFilter) o;
+        return matchAllGenres == other.matchAllGenres
+                && Arrays.equals(genreIds, other.genreIds)
+                && equal(yearFrom, other.yearFrom)
+                && equal(yearTo, other.yearTo);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(genreIds);
+        result = 31 * result + (matchAllGenres ? 1 : 0);
+        result = 31 * result + (yearFrom != null ? yearFrom : 0);
+        result = 31 * result + (yearTo != null ? yearTo : 0);
+        return result;
+    }
+
+    private static boolean equal(Integer a, Integer b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
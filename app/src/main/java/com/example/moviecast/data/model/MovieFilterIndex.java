@@ -0,0 +1,116 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.collection.PersistentBitIndex;
+import com.example.moviecast.data.remote.model.Movie;
+
+import java.util.List;
+
+/**
+ * MovieFilterIndex - инвертированный индекс страницы списка для фильтров.
+ *
+ * Свой у каждой страницы в памяти (MoviePageWindow), позиции - внутри страницы,
+ * поэтому индекс уходит из памяти вместе с выгруженной страницей. Жанры - битсет на жанр,
+ * годы - битсет на год (год разбирается из releaseDate один раз при добавлении страницы).
+ * Индекс собирается вместе со страницей за O(k), а выборка по фильтру - это
+ * несколько операций над битсетами по n / 64 слов, без обхода фильмов и boxing.
+ */
+public final class MovieFilterIndex {
+
+    /** Год не указан или не разобран - фильм не проходит фильтр по году */
+    public static final int UNKNOWN_YEAR = 0;
+
+    private static final MovieFilterIndex EMPTY =
+            new MovieFilterIndex(PersistentBitIndex.empty(), PersistentBitIndex.empty());
+
+    private final PersistentBitIndex genres;
+    private final PersistentBitIndex years;
+
+    private MovieFilterIndex(PersistentBitIndex genres, PersistentBitIndex years) {
+        this.genres = genres;
+        this.years = years;
+    }
+
+    public static MovieFilterIndex empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return genres.size();
+    }
+
+    /**
+     * Новый снимок с фильмами страницы на позициях size() .. size() + k - 1
+     */
+    public MovieFilterIndex withPage(List<Movie> pageMovies) {
+        if (pageMovies.isEmpty()) {
+            return this;
+        }
+        int[][] genreKeys = new int[pageMovies.size()][];
+        int[][] yearKeys = new int[pageMovies.size()][];
+        for (int i = 0; i < genreKeys.length; i++) {
+            Movie movie = pageMovies.get(i);
+            List<Integer> ids = movie.getGenreIds();
+            if (ids != null && !ids.isEmpty()) {
+                int[] keys = new int[ids.size()];
+                for (int j = 0; j < keys.length; j++) {
+                    keys[j] = ids.get(j);
+                }
+                genreKeys[i] = keys;
+            }
+            int year = releaseYear(movie);
+            if (year != UNKNOWN_YEAR) {
+                yearKeys[i] = new int[]{year};
+            }
+        }
+        return new MovieFilterIndex(genres.append(genreKeys), years.append(yearKeys));
+    }
+
+    /**
+     * Битсет позиций, прошедших фильтр
+     */
+    public long[] select(MovieFilter filter) {
+        long[] result;
+        if (filter.hasGenres()) {
+            int[] genreIds = filter.genreIdsInternal();
+            result = filter.isMatchAllGenres() ? genres.every(genreIds) : genres.any(genreIds);
+        } else {
+            result = genres.all();
+        }
+        if (filter.hasYears()) {
+            int from = filter.getYearFrom() != null ? filter.getYearFrom() : Integer.MIN_VALUE;
+            int to = filter.getYearTo() != null ? filter.getYearTo() : Integer.MAX_VALUE;
+            PersistentBitIndex.and(result, years.range(from, to));
+        }
+        return result;
+    }
+
+    /**
+     * Позиции фильмов, прошедших фильтр, по возрастанию
+     */
+    public int[] positions(MovieFilter filter) {
+        return PersistentBitIndex.positions(select(filter));
+    }
+
+    public int count(MovieFilter filter) {
+        return PersistentBitIndex.count(select(filter));
+    }
+
+    /**
+     * Год из releaseDate ("2024-05-17") или UNKNOWN_YEAR
+     */
+    public static int releaseYear(Movie movie) {
+        String date = movie.getReleaseDate();
+        if (date == null || date.length() < 4) {
+            return UNKNOWN_YEAR;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = date.charAt(i);
+            if (c < '0' || c > '9') {
+                return UNKNOWN_YEAR;
+            }
+            year = year * 10 + (c - '0');
+        }
+        return year;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.collection.ImmutableIntSet;
+import com.example.moviecast.data.remote.model.Movie;
+
+import java.util.List;
+
+/**
+ * MovieListState - неизменяемое состояние списка главного экрана.
+ * Фильмы, статусы избранного, пагинация, режим поиска и фильтры в одном снимке.
+ * Публикуется атомарно (AtomicReference в MainViewModel), фоновые задачи работают
+ * с согласованным снимком без блокировок и без ConcurrentModificationException.
+ * Фильмы лежат по страницам (MoviePageWindow): поиск по ID за O(1) и выборка по фильтрам
+ * без обхода списка - по страницам в памяти. Страницы, далёкие от экрана, выгружаются
+ * (withEvictedPages): от них остаются только границы, длина списка не меняется.
+ */
+public final class MovieListState {
+
+    private final MoviePageWindow window;
+    private final ImmutableIntSet favoriteIds;
+    private final int currentPage;
+    private final int totalPages;
+    private final boolean searchMode;
+    private final String query;
+    private final MovieFilter filter;
+    private final MovieSort sort;
+
+    private MovieListState(MoviePageWindow window, ImmutableIntSet favoriteIds,
+                           int currentPage, int totalPages,
+                           boolean searchMode, String query, MovieFilter filter, MovieSort sort) {
+        this.window = window;
+        this.favoriteIds = favoriteIds;
+        this.currentPage = currentPage;
+        this.totalPages = totalPages;
+        this.searchMode = searchMode;
+        this.query = query;
+        this.filter = filter;
+        this.sort = sort;
+    }
+
+    /**
+     * Пустой список для нового режима (популярные или поиск); фильтры и сортировка сохраняются
+     * currentPage = 0: ни одной страницы ещё не загружено, следующая - первая
+     */
+    public static MovieListState initial(boolean searchMode, String query,
+                                         MovieFilter filter, MovieSort sort) {
+        return new MovieListState(MoviePageWindow.create(), ImmutableIntSet.EMPTY,
+                0, 1, searchMode, query, filter, sort);
+    }
+
+    public MoviePageWindow getWindow() { return window; }
+    public ImmutableIntSet getFavoriteIds() { return favoriteIds; }
+    // Номер последней успешно загруженной страницы
+    public int getCurrentPage() { return currentPage; }
+    public int getTotalPages() { return totalPages; }
+    public boolean isSearchMode() { return searchMode; }
+    public String getQuery() { return query; }
+    public MovieFilter getFilter() { return filter; }
+    public MovieSort getSort() { return sort; }
+
+    public boolean isFavorite(int movieId) {
+        return favoriteIds.contains(movieId);
+    }
+
+    /**
+     * Позиция фильма в списке или -1 (нет в списке или его страница выгружена) - O(1) по индексу
+     */
+    public int indexOf(int movieId) {
+        return window.indexOf(movieId);
+    }
+
+    /**
+     * Фильм по ID; null - его нет в списке или его страница выгружена
+     */
+    public Movie findMovie(int movieId) {
+        int position = window.indexOf(movieId);
+        return position >= 0 ? window.get(position) : null;
+    }
+
+    public boolean hasFilters() {
+        return !filter.isEmpty();
+    }
+
+    /**
+     * Позиции фильмов в памяти, прошедших фильтры снимка, по возрастанию - операции над
+     * битсетами индексов страниц, без обхода списка
+     */
+    public int[] filteredPositions() {
+        return window.filteredPositions(filter);
+    }
+
+    public boolean hasMorePages() {
+        return currentPage < totalPages;
+    }
+
+    /**
+     * Добавление загруженной страницы: O(размер страницы) - страницы и индексы только дописываются
+     * Фильмы, уже бывшие в списке, отбрасываются (MoviePageWindow.distinctNew): позиции показанных
+     * карточек не меняются, а ID в памяти не повторяются
+     */
+    public MovieListState withPage(List<Movie> pageMovies, int page, int totalPages) {
+        return new MovieListState(window.withPage(pageMovies), favoriteIds,
+                page, totalPages, searchMode, query, filter, sort);
+    }
+
+    /**
+     * Выгрузка страниц из памяти (MoviePageWindow.withEvicted): длина списка и избранное
+     * не меняются, фильмы страниц больше не держатся
+     */
+    public MovieListState withEvictedPages(int[] pages) {
+        MoviePageWindow evicted = window.withEvicted(pages);
+        if (evicted == window) {
+            return this;
+        }
+        return new MovieListState(evicted, favoriteIds, currentPage, totalPages,
+                searchMode, query, filter, sort);
+    }
+
+    /**
+     * Возврат выгруженной страницы (MoviePageWindow.withRestored); listId другого списка
+     * или уже возвращённая страница - без изменений
+     */
+    public MovieListState withRestoredPage(int listId, int page, List<Movie> pageMovies) {
+        MoviePageWindow restored = window.withRestored(listId, page, pageMovies);
+        if (restored == window) {
+            return this;
+        }
+        return new MovieListState(restored, favoriteIds, currentPage, totalPages,
+                searchMode, query, filter, sort);
+    }
+
+    public MovieListState withFavorites(int[] movieIds) {
+        return new MovieListState(window, favoriteIds.withAll(movieIds),
+                currentPage, totalPages, searchMode, query, filter, sort);
+    }
+
+    public MovieListState withFavorite(int movieId, boolean isFavorite) {
+        ImmutableIntSet ids = isFavorite ? favoriteIds.with(movieId) : favoriteIds.without(movieId);
+        return new MovieListState(window, ids, currentPage, totalPages, searchMode, query, filter, sort);
+    }
+
+    public MovieListState withFilter(MovieFilter filter) {
+        return new MovieListState(window, favoriteIds, currentPage, totalPages,
+                searchMode, query, filter, sort);
+    }
+
+    public MovieListState withSort(MovieSort sort) {
+        return new MovieListState(window, favoriteIds, currentPage, totalPages,
+                searchMode, query, filter, sort);
+    }
+}
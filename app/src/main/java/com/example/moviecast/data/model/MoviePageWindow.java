@@ -0,0 +1,348 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.collection.ImmutableIntSet;
+import com.example.moviecast.collection.PersistentIntIndex;
+import com.example.moviecast.collection.PersistentList;
+import com.example.moviecast.data.remote.model.Movie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MoviePageWindow - загруженный список по страницам: какие страницы в памяти,
+ * какие выгружены, и где каждая лежит в позициях списка.
+ *
+ * Страницы грузятся подряд с первой, поэтому номер страницы API - это её порядковый номер
+ * здесь. У страницы в памяти свои фильмы и свой индекс фильтров (MovieFilterIndex);
+ * от выгруженной (withEvicted) остаются только её границы - число карточек не меняется,
+ * прокрутка не прыгает, а память и работа над списком зависят от числа страниц в памяти,
+ * а не от длины сессии. Фильмы выгруженной страницы лежат на диске (MoviePageStore)
+ * под номером списка (listId), он меняется с каждым новым списком (популярные, поиск).
+ *
+ * ID фильмов среди страниц в памяти не повторяются: повторы отбрасываются при добавлении
+ * и при возврате страницы (рейтинг TMDb сдвигается между запросами). Индекс
+ * "ID -> позиция" (PersistentIntIndex) - только по страницам в памяти.
+ *
+ * Неизменяем. Добавление страницы дописывает её и индекс ID за O(k) (PersistentList,
+ * PersistentIntIndex); выгрузка и возврат пересобирают индекс ID по страницам в памяти.
+ */
+public final class MoviePageWindow {
+
+    private static final AtomicInteger NEXT_LIST_ID = new AtomicInteger();
+
+    // Страница: границы в позициях списка; фильмы и индекс фильтров - только пока в памяти
+    private static final class Page {
+        final int start;
+        final int end;
+        final List<Movie> movies; // null - выгружена
+        final MovieFilterIndex filters;
+
+        Page(int start, int end, List<Movie> movies, MovieFilterIndex filters) {
+            this.start = start;
+            this.end = end;
+            this.movies = movies;
+            this.filters = filters;
+        }
+
+        Page shifted(int shift) {
+            return new Page(start + shift, end + shift, movies, filters);
+        }
+    }
+
+    private final int listId;
+    private final PersistentList<Page> pages;
+    private final ImmutableIntSet residentPages;
+    private final PersistentIntIndex ids;
+
+    private MoviePageWindow(int listId, PersistentList<Page> pages,
+                            ImmutableIntSet residentPages, PersistentIntIndex ids) {
+        this.listId = listId;
+        this.pages = pages;
+        this.residentPages = residentPages;
+        this.ids = ids;
+    }
+
+    /** Окно нового списка: ни одной страницы, свой listId */
+    public static MoviePageWindow create() {
+        return new MoviePageWindow(NEXT_LIST_ID.incrementAndGet(), PersistentList.empty(),
+                ImmutableIntSet.EMPTY, PersistentIntIndex.empty());
+    }
+
+    public int getListId() {
+        return listId;
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    /** Длина списка в позициях, вместе с выгруженными страницами */
+    public int size() {
+        return pages.isEmpty() ? 0 : pages.get(pages.size() - 1).end;
+    }
+
+    public int residentCount() {
+        return residentPages.size();
+    }
+
+    public int evictedCount() {
+        return pages.size() - residentPages.size();
+    }
+
+    /** Номера страниц в памяти по возрастанию */
+    public ImmutableIntSet residentPages() {
+        return residentPages;
+    }
+
+    public boolean isEvicted(int page) {
+        return page >= 1 && page <= pages.size() && pages.get(page - 1).movies == null;
+    }
+
+    /** Первая позиция страницы (страницы с 1) */
+    public int start(int page) {
+        return pages.get(page - 1).start;
+    }
+
+    /** Позиция за последней позицией страницы */
+    public int end(int page) {
+        return pages.get(page - 1).end;
+    }
+
+    /**
+     * Фильмы страницы или null - выгружена или такой страницы нет. Тот же объект,
+     * пока страница в памяти: по нему кэши сверяют, не вернулась ли она заново
+     */
+    public List<Movie> pageMovies(int page) {
+        return page >= 1 && page <= pages.size() ? pages.get(page - 1).movies : null;
+    }
+
+    /**
+     * Страница, на которой лежит позиция списка, или -1 - O(log страниц)
+     */
+    public int pageOf(int position) {
+        if (position < 0 || position >= size()) {
+            return -1;
+        }
+        int low = 0;
+        int high = pages.size() - 1;
+        // Первая страница с концом за позицией; пустые страницы (одни повторы) пропускаются
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (pages.get(mid).end <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * Фильм на позиции; null - его страница выгружена
+     */
+    public Movie get(int position) {
+        Page page = pages.get(pageOf(position) - 1);
+        return page.movies != null ? page.movies.get(position - page.start) : null;
+    }
+
+    /**
+     * Позиция фильма среди страниц в памяти или -1 - O(1) по индексу.
+     * Индекс общий для цепочки снимков, поэтому позиция сверяется со своими страницами.
+     */
+    public int indexOf(int movieId) {
+        int position = ids.get(movieId);
+        if (position < 0 || position >= size()) {
+            return -1;
+        }
+        Movie movie = get(position);
+        return movie != null && movie.getId() == movieId ? position : -1;
+    }
+
+    /**
+     * Позиции фильмов страниц в памяти по возрастанию
+     */
+    public int[] residentPositions() {
+        int[] positions = new int[residentMovieCount()];
+        int count = 0;
+        for (int i = 0; i < residentPages.size(); i++) {
+            Page page = pages.get(residentPages.get(i) - 1);
+            for (int position = page.start; position < page.end; position++) {
+                positions[count++] = position;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Позиции фильмов страниц в памяти, прошедших filter, по возрастанию - операции над
+     * битсетами индексов страниц, без обхода фильмов
+     */
+    public int[] filteredPositions(MovieFilter filter) {
+        int[][] perPage = new int[residentPages.size()][];
+        int total = 0;
+        for (int i = 0; i < perPage.length; i++) {
+            perPage[i] = pages.get(residentPages.get(i) - 1).filters.positions(filter);
+            total += perPage[i].length;
+        }
+        int[] positions = new int[total];
+        int count = 0;
+        for (int i = 0; i < perPage.length; i++) {
+            int start = pages.get(residentPages.get(i) - 1).start;
+            for (int offset : perPage[i]) {
+                positions[count++] = start + offset;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Фильмы страницы, которых нет среди страниц в памяти (по ID, O(1) на фильм);
+     * из повторов внутри страницы остаётся первый
+     */
+    public List<Movie> distinctNew(List<Movie> pageMovies) {
+        List<Movie> fresh = new ArrayList<>(pageMovies.size());
+        for (int i = 0; i < pageMovies.size(); i++) {
+            Movie movie = pageMovies.get(i);
+            if (indexOf(movie.getId()) < 0 && !containsId(fresh, movie.getId())) {
+                fresh.add(movie);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Следующая страница в конец списка, без фильмов, уже бывших в памяти (см. distinctNew):
+     * позиции показанных карточек не меняются. O(k)
+     */
+    public MoviePageWindow withPage(List<Movie> pageMovies) {
+        List<Movie> fresh = distinctNew(pageMovies);
+        int start = size();
+        Page page = new Page(start, start + fresh.size(), Collections.unmodifiableList(fresh),
+                MovieFilterIndex.empty().withPage(fresh));
+        return new MoviePageWindow(listId, pages.appendAll(Collections.singletonList(page)),
+                residentPages.with(pages.size() + 1), ids.putAllIfAbsent(idsOf(fresh), start));
+    }
+
+    /**
+     * Выгрузка страниц из памяти: от них остаются только границы, длина списка не меняется.
+     * Выгруженные и несуществующие страницы пропускаются. O(страниц), без фильмов
+     */
+    public MoviePageWindow withEvicted(int[] evictedPages) {
+        PersistentList<Page> result = pages;
+        ImmutableIntSet resident = residentPages;
+        for (int page : evictedPages) {
+            if (page >= 1 && page <= pages.size() && resident.contains(page)) {
+                Page slot = result.get(page - 1);
+                result = result.withReplaced(page - 1,
+                        Collections.singletonList(new Page(slot.start, slot.end, null, null)));
+                resident = resident.without(page);
+            }
+        }
+        return resident == residentPages ? this : rebuilt(result, resident);
+    }
+
+    /**
+     * Возврат выгруженной страницы. Фильмы - из файла или заново запрошенной страницы
+     * (рейтинг мог сдвинуться): повторы страниц в памяти отбрасываются, лишние сверх
+     * прежней длины тоже. Если фильмов меньше - страница становится короче, следующие
+     * позиции сдвигаются (список ветвится). Страница, уже не выгруженная, или listId
+     * другого списка - без изменений.
+     */
+    public MoviePageWindow withRestored(int listId, int page, List<Movie> pageMovies) {
+        if (listId != this.listId || !isEvicted(page)) {
+            return this;
+        }
+        Page slot = pages.get(page - 1);
+        List<Movie> fresh = distinctNew(pageMovies);
+        int capacity = slot.end - slot.start;
+        if (fresh.size() > capacity) {
+            fresh = new ArrayList<>(fresh.subList(0, capacity));
+        }
+        Page restored = new Page(slot.start, slot.start + fresh.size(),
+                Collections.unmodifiableList(fresh), MovieFilterIndex.empty().withPage(fresh));
+        PersistentList<Page> result;
+        int shift = fresh.size() - capacity;
+        if (shift == 0) {
+            result = pages.withReplaced(page - 1, Collections.singletonList(restored));
+        } else {
+            List<Page> shifted = new ArrayList<>(pages.size());
+            shifted.addAll(pages.subList(0, page - 1));
+            shifted.add(restored);
+            for (int i = page; i < pages.size(); i++) {
+                shifted.add(pages.get(i).shifted(shift));
+            }
+            result = PersistentList.copyOf(shifted);
+        }
+        return rebuilt(result, residentPages.with(page));
+    }
+
+    /**
+     * Страницы, которые надо выгрузить, чтобы в памяти осталось не больше maxResident страниц
+     * (но не меньше нужных needed): из ненужных - самые дальние от нужных. Последняя страница
+     * остаётся - её только что загрузили для прокрутки. Нужных нет - ничего не выгружается.
+     */
+    public int[] pagesToEvict(ImmutableIntSet needed, int maxResident) {
+        int excess = residentPages.size() - Math.max(maxResident, needed.size());
+        if (excess <= 0 || needed.size() == 0) {
+            return new int[0];
+        }
+        int minNeeded = needed.get(0);
+        int maxNeeded = needed.get(needed.size() - 1);
+        int[] candidates = new int[residentPages.size()];
+        int count = 0;
+        for (int i = 0; i < residentPages.size(); i++) {
+            int page = residentPages.get(i);
+            if (!needed.contains(page) && page != pages.size()) {
+                candidates[count++] = page;
+            }
+        }
+        // Выгрузка с дальнего края: кандидаты по возрастанию, дальний - с одного из концов
+        int[] evict = new int[Math.min(excess, count)];
+        int low = 0;
+        int high = count - 1;
+        for (int i = 0; i < evict.length; i++) {
+            evict[i] = minNeeded - candidates[low] >= candidates[high] - maxNeeded
+                    ? candidates[low++] : candidates[high--];
+        }
+        return evict;
+    }
+
+    // Тот же список с другим набором страниц в памяти: индекс ID - заново по ним
+    private MoviePageWindow rebuilt(PersistentList<Page> result, ImmutableIntSet resident) {
+        PersistentIntIndex index = PersistentIntIndex.empty();
+        for (int i = 0; i < resident.size(); i++) {
+            Page page = result.get(resident.get(i) - 1);
+            index = index.putAllIfAbsent(idsOf(page.movies), page.start);
+        }
+        return new MoviePageWindow(listId, result, resident, index);
+    }
+
+    private int residentMovieCount() {
+        int count = 0;
+        for (int i = 0; i < residentPages.size(); i++) {
+            Page page = pages.get(residentPages.get(i) - 1);
+            count += page.end - page.start;
+        }
+        return count;
+    }
+
+    private static int[] idsOf(List<Movie> movies) {
+        int[] result = new int[movies.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = movies.get(i).getId();
+        }
+        return result;
+    }
+
+    // Повторы внутри одной страницы - линейно, страница короткая
+    private static boolean containsId(List<Movie> movies, int movieId) {
+        for (int i = 0; i < movies.size(); i++) {
+            if (movies.get(i).getId() == movieId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
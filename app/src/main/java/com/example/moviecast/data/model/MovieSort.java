@@ -0,0 +1,13 @@
+package com.example.moviecast.data.model;
+
+/**
+ * MovieSort - порядок загруженного списка на главном экране.
+ * DEFAULT - порядок ответа API (популярность или релевантность поиска);
+ * остальные порядки строит SortedMovieOrder поверх загруженных страниц.
+ */
+public enum MovieSort {
+    DEFAULT,
+    RATING,        // по рейтингу, сначала высокий
+    RELEASE_DATE,  // по дате выхода, сначала новые
+    TITLE          // по названию, по алфавиту
+}
@@ -0,0 +1,320 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.collection.ImmutableIntSet;
+import com.example.moviecast.data.remote.model.Movie;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SortedMovieOrder - позиции фильмов в памяти (MoviePageWindow) в порядке MovieSort.
+ *
+ * Поддерживается постранично: страницы, уже бывшие в прошлом порядке, остаются в нём как есть,
+ * а новые (и возвращённые в память) сортируются отдельно - k фильмов - и сливаются с готовым
+ * порядком за O(n + k log k), где n - фильмы в памяти. Выгруженная страница просто уходит
+ * из порядка. Полная сортировка - только при смене порядка или нового списка (поиск, обновление).
+ * Равные по ключу фильмы идут в порядке ответа API, поэтому результат не зависит
+ * от того, какими порциями приходили страницы.
+ *
+ * Ключи сравнения (рейтинг, дата, название) считаются один раз на страницу и живут, пока
+ * страница в памяти. CollationKey названия тяжелее самой строки - он считается лениво,
+ * только пока выбран порядок TITLE, и сбрасывается при смене порядка.
+ *
+ * Снимки неизменяемы для чтения; update вызывается из одного потока
+ * (полоса публикации MainViewModel).
+ */
+public final class SortedMovieOrder {
+
+    public static final SortedMovieOrder EMPTY = new SortedMovieOrder(
+            MovieSort.DEFAULT, null, new int[0], new IdentityHashMap<>(), null);
+
+    private final MovieSort sort;
+    private final MoviePageWindow source; // null - ещё ничего не упорядочено
+    private final int[] order; // пусто для DEFAULT - порядок списка
+    // Ключи страниц в памяти - по их спискам фильмов (MoviePageWindow.pageMovies)
+    private final Map<List<Movie>, PageKeys> keys;
+    private final Collator collator; // только пока выбран TITLE
+
+    private SortedMovieOrder(MovieSort sort, MoviePageWindow source, int[] order,
+                             Map<List<Movie>, PageKeys> keys, Collator collator) {
+        this.sort = sort;
+        this.source = source;
+        this.order = order;
+        this.keys = keys;
+        this.collator = collator;
+    }
+
+    public MovieSort getSort() {
+        return sort;
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    /** Позиция в списке для i-го места в порядке сортировки (кроме DEFAULT) */
+    public int positionAt(int index) {
+        return order[index];
+    }
+
+    /**
+     * Порядок sort для страниц window в памяти: слияние с этим порядком, если window -
+     * тот же список, иначе полная сортировка
+     */
+    public SortedMovieOrder update(MovieSort sort, MoviePageWindow window) {
+        if (window == source && sort == this.sort) {
+            return this;
+        }
+        if (sort == MovieSort.DEFAULT) {
+            return new SortedMovieOrder(sort, window, new int[0], new IdentityHashMap<>(), null);
+        }
+        Collator titles = sort != MovieSort.TITLE ? null : collator != null ? collator : collator();
+        Keys windowKeys = new Keys(window, keys, titles);
+        if (source == null || sort != this.sort || source.getListId() != window.getListId()) {
+            return sorted(sort, window, new int[0], window.residentPositions(), windowKeys);
+        }
+        // Страницы, оставшиеся теми же, - прежний порядок; позиции сдвигаются,
+        // если возвращённая перед ними страница стала короче
+        int[] carried = new int[order.length];
+        int count = 0;
+        for (int position : order) {
+            int page = source.pageOf(position);
+            List<Movie> movies = window.pageMovies(page);
+            if (movies != null && movies == source.pageMovies(page)) {
+                carried[count++] = position + window.start(page) - source.start(page);
+            }
+        }
+        // Новые и возвращённые страницы
+        ImmutableIntSet resident = window.residentPages();
+        int added = 0;
+        for (int i = 0; i < resident.size(); i++) {
+            int page = resident.get(i);
+            if (window.pageMovies(page) != source.pageMovies(page)) {
+                added += window.end(page) - window.start(page);
+            }
+        }
+        int[] tail = new int[added];
+        added = 0;
+        for (int i = 0; i < resident.size(); i++) {
+            int page = resident.get(i);
+            if (window.pageMovies(page) != source.pageMovies(page)) {
+                for (int position = window.start(page); position < window.end(page); position++) {
+                    tail[added++] = position;
+                }
+            }
+        }
+        return sorted(sort, window, Arrays.copyOf(carried, count), tail, windowKeys);
+    }
+
+    // sortedOrder уже упорядочен; tail - остальные позиции в любом порядке
+    private static SortedMovieOrder sorted(MovieSort sort, MoviePageWindow window,
+                                           int[] sortedOrder, int[] tail, Keys keys) {
+        PositionComparator comparator = new PositionComparator(sort, keys);
+
+        // Хвост: k новых (и возвращённых) позиций, O(k log k)
+        mergeSort(tail, new int[tail.length], 0, tail.length, comparator);
+
+        // Слияние с готовым порядком, O(n + k)
+        int[] merged = new int[sortedOrder.length + tail.length];
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (i < sortedOrder.length && j < tail.length) {
+            merged[out++] = comparator.compare(sortedOrder[i], tail[j]) <= 0 ? sortedOrder[i++] : tail[j++];
+        }
+        while (i < sortedOrder.length) merged[out++] = sortedOrder[i++];
+        while (j < tail.length) merged[out++] = tail[j++];
+
+        return new SortedMovieOrder(sort, window, merged, keys.byMovies, keys.collator);
+    }
+
+    // Сортировка слиянием по int[] без boxing
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, PositionComparator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, comparator);
+        mergeSort(a, buffer, mid, to, comparator);
+        if (comparator.compare(a[mid - 1], a[mid]) <= 0) {
+            return; // половины уже по порядку (частый случай: страница уже отсортирована API)
+        }
+        System.arraycopy(a, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int out = from; out < to; out++) {
+            if (j >= to || (i < mid && comparator.compare(buffer[i], buffer[j]) <= 0)) {
+                a[out] = buffer[i++];
+            } else {
+                a[out] = buffer[j++];
+            }
+        }
+    }
+
+    /**
+     * Ключи страниц окна; страница позиции - двоичным поиском по началам страниц в памяти
+     * (их немного). Ключи страниц, которые остались в памяти, берутся из прежнего порядка
+     */
+    private static final class Keys {
+        final Map<List<Movie>, PageKeys> byMovies = new IdentityHashMap<>();
+        final Collator collator;
+        private final int[] starts;
+        private final PageKeys[] pages;
+        private final int count;
+
+        Keys(MoviePageWindow window, Map<List<Movie>, PageKeys> previous, Collator collator) {
+            this.collator = collator;
+            ImmutableIntSet resident = window.residentPages();
+            starts = new int[resident.size()];
+            pages = new PageKeys[resident.size()];
+            int count = 0;
+            for (int i = 0; i < resident.size(); i++) {
+                int page = resident.get(i);
+                List<Movie> movies = window.pageMovies(page);
+                if (movies.isEmpty()) continue; // пустая страница (одни повторы) - начало у соседней
+                PageKeys keys = previous.get(movies);
+                if (keys == null) {
+                    keys = new PageKeys(movies);
+                } else if (collator == null) {
+                    keys.collated = null;
+                }
+                byMovies.put(movies, keys);
+                starts[count] = window.start(page);
+                pages[count++] = keys;
+            }
+            this.count = count;
+        }
+
+        // Индекс страницы позиции в starts/pages
+        int pageIndex(int position) {
+            int index = Arrays.binarySearch(starts, 0, count, position);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        PageKeys page(int index) {
+            return pages[index];
+        }
+
+        int start(int index) {
+            return starts[index];
+        }
+    }
+
+    /**
+     * Ключи одной страницы по позициям внутри неё
+     */
+    private static final class PageKeys {
+        final double[] ratings;
+        final int[] dates; // ГГГГММДД, 0 - дата неизвестна
+        final String[] titles;
+        // Ключи названий, пока выбран TITLE; null - не считались
+        CollationKey[] collated;
+
+        PageKeys(List<Movie> movies) {
+            int size = movies.size();
+            ratings = new double[size];
+            dates = new int[size];
+            titles = new String[size];
+            for (int i = 0; i < size; i++) {
+                Movie movie = movies.get(i);
+                String title = movie.getTitle();
+                ratings[i] = movie.getVoteAverage();
+                dates[i] = parseDate(movie.getReleaseDate());
+                titles[i] = title != null ? title : "";
+            }
+        }
+
+        CollationKey collationKey(int offset, Collator collator) {
+            if (collated == null) {
+                collated = new CollationKey[titles.length];
+            }
+            CollationKey key = collated[offset];
+            if (key == null) {
+                key = collator.getCollationKey(titles[offset]);
+                collated[offset] = key;
+            }
+            return key;
+        }
+
+        // "ГГГГ-ММ-ДД" -> ГГГГММДД; неполная дата дополняется нулями, без цифр - 0
+        private static int parseDate(String date) {
+            if (date == null) {
+                return 0;
+            }
+            int value = 0;
+            int digits = 0;
+            for (int i = 0; i < date.length() && digits < 8; i++) {
+                char c = date.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    value = value * 10 + (c - '0');
+                    digits++;
+                }
+            }
+            if (digits == 0) {
+                return 0;
+            }
+            for (; digits < 8; digits++) {
+                value *= 10;
+            }
+            return value;
+        }
+    }
+
+    private static Collator collator() {
+        Collator collator = Collator.getInstance(new Locale("ru"));
+        collator.setStrength(Collator.SECONDARY); // без учёта регистра
+        return collator;
+    }
+
+    /**
+     * Сравнение позиций по ключу сортировки; при равенстве - по позиции (порядок API)
+     */
+    private static final class PositionComparator {
+        private final MovieSort sort;
+        private final Keys keys;
+
+        PositionComparator(MovieSort sort, Keys keys) {
+            this.sort = sort;
+            this.keys = keys;
+        }
+
+        int compare(int a, int b) {
+            int pageA = keys.pageIndex(a);
+            int pageB = keys.pageIndex(b);
+            PageKeys keysA = keys.page(pageA);
+            PageKeys keysB = keys.page(pageB);
+            int offsetA = a - keys.start(pageA);
+            int offsetB = b - keys.start(pageB);
+            int result;
+            switch (sort) {
+                case RATING:
+                    result = Double.compare(keysB.ratings[offsetB], keysA.ratings[offsetA]);
+                    break;
+                case RELEASE_DATE:
+                    result = compareDatesNewestFirst(keysA.dates[offsetA], keysB.dates[offsetB]);
+                    break;
+                case TITLE:
+                    result = keysA.collationKey(offsetA, keys.collator)
+                            .compareTo(keysB.collationKey(offsetB, keys.collator));
+                    break;
+                default:
+                    result = 0;
+                    break;
+            }
+            return result != 0 ? result : Integer.compare(a, b);
+        }
+
+        // Без даты - в конце
+        private static int compareDatesNewestFirst(int a, int b) {
+            if (a == 0 || b == 0) {
+                return a == b ? 0 : (a != 0 ? -1 : 1);
+            }
+            return Integer.compare(b, a);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.collection.ImmutableIntSet;
+import com.example.moviecast.data.remote.model.Movie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * TitleSearchIndex - нечёткий поиск по названиям загруженных фильмов и избранного.
+ *
+ * Название нормализуется (регистр, ё -> е, знаки препинания -> пробел) и режется на
+ * триграммы слов с пробелами по краям (" ма", "мат", ..., "ца ") плюс начало слова
+ * (" м"), чтобы искались и префиксы из одной-двух букв. Для каждой n-граммы хранится
+ * список документов. Запрос режется так же (последнее слово - без хвостового пробела,
+ * его ещё набирают), документ подходит, если у него есть хотя бы половина n-грамм
+ * запроса - так находятся названия с опечаткой и недописанные слова.
+ * Ранжирование: доля совпавших n-грамм, точное вхождение запроса, длина названия,
+ * затем место в загруженном списке (популярность).
+ *
+ * Список синхронизируется постранично (syncList), избранное - целиком (setFavorites),
+ * полной перестройки нет. В индексе только страницы списка в памяти (MoviePageWindow):
+ * выгруженная страница уходит из поиска вместе с документами и n-граммами своих фильмов
+ * (кроме избранного) и возвращается с самой страницей. Поэтому индекс по размеру -
+ * как окно страниц плюс избранное, а не как вся сессия; места удалённых документов
+ * занимают новые.
+ * Не потокобезопасен: один поток (полоса публикации MainViewModel).
+ */
+public final class TitleSearchIndex {
+
+    // Доля n-грамм запроса, которая должна найтись в названии
+    private static final double MIN_MATCH = 0.5;
+    private static final int NO_RANK = Integer.MAX_VALUE;
+
+    private static final int FROM_LIST = 1;
+    private static final int FROM_FAVORITES = 2;
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    docs[i] = docs[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    // Документы: ID, нормализованное название, фильм списка и фильм избранного;
+    // место удалённого документа (sources = 0) - в freeDocs
+    private int[] ids = new int[64];
+    private Movie[] listed = new Movie[64];
+    private Movie[] movies = new Movie[64];
+    private String[] titles = new String[64];
+    private int[] gramCounts = new int[64];
+    private int[] sources = new int[64];
+    private int[] ranks = new int[64];
+    private int docCount;
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+    private final Map<Integer, Integer> docById = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private MoviePageWindow indexedWindow;
+    private int version;
+
+    // Счётчики совпадений на запрос; обнуляются по списку затронутых документов
+    private int[] hits = new int[64];
+    private int[] touched = new int[64];
+
+    /** Меняется при каждом изменении индекса - для кэширования результатов запроса */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Страницы списка в памяти: если window - тот же список, снимаются только выгруженные
+     * и заменённые страницы и индексируются только новые и возвращённые, иначе фильмы
+     * прежнего списка снимаются целиком (кроме избранного). Места в списке пересчитываются
+     * по страницам в памяти - позиции сдвигаются, если возвращённая страница стала короче.
+     */
+    public void syncList(MoviePageWindow window) {
+        if (window == indexedWindow) {
+            return;
+        }
+        MoviePageWindow previous = indexedWindow;
+        boolean sameList = previous != null && previous.getListId() == window.getListId();
+        if (previous != null) {
+            ImmutableIntSet indexed = previous.residentPages();
+            for (int i = 0; i < indexed.size(); i++) {
+                int page = indexed.get(i);
+                List<Movie> pageMovies = previous.pageMovies(page);
+                if (sameList && window.pageMovies(page) == pageMovies) continue;
+                for (Movie movie : pageMovies) {
+                    unlist(movie);
+                }
+            }
+        }
+        ImmutableIntSet resident = window.residentPages();
+        for (int i = 0; i < resident.size(); i++) {
+            int page = resident.get(i);
+            List<Movie> pageMovies = window.pageMovies(page);
+            if (sameList && previous.pageMovies(page) == pageMovies) continue;
+            for (Movie movie : pageMovies) {
+                addSource(movie, FROM_LIST);
+            }
+        }
+        for (int i = 0; i < resident.size(); i++) {
+            int page = resident.get(i);
+            List<Movie> pageMovies = window.pageMovies(page);
+            int start = window.start(page);
+            for (int offset = 0; offset < pageMovies.size(); offset++) {
+                Integer doc = docById.get(pageMovies.get(offset).getId());
+                if (doc != null) {
+                    ranks[doc] = start + offset;
+                }
+            }
+        }
+        indexedWindow = window;
+        version++;
+    }
+
+    // Фильм ушёл из списка: документ остаётся, только если фильм в избранном
+    private void unlist(Movie movie) {
+        Integer known = docById.get(movie.getId());
+        if (known == null || listed[known] != movie) {
+            return;
+        }
+        int doc = known;
+        listed[doc] = null;
+        ranks[doc] = NO_RANK;
+        sources[doc] &= ~FROM_LIST;
+        if (sources[doc] == 0) {
+            removeDoc(doc);
+        }
+    }
+
+    /**
+     * Избранное целиком (из Room); toMovie вызывается только для новых фильмов
+     */
+    public void setFavorites(int[] favoriteIds, FavoriteLoader toMovie) {
+        int[] sorted = favoriteIds.clone();
+        Arrays.sort(sorted);
+        for (int doc = 0; doc < docCount; doc++) {
+            if ((sources[doc] & FROM_FAVORITES) != 0
+                    && Arrays.binarySearch(sorted, ids[doc]) < 0) {
+                sources[doc] &= ~FROM_FAVORITES;
+                movies[doc] = null;
+                if (sources[doc] == 0) {
+                    removeDoc(doc);
+                }
+            }
+        }
+        for (int i = 0; i < favoriteIds.length; i++) {
+            Integer doc = docById.get(favoriteIds[i]);
+            if (doc != null) {
+                if (movies[doc] == null) {
+                    movies[doc] = toMovie.load(i); // фильм списка: останется и после его выгрузки
+                }
+                sources[doc] |= FROM_FAVORITES;
+            } else {
+                addSource(toMovie.load(i), FROM_FAVORITES);
+            }
+        }
+        version++;
+    }
+
+    /** Фильм избранного по индексу в массиве favoriteIds */
+    public interface FavoriteLoader {
+        Movie load(int index);
+    }
+
+    /** Фильм найден в избранном (по последнему setFavorites) */
+    public boolean isFavorite(int movieId) {
+        Integer doc = docById.get(movieId);
+        return doc != null && (sources[doc] & FROM_FAVORITES) != 0;
+    }
+
+    /**
+     * До limit фильмов, подходящих под query, лучшие первыми
+     */
+    public List<Movie> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        boolean lastWordComplete = query.endsWith(" ");
+        long[] grams = grams(normalized, lastWordComplete);
+        if (hits.length < docCount) {
+            hits = new int[ids.length];
+            touched = new int[ids.length];
+        }
+        int touchedCount = 0;
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) continue;
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                if (hits[doc]++ == 0) {
+                    touched[touchedCount++] = doc;
+                }
+            }
+        }
+
+        // Одна-две буквы - только точный префикс слова, иначе подходит почти всё
+        int required = normalized.length() < 3 ? grams.length : (int) Math.ceil(grams.length * MIN_MATCH);
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            int shared = hits[doc];
+            hits[doc] = 0;
+            if (shared < required) continue;
+            double score = (double) shared / grams.length
+                    + 0.1 * shared / gramCounts[doc];
+            int at = titles[doc].indexOf(normalized);
+            if (at == 0) {
+                score += 0.75;
+            } else if (at > 0) {
+                score += 0.5;
+            }
+            candidates.add(new Candidate(doc, score, ranks[doc]));
+        }
+        candidates.sort((a, b) -> a.score != b.score
+                ? Double.compare(b.score, a.score) : Integer.compare(a.rank, b.rank));
+
+        List<Movie> result = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (int i = 0; i < candidates.size() && result.size() < limit; i++) {
+            result.add(movieOf(candidates.get(i).doc));
+        }
+        return result;
+    }
+
+    // Объект из списка, если фильм в нём, иначе фильм избранного
+    private Movie movieOf(int doc) {
+        return listed[doc] != null ? listed[doc] : movies[doc];
+    }
+
+    private static final class Candidate {
+        final int doc;
+        final double score;
+        final int rank;
+
+        Candidate(int doc, double score, int rank) {
+            this.doc = doc;
+            this.score = score;
+            this.rank = rank;
+        }
+    }
+
+    // Документ фильма с источником source; -1 - фильм без названия
+    private int addSource(Movie movie, int source) {
+        String title = normalize(movie.getTitle());
+        if (title.isEmpty()) {
+            return -1;
+        }
+        Integer existing = docById.get(movie.getId());
+        int doc;
+        if (existing != null && titles[existing].equals(title)) {
+            doc = existing;
+        } else {
+            doc = newDoc(movie.getId(), title);
+            if (existing != null) {
+                // Название изменилось: старый документ снимается, источники переходят к новому
+                int old = existing;
+                sources[doc] = sources[old];
+                listed[doc] = listed[old];
+                movies[doc] = movies[old];
+                ranks[doc] = ranks[old];
+                removeDoc(old);
+            }
+            docById.put(movie.getId(), doc);
+            long[] grams = grams(title, true);
+            gramCounts[doc] = grams.length;
+            for (long gram : grams) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    list = new Postings();
+                    postings.put(gram, list);
+                }
+                list.add(doc);
+            }
+        }
+        if (source == FROM_LIST) {
+            listed[doc] = movie;
+        } else {
+            movies[doc] = movie;
+        }
+        sources[doc] |= source;
+        return doc;
+    }
+
+    private int newDoc(int movieId, String title) {
+        int doc;
+        if (freeCount > 0) {
+            doc = freeDocs[--freeCount];
+        } else {
+            if (docCount == ids.length) {
+                int capacity = docCount * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                listed = Arrays.copyOf(listed, capacity);
+                movies = Arrays.copyOf(movies, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                gramCounts = Arrays.copyOf(gramCounts, capacity);
+                sources = Arrays.copyOf(sources, capacity);
+                ranks = Arrays.copyOf(ranks, capacity);
+            }
+            doc = docCount++;
+        }
+        ids[doc] = movieId;
+        titles[doc] = title;
+        sources[doc] = 0;
+        ranks[doc] = NO_RANK;
+        return doc;
+    }
+
+    // Снимает документ с n-грамм и ID; место занимает следующий новый
+    private void removeDoc(int doc) {
+        for (long gram : grams(titles[doc], true)) {
+            Postings list = postings.get(gram);
+            if (list != null) {
+                list.remove(doc);
+                if (list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        Integer current = docById.get(ids[doc]);
+        if (current != null && current == doc) {
+            docById.remove(ids[doc]);
+        }
+        listed[doc] = null;
+        movies[doc] = null;
+        titles[doc] = null;
+        sources[doc] = 0;
+        ranks[doc] = NO_RANK;
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    /**
+     * Нижний регистр, ё -> е, всё кроме букв и цифр - одиночный пробел
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder builder = new StringBuilder(lower.length());
+        boolean space = true;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(c);
+                space = false;
+            } else if (!space) {
+                builder.append(' ');
+                space = true;
+            }
+        }
+        int length = builder.length();
+        if (length > 0 && builder.charAt(length - 1) == ' ') {
+            builder.setLength(length - 1);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Уникальные n-граммы нормализованного текста; lastWordComplete = false -
+     * у последнего слова нет хвостового пробела (префикс)
+     */
+    private static long[] grams(String normalized, boolean lastWordComplete) {
+        String[] words = normalized.split(" ");
+        long[] result = new long[normalized.length() * 2 + words.length * 2];
+        int count = 0;
+        for (int w = 0; w < words.length; w++) {
+            String word = words[w];
+            boolean complete = lastWordComplete || w < words.length - 1;
+            String padded = " " + word + (complete ? " " : "");
+            result[count++] = gram2(' ', word.charAt(0));
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result[count++] = gram3(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+            }
+        }
+        long[] unique = Arrays.copyOf(result, count);
+        Arrays.sort(unique);
+        int size = 0;
+        for (int i = 0; i < unique.length; i++) {
+            if (size == 0 || unique[i] != unique[size - 1]) {
+                unique[size++] = unique[i];
+            }
+        }
+        return Arrays.copyOf(unique, size);
+    }
+
+    private static long gram2(char a, char b) {
+        return (1L << 48) | ((long) a << 16) | b;
+    }
+
+    private static long gram3(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+}
@@ -1,22 +1,26 @@
 package com.example.moviecast.data.remote;
 
+import com.example.moviecast.BuildConfig;
+
+import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 /**
  * RetrofitClient - создание Retrofit с базовым URL TMDb и Gson.
+ * Базовый URL задаёт тип сборки (BuildConfig.TMDB_BASE_URL): в benchmark - локальная замена.
+ * Тесты и замеры подменяют адрес и OkHttpClient через configure() до создания репозиториев.
  */
 public class RetrofitClient {
     
-    private static final String BASE_URL = "https://api.themoviedb.org/3/";
+    private static final String BASE_URL = BuildConfig.TMDB_BASE_URL;
+    private static String baseUrl = BASE_URL;
+    private static OkHttpClient httpClient = null;
     private static Retrofit retrofit = null;
     
-    public static Retrofit getClient() {
+    public static synchronized Retrofit getClient() {
         if (retrofit == null) {
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
+            retrofit = create(baseUrl, httpClient);
         }
         return retrofit;
     }
@@ -24,4 +28,27 @@ public class RetrofitClient {
     public static TMDbApiService getApiService() {
         return getClient().create(TMDbApiService.class);
     }
+    
+    /**
+     * Подменить базовый URL и клиент для всех следующих getApiService()
+     * baseUrl - null вернёт адрес сборки, client - null вернёт клиент Retrofit по умолчанию
+     */
+    public static synchronized void configure(String baseUrl, OkHttpClient client) {
+        RetrofitClient.baseUrl = baseUrl != null ? baseUrl : BASE_URL;
+        httpClient = client;
+        retrofit = null;
+    }
+    
+    /**
+     * Отдельный Retrofit, не затрагивающий общий
+     */
+    public static Retrofit create(String baseUrl, OkHttpClient client) {
+        Retrofit.Builder builder = new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .addConverterFactory(GsonConverterFactory.create());
+        if (client != null) {
+            builder.client(client);
+        }
+        return builder.build();
+    }
 }
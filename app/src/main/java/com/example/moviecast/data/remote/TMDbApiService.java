@@ -1,5 +1,6 @@
 package com.example.moviecast.data.remote;
 
+import com.example.moviecast.data.remote.model.ConfigurationResponse;
 import com.example.moviecast.data.remote.model.CreditsResponse;
 import com.example.moviecast.data.remote.model.GenreResponse;
 import com.example.moviecast.data.remote.model.Movie;
@@ -17,6 +18,11 @@ import retrofit2.http.Query;
  */
 public interface TMDbApiService {
     
+    @GET("configuration")
+    Call<ConfigurationResponse> getConfiguration(
+            @Query("api_key") String apiKey
+    );
+    
     @GET("genre/movie/list")
     Call<GenreResponse> getGenres(
             @Query("api_key") String apiKey,
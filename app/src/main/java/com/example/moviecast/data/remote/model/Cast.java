@@ -2,12 +2,16 @@ package com.example.moviecast.data.remote.model;
 
 import com.google.gson.annotations.SerializedName;
 
-/** Актёр из API (имя, роль, путь к фото). */
+/** Актёр из API (имя, роль, путь к фото) и локальная копия фото для избранного. */
 public class Cast {
     
     @SerializedName("id")
     private int id;
     
+    // Одна запись состава; id актёра повторяется, если у него несколько ролей
+    @SerializedName("credit_id")
+    private String creditId;
+    
     @SerializedName("name")
     private String name;
     
@@ -16,6 +20,10 @@ public class Cast {
     
     @SerializedName("profile_path")
     private String profilePath;
+    
+    // Не из API: фото в файлах приложения, хранится в castJson избранного фильма
+    @SerializedName("local_profile_path")
+    private String localProfilePath;
 
     public int getId() {
         return id;
@@ -25,6 +33,14 @@ public class Cast {
         this.id = id;
     }
 
+    public String getCreditId() {
+        return creditId;
+    }
+
+    public void setCreditId(String creditId) {
+        this.creditId = creditId;
+    }
+
     public String getName() {
         return name;
     }
@@ -48,4 +64,12 @@ public class Cast {
     public void setProfilePath(String profilePath) {
         this.profilePath = profilePath;
     }
+
+    public String getLocalProfilePath() {
+        return localProfilePath;
+    }
+
+    public void setLocalProfilePath(String localProfilePath) {
+        this.localProfilePath = localProfilePath;
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.moviecast.data.remote.model;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+/** Ответ API: конфигурация (базовый URL и доступные размеры картинок). */
+public class ConfigurationResponse {
+    
+    @SerializedName("images")
+    private Images images;
+
+    public Images getImages() {
+        return images;
+    }
+
+    public void setImages(Images images) {
+        this.images = images;
+    }
+
+    /** Блок images: размеры вида "w342" / "h632" / "original". */
+    public static class Images {
+        
+        @SerializedName("secure_base_url")
+        private String secureBaseUrl;
+        
+        @SerializedName("poster_sizes")
+        private List<String> posterSizes;
+        
+        @SerializedName("profile_sizes")
+        private List<String> profileSizes;
+
+        public String getSecureBaseUrl() {
+            return secureBaseUrl;
+        }
+
+        public List<String> getPosterSizes() {
+            return posterSizes;
+        }
+
+        public List<String> getProfileSizes() {
+            return profileSizes;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.moviecast.data.repository;
+
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.data.remote.model.Movie;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * FavoriteWriteBehind - отложенная запись статусов избранного в Room.
+ *
+ * UI меняет состояние сразу, а сюда кладёт желаемый итоговый статус фильма.
+ * Записи выполняются на последовательной полосе diskWrites (порядок с остальными
+ * записями репозитория сохраняется). Несколько быстрых нажатий на один фильм
+ * схлопываются в одну запись с последним статусом.
+ * При ошибке записи слушатель получает уведомление в главном потоке для отката.
+ */
+public final class FavoriteWriteBehind {
+
+    public interface Listener {
+        /** Главный поток. Запись не удалась, статус в базе не изменился */
+        void onWriteFailed(int movieId, boolean isFavorite);
+    }
+
+    private final MovieRepository repository;
+    private final Executor writeExecutor;
+    private final Executor callbackExecutor;
+    private final Listener listener;
+
+    private final Object lock = new Object();
+    // ID фильма -> последний желаемый статус, в порядке первого изменения
+    private final LinkedHashMap<Integer, PendingWrite> pending = new LinkedHashMap<>();
+    private boolean drainScheduled;
+
+    public FavoriteWriteBehind(MovieRepository repository, Listener listener) {
+        this(repository, AppExecutors.getInstance().diskWrites(),
+                AppExecutors.getInstance().mainThread(), listener);
+    }
+
+    FavoriteWriteBehind(MovieRepository repository, Executor writeExecutor,
+                        Executor callbackExecutor, Listener listener) {
+        this.repository = repository;
+        this.writeExecutor = writeExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.listener = listener;
+    }
+
+    /**
+     * Поставить в очередь запись статуса; более ранняя незаписанная запись того же фильма заменяется
+     */
+    public void enqueue(Movie movie, boolean isFavorite) {
+        synchronized (lock) {
+            pending.put(movie.getId(), new PendingWrite(movie, isFavorite));
+            if (drainScheduled) return;
+            drainScheduled = true;
+        }
+        writeExecutor.execute(this::drain);
+    }
+
+    /**
+     * Есть ли ещё не записанный статус для фильма
+     */
+    public boolean isPending(int movieId) {
+        synchronized (lock) {
+            return pending.containsKey(movieId);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            PendingWrite write;
+            synchronized (lock) {
+                Iterator<Map.Entry<Integer, PendingWrite>> iterator = pending.entrySet().iterator();
+                if (!iterator.hasNext()) {
+                    drainScheduled = false;
+                    return;
+                }
+                write = iterator.next().getValue();
+                iterator.remove();
+            }
+            try {
+                repository.applyFavoriteSync(write.movie, write.isFavorite); // Room - WRITE
+            } catch (RuntimeException e) {
+                int movieId = write.movie.getId();
+                boolean isFavorite = write.isFavorite;
+                callbackExecutor.execute(() -> listener.onWriteFailed(movieId, isFavorite));
+            }
+        }
+    }
+
+    private static final class PendingWrite {
+        final Movie movie;
+        final boolean isFavorite;
+
+        PendingWrite(Movie movie, boolean isFavorite) {
+            this.movie = movie;
+            this.isFavorite = isFavorite;
+        }
+    }
+}
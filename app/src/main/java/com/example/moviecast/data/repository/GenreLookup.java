@@ -0,0 +1,152 @@
+package com.example.moviecast.data.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GenreLookup - неизменяемый снимок справочника жанров (ID -> Название).
+ * Ключи хранятся в отсортированном int[] (без boxing), поиск - бинарный.
+ * Снимок публикуется через volatile-ссылку в MovieRepository и читается без блокировок.
+ *
+ * Дополнительно хранит ограниченный мемо-кэш готовых строк "Боевик, Драма":
+ * ключ - упакованная в long последовательность индексов жанров (порядок сохраняется),
+ * поэтому повторное разрешение той же комбинации жанров не выделяет память.
+ */
+public final class GenreLookup {
+
+    public static final GenreLookup EMPTY = new GenreLookup(new int[0], new String[0]);
+
+    // 5 бит на индекс жанра (TMDb отдаёт ~20 жанров), до 11 жанров в ключе + 4 бита длины
+    private static final int BITS_PER_INDEX = 5;
+    private static final int MAX_PACKED_INDEX = (1 << BITS_PER_INDEX) - 1;
+    private static final int MAX_PACKED_COUNT = 11;
+    private static final int CACHE_SIZE = 64; // степень двойки
+    private static final String SEPARATOR = ", ";
+
+    private final int[] ids;
+    private final String[] names;
+    private final Entry[] cache = new Entry[CACHE_SIZE];
+
+    private GenreLookup(int[] ids, String[] names) {
+        this.ids = ids;
+        this.names = names;
+    }
+
+    /**
+     * Построение снимка из параллельных массивов ID и названий.
+     * Дубликаты ID: побеждает последнее значение.
+     */
+    public static GenreLookup of(int[] ids, String[] names) {
+        int count = ids.length;
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(ids[a], ids[b]));
+
+        int[] sortedIds = new int[count];
+        String[] sortedNames = new String[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int index = order[i];
+            if (size > 0 && sortedIds[size - 1] == ids[index]) {
+                sortedNames[size - 1] = names[index];
+            } else {
+                sortedIds[size] = ids[index];
+                sortedNames[size] = names[index];
+                size++;
+            }
+        }
+        return new GenreLookup(Arrays.copyOf(sortedIds, size), Arrays.copyOf(sortedNames, size));
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Название жанра по ID или null, если жанр неизвестен
+     */
+    public String getName(int genreId) {
+        int index = Arrays.binarySearch(ids, genreId);
+        return index >= 0 ? names[index] : null;
+    }
+
+    /**
+     * Строка с названиями жанров через запятую, в порядке genreIds.
+     * Неизвестные ID пропускаются. Результат для одной и той же комбинации кэшируется.
+     */
+    public String joinNames(List<Integer> genreIds) {
+        if (genreIds == null || genreIds.isEmpty() || ids.length == 0) {
+            return "";
+        }
+
+        long key = packKey(genreIds);
+        if (key == -1L) {
+            return buildNames(genreIds); // слишком длинная комбинация - без кэша
+        }
+
+        int slot = (int) (mix(key) & (CACHE_SIZE - 1));
+        Entry entry = cache[slot];
+        if (entry != null && entry.key == key) {
+            return entry.value;
+        }
+
+        String value = buildNames(genreIds);
+        // Гонка записи безопасна: Entry неизменяем, в худшем случае строка будет собрана повторно
+        cache[slot] = new Entry(key, value);
+        return value;
+    }
+
+    /**
+     * Упаковка индексов известных жанров в long; -1 если комбинация не помещается в ключ
+     */
+    private long packKey(List<Integer> genreIds) {
+        long key = 0L;
+        int count = 0;
+        for (int i = 0, n = genreIds.size(); i < n; i++) {
+            Integer genreId = genreIds.get(i);
+            if (genreId == null) continue;
+            int index = Arrays.binarySearch(ids, genreId);
+            if (index < 0) continue;
+            if (count == MAX_PACKED_COUNT || index > MAX_PACKED_INDEX) {
+                return -1L;
+            }
+            key = (key << BITS_PER_INDEX) | index;
+            count++;
+        }
+        return (key << 4) | count;
+    }
+
+    private String buildNames(List<Integer> genreIds) {
+        StringBuilder genreNames = new StringBuilder();
+        for (int i = 0, n = genreIds.size(); i < n; i++) {
+            Integer genreId = genreIds.get(i);
+            String genreName = genreId != null ? getName(genreId) : null;
+            if (genreName != null) {
+                if (genreNames.length() > 0) {
+                    genreNames.append(SEPARATOR);
+                }
+                genreNames.append(genreName);
+            }
+        }
+        return genreNames.toString();
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class Entry {
+        final long key;
+        final String value;
+
+        Entry(long key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
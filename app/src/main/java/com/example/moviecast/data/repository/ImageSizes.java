@@ -0,0 +1,137 @@
+package com.example.moviecast.data.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ImageSizes - неизменяемый снимок размеров картинок TMDb (из /configuration).
+ * Для каждого вида картинок хранит отсортированные ширины и заранее собранные
+ * базовые URL ("https://image.tmdb.org/t/p/w342"), поэтому выбор размера не выделяет память.
+ * Снимок публикуется через volatile-ссылку в MovieRepository, как GenreLookup.
+ */
+public final class ImageSizes {
+
+    private static final String DEFAULT_BASE_URL = "https://image.tmdb.org/t/p/";
+    private static final String ORIGINAL = "original";
+
+    // Значения TMDb по умолчанию - до первого ответа /configuration и в offline
+    public static final ImageSizes DEFAULT = of(DEFAULT_BASE_URL,
+            Arrays.asList("w92", "w154", "w185", "w342", "w500", "w780", ORIGINAL),
+            Arrays.asList("w45", "w185", "h632", ORIGINAL));
+
+    private final SizeSet posters;
+    private final SizeSet profiles;
+
+    private ImageSizes(SizeSet posters, SizeSet profiles) {
+        this.posters = posters;
+        this.profiles = profiles;
+    }
+
+    /**
+     * Снимок из ответа /configuration; некорректные или пустые данные заменяются значениями по умолчанию
+     */
+    public static ImageSizes of(String secureBaseUrl, List<String> posterSizes, List<String> profileSizes) {
+        String baseUrl = secureBaseUrl != null && !secureBaseUrl.isEmpty() ? secureBaseUrl : DEFAULT_BASE_URL;
+        SizeSet posters = SizeSet.of(baseUrl, posterSizes);
+        SizeSet profiles = SizeSet.of(baseUrl, profileSizes);
+        if (DEFAULT != null) {
+            if (posters == null) posters = DEFAULT.posters;
+            if (profiles == null) profiles = DEFAULT.profiles;
+        }
+        return new ImageSizes(posters, profiles);
+    }
+
+    /**
+     * Базовый URL постера: наименьший размер, покрывающий targetWidthPx
+     */
+    public String posterBaseUrl(int targetWidthPx) {
+        return posters.select(targetWidthPx);
+    }
+
+    /**
+     * Базовый URL фото актёра: наименьший размер, покрывающий targetWidthPx
+     */
+    public String profileBaseUrl(int targetWidthPx) {
+        return profiles.select(targetWidthPx);
+    }
+
+    // Ширины по возрастанию и соответствующие им базовые URL; "original" - последним
+    private static final class SizeSet {
+        final int[] widths;
+        final String[] baseUrls;
+        final String originalUrl; // null, если "original" недоступен
+
+        SizeSet(int[] widths, String[] baseUrls, String originalUrl) {
+            this.widths = widths;
+            this.baseUrls = baseUrls;
+            this.originalUrl = originalUrl;
+        }
+
+        static SizeSet of(String baseUrl, List<String> sizes) {
+            if (sizes == null || sizes.isEmpty()) {
+                return null;
+            }
+            int[] widths = new int[sizes.size()];
+            String[] names = new String[sizes.size()];
+            int count = 0;
+            String originalUrl = null;
+            for (String size : sizes) {
+                if (size == null) continue;
+                if (ORIGINAL.equals(size)) {
+                    originalUrl = baseUrl + size;
+                    continue;
+                }
+                int width = parseWidth(size);
+                if (width > 0) {
+                    widths[count] = width;
+                    names[count] = size;
+                    count++;
+                }
+            }
+            if (count == 0 && originalUrl == null) {
+                return null;
+            }
+            // Сортировка вставками - размеров меньше десятка
+            for (int i = 1; i < count; i++) {
+                for (int j = i; j > 0 && widths[j - 1] > widths[j]; j--) {
+                    int w = widths[j]; widths[j] = widths[j - 1]; widths[j - 1] = w;
+                    String n = names[j]; names[j] = names[j - 1]; names[j - 1] = n;
+                }
+            }
+            String[] baseUrls = new String[count];
+            for (int i = 0; i < count; i++) {
+                baseUrls[i] = baseUrl + names[i];
+            }
+            return new SizeSet(Arrays.copyOf(widths, count), baseUrls, originalUrl);
+        }
+
+        String select(int targetWidthPx) {
+            for (int i = 0; i < widths.length; i++) {
+                if (widths[i] >= targetWidthPx) {
+                    return baseUrls[i];
+                }
+            }
+            // Ни один размер не покрывает цель: original, иначе самый большой
+            if (originalUrl != null) {
+                return originalUrl;
+            }
+            return baseUrls[baseUrls.length - 1];
+        }
+
+        // "w342" -> 342; "h632" -> 421 (постеры и фото актёров TMDb - 2:3); иначе 0
+        private static int parseWidth(String size) {
+            if (size.length() < 2 || (size.charAt(0) != 'w' && size.charAt(0) != 'h')) {
+                return 0;
+            }
+            int value = 0;
+            for (int i = 1; i < size.length(); i++) {
+                char c = size.charAt(i);
+                if (c < '0' || c > '9') {
+                    return 0;
+                }
+                value = value * 10 + (c - '0');
+            }
+            return size.charAt(0) == 'w' ? value : value * 2 / 3;
+        }
+    }
+}
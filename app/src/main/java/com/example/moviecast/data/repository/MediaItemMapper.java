@@ -0,0 +1,81 @@
+package com.example.moviecast.data.repository;
+
+import com.example.moviecast.data.local.MediaItem;
+import com.example.moviecast.data.remote.model.Cast;
+import com.example.moviecast.data.remote.model.Genre;
+import com.example.moviecast.data.remote.model.Movie;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MediaItemMapper - Movie <-> MediaItem и JSON жанров/актёров для офлайн-режима.
+ * Без зависимостей от Android: те же методы вызывает репозиторий и меряет модуль :jmh.
+ * Gson потокобезопасен, типы списков разбираются один раз.
+ */
+public final class MediaItemMapper {
+
+    private static final Gson GSON = new Gson();
+    private static final Type GENRE_LIST = new TypeToken<List<Genre>>(){}.getType();
+    private static final Type CAST_LIST = new TypeToken<List<Cast>>(){}.getType();
+
+    private MediaItemMapper() {
+    }
+
+    public static MediaItem toMediaItem(Movie movie, boolean isFavorite, String userComment,
+                                        List<Genre> genres, List<Cast> cast) {
+        return new MediaItem(
+                movie.getId(),
+                movie.getTitle(),
+                movie.getOverview(),
+                movie.getPosterPath(),
+                movie.getReleaseDate(),
+                movie.getVoteAverage(),
+                isFavorite,
+                userComment,
+                genres != null ? GSON.toJson(genres) : null,
+                cast != null ? castToJson(cast) : null
+        );
+    }
+
+    /**
+     * Обратное преобразование для карточек из избранного (локальный поиск на главном экране)
+     */
+    public static Movie toMovie(MediaItem item) {
+        Movie movie = new Movie();
+        movie.setId(item.getId());
+        movie.setTitle(item.getTitle());
+        movie.setOverview(item.getOverview());
+        movie.setPosterPath(item.getPosterPath());
+        movie.setReleaseDate(item.getReleaseDate());
+        movie.setVoteAverage(item.getVoteAverage());
+        List<Genre> genres = genresFromJson(item.getGenresJson());
+        List<Integer> genreIds = new ArrayList<>(genres.size());
+        for (Genre genre : genres) {
+            genreIds.add(genre.getId());
+        }
+        movie.setGenreIds(genreIds);
+        return movie;
+    }
+
+    public static String castToJson(List<Cast> cast) {
+        return GSON.toJson(cast, CAST_LIST);
+    }
+
+    public static List<Cast> castFromJson(String castJson) {
+        if (castJson == null || castJson.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return GSON.fromJson(castJson, CAST_LIST);
+    }
+
+    public static List<Genre> genresFromJson(String genresJson) {
+        if (genresJson == null || genresJson.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return GSON.fromJson(genresJson, GENRE_LIST);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.moviecast.data.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.example.moviecast.data.remote.model.Movie;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * MoviePageStore - страницы списка, выгруженные из памяти (MoviePageWindow.withEvicted).
+ *
+ * Страница пишется в JSON в кэш-каталоге при выгрузке и читается при возврате на экран -
+ * тот же фильм, что был показан, без запроса к API. Файлы лежат под номером списка
+ * (MoviePageWindow.getListId): запись страницы нового списка удаляет файлы прежнего.
+ * Все вызовы - из одного фонового потока (последовательная полоса PageWindowKeeper),
+ * поэтому страница читается только после того, как её запись завершилась.
+ */
+public final class MoviePageStore {
+
+    private static final String TAG = "MoviePageStore";
+    private static final String DIR = "page_window";
+    private static final Type MOVIE_LIST = new TypeToken<List<Movie>>() {}.getType();
+
+    private final File dir;
+    private final Gson gson = new Gson();
+    private int storedListId;
+
+    public MoviePageStore(Context context) {
+        dir = new File(context.getApplicationContext().getCacheDir(), DIR);
+    }
+
+    @WorkerThread
+    public void write(int listId, int page, List<Movie> movies) {
+        if (listId != storedListId) {
+            clear();
+            storedListId = listId;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            return;
+        }
+        File file = file(listId, page);
+        File partial = new File(file.getPath() + ".part");
+        try (Writer out = new FileWriter(partial)) {
+            gson.toJson(movies, MOVIE_LIST, out); // GSON
+        } catch (IOException e) {
+            partial.delete();
+            return;
+        }
+        if (!partial.renameTo(file)) {
+            partial.delete();
+        }
+    }
+
+    /**
+     * Фильмы выгруженной страницы или null - файла нет (не записался или удалён системой)
+     */
+    @WorkerThread
+    @Nullable
+    public List<Movie> read(int listId, int page) {
+        File file = file(listId, page);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (Reader in = new FileReader(file)) {
+            return gson.fromJson(in, MOVIE_LIST); // GSON
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Evicted page unreadable", e);
+            return null;
+        }
+    }
+
+    @WorkerThread
+    public void clear() {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private File file(int listId, int page) {
+        return new File(dir, listId + "_" + page + ".json");
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.moviecast.data.repository;
 
 import android.content.Context;
+import android.content.SharedPreferences; // Кэш конфигурации картинок TMDb
 
 import androidx.lifecycle.LiveData;
 
 import com.example.moviecast.BuildConfig;
+import com.example.moviecast.concurrent.AppExecutors; // Общие пулы потоков приложения
 import com.example.moviecast.data.local.GenreDao; // Room - DAO для работы с жанрами
 import com.example.moviecast.data.local.GenreEntity; // Room - Entity для жанров
 import com.example.moviecast.data.local.MediaItem; // Room - Entity для фильмов
@@ -13,6 +15,7 @@ import com.example.moviecast.data.local.MovieDatabase; // Room - база дан
 import com.example.moviecast.data.remote.RetrofitClient; // Retrofit - клиент для создания API сервиса
 import com.example.moviecast.data.remote.TMDbApiService; // Retrofit - интерфейс API
 import com.example.moviecast.data.remote.model.Cast;
+import com.example.moviecast.data.remote.model.ConfigurationResponse;
 import com.example.moviecast.data.remote.model.CreditsResponse;
 import com.example.moviecast.data.remote.model.Genre;
 import com.example.moviecast.data.remote.model.GenreResponse;
@@ -20,17 +23,17 @@ import com.example.moviecast.data.remote.model.Movie;
 import com.example.moviecast.data.remote.model.MovieResponse;
 import com.example.moviecast.data.remote.model.VideosResponse;
 import com.google.gson.Gson; // GSON - для сериализации/десериализации JSON
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import retrofit2.Call; // Retrofit - класс для асинхронных запросов
+import retrofit2.Callback; // Retrofit - обработка асинхронных ответов
+import retrofit2.Response; // Retrofit - обертка для HTTP ответов
 
 /**
  * MovieRepository - единый источник данных: Retrofit (TMDb API) и Room (избранное, жанры).
@@ -40,22 +43,60 @@ public class MovieRepository {
     private static final String API_KEY = BuildConfig.API_KEY;
     private static final String LANGUAGE = "ru-RU";
     
+    // Конфигурация картинок меняется редко - TMDb советует обновлять раз в несколько дней
+    private static final String IMAGE_CONFIG_PREFS = "tmdb_image_config";
+    private static final String KEY_IMAGE_CONFIG_JSON = "images_json";
+    private static final String KEY_IMAGE_CONFIG_TIME = "fetched_at";
+    private static final long IMAGE_CONFIG_MAX_AGE_MS = TimeUnit.DAYS.toMillis(3);
+    
     private MovieDao movieDao;
     private GenreDao genreDao;
     private TMDbApiService apiService;
-    private Executor executor;
+    private Executor readExecutor;
+    private Executor writeExecutor;
     private Gson gson;
-    private Map<Integer, String> genreMap;
+    private Context appContext;
+    
+    // Снимок жанров общий для всех экземпляров репозитория: заменяется целиком, читается без блокировок
+    private static final AtomicReference<GenreLookup> genreLookup = new AtomicReference<>(GenreLookup.EMPTY);
+    // Размеры картинок TMDb - тот же подход; загружаются один раз за процесс
+    private static volatile ImageSizes imageSizes = ImageSizes.DEFAULT;
+    private static final AtomicBoolean imageConfigRequested = new AtomicBoolean();
+    // Сверка офлайн-картинок избранного - один раз за процесс
+    private static final AtomicBoolean offlineImagesReconciled = new AtomicBoolean();
     
     public MovieRepository(Context context) {
-        MovieDatabase database = MovieDatabase.getInstance(context);
+        this(context, RetrofitClient.getApiService());
+    }
+    
+    /**
+     * apiService - свой клиент API (тесты и замеры со стендом TmdbStubServer)
+     */
+    public MovieRepository(Context context, TMDbApiService apiService) {
+        this(context, MovieDatabase.getInstance(context), apiService);
+    }
+    
+    /**
+     * database - своя база (в памяти для тестов и замеров)
+     */
+    public MovieRepository(Context context, MovieDatabase database, TMDbApiService apiService) {
         movieDao = database.movieDao();
         genreDao = database.genreDao();
-        apiService = RetrofitClient.getApiService();
-        executor = Executors.newSingleThreadExecutor();
+        this.apiService = apiService;
+        readExecutor = AppExecutors.getInstance().diskIO();
+        writeExecutor = AppExecutors.getInstance().diskWrites();
         gson = new Gson();
-        genreMap = new HashMap<>();
-        loadGenresFromCache();
+        appContext = context.getApplicationContext();
+        GenreLookup current = genreLookup.get();
+        if (current.size() == 0) {
+            loadGenresFromCache(current);
+        }
+        if (imageConfigRequested.compareAndSet(false, true)) {
+            loadImageConfiguration();
+        }
+        if (offlineImagesReconciled.compareAndSet(false, true)) {
+            OfflineImageStore.getInstance(appContext).reconcile(this);
+        }
     }
     
     // Retrofit - запросы к API
@@ -118,45 +159,113 @@ public class MovieRepository {
         return apiService.getGenres(API_KEY, LANGUAGE);
     }
     
+    // ============ КОНФИГУРАЦИЯ КАРТИНОК (/configuration + SharedPreferences) ============
+    
+    /**
+     * Текущий снимок размеров картинок TMDb; безопасно из любого потока
+     */
+    public static ImageSizes getImageSizes() {
+        return imageSizes;
+    }
+    
+    /**
+     * Загрузка конфигурации картинок: сначала из SharedPreferences,
+     * затем из API, если кэша нет или он устарел
+     */
+    private void loadImageConfiguration() {
+        readExecutor.execute(() -> {
+            SharedPreferences prefs = appContext.getSharedPreferences(IMAGE_CONFIG_PREFS, Context.MODE_PRIVATE);
+            String cachedJson = prefs.getString(KEY_IMAGE_CONFIG_JSON, null);
+            long fetchedAt = prefs.getLong(KEY_IMAGE_CONFIG_TIME, 0L);
+            if (cachedJson != null) {
+                publishImageSizes(gson.fromJson(cachedJson, ConfigurationResponse.Images.class)); // GSON
+            }
+            if (cachedJson != null && System.currentTimeMillis() - fetchedAt < IMAGE_CONFIG_MAX_AGE_MS) {
+                return;
+            }
+            
+            // Retrofit - GET /configuration
+            apiService.getConfiguration(API_KEY).enqueue(new Callback<ConfigurationResponse>() {
+                @Override
+                public void onResponse(Call<ConfigurationResponse> call, Response<ConfigurationResponse> response) {
+                    if (response.isSuccessful() && response.body() != null && response.body().getImages() != null) {
+                        ConfigurationResponse.Images images = response.body().getImages();
+                        publishImageSizes(images);
+                        writeExecutor.execute(() -> prefs.edit()
+                                .putString(KEY_IMAGE_CONFIG_JSON, gson.toJson(images)) // GSON
+                                .putLong(KEY_IMAGE_CONFIG_TIME, System.currentTimeMillis())
+                                .apply());
+                    }
+                }
+                
+                @Override
+                public void onFailure(Call<ConfigurationResponse> call, Throwable t) {
+                    // Не критично: остаются кэш или значения по умолчанию
+                }
+            });
+        });
+    }
+    
+    private static void publishImageSizes(ConfigurationResponse.Images images) {
+        if (images != null) {
+            imageSizes = ImageSizes.of(images.getSecureBaseUrl(),
+                    images.getPosterSizes(), images.getProfileSizes());
+        }
+    }
+    
     // ============ ОПЕРАЦИИ С ЖАНРАМИ (Room + Кэш) ============
     
     /**
      * Room - READ: Загрузка жанров из базы данных в кэш при инициализации
      * Выполняется в фоновом потоке
+     * 
+     * @param empty - пустой снимок, увиденный при запуске чтения
      */
-    private void loadGenresFromCache() {
-        executor.execute(() -> {
+    private void loadGenresFromCache(GenreLookup empty) {
+        readExecutor.execute(() -> {
             // Room - READ: получение всех жанров из базы данных
             List<GenreEntity> genres = genreDao.getAllGenres();
-            for (GenreEntity genre : genres) {
-                genreMap.put(genre.getId(), genre.getName());
+            int[] ids = new int[genres.size()];
+            String[] names = new String[genres.size()];
+            for (int i = 0; i < genres.size(); i++) {
+                ids[i] = genres.get(i).getId();
+                names[i] = genres.get(i).getName();
             }
+            // Публикуем только если за время чтения снимок не сменился (свежие жанры из API
+            // или другое чтение кэша): проверка и замена - одна атомарная операция
+            genreLookup.compareAndSet(empty, GenreLookup.of(ids, names));
         });
     }
     
     /**
      * Room - CREATE: Сохранение жанров в базу данных для offline доступа
-     * Также обновляет кэш в памяти
+     * Также публикует новый снимок жанров в памяти
      * 
      * @param genres - список жанров из API
      */
     public void cacheGenres(List<Genre> genres) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             List<GenreEntity> entities = new ArrayList<>();
-            for (Genre genre : genres) {
+            int[] ids = new int[genres.size()];
+            String[] names = new String[genres.size()];
+            for (int i = 0; i < genres.size(); i++) {
+                Genre genre = genres.get(i);
                 entities.add(new GenreEntity(genre.getId(), genre.getName()));
-                genreMap.put(genre.getId(), genre.getName());
+                ids[i] = genre.getId();
+                names[i] = genre.getName();
             }
+            genreLookup.set(GenreLookup.of(ids, names));
             // Room - CREATE/UPDATE: вставка жанров в базу данных
             genreDao.insertAll(entities);
         });
     }
     
     /**
-     * Получение карты жанров из кэша (ID -> Название)
+     * Получение текущего снимка жанров (ID -> Название)
+     * Снимок неизменяемый, его можно читать из любого потока
      */
-    public Map<Integer, String> getGenreMap() {
-        return genreMap;
+    public GenreLookup getGenreLookup() {
+        return genreLookup.get();
     }
     
     /**
@@ -169,26 +278,14 @@ public class MovieRepository {
     /**
      * Конвертация списка ID жанров в строку с названиями через запятую
      * Например: [28, 18] -> "Боевик, Драма"
+     * Можно вызывать из любого потока, в том числе из главного
      * 
      * @param genreIds - список ID жанров
      * @return строка с названиями жанров через запятую
      */
     public String getGenreNamesFromIds(List<Integer> genreIds) {
-        if (genreIds == null || genreIds.isEmpty()) {
-            return "";
-        }
-        StringBuilder genreNames = new StringBuilder();
-        for (int i = 0; i < genreIds.size(); i++) {
-            Integer genreId = genreIds.get(i);
-            String genreName = genreMap.get(genreId);
-            if (genreName != null) {
-                genreNames.append(genreName);
-                if (i < genreIds.size() - 1) {
-                    genreNames.append(", ");
-                }
-            }
-        }
-        return genreNames.toString();
+        // Без блокировок и без выделения памяти для уже встречавшихся комбинаций
+        return genreLookup.get().joinNames(genreIds);
     }
     
     // ============ ОПЕРАЦИИ С БАЗОЙ ДАННЫХ (Room CRUD) ============
@@ -203,6 +300,14 @@ public class MovieRepository {
         return movieDao.getAllFavorites();
     }
     
+    /**
+     * Room - READ: Избранное без состава актёров (castJson = null)
+     * Для локального поиска на главном экране: перезапрос после каждой записи дешевле
+     */
+    public LiveData<List<MediaItem>> getFavoriteTitles() {
+        return movieDao.getFavoriteTitles();
+    }
+    
     /**
      * Room - READ: Получение фильма по ID
      * Возвращает LiveData для автоматического обновления UI
@@ -221,7 +326,10 @@ public class MovieRepository {
      * @param mediaItem - объект фильма для сохранения
      */
     public void insertMediaItem(MediaItem mediaItem) {
-        executor.execute(() -> movieDao.insert(mediaItem));
+        writeExecutor.execute(() -> {
+            movieDao.insert(mediaItem);
+            syncOfflineImages(mediaItem.getId());
+        });
     }
     
     /**
@@ -231,7 +339,10 @@ public class MovieRepository {
      * @param mediaItem - объект фильма для удаления
      */
     public void deleteMediaItem(MediaItem mediaItem) {
-        executor.execute(() -> movieDao.delete(mediaItem));
+        writeExecutor.execute(() -> {
+            movieDao.delete(mediaItem);
+            syncOfflineImages(mediaItem.getId());
+        });
     }
     
     /**
@@ -241,7 +352,10 @@ public class MovieRepository {
      * @param id - ID фильма для удаления
      */
     public void deleteMediaItemById(int id) {
-        executor.execute(() -> movieDao.deleteById(id));
+        writeExecutor.execute(() -> {
+            movieDao.deleteById(id);
+            syncOfflineImages(id);
+        });
     }
     
     /**
@@ -252,7 +366,7 @@ public class MovieRepository {
      * @param comment - новый текст комментария
      */
     public void updateComment(int id, String comment) {
-        executor.execute(() -> movieDao.updateComment(id, comment));
+        writeExecutor.execute(() -> movieDao.updateComment(id, comment));
     }
     
     /**
@@ -263,7 +377,32 @@ public class MovieRepository {
      * @param isFavorite - новый статус избранного (true/false)
      */
     public void updateFavoriteStatus(int id, boolean isFavorite) {
-        executor.execute(() -> movieDao.updateFavoriteStatus(id, isFavorite));
+        writeExecutor.execute(() -> {
+            movieDao.updateFavoriteStatus(id, isFavorite);
+            syncOfflineImages(id);
+        });
+    }
+    
+    /**
+     * Room - CREATE/UPDATE/DELETE: Синхронная запись статуса избранного
+     * Если записи нет - создаётся, при снятии из избранного - удаляется
+     * ВНИМАНИЕ: Выполняется синхронно, вызывать только из очереди записи!
+     * 
+     * @param movie - фильм из API
+     * @param isFavorite - новый статус избранного
+     */
+    public void applyFavoriteSync(Movie movie, boolean isFavorite) {
+        MediaItem existingItem = movieDao.getMediaItemByIdSync(movie.getId());
+        if (isFavorite) {
+            if (existingItem != null) {
+                movieDao.updateFavoriteStatus(movie.getId(), true);
+            } else {
+                movieDao.insert(convertMovieToMediaItem(movie, true, ""));
+            }
+        } else if (existingItem != null) {
+            movieDao.deleteById(movie.getId());
+        }
+        syncOfflineImages(movie.getId());
     }
     
     /**
@@ -278,6 +417,57 @@ public class MovieRepository {
         return movieDao.getMediaItemByIdSync(id);
     }
     
+    /**
+     * Room - READ: ID избранных фильмов среди переданных (одним запросом)
+     * ВНИМАНИЕ: Выполняется синхронно, вызывать только из фонового потока!
+     * 
+     * @param movies - фильмы, для которых нужен статус избранного
+     * @return массив ID фильмов, которые находятся в избранном
+     */
+    public int[] getFavoriteIdsSync(List<Movie> movies) {
+        List<Integer> ids = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            ids.add(movie.getId());
+        }
+        List<Integer> favoriteIds = movieDao.getFavoriteIdsSync(ids);
+        int[] result = new int[favoriteIds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = favoriteIds.get(i);
+        }
+        return result;
+    }
+    
+    // ============ ОФЛАЙН-КАРТИНКИ ИЗБРАННОГО ============
+    
+    // Вызывается после записи в очереди записи: OfflineImageStore прочитает уже новый статус
+    private void syncOfflineImages(int id) {
+        OfflineImageStore.getInstance(appContext).request(this, id);
+    }
+    
+    /**
+     * Room - READ: ID всех избранных фильмов
+     * ВНИМАНИЕ: Выполняется синхронно, вызывать только из фонового потока!
+     */
+    public List<Integer> getAllFavoriteIdsSync() {
+        return movieDao.getAllFavoriteIdsSync();
+    }
+    
+    /**
+     * Room - UPDATE: путь к локальной копии постера
+     * ВНИМАНИЕ: Выполняется синхронно, вызывать только из фонового потока!
+     */
+    public void updateLocalPosterPathSync(int id, String path) {
+        movieDao.updateLocalPosterPath(id, path);
+    }
+    
+    /**
+     * Room - UPDATE: актёры избранного фильма вместе с путями к локальным фото
+     * ВНИМАНИЕ: Выполняется синхронно, вызывать только из фонового потока!
+     */
+    public void updateCastSync(int id, List<Cast> cast) {
+        movieDao.updateCastJson(id, MediaItemMapper.castToJson(cast)); // GSON
+    }
+    
     // ============ ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ КОНВЕРТАЦИИ ============
     
     /**
@@ -319,21 +509,7 @@ public class MovieRepository {
     public MediaItem convertMovieToMediaItemWithExtras(Movie movie, boolean isFavorite, String userComment, 
                                                         List<Genre> genres, List<Cast> cast) {
         // GSON - сериализация списков в JSON для хранения в Room
-        String genresJson = genres != null ? gson.toJson(genres) : null;
-        String castJson = cast != null ? gson.toJson(cast) : null;
-        
-        return new MediaItem(
-                movie.getId(),
-                movie.getTitle(),
-                movie.getOverview(),
-                movie.getPosterPath(),
-                movie.getReleaseDate(),
-                movie.getVoteAverage(),
-                isFavorite,
-                userComment,
-                genresJson,
-                castJson
-        );
+        return MediaItemMapper.toMediaItem(movie, isFavorite, userComment, genres, cast);
     }
     
     /**
@@ -345,12 +521,8 @@ public class MovieRepository {
      * @return список объектов Genre
      */
     public List<Genre> getGenresFromJson(String genresJson) {
-        if (genresJson == null || genresJson.isEmpty()) {
-            return new ArrayList<>();
-        }
         // GSON - десериализация JSON в список объектов
-        Type listType = new TypeToken<List<Genre>>(){}.getType();
-        return gson.fromJson(genresJson, listType);
+        return MediaItemMapper.genresFromJson(genresJson);
     }
     
     /**
@@ -362,11 +534,7 @@ public class MovieRepository {
      * @return список объектов Cast
      */
     public List<Cast> getCastFromJson(String castJson) {
-        if (castJson == null || castJson.isEmpty()) {
-            return new ArrayList<>();
-        }
         // GSON - десериализация JSON в список объектов
-        Type listType = new TypeToken<List<Cast>>(){}.getType();
-        return gson.fromJson(castJson, listType);
+        return MediaItemMapper.castFromJson(castJson);
     }
 }
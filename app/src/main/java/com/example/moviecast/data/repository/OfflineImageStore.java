@@ -0,0 +1,238 @@
+package com.example.moviecast.data.repository;
+
+import android.content.Context;
+import android.util.DisplayMetrics;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.concurrent.SerialExecutor;
+import com.example.moviecast.data.local.MediaItem;
+import com.example.moviecast.data.remote.model.Cast;
+import com.example.moviecast.data.remote.model.CreditsResponse;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import retrofit2.Response;
+
+/**
+ * OfflineImageStore - постер и фото первых актёров избранного фильма в файлах приложения.
+ *
+ * Репозиторий вызывает request() после каждой записи избранного в очереди записи,
+ * поэтому задача читает из Room уже новый статус: фильм в избранном - докачиваем
+ * недостающие картинки и записываем пути в Room, нет - удаляем папку фильма.
+ * Запросы на один фильм схлопываются, пока задача не началась; картинки качаются
+ * по одной на последовательной полосе сетевого пула. Недокачанное (нет сети)
+ * добирается при следующей сверке - при первом создании репозитория в процессе.
+ * Своего репозитория у хранилища нет: Room и API - того репозитория, что попросил сверку
+ * (база в памяти и стенд TMDb в тестах и замерах остаются в силе и здесь).
+ */
+public final class OfflineImageStore {
+
+    private static final String TAG = "OfflineImageStore";
+    private static final String DIR_NAME = "offline_images";
+    private static final String POSTER_FILE = "poster.jpg";
+
+    // Столько же, сколько показывает CastAdapter
+    private static final int CAST_PHOTOS = 10;
+    // Размер фото актёра в item_cast.xml
+    private static final int CAST_PHOTO_DP = 80;
+    // Потолок ширины постера: w780 - самый крупный фиксированный размер TMDb;
+    // шире экрана телефона берётся original - несколько МБ на фильм
+    private static final int MAX_POSTER_WIDTH_PX = 780;
+    private static final int TIMEOUT_MS = 15_000;
+
+    private static OfflineImageStore instance;
+
+    private final File rootDir;
+    private final Executor lane;
+    // Постер на экране деталей растянут на всю ширину - скачиваем под неё (не шире w780),
+    // сетка уменьшит сама
+    private final int posterWidthPx;
+    private final int castPhotoWidthPx;
+
+    private final Object lock = new Object();
+    // ID фильмов, ожидающих сверки, в порядке запроса -> репозиторий, который её попросил
+    private final LinkedHashMap<Integer, MovieRepository> pending = new LinkedHashMap<>();
+    private boolean drainScheduled;
+
+    private OfflineImageStore(Context context) {
+        Context appContext = context.getApplicationContext();
+        rootDir = new File(appContext.getFilesDir(), DIR_NAME);
+        lane = new SerialExecutor(AppExecutors.getInstance().network());
+        DisplayMetrics metrics = appContext.getResources().getDisplayMetrics();
+        posterWidthPx = Math.min(metrics.widthPixels, MAX_POSTER_WIDTH_PX);
+        castPhotoWidthPx = Math.round(CAST_PHOTO_DP * metrics.density);
+    }
+
+    public static synchronized OfflineImageStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new OfflineImageStore(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Сверить картинки фильма с его статусом в Room; повторный запрос до начала сверки не дублируется
+     */
+    public void request(MovieRepository repository, int movieId) {
+        synchronized (lock) {
+            pending.put(movieId, repository);
+            if (drainScheduled) return;
+            drainScheduled = true;
+        }
+        lane.execute(this::drain);
+    }
+
+    /**
+     * Сверить всё: избранное без картинок докачивается, папки не-избранного удаляются
+     */
+    public void reconcile(MovieRepository repository) {
+        lane.execute(() -> {
+            for (Integer id : repository.getAllFavoriteIdsSync()) { // Room - READ
+                request(repository, id);
+            }
+            File[] dirs = rootDir.listFiles();
+            if (dirs == null) return;
+            for (File dir : dirs) {
+                try {
+                    request(repository, Integer.parseInt(dir.getName()));
+                } catch (NumberFormatException e) {
+                    deleteRecursively(dir);
+                }
+            }
+        });
+    }
+
+    private void drain() {
+        while (true) {
+            Map.Entry<Integer, MovieRepository> next;
+            synchronized (lock) {
+                Iterator<Map.Entry<Integer, MovieRepository>> iterator = pending.entrySet().iterator();
+                if (!iterator.hasNext()) {
+                    drainScheduled = false;
+                    return;
+                }
+                next = iterator.next();
+                iterator.remove();
+            }
+            int movieId = next.getKey();
+            try {
+                sync(next.getValue(), movieId);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Offline images for movie " + movieId + " failed", e);
+            }
+        }
+    }
+
+    @WorkerThread
+    private void sync(MovieRepository repository, int movieId) {
+        File movieDir = new File(rootDir, String.valueOf(movieId));
+        MediaItem item = repository.getMediaItemByIdSync(movieId); // Room - READ
+        if (item == null || !item.isFavorite()) {
+            deleteRecursively(movieDir);
+            return;
+        }
+        if (!movieDir.isDirectory() && !movieDir.mkdirs()) {
+            return;
+        }
+        ImageSizes sizes = MovieRepository.getImageSizes();
+
+        // Постер. Записи в Room - только UPDATE: если фильм уже убрали из избранного,
+        // они ничего не сделают, а папку удалит следующая сверка (её поставит удаление)
+        if (item.getPosterPath() != null && !isFile(item.getLocalPosterPath())) {
+            File poster = new File(movieDir, POSTER_FILE);
+            if (download(sizes.posterBaseUrl(posterWidthPx) + item.getPosterPath(), poster)) {
+                repository.updateLocalPosterPathSync(movieId, poster.getAbsolutePath()); // Room - UPDATE
+            }
+        }
+
+        // Фото актёров: состав из записи, а если фильм добавлен с главного экрана - из API
+        boolean castChanged = false;
+        List<Cast> cast;
+        if (item.getCastJson() != null) {
+            cast = repository.getCastFromJson(item.getCastJson()); // GSON
+        } else {
+            cast = fetchCast(repository, movieId);
+            castChanged = cast != null;
+        }
+        if (cast == null) return;
+        for (int i = 0, n = Math.min(CAST_PHOTOS, cast.size()); i < n; i++) {
+            Cast person = cast.get(i);
+            if (person.getProfilePath() == null || isFile(person.getLocalProfilePath())) continue;
+            File photo = new File(movieDir, "cast_" + person.getId() + ".jpg");
+            if (download(sizes.profileBaseUrl(castPhotoWidthPx) + person.getProfilePath(), photo)) {
+                person.setLocalProfilePath(photo.getAbsolutePath());
+                castChanged = true;
+            }
+        }
+        if (castChanged) {
+            repository.updateCastSync(movieId, cast); // Room - UPDATE
+        }
+    }
+
+    // Retrofit - синхронный запрос (мы уже в фоновом потоке); null - нет сети или ошибка
+    private static List<Cast> fetchCast(MovieRepository repository, int movieId) {
+        try {
+            Response<CreditsResponse> response = repository.getMovieCredits(movieId).execute();
+            return response.isSuccessful() && response.body() != null ? response.body().getCast() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Скачивание во временный файл и переименование: оборванная загрузка не оставит битую картинку
+    private static boolean download(String url, File target) {
+        File partial = new File(target.getPath() + ".part");
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return false;
+            }
+            try (InputStream in = connection.getInputStream();
+                 OutputStream out = new FileOutputStream(partial)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            return partial.renameTo(target);
+        } catch (IOException e) {
+            Log.d(TAG, "Download failed: " + url, e);
+            return false;
+        } finally {
+            if (connection != null) connection.disconnect();
+            if (partial.exists()) partial.delete();
+        }
+    }
+
+    private static boolean isFile(String path) {
+        return path != null && new File(path).isFile();
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.moviecast.data.repository;
+
+import com.example.moviecast.collection.ImmutableIntSet;
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.concurrent.SerialExecutor;
+import com.example.moviecast.concurrent.TaskScope;
+import com.example.moviecast.data.model.MovieListState;
+import com.example.moviecast.data.model.MoviePageWindow;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.data.remote.model.MovieResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * PageWindowKeeper - окно страниц списка в памяти (MoviePageWindow) при долгой прокрутке.
+ *
+ * Какие страницы нужны, решает экран (страницы карточек на экране и рядом), здесь - сколько
+ * держать и откуда возвращать. Из ненужных страниц выгружаются самые дальние, пока в памяти
+ * больше WINDOW_PAGES; их фильмы пишутся в файлы (MoviePageStore). Нужная выгруженная
+ * страница возвращается с диска, а если файла нет - тем же запросом к API, что и при
+ * пагинации: рейтинг мог сдвинуться, MoviePageWindow.withRestored сводит ответ к прежним
+ * границам страницы, поэтому страница возвращается всегда.
+ *
+ * apply - в полосе публикации (publishLane), файлы - в последовательной полосе diskLane
+ * (чтение видит законченную запись), запросы к API и cancel - главный поток.
+ */
+public final class PageWindowKeeper {
+
+    /** Страниц в памяти, если нужных экрану не больше */
+    public static final int WINDOW_PAGES = 10;
+
+    private final MovieRepository repository;
+    private final MoviePageStore store;
+    private final AtomicReference<MovieListState> state;
+    private final SerialExecutor diskLane;
+    private final TaskScope diskTasks;
+    private final Executor publishLane;
+    private final Runnable onRestored;
+
+    // Страницы, которые уже возвращаются, и чей это список; только полоса публикации
+    private int restoringListId;
+    private ImmutableIntSet restoringPages = ImmutableIntSet.EMPTY;
+    // Запросы возврата страниц к API; только главный поток
+    private final List<Call<MovieResponse>> restoreCalls = new ArrayList<>();
+    private boolean cancelled;
+
+    /**
+     * onRestored - страница вернулась в state (любой поток): список пора опубликовать заново
+     */
+    public PageWindowKeeper(MovieRepository repository, MoviePageStore store,
+                            AtomicReference<MovieListState> state, SerialExecutor diskLane,
+                            Executor publishLane, Runnable onRestored) {
+        this.repository = repository;
+        this.store = store;
+        this.state = state;
+        this.diskLane = diskLane;
+        this.diskTasks = new TaskScope(diskLane);
+        this.publishLane = publishLane;
+        this.onRestored = onRestored;
+    }
+
+    /**
+     * Окно для нужных страниц needed (полоса публикации): нужные выгруженные возвращаются,
+     * из остальных выгружаются самые дальние (MoviePageWindow.pagesToEvict).
+     * Возвращает снимок после выгрузки; тот же - ничего не выгружено или список уже другой
+     */
+    public MovieListState apply(MovieListState snapshot, ImmutableIntSet needed) {
+        MoviePageWindow window = snapshot.getWindow();
+        int listId = window.getListId();
+        if (listId != restoringListId) {
+            restoringListId = listId;
+            restoringPages = ImmutableIntSet.EMPTY;
+        }
+        for (int i = 0; i < needed.size(); i++) {
+            int page = needed.get(i);
+            if (window.isEvicted(page) && !restoringPages.contains(page)) {
+                restore(snapshot, page);
+            }
+        }
+
+        int[] evict = window.pagesToEvict(needed, WINDOW_PAGES);
+        if (evict.length == 0) {
+            return snapshot;
+        }
+        for (int page : evict) {
+            List<Movie> pageMovies = window.pageMovies(page);
+            diskTasks.execute(() -> store.write(listId, page, pageMovies));
+            // Вернувшаяся страница остаётся в restoringPages до следующей выгрузки
+            restoringPages = restoringPages.without(page);
+            PaginationStats.getInstance().onPageEvicted();
+        }
+        MovieListState updated = state.updateAndGet(current -> current.getWindow().getListId() == listId
+                ? current.withEvictedPages(evict) : current);
+        // Пока считали, начался новый список - он опубликуется отдельно
+        return updated.getWindow().getListId() == listId ? updated : snapshot;
+    }
+
+    /**
+     * Возврат выгруженной страницы: файл с диска (полоса diskLane), если его нет - запрос к API
+     */
+    private void restore(MovieListState snapshot, int page) {
+        restoringPages = restoringPages.with(page);
+        int listId = snapshot.getWindow().getListId();
+        boolean searchMode = snapshot.isSearchMode();
+        String query = snapshot.getQuery();
+        diskTasks.execute(() -> {
+            List<Movie> movies = store.read(listId, page);
+            if (movies != null) {
+                onPageRestored(listId, page, movies, true);
+            } else {
+                AppExecutors.getInstance().mainThread().execute(
+                        () -> reload(listId, page, searchMode, query));
+            }
+        });
+    }
+
+    /**
+     * Страница, которой нет на диске, - тот же запрос, что и при пагинации (главный поток)
+     */
+    private void reload(int listId, int page, boolean searchMode, String query) {
+        if (cancelled) return;
+        Call<MovieResponse> call = searchMode
+                ? repository.searchMovies(query, page) : repository.getPopularMovies(page);
+        restoreCalls.add(call);
+        call.enqueue(new Callback<MovieResponse>() {
+            @Override
+            public void onResponse(Call<MovieResponse> call, Response<MovieResponse> response) {
+                restoreCalls.remove(call);
+                if (response.isSuccessful() && response.body() != null
+                        && response.body().getResults() != null) {
+                    onPageRestored(listId, page, response.body().getResults(), false);
+                } else {
+                    onRestoreFailed(listId, page);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<MovieResponse> call, Throwable t) {
+                restoreCalls.remove(call);
+                if (call.isCanceled()) return; // экран закрыт
+                onRestoreFailed(listId, page);
+            }
+        });
+    }
+
+    private void onPageRestored(int listId, int page, List<Movie> movies, boolean fromDisk) {
+        MovieListState updated = state.updateAndGet(current -> current.withRestoredPage(listId, page, movies));
+        if (updated.getWindow().getListId() != listId) {
+            return; // список уже другой
+        }
+        PaginationStats.getInstance().onPageRestored(fromDisk);
+        onRestored.run();
+    }
+
+    // Страница не вернулась - при следующем сдвиге окна попробуем ещё раз
+    private void onRestoreFailed(int listId, int page) {
+        publishLane.execute(() -> {
+            if (restoringListId == listId) {
+                restoringPages = restoringPages.without(page);
+            }
+        });
+    }
+
+    /**
+     * Экран закрыт (главный поток): запросы и чтения отменяются, файлы удаляются
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Call<MovieResponse> call : restoreCalls) {
+            call.cancel();
+        }
+        restoreCalls.clear();
+        diskTasks.cancelAll();
+        // Выгруженные страницы нужны только этому экрану; очистка - в той же полосе, что запись
+        // и чтение (MoviePageStore однопоточный), но мимо отменённых задач: после начатой записи
+        diskLane.execute(store::clear);
+    }
+}
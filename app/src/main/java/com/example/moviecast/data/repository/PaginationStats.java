@@ -0,0 +1,71 @@
+package com.example.moviecast.data.repository;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PaginationStats - сколько фильмов пришло со страницами и сколько из них отброшено
+ * как повторы. Рейтинг /movie/popular меняется между запросами, поэтому фильм
+ * со страницы N может прийти ещё раз на странице N + 1. Там же - сколько страниц
+ * выгружено из памяти и откуда они возвращались (диск или сеть). Счётчики - за сессию (процесс).
+ */
+public final class PaginationStats {
+
+    private static final String TAG = "Pagination";
+
+    private static final PaginationStats INSTANCE = new PaginationStats();
+
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong duplicatesDropped = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong restoredFromDisk = new AtomicLong();
+    private final AtomicLong restoredFromNetwork = new AtomicLong();
+
+    private PaginationStats() {
+    }
+
+    public static PaginationStats getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Страница добавлена в список: receivedCount фильмов в ответе, droppedCount - уже были в списке
+     */
+    public void onPageAppended(int receivedCount, int droppedCount) {
+        pages.incrementAndGet();
+        received.addAndGet(receivedCount);
+        duplicatesDropped.addAndGet(droppedCount);
+    }
+
+    public long getDuplicatesDropped() {
+        return duplicatesDropped.get();
+    }
+
+    /** Страница выгружена из памяти (далеко от экрана) */
+    public void onPageEvicted() {
+        evicted.incrementAndGet();
+    }
+
+    /** Выгруженная страница вернулась: fromDisk - из файла, иначе запросом к API */
+    public void onPageRestored(boolean fromDisk) {
+        (fromDisk ? restoredFromDisk : restoredFromNetwork).incrementAndGet();
+    }
+
+    public void log() {
+        Log.d(TAG, toString());
+    }
+
+    @Override
+    public String toString() {
+        long receivedTotal = received.get();
+        long dropped = duplicatesDropped.get();
+        return String.format(Locale.US, "pages=%d, movies=%d, duplicates dropped=%d (%.1f%%), "
+                        + "evicted=%d, restored from disk=%d, from network=%d",
+                pages.get(), receivedTotal, dropped,
+                receivedTotal == 0 ? 0 : dropped * 100.0 / receivedTotal,
+                evicted.get(), restoredFromDisk.get(), restoredFromNetwork.get());
+    }
+}
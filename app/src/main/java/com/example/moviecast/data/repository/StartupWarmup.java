@@ -0,0 +1,259 @@
+package com.example.moviecast.data.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.data.local.MovieDatabase;
+import com.example.moviecast.data.remote.model.MovieResponse;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * StartupWarmup - подготовка к первому экрану, пока показан сплэш.
+ *
+ * Запускается из Application.onCreate; шаги идут параллельно на общих пулах:
+ * открытие Room, снимок жанров и конфигурации картинок (конструктор репозитория),
+ * DNS хоста картинок, чтение закэшированной первой страницы популярных и её загрузка из сети.
+ * Сплэш ждёт готовности первой страницы (awaitFirstPage), MainViewModel забирает её
+ * вместо нового запроса (claimFirstPage). Состояние - только в главном потоке.
+ */
+public final class StartupWarmup {
+
+    private static final String TAG = "StartupWarmup";
+
+    /** Главный поток. page - первая страница популярных или null, если её нет (ни сети, ни кэша) */
+    public interface FirstPageCallback {
+        void onFirstPage(@Nullable MovieResponse page);
+    }
+
+    private static final String CACHE_FILE = "popular_page1.json";
+    // Кэш отдаётся вместо сетевой страницы, а страница 2 приходит уже из сети: показываем
+    // только кэш недавнего запуска, иначе первая страница расходится со второй
+    private static final long CACHE_MAX_AGE_MS = TimeUnit.MINUTES.toMillis(10);
+    // Страница, не забранная за это время, считается устаревшей - экран загрузит свою
+    private static final long CLAIM_WINDOW_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final String IMAGE_HOST = "image.tmdb.org";
+
+    private static StartupWarmup instance;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Gson gson = new Gson();
+
+    private boolean started;
+    private long startedAtMs;
+    private boolean claimed;
+    private MovieResponse networkPage;
+    private boolean networkDone;
+    private MovieResponse cachedPage;
+    private boolean cacheDone;
+    private FirstPageCallback claimer;
+    private final List<Runnable> readyWaiters = new ArrayList<>();
+    // Длительность шагов, мс - для отчёта о старте
+    private final Map<String, Long> stepTimes = new LinkedHashMap<>();
+
+    private StartupWarmup() {
+    }
+
+    @MainThread
+    public static StartupWarmup getInstance() {
+        if (instance == null) {
+            instance = new StartupWarmup();
+        }
+        return instance;
+    }
+
+    /**
+     * Запустить шаги подготовки; повторный вызов ничего не делает
+     */
+    @MainThread
+    public void start(Context context) {
+        if (started) return;
+        started = true;
+        startedAtMs = SystemClock.uptimeMillis();
+        Context appContext = context.getApplicationContext();
+        AppExecutors executors = AppExecutors.getInstance();
+        File cacheFile = new File(appContext.getCacheDir(), CACHE_FILE);
+
+        // Room: создание/миграция базы до первого чтения экрана
+        executors.diskIO().execute(() -> {
+            long stepStart = SystemClock.uptimeMillis();
+            MovieDatabase.getInstance(appContext).getOpenHelper().getWritableDatabase();
+            recordStep("room", stepStart);
+        });
+
+        // Жанры, конфигурация картинок и первая страница из сети (Retrofit создаётся здесь же, не в UI)
+        executors.network().execute(() -> {
+            long stepStart = SystemClock.uptimeMillis();
+            MovieRepository repository = new MovieRepository(appContext);
+            recordStep("repository", stepStart);
+            repository.getPopularMovies(1).enqueue(new Callback<MovieResponse>() {
+                @Override
+                public void onResponse(Call<MovieResponse> call, Response<MovieResponse> response) {
+                    MovieResponse page = response.isSuccessful() ? response.body() : null;
+                    if (page != null) {
+                        executors.diskWrites().execute(() -> writeCache(cacheFile, page));
+                    }
+                    onNetworkPage(page, stepStart);
+                }
+
+                @Override
+                public void onFailure(Call<MovieResponse> call, Throwable t) {
+                    onNetworkPage(null, stepStart);
+                }
+            });
+        });
+
+        // DNS хоста картинок: Glide ходит туда сразу после первой страницы
+        executors.network().execute(() -> {
+            long stepStart = SystemClock.uptimeMillis();
+            try {
+                InetAddress.getAllByName(IMAGE_HOST);
+            } catch (IOException e) {
+                // Нет сети - Glide разберётся сам
+            }
+            recordStep("dns", stepStart);
+        });
+
+        // Закэшированная первая страница - показать сразу, если свежая
+        executors.diskIO().execute(() -> {
+            long stepStart = SystemClock.uptimeMillis();
+            MovieResponse page = readCache(cacheFile);
+            mainHandler.post(() -> {
+                cachedPage = page;
+                cacheDone = true;
+                stepTimes.put("cache", SystemClock.uptimeMillis() - stepStart);
+                onProgress();
+            });
+        });
+    }
+
+    /**
+     * Выполнить action, когда первая страница готова (сеть или свежий кэш) либо вышел timeoutMs
+     */
+    @MainThread
+    public void awaitFirstPage(long timeoutMs, Runnable action) {
+        if (!started || isReady()) {
+            action.run();
+            return;
+        }
+        Runnable once = new Runnable() {
+            private boolean done;
+
+            @Override
+            public void run() {
+                if (done) return;
+                done = true;
+                readyWaiters.remove(this);
+                mainHandler.removeCallbacks(this);
+                action.run();
+            }
+        };
+        readyWaiters.add(once);
+        mainHandler.postDelayed(once, timeoutMs);
+    }
+
+    /**
+     * Забрать подготовленную первую страницу популярных; false - подготовки не было
+     * или страница уже забрана/устарела, экран загружает сам
+     */
+    @MainThread
+    public boolean claimFirstPage(FirstPageCallback callback) {
+        if (!started || claimed || SystemClock.uptimeMillis() - startedAtMs > CLAIM_WINDOW_MS) {
+            return false;
+        }
+        claimed = true;
+        claimer = callback;
+        onProgress();
+        return true;
+    }
+
+    /**
+     * Длительность шагов подготовки в мс
+     */
+    @MainThread
+    public Map<String, Long> getStepTimes() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(stepTimes));
+    }
+
+    private boolean isReady() {
+        return networkPage != null || (cacheDone && cachedPage != null) || (networkDone && cacheDone);
+    }
+
+    private void onNetworkPage(MovieResponse page, long stepStart) {
+        // Retrofit отдаёт колбэки в главном потоке
+        networkPage = page;
+        networkDone = true;
+        stepTimes.put("first_page", SystemClock.uptimeMillis() - stepStart);
+        onProgress();
+    }
+
+    private void onProgress() {
+        if (!isReady()) return;
+        for (Runnable waiter : new ArrayList<>(readyWaiters)) {
+            waiter.run();
+        }
+        if (claimer != null) {
+            FirstPageCallback callback = claimer;
+            claimer = null;
+            // Сеть свежее кэша; страница отдаётся один раз и больше не хранится
+            MovieResponse page = networkPage != null ? networkPage : cachedPage;
+            networkPage = null;
+            cachedPage = null;
+            callback.onFirstPage(page);
+        }
+    }
+
+    private void recordStep(String name, long stepStart) {
+        long duration = SystemClock.uptimeMillis() - stepStart;
+        mainHandler.post(() -> stepTimes.put(name, duration));
+    }
+
+    private MovieResponse readCache(File file) {
+        if (!file.isFile() || System.currentTimeMillis() - file.lastModified() > CACHE_MAX_AGE_MS) {
+            return null;
+        }
+        try (Reader in = new FileReader(file)) {
+            return gson.fromJson(in, MovieResponse.class); // GSON
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "First page cache unreadable", e);
+            return null;
+        }
+    }
+
+    private void writeCache(File file, MovieResponse page) {
+        File partial = new File(file.getPath() + ".part");
+        try (Writer out = new FileWriter(partial)) {
+            gson.toJson(page, out); // GSON
+        } catch (IOException e) {
+            partial.delete();
+            return;
+        }
+        if (!partial.renameTo(file)) {
+            partial.delete();
+        }
+    }
+}
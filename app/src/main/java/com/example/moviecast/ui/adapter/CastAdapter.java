@@ -7,31 +7,94 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.moviecast.R;
+import com.example.moviecast.concurrent.AppExecutors;
 import com.example.moviecast.data.remote.model.Cast;
+import com.example.moviecast.ui.image.ImageRequests;
+import com.example.moviecast.ui.utils.ImageSizeSelector;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * CastAdapter - адаптер списка актёров на экране деталей фильма.
  * Фото, имя, роль. Glide для загрузки фото. Показываем до 10 человек.
+ * Состав из Room и затем из API обычно совпадает - DiffUtil в фоне не перерисовывает его заново.
  */
-public class CastAdapter extends RecyclerView.Adapter<CastAdapter.CastViewHolder> {
+public class CastAdapter extends ListAdapter<Cast, CastAdapter.CastViewHolder> {
     
-    private static final String IMAGE_BASE_URL = "https://image.tmdb.org/t/p/w185";
-    private List<Cast> castList;
+    private static final int MAX_CAST = 10;
+    
+    private static final DiffUtil.ItemCallback<Cast> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<Cast>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Cast oldItem, @NonNull Cast newItem) {
+                    return stableId(oldItem) == stableId(newItem);
+                }
+                
+                @Override
+                public boolean areContentsTheSame(@NonNull Cast oldItem, @NonNull Cast newItem) {
+                    return Objects.equals(oldItem.getName(), newItem.getName())
+                            && Objects.equals(oldItem.getCharacter(), newItem.getCharacter())
+                            && Objects.equals(oldItem.getProfilePath(), newItem.getProfilePath());
+                }
+            };
+    
+    // Размер фото под ширину аватара (80dp * density), а не фиксированный w185
+    private final ImageSizeSelector profileSizes = new ImageSizeSelector(ImageSizeSelector.Kind.PROFILE);
     
     public CastAdapter() {
-        this.castList = new ArrayList<>();
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().cpu())
+                .build());
+        setHasStableIds(true);
     }
     
     public void setCastList(List<Cast> castList) {
-        this.castList = castList;
-        notifyDataSetChanged();
+        if (castList == null) {
+            submitList(null);
+            return;
+        }
+        // Сразу обрезаем до MAX_CAST, чтобы дифф не сравнивал невидимых актёров
+        submitList(new ArrayList<>(castList.subList(0, Math.min(castList.size(), MAX_CAST))));
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return stableId(getItem(position));
+    }
+    
+    /**
+     * ID записи состава: один актёр может быть в титрах несколько раз (разные роли),
+     * поэтому ключ - credit_id, а не ID актёра. Состав, сохранённый до появления
+     * credit_id в модели, - ID актёра вместе с ролью.
+     */
+    static long stableId(Cast cast) {
+        String creditId = cast.getCreditId();
+        if (creditId != null) {
+            return hash64(creditId);
+        }
+        return ((long) cast.getId() << 32) ^ (hash64(cast.getCharacter()) & 0xffffffffL);
+    }
+    
+    // FNV-1a, 64 бита
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        if (value == null) {
+            return hash;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
     }
     
     @NonNull
@@ -39,27 +102,24 @@ public class CastAdapter extends RecyclerView.Adapter<CastAdapter.CastViewHolder
     public CastViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_cast, parent, false);
-        return new CastViewHolder(view);
+        return new CastViewHolder(view, profileSizes);
     }
     
     @Override
     public void onBindViewHolder(@NonNull CastViewHolder holder, int position) {
-        Cast cast = castList.get(position);
+        Cast cast = getItem(position);
         holder.bind(cast);
     }
     
-    @Override
-    public int getItemCount() {
-        return Math.min(castList.size(), 10);
-    }
-    
     static class CastViewHolder extends RecyclerView.ViewHolder {
+        private final ImageSizeSelector profileSizes;
         private ImageView profileImageView;
         private TextView nameTextView;
         private TextView characterTextView;
         
-        public CastViewHolder(@NonNull View itemView) {
+        public CastViewHolder(@NonNull View itemView, ImageSizeSelector profileSizes) {
             super(itemView);
+            this.profileSizes = profileSizes;
             profileImageView = itemView.findViewById(R.id.profileImageView);
             nameTextView = itemView.findViewById(R.id.nameTextView);
             characterTextView = itemView.findViewById(R.id.characterTextView);
@@ -70,11 +130,13 @@ public class CastAdapter extends RecyclerView.Adapter<CastAdapter.CastViewHolder
             characterTextView.setText(cast.getCharacter());
             
             if (cast.getProfilePath() != null) {
-                String profileUrl = IMAGE_BASE_URL + cast.getProfilePath();
-                Glide.with(itemView.getContext()) // Glide - загрузка фото
-                        .load(profileUrl)
-                        .placeholder(R.drawable.ic_launcher_background)
-                        .error(R.drawable.ic_launcher_background)
+                // У избранного фото первых актёров сохранены локально (OfflineImageStore)
+                String profileUrl = cast.getLocalProfilePath() != null
+                        ? cast.getLocalProfilePath()
+                        : profileSizes.baseUrl(itemView.getContext(),
+                                ImageSizeSelector.viewWidthPx(profileImageView)) + cast.getProfilePath();
+                // Glide - загрузка фото; обрезанная миниатюра кэшируется на диске целиком
+                ImageRequests.castPhoto(Glide.with(itemView.getContext()), profileUrl)
                         .into(profileImageView);
             } else {
                 profileImageView.setImageResource(R.drawable.ic_launcher_background);
@@ -1,62 +1,92 @@
 package com.example.moviecast.ui.adapter;
 
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.moviecast.R;
-import com.example.moviecast.data.local.MediaItem;
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.ui.model.MovieUiModel;
+import com.example.moviecast.ui.utils.ImageSizeSelector;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * FavoritesAdapter - адаптер списка избранных фильмов (данные из Room).
  * По клику открывается экран деталей.
+ * Room отдаёт новый список при каждом изменении таблицы - DiffUtil в фоне
+ * оставляет на экране только реальные вставки/удаления.
+ * Карточки приходят готовыми (MovieUiModel), привязка не форматирует строки.
  */
-public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.FavoriteViewHolder> {
+public class FavoritesAdapter extends ListAdapter<MovieUiModel, FavoritesAdapter.FavoriteViewHolder> {
+    
+    private static final DiffUtil.ItemCallback<MovieUiModel> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<MovieUiModel>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull MovieUiModel oldItem, @NonNull MovieUiModel newItem) {
+                    return oldItem.getId() == newItem.getId();
+                }
+                
+                @Override
+                public boolean areContentsTheSame(@NonNull MovieUiModel oldItem, @NonNull MovieUiModel newItem) {
+                    return oldItem.hasSameContent(newItem);
+                }
+            };
     
-    private static final String IMAGE_BASE_URL = "https://image.tmdb.org/t/p/w500";
-    private List<MediaItem> favorites;
     private OnFavoriteClickListener listener;
+    private final PosterLoader posterLoader;
+    // Размер постера под ширину ячейки сетки (а не фиксированный w500)
+    private final ImageSizeSelector posterSizes = new ImageSizeSelector(ImageSizeSelector.Kind.POSTER);
+    private int cellWidthPx;
     
     public interface OnFavoriteClickListener {
-        void onFavoriteClick(MediaItem mediaItem);
+        void onFavoriteClick(int movieId);
     }
     
     public FavoritesAdapter(OnFavoriteClickListener listener) {
-        this.favorites = new ArrayList<>();
+        this(listener, PosterLoader.GLIDE);
+    }
+    
+    public FavoritesAdapter(OnFavoriteClickListener listener, PosterLoader posterLoader) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().cpu())
+                .build());
         this.listener = listener;
+        this.posterLoader = posterLoader;
+        setHasStableIds(true);
     }
     
-    public void setFavorites(List<MediaItem> favorites) {
-        this.favorites = favorites;
-        notifyDataSetChanged();
+    public void setFavorites(List<MovieUiModel> favorites) {
+        submitList(favorites);
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
     
     @NonNull
     @Override
     public FavoriteViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_movie, parent, false);
+        // Карточка из общего запаса, надутого заранее; пуст - надувается здесь же
+        View view = MovieCardPool.getInstance().obtain(parent);
+        if (parent instanceof RecyclerView) {
+            cellWidthPx = ImageSizeSelector.cellWidthPx((RecyclerView) parent);
+        }
         return new FavoriteViewHolder(view);
     }
     
     @Override
     public void onBindViewHolder(@NonNull FavoriteViewHolder holder, int position) {
-        MediaItem mediaItem = favorites.get(position);
-        holder.bind(mediaItem);
-    }
-    
-    @Override
-    public int getItemCount() {
-        return favorites.size();
+        holder.bind(getItem(position));
     }
     
     class FavoriteViewHolder extends RecyclerView.ViewHolder {
@@ -64,6 +94,8 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.Favo
         private TextView titleTextView;
         private TextView releaseDateTextView;
         private TextView ratingTextView;
+        private MovieUiModel boundItem;
+        private String boundBaseUrl;
         
         public FavoriteViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -73,24 +105,35 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.Favo
             ratingTextView = itemView.findViewById(R.id.ratingTextView);
             
             itemView.setOnClickListener(v -> {
-                int position = getAdapterPosition();
+                int position = getBindingAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onFavoriteClick(favorites.get(position));
+                    listener.onFavoriteClick(getItem(position).getId());
                 }
             });
         }
         
-        public void bind(MediaItem mediaItem) {
-            titleTextView.setText(mediaItem.getTitle());
-            releaseDateTextView.setText(mediaItem.getReleaseDate());
-            ratingTextView.setText(String.format("%.1f", mediaItem.getVoteAverage()));
+        public void bind(MovieUiModel item) {
+            MovieUiModel previous = boundItem;
+            boundItem = item;
+            
+            if (previous == null || !Objects.equals(previous.getTitle(), item.getTitle())) {
+                titleTextView.setText(item.getTitle());
+                posterImageView.setContentDescription(item.getTitle());
+            }
+            if (previous == null || !Objects.equals(previous.getReleaseDate(), item.getReleaseDate())) {
+                releaseDateTextView.setText(item.getReleaseDate());
+            }
+            if (previous == null || !Objects.equals(previous.getRatingText(), item.getRatingText())) {
+                ratingTextView.setText(item.getRatingText());
+            }
             
-            String posterUrl = IMAGE_BASE_URL + mediaItem.getPosterPath();
-            Glide.with(itemView.getContext()) // Glide - постер
-                    .load(posterUrl)
-                    .placeholder(R.drawable.ic_launcher_background)
-                    .error(R.drawable.ic_launcher_background)
-                    .into(posterImageView);
+            // Постер (Glide) - только если сменились файл постера или его размер;
+            // для карточки с тем же постером URL не собирается заново
+            String baseUrl = posterSizes.baseUrl(itemView.getContext(), cellWidthPx);
+            if (previous == null || baseUrl != boundBaseUrl || !item.hasSamePoster(previous)) {
+                boundBaseUrl = baseUrl;
+                posterLoader.load(posterImageView, item.getPosterUrl(baseUrl));
+            }
         }
     }
 }
@@ -1,7 +1,6 @@
 package com.example.moviecast.ui.adapter;
 
 import android.animation.ObjectAnimator;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.animation.AccelerateDecelerateInterpolator;
@@ -10,26 +9,77 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.example.moviecast.R;
-import com.example.moviecast.data.model.MovieWithFavorite;
+import com.example.moviecast.collection.ImmutableIntSet;
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.data.model.FavoriteChange;
 import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.ui.image.PosterPreloader;
+import com.example.moviecast.ui.model.MovieUiModel;
+import com.example.moviecast.ui.utils.ImageSizeSelector;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * MovieAdapter - адаптер списка фильмов на главном экране.
  * Отображает постер, название, рейтинг, кнопку избранного. Glide для картинок.
+ * Карточки приходят готовыми (MovieUiModel): привязка не форматирует строки и не выделяет память.
+ * Списки сравниваются DiffUtil на CPU-пуле: перепривязываются и анимируются только изменившиеся карточки.
+ * Статус избранного приходит отдельно (FavoriteChange) и обновляет только иконку сердечка.
  */
-public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHolder> {
+public class MovieAdapter extends ListAdapter<MovieUiModel, MovieAdapter.MovieViewHolder>
+        implements PosterPreloader.UrlSource {
+    
+    // Частичная привязка: поменялось только избранное - постер, название и рейтинг не трогаем
+    private static final Object PAYLOAD_FAVORITE = new Object();
+    
+    // Идентичность - ID фильма, содержимое - то, что видно на карточке
+    private static final DiffUtil.ItemCallback<MovieUiModel> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<MovieUiModel>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull MovieUiModel oldItem,
+                                               @NonNull MovieUiModel newItem) {
+                    return oldItem.getId() == newItem.getId();
+                }
+                
+                @Override
+                public boolean areContentsTheSame(@NonNull MovieUiModel oldItem,
+                                                  @NonNull MovieUiModel newItem) {
+                    return oldItem.isFavorite() == newItem.isFavorite()
+                            && oldItem.hasSameContent(newItem);
+                }
+                
+                @Override
+                public Object getChangePayload(@NonNull MovieUiModel oldItem,
+                                               @NonNull MovieUiModel newItem) {
+                    // Сюда попадаем только при различии содержимого; если карточка та же - дело в сердечке
+                    return oldItem.hasSameContent(newItem) ? PAYLOAD_FAVORITE : null;
+                }
+            };
+    
+    private RecyclerView recyclerView;
+    // Актуальный набор избранного из FavoriteChange; null - пока берём статус из элементов списка
+    private ImmutableIntSet favoriteIds;
     
-    private static final String IMAGE_BASE_URL = "https://image.tmdb.org/t/p/w500";
-    private List<MovieWithFavorite> movies;
     private OnMovieClickListener listener;
     private OnFavoriteClickListener favoriteListener;
+    private final PosterLoader posterLoader;
+    // Размер постера под ширину ячейки сетки (а не фиксированный w500)
+    private final ImageSizeSelector posterSizes = new ImageSizeSelector(ImageSizeSelector.Kind.POSTER);
+    private int cellWidthPx;
+    // Размер для предзагрузки берётся с постера первой созданной карточки
+    private ViewPreloadSizeProvider<String> preloadSizeProvider;
+    private boolean preloadSizeViewSet;
     
     public interface OnMovieClickListener {
         void onMovieClick(Movie movie, View posterView); // posterView для shared transition
@@ -40,39 +90,152 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
     }
     
     public MovieAdapter(OnMovieClickListener listener, OnFavoriteClickListener favoriteListener) {
-        this.movies = new ArrayList<>();
+        this(listener, favoriteListener, PosterLoader.GLIDE);
+    }
+    
+    public MovieAdapter(OnMovieClickListener listener, OnFavoriteClickListener favoriteListener,
+                        PosterLoader posterLoader) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().cpu())
+                .build());
         this.listener = listener;
         this.favoriteListener = favoriteListener;
+        this.posterLoader = posterLoader;
+        setHasStableIds(true);
     }
     
-    public void setMovies(List<MovieWithFavorite> movies) {
-        this.movies = movies;
-        notifyDataSetChanged();
+    // Новая страница приходит как новый полный список: дифф сводится к вставке в конец
+    public void setMovies(List<MovieUiModel> movies) {
+        submitList(movies);
     }
     
-    public void addMovies(List<MovieWithFavorite> newMovies) {
-        int oldSize = movies.size();
-        movies.addAll(newMovies);
-        notifyItemRangeInserted(oldSize, newMovies.size());
+    // commitCallback - после применения диффа (список на экране со следующим кадром)
+    public void setMovies(List<MovieUiModel> movies, Runnable commitCallback) {
+        submitList(movies, commitCallback);
+    }
+    
+    // Дозагрузка поверх текущего списка - тот же путь через дифф
+    // Фильмы, которые уже в списке, не добавляются: ID фильма - stable ID карточки
+    public void addMovies(List<MovieUiModel> newMovies) {
+        List<MovieUiModel> current = getCurrentList();
+        Set<Integer> ids = new HashSet<>(current.size() + newMovies.size());
+        List<MovieUiModel> combined = new ArrayList<>(current.size() + newMovies.size());
+        for (MovieUiModel item : current) {
+            ids.add(item.getId());
+            combined.add(item);
+        }
+        for (MovieUiModel item : newMovies) {
+            if (ids.add(item.getId())) {
+                combined.add(item);
+            }
+        }
+        submitList(combined);
+    }
+    
+    /**
+     * Точечное изменение избранного: перепривязывается только сердечко видимой карточки
+     * Стоимость не зависит от длины списка - карточка ищется среди прикреплённых по stable ID,
+     * карточки из кэша RecyclerView сверяются при повторном прикреплении
+     */
+    public void applyFavoriteChange(FavoriteChange change) {
+        favoriteIds = change.getFavoriteIds();
+        if (recyclerView == null) return;
+        if (change.isBulk()) {
+            // Пакетное изменение (статусы новой страницы) - сверяем все видимые карточки
+            for (int i = 0, count = recyclerView.getChildCount(); i < count; i++) {
+                RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+                if (holder instanceof MovieViewHolder) {
+                    ((MovieViewHolder) holder).refreshFavorite();
+                }
+            }
+            return;
+        }
+        RecyclerView.ViewHolder holder = recyclerView.findViewHolderForItemId(change.getMovieId());
+        if (holder != null && holder.getBindingAdapterPosition() != RecyclerView.NO_POSITION) {
+            notifyItemChanged(holder.getBindingAdapterPosition(), PAYLOAD_FAVORITE);
+        }
+    }
+    
+    public void setPreloadSizeProvider(ViewPreloadSizeProvider<String> preloadSizeProvider) {
+        this.preloadSizeProvider = preloadSizeProvider;
+        this.preloadSizeViewSet = false;
+    }
+    
+    /**
+     * URL постера карточки на позиции - тот же выбор размера, что и в bind()
+     */
+    @Override
+    public String getPosterUrlAt(int position) {
+        if (recyclerView == null) return null;
+        return getItem(position).getPosterUrl(
+                posterSizes.baseUrl(recyclerView.getContext(), cellWidthPx));
+    }
+    
+    private boolean isFavorite(MovieUiModel item) {
+        return favoriteIds != null ? favoriteIds.contains(item.getId()) : item.isFavorite();
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        MovieUiModel item = getItem(position);
+        // У заглушек нет ID фильма - свой отрицательный по позиции, с ID фильмов не совпадает
+        return item.isPlaceholder() ? -1L - position : item.getId();
+    }
+    
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        this.recyclerView = recyclerView;
+    }
+    
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        this.recyclerView = null;
+    }
+    
+    // Карточка из кэша прикрепляется без onBind - сердечко могло устареть
+    @Override
+    public void onViewAttachedToWindow(@NonNull MovieViewHolder holder) {
+        super.onViewAttachedToWindow(holder);
+        holder.refreshFavorite();
     }
     
     @NonNull
     @Override
     public MovieViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_movie, parent, false);
-        return new MovieViewHolder(view);
+        // Карточка из общего запаса, надутого заранее; пуст - надувается здесь же
+        View view = MovieCardPool.getInstance().obtain(parent);
+        if (parent instanceof RecyclerView) {
+            cellWidthPx = ImageSizeSelector.cellWidthPx((RecyclerView) parent);
+        }
+        MovieViewHolder holder = new MovieViewHolder(view);
+        if (preloadSizeProvider != null && !preloadSizeViewSet) {
+            preloadSizeViewSet = true;
+            preloadSizeProvider.setView(holder.posterImageView);
+        }
+        return holder;
     }
     
     @Override
     public void onBindViewHolder(@NonNull MovieViewHolder holder, int position) {
-        MovieWithFavorite movieWithFavorite = movies.get(position);
-        holder.bind(movieWithFavorite);
+        holder.bind(getItem(position));
     }
     
     @Override
-    public int getItemCount() {
-        return movies.size();
+    public void onBindViewHolder(@NonNull MovieViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        for (int i = 0, n = payloads.size(); i < n; i++) {
+            if (payloads.get(i) != PAYLOAD_FAVORITE) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        holder.refreshFavorite();
     }
     
     class MovieViewHolder extends RecyclerView.ViewHolder {
@@ -81,6 +244,10 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
         private TextView titleTextView;
         private TextView releaseDateTextView;
         private TextView ratingTextView;
+        // Последняя привязанная карточка и отображаемый статус сердечка
+        private MovieUiModel boundItem;
+        private String boundBaseUrl;
+        private boolean shownFavorite;
         
         public MovieViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -91,47 +258,73 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
             ratingTextView = itemView.findViewById(R.id.ratingTextView);
             
             itemView.setOnClickListener(v -> {
-                int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onMovieClick(movies.get(position).getMovie(), posterImageView);
+                int position = getBindingAdapterPosition();
+                // Заглушка выгруженной страницы - фильм ещё загружается
+                if (position != RecyclerView.NO_POSITION && listener != null
+                        && !getItem(position).isPlaceholder()) {
+                    listener.onMovieClick(getItem(position).getMovie(), posterImageView);
                 }
             });
             
             favoriteImageButton.setOnClickListener(v -> {
-                int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION && favoriteListener != null) {
-                    MovieWithFavorite movieWithFavorite = movies.get(position);
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && favoriteListener != null
+                        && !getItem(position).isPlaceholder()) {
+                    MovieUiModel item = getItem(position);
                     animateFavoriteButton();
-                    favoriteListener.onFavoriteClick(
-                            movieWithFavorite.getMovie().getId(),
-                            movieWithFavorite.isFavorite()
-                    );
+                    favoriteListener.onFavoriteClick(item.getId(), isFavorite(item));
                 }
             });
         }
         
-        public void bind(MovieWithFavorite movieWithFavorite) {
-            Movie movie = movieWithFavorite.getMovie();
-            boolean isFavorite = movieWithFavorite.isFavorite();
+        public void bind(MovieUiModel item) {
+            MovieUiModel previous = boundItem;
+            boundItem = item;
             
-            titleTextView.setText(movie.getTitle());
-            releaseDateTextView.setText(movie.getReleaseDate());
-            ratingTextView.setText(String.format("%.1f", movie.getVoteAverage()));
+            // Готовые строки из модели; неизменившиеся View не трогаем
+            if (previous == null || !Objects.equals(previous.getTitle(), item.getTitle())) {
+                titleTextView.setText(item.getTitle());
+                posterImageView.setContentDescription(item.getTitle());
+            }
+            if (previous == null || !Objects.equals(previous.getReleaseDate(), item.getReleaseDate())) {
+                releaseDateTextView.setText(item.getReleaseDate());
+            }
+            if (previous == null || !Objects.equals(previous.getRatingText(), item.getRatingText())) {
+                ratingTextView.setText(item.getRatingText());
+            }
             
-            // Иконка избранного
-            if (isFavorite) {
-                favoriteImageButton.setImageResource(R.drawable.ic_heart_filled);
-            } else {
-                favoriteImageButton.setImageResource(R.drawable.ic_heart_empty);
+            // Иконка избранного; у заглушки её нет - нечего добавлять
+            if (previous == null || previous.isPlaceholder() != item.isPlaceholder()) {
+                favoriteImageButton.setVisibility(item.isPlaceholder() ? View.INVISIBLE : View.VISIBLE);
+            }
+            boolean isFavorite = isFavorite(item);
+            if (previous == null || isFavorite != shownFavorite) {
+                shownFavorite = isFavorite;
+                setFavoriteIcon(isFavorite);
             }
             
-            // Glide - загрузка постера
-            String posterUrl = IMAGE_BASE_URL + movie.getPosterPath();
-            Glide.with(itemView.getContext())
-                    .load(posterUrl)
-                    .placeholder(R.drawable.ic_launcher_background)
-                    .error(R.drawable.ic_launcher_background)
-                    .into(posterImageView);
+            // Постер (Glide) - только если сменились файл постера или его размер;
+            // для карточки с тем же постером URL не собирается заново
+            String baseUrl = posterSizes.baseUrl(itemView.getContext(), cellWidthPx);
+            if (previous == null || baseUrl != boundBaseUrl || !item.hasSamePoster(previous)) {
+                boundBaseUrl = baseUrl;
+                posterLoader.load(posterImageView, item.getPosterUrl(baseUrl));
+            }
+        }
+        
+        // Частичная привязка: только сердечко и только если статус действительно изменился
+        void refreshFavorite() {
+            if (boundItem == null) return;
+            boolean isFavorite = isFavorite(boundItem);
+            if (isFavorite != shownFavorite) {
+                shownFavorite = isFavorite;
+                setFavoriteIcon(isFavorite);
+            }
+        }
+        
+        // Селектор ic_heart_toggle: смена состояния без загрузки новой Drawable
+        private void setFavoriteIcon(boolean isFavorite) {
+            favoriteImageButton.setActivated(isFavorite);
         }
         
         // Анимация при нажатии на сердечко
@@ -0,0 +1,134 @@
+package com.example.moviecast.ui.adapter;
+
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.content.res.Configuration;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.MainThread;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.moviecast.R;
+
+import java.util.ArrayDeque;
+
+/**
+ * MovieCardPool - общий для приложения запас карточек item_movie, надутых заранее.
+ * MovieAdapter и FavoritesAdapter берут карточку отсюда в onCreateViewHolder, поэтому
+ * первый экран сетки и каждый возврат в избранное не надувают разметку в главном потоке.
+ * Пул пополняется AsyncLayoutInflater, когда главный поток простаивает.
+ *
+ * Карточки надуваются на контексте приложения с темой и конфигурацией (ночной режим)
+ * последней Activity, каждая - через свой MutableContextWrapper. При выдаче контекст
+ * карточки переключается на Activity списка: Glide и переходы видят её, а карточки
+ * в запасе не держат ни одну Activity. Только главный поток.
+ */
+public final class MovieCardPool {
+
+    // Первый экран сетки в две колонки - 3 ряда, плюс ряд для предвыборки
+    private static final int TARGET_SIZE = 8;
+    // Карточек одного типа в RecycledViewPool экрана: 5 рядов при быстрой прокрутке (по умолчанию 5 штук)
+    private static final int RECYCLED_ROWS = 5;
+
+    private static MovieCardPool instance;
+
+    private final ArrayDeque<View> cards = new ArrayDeque<>();
+    // Контекст надувания; меняется вместе с ночным режимом - старые карточки тогда выбрасываются
+    private Context inflateContext;
+    private ViewGroup paramsParent; // только для LayoutParams из разметки, карточки в него не добавляются
+    private int uiMode;
+    private int inFlight;
+    private boolean refillScheduled;
+
+    private MovieCardPool() {
+    }
+
+    @MainThread
+    public static MovieCardPool getInstance() {
+        if (instance == null) {
+            instance = new MovieCardPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Пополнить запас в ближайший простой главного потока
+     * context - Activity, чьи тема и ночной режим нужны карточкам
+     */
+    @MainThread
+    public void warmUp(Context context) {
+        Configuration configuration = context.getResources().getConfiguration();
+        int mode = configuration.uiMode & Configuration.UI_MODE_NIGHT_MASK;
+        if (inflateContext == null || mode != uiMode) {
+            cards.clear();
+            uiMode = mode;
+            Context appContext = context.getApplicationContext().createConfigurationContext(configuration);
+            inflateContext = new ContextThemeWrapper(appContext, R.style.Theme_MovieCast);
+            paramsParent = new RecyclerView(inflateContext);
+        }
+        scheduleRefill();
+    }
+
+    /**
+     * Карточка для onCreateViewHolder: из запаса, если совпадает ночной режим, иначе надувается сразу
+     */
+    @MainThread
+    View obtain(ViewGroup parent) {
+        View card = null;
+        int mode = parent.getResources().getConfiguration().uiMode & Configuration.UI_MODE_NIGHT_MASK;
+        if (mode == uiMode) {
+            card = cards.pollFirst();
+        }
+        if (card != null) {
+            ((MutableContextWrapper) card.getContext()).setBaseContext(parent.getContext());
+        } else {
+            card = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_movie, parent, false);
+        }
+        scheduleRefill();
+        return card;
+    }
+
+    /**
+     * Размеры кэшей RecyclerView сетки карточек: ряды уходят за экран и возвращаются без надувания
+     */
+    public static void configure(RecyclerView recyclerView, GridLayoutManager layoutManager) {
+        int spanCount = layoutManager.getSpanCount();
+        recyclerView.getRecycledViewPool().setMaxRecycledViews(0, RECYCLED_ROWS * spanCount);
+        // Ряд над и под экраном остаются привязанными - обратная прокрутка без onBind
+        recyclerView.setItemViewCacheSize(2 * spanCount);
+        layoutManager.setItemPrefetchEnabled(true);
+    }
+
+    private void scheduleRefill() {
+        if (inflateContext == null || refillScheduled || cards.size() + inFlight >= TARGET_SIZE) {
+            return;
+        }
+        refillScheduled = true;
+        Looper.myQueue().addIdleHandler(() -> {
+            refillScheduled = false;
+            refill();
+            return false;
+        });
+    }
+
+    private void refill() {
+        Context generation = inflateContext;
+        while (cards.size() + inFlight < TARGET_SIZE) {
+            inFlight++;
+            // Свой MutableContextWrapper на карточку: выданная переключится на Activity, остальные - нет
+            new AsyncLayoutInflater(new MutableContextWrapper(generation))
+                    .inflate(R.layout.item_movie, paramsParent, (view, resid, parent) -> {
+                        inFlight--;
+                        if (inflateContext == generation) {
+                            cards.addLast(view);
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.moviecast.ui.adapter;
+
+import android.widget.ImageView;
+
+import com.bumptech.glide.Glide;
+import com.example.moviecast.ui.image.ImageRequests;
+
+/**
+ * PosterLoader - загрузка постера в карточку.
+ * По умолчанию Glide; в тестах подменяется, чтобы мерить саму привязку без запроса картинки.
+ */
+public interface PosterLoader {
+
+    void load(ImageView target, String url);
+
+    // Glide - постер; запрос общий с предзагрузкой, чтобы она попадала в кэш памяти
+    PosterLoader GLIDE = (target, url) ->
+            ImageRequests.posterForBind(Glide.with(target), url).into(target);
+}
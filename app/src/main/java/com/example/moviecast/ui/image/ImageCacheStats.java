@@ -0,0 +1,85 @@
+package com.example.moviecast.ui.image;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ImageCacheStats - откуда Glide отдаёт картинки: кэш памяти, дисковый кэш или сеть.
+ * Подключается глобальным слушателем в MovieCastGlideModule и видит все запросы приложения.
+ */
+public final class ImageCacheStats implements RequestListener<Object> {
+    
+    private static final String TAG = "ImageCache";
+    
+    private static final ImageCacheStats INSTANCE = new ImageCacheStats();
+    
+    private static final DataSource[] SOURCES = DataSource.values();
+    
+    // Счётчики по DataSource.ordinal(); последний элемент - ошибки загрузки
+    private final AtomicLongArray counts = new AtomicLongArray(SOURCES.length + 1);
+    
+    private ImageCacheStats() {
+    }
+    
+    public static ImageCacheStats getInstance() {
+        return INSTANCE;
+    }
+    
+    @Override
+    public boolean onLoadFailed(@Nullable GlideException e, @Nullable Object model,
+                                @NonNull Target<Object> target, boolean isFirstResource) {
+        counts.incrementAndGet(SOURCES.length);
+        return false;
+    }
+    
+    @Override
+    public boolean onResourceReady(@NonNull Object resource, @NonNull Object model,
+                                   Target<Object> target, @NonNull DataSource dataSource,
+                                   boolean isFirstResource) {
+        counts.incrementAndGet(dataSource.ordinal());
+        return false;
+    }
+    
+    public long getMemoryCacheHits() {
+        return counts.get(DataSource.MEMORY_CACHE.ordinal());
+    }
+    
+    /**
+     * Попадания в дисковый кэш: исходные данные (DATA) и готовые обрезанные картинки (RESOURCE)
+     */
+    public long getDiskCacheHits() {
+        return counts.get(DataSource.DATA_DISK_CACHE.ordinal())
+                + counts.get(DataSource.RESOURCE_DISK_CACHE.ordinal());
+    }
+    
+    public long getRemoteLoads() {
+        return counts.get(DataSource.REMOTE.ordinal());
+    }
+    
+    public long getFailures() {
+        return counts.get(SOURCES.length);
+    }
+    
+    public void log() {
+        Log.d(TAG, toString());
+    }
+    
+    @Override
+    public String toString() {
+        return "memory=" + getMemoryCacheHits()
+                + ", disk=" + getDiskCacheHits()
+                + " (resource " + counts.get(DataSource.RESOURCE_DISK_CACHE.ordinal()) + ")"
+                + ", remote=" + getRemoteLoads()
+                + ", local=" + counts.get(DataSource.LOCAL.ordinal())
+                + ", failed=" + getFailures();
+    }
+}
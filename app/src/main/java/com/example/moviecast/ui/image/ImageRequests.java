@@ -0,0 +1,82 @@
+package com.example.moviecast.ui.image;
+
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
+import com.example.moviecast.R;
+
+/**
+ * ImageRequests - общие запросы Glide для картинок в списках.
+ * Все адаптеры строят запросы от одной базы (THUMBNAIL), поэтому привязка и предзагрузка
+ * получают одинаковый ключ кэша памяти: он включает трансформацию, формат и размер,
+ * и любое расхождение превращает предзагрузку в холостую.
+ */
+public final class ImageRequests {
+    
+    // Миниатюры в сетке: centerCrop явно (into(ImageView) иначе добавит его неявно, а предзагрузка - нет),
+    // RGB_565 - постеры и фото без прозрачности, а битмап вдвое меньше ARGB_8888
+    private static final RequestOptions THUMBNAIL = new RequestOptions()
+            .centerCrop()
+            .format(DecodeFormat.PREFER_RGB_565)
+            .placeholder(R.drawable.ic_launcher_background)
+            .error(R.drawable.ic_launcher_background)
+            .lock();
+    
+    // Фото актёра - маленький квадрат, вырезанный из h632: на диск кладём уже обрезанный результат,
+    // повторный показ декодирует 80dp вместо исходника
+    private static final RequestOptions CAST_PHOTO = THUMBNAIL.clone()
+            .diskCacheStrategy(DiskCacheStrategy.RESOURCE)
+            .lock();
+    
+    // Привязка сообщает статистике предзагрузки, откуда пришёл постер
+    private static final RequestListener<Drawable> BIND_LISTENER = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, @Nullable Object model,
+                                    @NonNull Target<Drawable> target, boolean isFirstResource) {
+            return false;
+        }
+        
+        @Override
+        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model,
+                                       Target<Drawable> target, @NonNull DataSource dataSource,
+                                       boolean isFirstResource) {
+            PosterPreloadStats.getInstance().onPosterBound((String) model, dataSource);
+            return false;
+        }
+    };
+    
+    private ImageRequests() {
+    }
+    
+    /**
+     * Постер карточки в сетке (главный экран и избранное)
+     */
+    public static RequestBuilder<Drawable> poster(RequestManager glide, String url) {
+        return glide.load(url).apply(THUMBNAIL);
+    }
+    
+    /**
+     * Запрос привязки: тот же ключ кэша, что у предзагрузки, плюс учёт попаданий
+     */
+    public static RequestBuilder<Drawable> posterForBind(RequestManager glide, String url) {
+        return poster(glide, url).listener(BIND_LISTENER);
+    }
+    
+    /**
+     * Фото актёра в списке актёров
+     */
+    public static RequestBuilder<Drawable> castPhoto(RequestManager glide, String url) {
+        return glide.load(url).apply(CAST_PHOTO);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.moviecast.ui.image;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+
+/**
+ * MovieCastGlideModule - настройки Glide для приложения.
+ * Бюджеты кэшей под ленту постеров: сетка в две колонки, миниатюры в RGB_565 (ImageRequests),
+ * предзагрузка на три ряда вперёд. Все запросы учитываются в ImageCacheStats.
+ */
+@GlideModule
+public final class MovieCastGlideModule extends AppGlideModule {
+    
+    private static final String DISK_CACHE_DIR = "tmdb_images";
+    // Постер w342 - 20..40 КБ: 150 МБ хватает на несколько тысяч постеров и фото актёров
+    private static final long DISK_CACHE_BYTES = 150L * 1024 * 1024;
+    
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        // Кэш памяти - 3 экрана в ARGB_8888, то есть около 6 экранов миниатюр в RGB_565:
+        // видимая сетка, окно предзагрузки и недавно пролистанные ряды.
+        // Пул битмапов меньше стандартного (4 экрана): размеры миниатюр одинаковые и быстро
+        // переиспользуются. Общий потолок - четверть лимита кучи, а не 0.4 по умолчанию
+        builder.setMemorySizeCalculator(new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(3)
+                .setBitmapPoolScreens(2)
+                .setMaxSizeMultiplier(0.25f));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES));
+        builder.addGlobalRequestListener(ImageCacheStats.getInstance());
+    }
+    
+    // Зависимости Glide не регистрируют модули через манифест - не тратим время на разбор при старте
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
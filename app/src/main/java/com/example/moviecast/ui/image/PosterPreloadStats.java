@@ -0,0 +1,80 @@
+package com.example.moviecast.ui.image;
+
+import android.util.Log;
+
+import com.bumptech.glide.load.DataSource;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * PosterPreloadStats - доля попаданий предзагрузки постеров.
+ * Предзагрузка помечает URL; когда карточка с этим URL привязывается, смотрим,
+ * откуда Glide отдал картинку: из кэша памяти - предзагрузка сработала.
+ * Только главный поток (ListPreloader и RequestListener Glide работают в нём).
+ */
+public final class PosterPreloadStats {
+    
+    private static final String TAG = "PosterPreload";
+    private static final int MAX_TRACKED_URLS = 256;
+    
+    private static final PosterPreloadStats INSTANCE = new PosterPreloadStats();
+    
+    // Недавно предзагруженные URL; старые вытесняются, чтобы множество не росло со списком
+    private final Map<String, Boolean> preloadedUrls = new LinkedHashMap<String, Boolean>(64, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_TRACKED_URLS;
+        }
+    };
+    
+    private long preloadRequests;
+    private long bindsTotal;
+    private long bindsFromMemory;
+    private long bindsPreloaded;
+    private long bindsPreloadedFromMemory;
+    
+    private PosterPreloadStats() {
+    }
+    
+    public static PosterPreloadStats getInstance() {
+        return INSTANCE;
+    }
+    
+    void onPreloadRequested(String url) {
+        preloadRequests++;
+        preloadedUrls.put(url, Boolean.TRUE);
+    }
+    
+    /**
+     * Постер карточки готов; dataSource - откуда его взял Glide
+     */
+    public void onPosterBound(String url, DataSource dataSource) {
+        boolean fromMemory = dataSource == DataSource.MEMORY_CACHE;
+        bindsTotal++;
+        if (fromMemory) bindsFromMemory++;
+        if (url != null && preloadedUrls.remove(url) != null) {
+            bindsPreloaded++;
+            if (fromMemory) bindsPreloadedFromMemory++;
+        }
+    }
+    
+    /**
+     * Доля привязок предзагруженных постеров, отданных из кэша памяти (0..1)
+     */
+    public double getHitRate() {
+        return bindsPreloaded == 0 ? 0 : (double) bindsPreloadedFromMemory / bindsPreloaded;
+    }
+    
+    public void log() {
+        Log.d(TAG, toString());
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "preloads=%d, binds=%d (memory %d), preloaded binds=%d (memory %d), hit rate=%.1f%%",
+                preloadRequests, bindsTotal, bindsFromMemory,
+                bindsPreloaded, bindsPreloadedFromMemory, getHitRate() * 100);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.moviecast.ui.image;
+
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PosterPreloader - загрузка постеров на несколько рядов вперёд по направлению прокрутки.
+ * Направление отслеживает RecyclerViewPreloader (Glide), окно - PRELOAD_ROWS рядов
+ * по spanCount карточек. URL и запрос те же, что при привязке (ImageRequests),
+ * размер - измеренный размер постера карточки, поэтому предзагрузка попадает в кэш памяти.
+ */
+public final class PosterPreloader implements ListPreloader.PreloadModelProvider<String> {
+    
+    private static final int PRELOAD_ROWS = 3;
+    
+    /** Источник URL постера по позиции - тот же, что использует привязка */
+    public interface UrlSource {
+        int getItemCount();
+        @Nullable String getPosterUrlAt(int position);
+    }
+    
+    private final RequestManager glide;
+    private final UrlSource source;
+    
+    private PosterPreloader(RequestManager glide, UrlSource source) {
+        this.glide = glide;
+        this.source = source;
+    }
+    
+    /**
+     * Подключение к списку; sizeProvider должен получить View постера первой созданной карточки
+     */
+    public static void attach(RecyclerView recyclerView, RequestManager glide, UrlSource source,
+                              ViewPreloadSizeProvider<String> sizeProvider) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        int spanCount = layoutManager instanceof GridLayoutManager
+                ? ((GridLayoutManager) layoutManager).getSpanCount() : 1;
+        recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(glide,
+                new PosterPreloader(glide, source), sizeProvider, PRELOAD_ROWS * spanCount));
+    }
+    
+    @NonNull
+    @Override
+    public List<String> getPreloadItems(int position) {
+        if (position < 0 || position >= source.getItemCount()) {
+            return Collections.emptyList();
+        }
+        String url = source.getPosterUrlAt(position);
+        return url != null ? Collections.singletonList(url) : Collections.<String>emptyList();
+    }
+    
+    @Nullable
+    @Override
+    public RequestBuilder<Drawable> getPreloadRequestBuilder(@NonNull String url) {
+        PosterPreloadStats.getInstance().onPreloadRequested(url);
+        return ImageRequests.poster(glide, url);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.moviecast.ui.metrics;
+
+import java.util.Locale;
+
+/**
+ * FrameHistogram - распределение длительности кадров по фиксированным корзинам.
+ * Медленный кадр - не уложился в дедлайн дисплея, замёрзший - дольше 700 мс (как в Android vitals).
+ * Не потокобезопасен: пишет JankMonitor под своей блокировкой, наружу отдаются копии.
+ */
+public final class FrameHistogram {
+
+    // Верхние границы корзин в мс; последняя корзина - всё, что дольше
+    private static final int[] BUCKET_LIMITS_MS = {8, 12, 16, 20, 25, 33, 50, 100, 250, 700};
+
+    static final long FROZEN_FRAME_NS = 700_000_000L;
+
+    private final long[] counts = new long[BUCKET_LIMITS_MS.length + 1];
+    private long frames;
+    private long slowFrames;
+    private long frozenFrames;
+    private long totalNs;
+    private long maxNs;
+
+    void add(long durationNs, long deadlineNs) {
+        long durationMs = durationNs / 1_000_000L;
+        int bucket = 0;
+        while (bucket < BUCKET_LIMITS_MS.length && durationMs >= BUCKET_LIMITS_MS[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        frames++;
+        totalNs += durationNs;
+        if (durationNs > maxNs) maxNs = durationNs;
+        if (durationNs > deadlineNs) slowFrames++;
+        if (durationNs > FROZEN_FRAME_NS) frozenFrames++;
+    }
+
+    void merge(FrameHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        frames += other.frames;
+        slowFrames += other.slowFrames;
+        frozenFrames += other.frozenFrames;
+        totalNs += other.totalNs;
+        maxNs = Math.max(maxNs, other.maxNs);
+    }
+
+    FrameHistogram copy() {
+        FrameHistogram copy = new FrameHistogram();
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.frames = frames;
+        copy.slowFrames = slowFrames;
+        copy.frozenFrames = frozenFrames;
+        copy.totalNs = totalNs;
+        copy.maxNs = maxNs;
+        return copy;
+    }
+
+    public long getFrames() { return frames; }
+    public long getSlowFrames() { return slowFrames; }
+    public long getFrozenFrames() { return frozenFrames; }
+    public long getMaxMs() { return maxNs / 1_000_000L; }
+
+    public int getBucketCount() { return counts.length; }
+    public long getBucket(int index) { return counts[index]; }
+
+    /**
+     * Верхняя граница корзины в мс; для последней - Integer.MAX_VALUE
+     */
+    public static int getBucketLimitMs(int index) {
+        return index < BUCKET_LIMITS_MS.length ? BUCKET_LIMITS_MS[index] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Перцентиль длительности кадра (0..100) с точностью до корзины: верхняя граница корзины,
+     * в которую он попал; для последней корзины - максимум
+     */
+    public long percentileMs(double percentile) {
+        if (frames == 0) return 0;
+        long rank = (long) Math.ceil(frames * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < BUCKET_LIMITS_MS.length ? BUCKET_LIMITS_MS[i] : getMaxMs();
+            }
+        }
+        return getMaxMs();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(String.format(Locale.US,
+                "frames=%d slow=%d (%.1f%%) frozen=%d avg=%.1fms p50<=%d p90<=%d p99<=%d max=%d |",
+                frames, slowFrames, frames == 0 ? 0 : 100.0 * slowFrames / frames, frozenFrames,
+                frames == 0 ? 0 : totalNs / 1e6 / frames,
+                percentileMs(50), percentileMs(90), percentileMs(99), getMaxMs()));
+        for (int i = 0; i < counts.length; i++) {
+            out.append(' ');
+            out.append(i < BUCKET_LIMITS_MS.length ? "<" + BUCKET_LIMITS_MS[i] : ">=700");
+            out.append(':').append(counts[i]);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.moviecast.ui.metrics;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.moviecast.concurrent.AppExecutors;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JankMonitor - длительность кадров по экранам и состояниям экрана (Window FrameMetrics).
+ *
+ * Экран открывает сессию в onResume и закрывает в onPause. Пока сессия открыта, каждый
+ * кадр окна попадает в гистограмму под текущей маской состояний: прокрутка, загрузка
+ * страницы, переключение избранного. Кадры приходят в отдельном потоке, состояния
+ * выставляются из главного. Последние MAX_SESSIONS сессий доступны через getSessions()
+ * и выгружаются в текстовый файл - регрессии адаптеров и разметки видны в цифрах.
+ */
+public final class JankMonitor {
+
+    private static final String TAG = "JankMonitor";
+
+    public static final String SCREEN_MAIN = "main";
+    public static final String SCREEN_FAVORITES = "favorites";
+    public static final String SCREEN_DETAILS = "details";
+
+    // Состояния экрана - биты маски
+    public static final int STATE_SCROLLING = 1;
+    public static final int STATE_LOADING = 1 << 1;
+    public static final int STATE_FAVORITE_TOGGLE = 1 << 2;
+    private static final String[] STATE_NAMES = {"scrolling", "loading", "favorite"};
+
+    // Переключение избранного - мгновенное действие; кадры анимации сердечка и перепривязки
+    private static final long FAVORITE_TOGGLE_WINDOW_MS = 500;
+    private static final int MAX_SESSIONS = 32;
+    // Файлов выгрузки в каталоге; более старые удаляются
+    private static final int MAX_DUMP_FILES = 10;
+    private static final String DUMP_PREFIX = "jank-";
+
+    private static JankMonitor instance;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<JankSession> sessions = new ArrayDeque<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable endFavoriteToggle = () -> setState(STATE_FAVORITE_TOGGLE, false);
+    private Handler metricsHandler;
+
+    // Пишется в главном потоке, читается в потоке метрик
+    private volatile int stateMask;
+
+    // Только главный поток
+    private Window activeWindow;
+    private Window.OnFrameMetricsAvailableListener activeListener;
+    private JankSession activeSession;
+
+    private JankMonitor() {
+    }
+
+    public static synchronized JankMonitor getInstance() {
+        if (instance == null) {
+            instance = new JankMonitor();
+        }
+        return instance;
+    }
+
+    /**
+     * Начать сессию экрана (onResume); открытая сессия другого экрана закрывается
+     */
+    @MainThread
+    @SuppressWarnings("deprecation") // getDefaultDisplay - единственный вариант до API 30
+    public void startSession(Activity activity, String screen) {
+        if (activeSession != null) {
+            endSession();
+        }
+        if (metricsHandler == null) {
+            HandlerThread thread = new HandlerThread("frame-metrics");
+            thread.start();
+            metricsHandler = new Handler(thread.getLooper());
+        }
+        // До API 31 дедлайна в FrameMetrics нет - считаем от частоты дисплея
+        float refreshRate = activity.getWindowManager().getDefaultDisplay().getRefreshRate();
+        long fallbackDeadlineNs = (long) (1_000_000_000L / (refreshRate > 0 ? refreshRate : 60f));
+
+        JankSession session = new JankSession(screen, System.currentTimeMillis());
+        synchronized (lock) {
+            sessions.addLast(session);
+            while (sessions.size() > MAX_SESSIONS) {
+                sessions.removeFirst();
+            }
+        }
+        stateMask = 0;
+        activeSession = session;
+        activeWindow = activity.getWindow();
+        activeListener = (window, frameMetrics, dropCount) -> {
+            // Первый кадр окна - это запуск экрана, его считает отчёт о старте
+            if (frameMetrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) return;
+            long durationNs = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+            long deadlineNs = Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                    ? frameMetrics.getMetric(FrameMetrics.DEADLINE) : fallbackDeadlineNs;
+            int mask = stateMask;
+            synchronized (lock) {
+                if (session.isActive()) {
+                    session.add(mask, durationNs, deadlineNs);
+                }
+            }
+        };
+        activeWindow.addOnFrameMetricsAvailableListener(activeListener, metricsHandler);
+    }
+
+    /**
+     * Закрыть текущую сессию (onPause)
+     */
+    @MainThread
+    public void endSession() {
+        if (activeSession == null) return;
+        activeWindow.removeOnFrameMetricsAvailableListener(activeListener);
+        synchronized (lock) {
+            activeSession.end(System.currentTimeMillis());
+        }
+        mainHandler.removeCallbacks(endFavoriteToggle);
+        stateMask = 0;
+        activeSession = null;
+        activeWindow = null;
+        activeListener = null;
+    }
+
+    /**
+     * Включить/выключить состояние экрана (STATE_*)
+     */
+    @MainThread
+    public void setState(int state, boolean active) {
+        stateMask = active ? stateMask | state : stateMask & ~state;
+    }
+
+    /**
+     * Пользователь нажал на сердечко: следующие FAVORITE_TOGGLE_WINDOW_MS кадров - переключение избранного
+     */
+    @MainThread
+    public void markFavoriteToggle() {
+        setState(STATE_FAVORITE_TOGGLE, true);
+        mainHandler.removeCallbacks(endFavoriteToggle);
+        mainHandler.postDelayed(endFavoriteToggle, FAVORITE_TOGGLE_WINDOW_MS);
+    }
+
+    /**
+     * Слушатель прокрутки списка: пока список движется, кадры идут в состояние "scrolling"
+     */
+    public RecyclerView.OnScrollListener scrollStateListener() {
+        return new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                setState(STATE_SCROLLING, newState != RecyclerView.SCROLL_STATE_IDLE);
+            }
+        };
+    }
+
+    /**
+     * Снимки последних сессий, от старых к новым; безопасно из любого потока
+     */
+    public List<JankSession> getSessions() {
+        synchronized (lock) {
+            List<JankSession> result = new ArrayList<>(sessions.size());
+            for (JankSession session : sessions) {
+                result.add(session.copy());
+            }
+            return result;
+        }
+    }
+
+    static String stateName(int mask) {
+        if (mask == 0) return "idle";
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < STATE_NAMES.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                if (name.length() > 0) name.append('+');
+                name.append(STATE_NAMES[i]);
+            }
+        }
+        return name.toString();
+    }
+
+    public void log() {
+        for (JankSession session : getSessions()) {
+            Log.d(TAG, session.getScreen() + ": " + session.getTotal());
+        }
+    }
+
+    /**
+     * Выгрузить все сессии в dir/jank-<время>.txt; в каталоге остаются MAX_DUMP_FILES последних
+     */
+    @WorkerThread
+    public File dumpTo(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US);
+        File file = new File(dir, DUMP_PREFIX + format.format(new Date()) + ".txt");
+        try (Writer out = new FileWriter(file)) {
+            for (JankSession session : getSessions()) {
+                out.write(session.getScreen() + " " + format.format(new Date(session.getStartedAtMs()))
+                        + (session.isActive() ? " (active)" : " "
+                        + (session.getEndedAtMs() - session.getStartedAtMs()) + "ms") + "\n");
+                out.write("  total: " + session.getTotal() + "\n");
+                for (Map.Entry<String, FrameHistogram> entry : session.getHistograms().entrySet()) {
+                    out.write("  " + entry.getKey() + ": " + entry.getValue() + "\n");
+                }
+            }
+        }
+        pruneDumps(dir);
+        return file;
+    }
+
+    // Имя содержит время до секунд, поэтому порядок имён - порядок выгрузок
+    private static void pruneDumps(File dir) {
+        File[] dumps = dir.listFiles((parent, name) -> name.startsWith(DUMP_PREFIX));
+        if (dumps == null || dumps.length <= MAX_DUMP_FILES) {
+            return;
+        }
+        Arrays.sort(dumps);
+        for (int i = 0; i < dumps.length - MAX_DUMP_FILES; i++) {
+            if (!dumps[i].delete()) {
+                Log.w(TAG, "Cannot delete " + dumps[i]);
+            }
+        }
+    }
+
+    /**
+     * Выгрузка в очереди записи, без блокировки главного потока
+     */
+    public void dumpAsync(File dir) {
+        AppExecutors.getInstance().diskWrites().execute(() -> {
+            try {
+                Log.d(TAG, "Frame stats written to " + dumpTo(dir));
+            } catch (IOException e) {
+                Log.w(TAG, "Frame stats dump failed", e);
+            }
+        });
+    }
+}
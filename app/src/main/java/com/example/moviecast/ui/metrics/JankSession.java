@@ -0,0 +1,75 @@
+package com.example.moviecast.ui.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JankSession - кадры одного показа экрана (от onResume до onPause),
+ * разложенные по состоянию экрана в момент кадра: покой, прокрутка, загрузка страницы,
+ * переключение избранного и их сочетания.
+ * Изменяемый экземпляр живёт внутри JankMonitor; наружу отдаются снимки.
+ */
+public final class JankSession {
+
+    private final String screen;
+    private final long startedAtMs;
+    private long endedAtMs; // 0 - экран ещё показан
+    // Маска состояний JankMonitor.STATE_* -> гистограмма
+    private final TreeMap<Integer, FrameHistogram> byState = new TreeMap<>();
+
+    JankSession(String screen, long startedAtMs) {
+        this.screen = screen;
+        this.startedAtMs = startedAtMs;
+    }
+
+    void add(int stateMask, long durationNs, long deadlineNs) {
+        FrameHistogram histogram = byState.get(stateMask);
+        if (histogram == null) {
+            histogram = new FrameHistogram();
+            byState.put(stateMask, histogram);
+        }
+        histogram.add(durationNs, deadlineNs);
+    }
+
+    void end(long endedAtMs) {
+        this.endedAtMs = endedAtMs;
+    }
+
+    JankSession copy() {
+        JankSession copy = new JankSession(screen, startedAtMs);
+        copy.endedAtMs = endedAtMs;
+        for (Map.Entry<Integer, FrameHistogram> entry : byState.entrySet()) {
+            copy.byState.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    public String getScreen() { return screen; }
+    public long getStartedAtMs() { return startedAtMs; }
+    public long getEndedAtMs() { return endedAtMs; }
+    public boolean isActive() { return endedAtMs == 0; }
+
+    /**
+     * Гистограммы по названию состояния ("idle", "scrolling", "scrolling+loading", ...)
+     */
+    public Map<String, FrameHistogram> getHistograms() {
+        Map<String, FrameHistogram> result = new LinkedHashMap<>();
+        for (Map.Entry<Integer, FrameHistogram> entry : byState.entrySet()) {
+            result.put(JankMonitor.stateName(entry.getKey()), entry.getValue());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Все кадры сессии независимо от состояния
+     */
+    public FrameHistogram getTotal() {
+        FrameHistogram total = new FrameHistogram();
+        for (FrameHistogram histogram : byState.values()) {
+            total.merge(histogram);
+        }
+        return total;
+    }
+}
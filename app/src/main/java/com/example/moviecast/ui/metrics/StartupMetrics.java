@@ -0,0 +1,75 @@
+package com.example.moviecast.ui.metrics;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.MainThread;
+
+import com.example.moviecast.data.repository.StartupWarmup;
+
+/**
+ * StartupMetrics - время до первого кадра (TTID) и до полного отображения списка (TTFD)
+ * от старта процесса. TTFD дополнительно сообщается системе через reportFullyDrawn():
+ * его видят logcat ("Fully drawn") и макробенчмарки.
+ * Каждая метрика фиксируется один раз за процесс. Только главный поток.
+ */
+public final class StartupMetrics {
+
+    private static final String TAG = "StartupMetrics";
+
+    private static long timeToInitialDisplayMs = -1;
+    private static long timeToFullDisplayMs = -1;
+
+    private StartupMetrics() {
+    }
+
+    /**
+     * Зафиксировать TTID на первом кадре окна activity (вызывать из onCreate первого экрана)
+     */
+    @MainThread
+    public static void trackInitialDisplay(Activity activity) {
+        if (timeToInitialDisplayMs >= 0) return;
+        View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            @Override
+            public void onDraw() {
+                if (timeToInitialDisplayMs < 0) {
+                    timeToInitialDisplayMs = sinceProcessStart();
+                    Log.i(TAG, "TTID " + timeToInitialDisplayMs + " ms");
+                }
+                // Снять слушатель внутри onDraw нельзя - после кадра
+                decorView.post(() -> decorView.getViewTreeObserver().removeOnDrawListener(this));
+            }
+        });
+    }
+
+    /**
+     * Список с первой страницей показан: TTFD и reportFullyDrawn()
+     */
+    @MainThread
+    public static void reportFullyDrawn(Activity activity) {
+        if (timeToFullDisplayMs >= 0) return;
+        timeToFullDisplayMs = sinceProcessStart();
+        activity.reportFullyDrawn();
+        Log.i(TAG, "TTFD " + timeToFullDisplayMs + " ms, warm-up steps "
+                + StartupWarmup.getInstance().getStepTimes());
+    }
+
+    /** -1, если ещё не зафиксировано */
+    public static long getTimeToInitialDisplayMs() {
+        return timeToInitialDisplayMs;
+    }
+
+    /** -1, если ещё не зафиксировано */
+    public static long getTimeToFullDisplayMs() {
+        return timeToFullDisplayMs;
+    }
+
+    private static long sinceProcessStart() {
+        return SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+    }
+}
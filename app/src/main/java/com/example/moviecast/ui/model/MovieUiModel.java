@@ -0,0 +1,185 @@
+package com.example.moviecast.ui.model;
+
+import com.example.moviecast.data.local.MediaItem;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.data.repository.GenreLookup;
+
+import java.util.Objects;
+
+/**
+ * MovieUiModel - готовая к отображению карточка фильма.
+ * Собирается в фоновом потоке: рейтинг уже отформатирован, год выделен, жанры разрешены.
+ * URL постера зависит от размера View, поэтому собирается при первой привязке и запоминается
+ * для текущего базового URL. onBindViewHolder только раздаёт готовые строки по View.
+ * Карточки избранного с сохранённым постером отдают путь к локальному файлу.
+ * Заглушка (PLACEHOLDER) держит место фильма выгруженной страницы: без фильма и без ID.
+ */
+public final class MovieUiModel {
+
+    private final int id;
+    private final Movie movie; // исходный фильм для перехода на детали; null для карточек из Room
+    private final String title;
+    private final String releaseDate;
+    private final int releaseYear; // 0 - дата неизвестна
+    private final String ratingText;
+    private final String genreLabel;
+    private final String posterPath; // null - постера нет
+    private final String localPosterPath; // локальная копия постера избранного; null - из сети
+    private final PosterUrlMemo posterUrlMemo; // общий для копий с другим статусом избранного
+    private final boolean isFavorite;
+    private final boolean placeholder;
+
+    private MovieUiModel(int id, Movie movie, String title, String releaseDate, double voteAverage,
+                         String genreLabel, String posterPath, String localPosterPath,
+                         boolean isFavorite, boolean placeholder) {
+        this.id = id;
+        this.movie = movie;
+        this.title = title;
+        this.releaseDate = releaseDate;
+        this.releaseYear = parseYear(releaseDate);
+        this.ratingText = placeholder ? "" : String.format("%.1f", voteAverage);
+        this.genreLabel = genreLabel != null ? genreLabel : "";
+        this.posterPath = posterPath;
+        this.localPosterPath = localPosterPath;
+        this.posterUrlMemo = new PosterUrlMemo();
+        this.isFavorite = isFavorite;
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * Карточка фильма из API (главный экран)
+     */
+    public static MovieUiModel from(Movie movie, boolean isFavorite, GenreLookup genres) {
+        return new MovieUiModel(movie.getId(), movie, movie.getTitle(), movie.getReleaseDate(),
+                movie.getVoteAverage(), genres.joinNames(movie.getGenreIds()),
+                movie.getPosterPath(), null, isFavorite, false);
+    }
+
+    /**
+     * Карточка фильма из Room (экран избранного)
+     */
+    public static MovieUiModel from(MediaItem mediaItem, String genreLabel) {
+        return new MovieUiModel(mediaItem.getId(), null, mediaItem.getTitle(),
+                mediaItem.getReleaseDate(), mediaItem.getVoteAverage(), genreLabel,
+                mediaItem.getPosterPath(), mediaItem.getLocalPosterPath(),
+                mediaItem.isFavorite(), false);
+    }
+
+    /**
+     * Заглушка на месте фильма выгруженной страницы (главный экран): одна на все места -
+     * окно страниц не помнит, какие фильмы были на выгруженной странице. Пустая карточка
+     * без сердечка; когда страница вернётся, DiffUtil заменит её карточкой фильма
+     */
+    public static final MovieUiModel PLACEHOLDER =
+            new MovieUiModel(0, null, "", "", 0, "", null, null, false, true);
+
+    /**
+     * Та же карточка с другим статусом избранного; готовые строки переиспользуются
+     */
+    public MovieUiModel withFavorite(boolean favorite) {
+        if (favorite == isFavorite) {
+            return this;
+        }
+        return new MovieUiModel(this, favorite);
+    }
+
+    private MovieUiModel(MovieUiModel source, boolean isFavorite) {
+        this.id = source.id;
+        this.movie = source.movie;
+        this.title = source.title;
+        this.releaseDate = source.releaseDate;
+        this.releaseYear = source.releaseYear;
+        this.ratingText = source.ratingText;
+        this.genreLabel = source.genreLabel;
+        this.posterPath = source.posterPath;
+        this.localPosterPath = source.localPosterPath;
+        this.posterUrlMemo = source.posterUrlMemo;
+        this.isFavorite = isFavorite;
+        this.placeholder = source.placeholder;
+    }
+
+    public int getId() { return id; }
+    public Movie getMovie() { return movie; }
+    public String getTitle() { return title; }
+    public String getReleaseDate() { return releaseDate; }
+    public int getReleaseYear() { return releaseYear; }
+    public String getRatingText() { return ratingText; }
+    public String getGenreLabel() { return genreLabel; }
+    public String getPosterPath() { return posterPath; }
+    public boolean isFavorite() { return isFavorite; }
+    public boolean isPlaceholder() { return placeholder; }
+
+    /**
+     * Совпадает ли всё, что видно на карточке, кроме сердечка
+     */
+    public boolean hasSameContent(MovieUiModel other) {
+        return this == other
+                || (placeholder == other.placeholder
+                && Objects.equals(title, other.title)
+                && Objects.equals(releaseDate, other.releaseDate)
+                && Objects.equals(ratingText, other.ratingText)
+                && Objects.equals(genreLabel, other.genreLabel)
+                && Objects.equals(posterPath, other.posterPath)
+                && Objects.equals(localPosterPath, other.localPosterPath));
+    }
+
+    /**
+     * Тот же ли постер (путь TMDb и локальная копия) - без сборки URL
+     */
+    public boolean hasSamePoster(MovieUiModel other) {
+        return Objects.equals(posterPath, other.posterPath)
+                && Objects.equals(localPosterPath, other.localPosterPath);
+    }
+
+    /**
+     * Полный URL постера для базового URL размера ("https://image.tmdb.org/t/p/w342")
+     * или null, если постера нет. Для того же базового URL возвращается та же строка.
+     * Если постер сохранён локально - путь к файлу (Glide загружает его как файл).
+     */
+    public String getPosterUrl(String baseUrl) {
+        if (localPosterPath != null) {
+            return localPosterPath;
+        }
+        if (posterPath == null) {
+            return null;
+        }
+        PosterUrl cached = posterUrlMemo.value;
+        if (cached != null && cached.baseUrl == baseUrl) {
+            return cached.url;
+        }
+        String url = baseUrl + posterPath;
+        // Гонка записи безопасна: PosterUrl неизменяем, в худшем случае строка соберётся повторно
+        posterUrlMemo.value = new PosterUrl(baseUrl, url);
+        return url;
+    }
+
+    private static final class PosterUrlMemo {
+        volatile PosterUrl value;
+    }
+
+    private static final class PosterUrl {
+        final String baseUrl;
+        final String url;
+
+        PosterUrl(String baseUrl, String url) {
+            this.baseUrl = baseUrl;
+            this.url = url;
+        }
+    }
+
+    // "2024-05-17" -> 2024
+    private static int parseYear(String date) {
+        if (date == null || date.length() < 4) {
+            return 0;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = date.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            year = year * 10 + (c - '0');
+        }
+        return year;
+    }
+}
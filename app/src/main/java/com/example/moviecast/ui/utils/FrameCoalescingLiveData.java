@@ -0,0 +1,67 @@
+package com.example.moviecast.ui.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.lifecycle.LiveData;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * FrameCoalescingLiveData - LiveData с неизменяемым состоянием, которое можно обновлять
+ * из любого потока. Все обновления, пришедшие в пределах одного кадра, сливаются
+ * в одну эмиссию на следующем vsync (Choreographer), поэтому наблюдатель
+ * перерисовывает экран не чаще раза за кадр.
+ */
+public class FrameCoalescingLiveData<T> extends LiveData<T> {
+
+    private final AtomicReference<T> latest;
+    private final AtomicBoolean frameScheduled = new AtomicBoolean(false);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> dispatch();
+
+    public FrameCoalescingLiveData(T initial) {
+        super(initial);
+        latest = new AtomicReference<>(initial);
+    }
+
+    /**
+     * Актуальное состояние (включая ещё не отправленное наблюдателям)
+     */
+    public T getLatest() {
+        return latest.get();
+    }
+
+    /**
+     * Атомарное обновление состояния и планирование эмиссии на ближайший кадр
+     * reducer должен быть чистой функцией - при гонке он вызывается повторно
+     */
+    public T update(UnaryOperator<T> reducer) {
+        T previous;
+        T next;
+        do {
+            previous = latest.get();
+            next = reducer.apply(previous);
+        } while (!latest.compareAndSet(previous, next));
+
+        if (next != previous && frameScheduled.compareAndSet(false, true)) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                Choreographer.getInstance().postFrameCallback(frameCallback);
+            } else {
+                mainHandler.post(() -> Choreographer.getInstance().postFrameCallback(frameCallback));
+            }
+        }
+        return next;
+    }
+
+    private void dispatch() {
+        frameScheduled.set(false);
+        T value = latest.get();
+        if (value != getValue()) {
+            setValue(value);
+        }
+    }
+}
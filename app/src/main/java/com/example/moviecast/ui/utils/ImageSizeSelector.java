@@ -0,0 +1,81 @@
+package com.example.moviecast.ui.utils;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.moviecast.data.repository.ImageSizes;
+import com.example.moviecast.data.repository.MovieRepository;
+
+/**
+ * ImageSizeSelector - выбор размера картинки TMDb под реальную ширину View.
+ * Берётся наименьший размер из /configuration, покрывающий ширину View в пикселях
+ * (dp * density). В лимитной сети цель уменьшается: картинка чуть мягче, байт заметно меньше.
+ * Результат кэшируется до смены ширины, снимка ImageSizes или типа сети. Только главный поток.
+ */
+public final class ImageSizeSelector {
+    
+    public enum Kind { POSTER, PROFILE }
+    
+    private static final float METERED_SCALE = 0.75f;
+    
+    private final Kind kind;
+    private int targetWidthPx = -1;
+    private ImageSizes sizes;
+    private boolean metered;
+    private String baseUrl;
+    
+    public ImageSizeSelector(Kind kind) {
+        this.kind = kind;
+    }
+    
+    /**
+     * Базовый URL ("https://image.tmdb.org/t/p/w342") для View шириной widthPx
+     */
+    public String baseUrl(Context context, int widthPx) {
+        ImageSizes currentSizes = MovieRepository.getImageSizes();
+        boolean currentMetered = NetworkUtil.isMeteredNetwork(context);
+        if (baseUrl == null || widthPx != targetWidthPx
+                || currentSizes != sizes || currentMetered != metered) {
+            targetWidthPx = widthPx;
+            sizes = currentSizes;
+            metered = currentMetered;
+            int effectiveWidth = metered ? Math.round(widthPx * METERED_SCALE) : widthPx;
+            baseUrl = kind == Kind.POSTER
+                    ? currentSizes.posterBaseUrl(effectiveWidth)
+                    : currentSizes.profileBaseUrl(effectiveWidth);
+        }
+        return baseUrl;
+    }
+    
+    /**
+     * Ширина View; до первой разметки - ширина из LayoutParams (фиксированные dp),
+     * иначе ширина экрана (для match_parent это верхняя оценка)
+     */
+    public static int viewWidthPx(View view) {
+        int width = view.getWidth();
+        if (width > 0) {
+            return width;
+        }
+        if (view.getLayoutParams() != null && view.getLayoutParams().width > 0) {
+            return view.getLayoutParams().width;
+        }
+        return view.getResources().getDisplayMetrics().widthPixels;
+    }
+    
+    /**
+     * Ширина ячейки списка: ширина RecyclerView / число колонок GridLayoutManager
+     */
+    public static int cellWidthPx(RecyclerView parent) {
+        int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (width <= 0) {
+            width = parent.getResources().getDisplayMetrics().widthPixels;
+        }
+        RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        int spanCount = layoutManager instanceof GridLayoutManager
+                ? ((GridLayoutManager) layoutManager).getSpanCount() : 1;
+        return width / spanCount;
+    }
+}
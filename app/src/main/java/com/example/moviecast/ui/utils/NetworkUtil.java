@@ -2,14 +2,23 @@ package com.example.moviecast.ui.utils;
 
 import android.content.Context;
 import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.net.NetworkInfo;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * NetworkUtil - проверка доступности интернета.
  * Используется перед запросами к API.
+ * Также отслеживает, лимитная ли текущая сеть (для выбора размера картинок).
  */
 public class NetworkUtil {
     
+    // Лимитная сеть (обычно мобильная); обновляется колбэком сети, читается без IPC
+    private static volatile boolean metered;
+    private static final AtomicBoolean meteredTracking = new AtomicBoolean();
+    
     public static boolean isNetworkAvailable(Context context) {
         ConnectivityManager connectivityManager = 
                 (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
@@ -21,4 +30,26 @@ public class NetworkUtil {
         
         return false;
     }
+    
+    // Первый вызов подписывается на смену сети по умолчанию, дальше - чтение кэша
+    public static boolean isMeteredNetwork(Context context) {
+        if (meteredTracking.compareAndSet(false, true)) {
+            startMeteredTracking(context.getApplicationContext());
+        }
+        return metered;
+    }
+    
+    private static void startMeteredTracking(Context context) {
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) return;
+        
+        metered = connectivityManager.isActiveNetworkMetered();
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+            }
+        });
+    }
 }
@@ -0,0 +1,144 @@
+package com.example.moviecast.ui.viewmodel;
+
+import com.example.moviecast.data.remote.model.Cast;
+import com.example.moviecast.data.remote.model.Genre;
+import com.example.moviecast.data.remote.model.Movie;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DetailsState - единое неизменяемое состояние экрана деталей фильма.
+ * Объединяет локальный кэш (Room) и сеть (Retrofit) с явным приоритетом свежести:
+ * данные из сети не перезаписываются более старыми данными из кэша,
+ * даже если чтение Room завершилось позже ответа API.
+ * version растёт с каждым изменением - Activity перерисовывает только изменившиеся части.
+ */
+public final class DetailsState {
+
+    /** Источник данных по возрастанию свежести */
+    public enum Source {
+        NONE,
+        LOCAL,
+        NETWORK
+    }
+
+    public static final DetailsState EMPTY = new DetailsState(0, null, Source.NONE, null, "", Source.NONE,
+            Collections.emptyList(), Source.NONE, null, true, false, "", null);
+
+    private final long version;
+    private final Movie movie;
+    private final Source movieSource;
+    private final List<Genre> genreList;
+    private final String genres;
+    private final Source genresSource;
+    private final List<Cast> cast;
+    private final Source castSource;
+    private final String trailerKey;
+    private final boolean loading;
+    private final boolean favorite;
+    private final String userComment;
+    // Постер избранного в файлах приложения (OfflineImageStore); null - грузим из сети
+    private final String localPosterPath;
+
+    private DetailsState(long version, Movie movie, Source movieSource,
+                         List<Genre> genreList, String genres, Source genresSource,
+                         List<Cast> cast, Source castSource, String trailerKey,
+                         boolean loading, boolean favorite, String userComment,
+                         String localPosterPath) {
+        this.version = version;
+        this.movie = movie;
+        this.movieSource = movieSource;
+        this.genreList = genreList;
+        this.genres = genres;
+        this.genresSource = genresSource;
+        this.cast = cast;
+        this.castSource = castSource;
+        this.trailerKey = trailerKey;
+        this.loading = loading;
+        this.favorite = favorite;
+        this.userComment = userComment;
+        this.localPosterPath = localPosterPath;
+    }
+
+    public long getVersion() { return version; }
+    public Movie getMovie() { return movie; }
+    public Source getMovieSource() { return movieSource; }
+    // Список жанров для сохранения в Room (может быть null, если известны только названия)
+    public List<Genre> getGenreList() { return genreList; }
+    public String getGenres() { return genres; }
+    public Source getGenresSource() { return genresSource; }
+    public List<Cast> getCast() { return cast; }
+    public Source getCastSource() { return castSource; }
+    public String getTrailerKey() { return trailerKey; }
+    public boolean isLoading() { return loading; }
+    public boolean isFavorite() { return favorite; }
+    public String getUserComment() { return userComment; }
+    public String getLocalPosterPath() { return localPosterPath; }
+
+    /**
+     * Фильм применяется, только если источник не старее текущего
+     */
+    public DetailsState withMovie(Movie movie, Source source) {
+        if (movie == null || source.compareTo(movieSource) < 0) {
+            return this;
+        }
+        return new DetailsState(version + 1, movie, source, genreList, genres, genresSource,
+                cast, castSource, trailerKey, loading, favorite, userComment, localPosterPath);
+    }
+
+    /**
+     * Жанры применяются, только если источник не старее текущего
+     */
+    public DetailsState withGenres(List<Genre> genreList, String genres, Source source) {
+        if (genres == null || source.compareTo(genresSource) < 0) {
+            return this;
+        }
+        return new DetailsState(version + 1, movie, movieSource, genreList, genres, source,
+                cast, castSource, trailerKey, loading, favorite, userComment, localPosterPath);
+    }
+
+    /**
+     * Актёры применяются, только если источник не старее текущего
+     */
+    public DetailsState withCast(List<Cast> cast, Source source) {
+        if (cast == null || source.compareTo(castSource) < 0) {
+            return this;
+        }
+        return new DetailsState(version + 1, movie, movieSource, genreList, genres, genresSource,
+                Collections.unmodifiableList(cast), source,
+                trailerKey, loading, favorite, userComment, localPosterPath);
+    }
+
+    public DetailsState withTrailerKey(String trailerKey) {
+        return new DetailsState(version + 1, movie, movieSource, genreList, genres, genresSource,
+                cast, castSource, trailerKey, loading, favorite, userComment, localPosterPath);
+    }
+
+    public DetailsState withLoading(boolean loading) {
+        if (this.loading == loading) {
+            return this;
+        }
+        return new DetailsState(version + 1, movie, movieSource, genreList, genres, genresSource,
+                cast, castSource, trailerKey, loading, favorite, userComment, localPosterPath);
+    }
+
+    public DetailsState withFavorite(boolean favorite) {
+        if (this.favorite == favorite) {
+            return this;
+        }
+        return new DetailsState(version + 1, movie, movieSource, genreList, genres, genresSource,
+                cast, castSource, trailerKey, loading, favorite, userComment, localPosterPath);
+    }
+
+    public DetailsState withUserComment(String userComment) {
+        return new DetailsState(version + 1, movie, movieSource, genreList, genres, genresSource,
+                cast, castSource, trailerKey, loading, favorite, userComment != null ? userComment : "",
+                localPosterPath);
+    }
+
+    public DetailsState withLocalPosterPath(String localPosterPath) {
+        return new DetailsState(version + 1, movie, movieSource, genreList, genres, genresSource,
+                cast, castSource, trailerKey, loading, favorite, userComment, localPosterPath);
+    }
+}
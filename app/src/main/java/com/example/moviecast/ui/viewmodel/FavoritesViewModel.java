@@ -5,28 +5,47 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.concurrent.SerialExecutor;
+import com.example.moviecast.concurrent.TaskScope;
 import com.example.moviecast.data.local.MediaItem;
+import com.example.moviecast.data.remote.model.Genre;
 import com.example.moviecast.data.repository.MovieRepository;
+import com.example.moviecast.ui.model.MovieUiModel;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * FavoritesViewModel - данные для экрана избранного.
- * Читает список из Room через Repository.
+ * Читает список из Room через Repository и собирает готовые карточки в фоне.
  */
 public class FavoritesViewModel extends AndroidViewModel {
     
     private MovieRepository repository;
-    private LiveData<List<MediaItem>> favoritesLiveData;
+    private MediatorLiveData<List<MovieUiModel>> favoritesLiveData;
+    
+    // Сборка карточек на CPU-пуле; если Room прислал несколько списков подряд - собираем последний
+    private TaskScope tasks;
+    private final AtomicReference<List<MediaItem>> pendingItems = new AtomicReference<>();
     
     public FavoritesViewModel(@NonNull Application application) {
         super(application);
         repository = new MovieRepository(application);
-        favoritesLiveData = repository.getAllFavorites(); // Room - READ
+        tasks = new TaskScope(new SerialExecutor(AppExecutors.getInstance().cpu()));
+        
+        favoritesLiveData = new MediatorLiveData<>();
+        favoritesLiveData.addSource(repository.getAllFavorites(), items -> { // Room - READ
+            if (items != null && pendingItems.getAndSet(items) == null) {
+                tasks.execute(this::buildModels);
+            }
+        });
     }
     
-    public LiveData<List<MediaItem>> getFavorites() {
+    public LiveData<List<MovieUiModel>> getFavorites() {
         return favoritesLiveData;
     }
     
@@ -34,4 +53,33 @@ public class FavoritesViewModel extends AndroidViewModel {
     public void removeFromFavorites(MediaItem mediaItem) {
         repository.deleteMediaItem(mediaItem);
     }
+    
+    private void buildModels() {
+        List<MediaItem> items = pendingItems.getAndSet(null);
+        if (items == null) return;
+        List<MovieUiModel> models = new ArrayList<>(items.size());
+        for (MediaItem item : items) {
+            models.add(MovieUiModel.from(item, genreLabel(item)));
+        }
+        favoritesLiveData.postValue(models);
+    }
+    
+    // Жанры сохранены в Room вместе с фильмом (GSON)
+    private String genreLabel(MediaItem item) {
+        List<Genre> genres = repository.getGenresFromJson(item.getGenresJson());
+        StringBuilder names = new StringBuilder();
+        for (Genre genre : genres) {
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(genre.getName());
+        }
+        return names.toString();
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        tasks.cancelAll();
+    }
 }
@@ -6,19 +6,40 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.concurrent.SerialExecutor;
+import com.example.moviecast.concurrent.TaskScope;
+import com.example.moviecast.collection.ImmutableIntSet;
 import com.example.moviecast.data.local.MediaItem;
-import com.example.moviecast.data.model.MovieWithFavorite;
+import com.example.moviecast.data.model.FavoriteChange;
+import com.example.moviecast.data.model.MovieFilter;
+import com.example.moviecast.data.model.MovieListState;
+import com.example.moviecast.data.model.MoviePageWindow;
+import com.example.moviecast.data.model.MovieSort;
+import com.example.moviecast.data.model.SortedMovieOrder;
+import com.example.moviecast.data.model.TitleSearchIndex;
 import com.example.moviecast.data.remote.model.Movie;
 import com.example.moviecast.data.remote.model.MovieResponse;
+import com.example.moviecast.data.repository.FavoriteWriteBehind;
+import com.example.moviecast.data.repository.GenreLookup;
+import com.example.moviecast.data.repository.MediaItemMapper;
+import com.example.moviecast.data.repository.MoviePageStore;
 import com.example.moviecast.data.repository.MovieRepository;
+import com.example.moviecast.data.repository.PageWindowKeeper;
+import com.example.moviecast.data.repository.PaginationStats;
+import com.example.moviecast.data.repository.StartupWarmup;
+import com.example.moviecast.ui.model.MovieUiModel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import retrofit2.Call; // Retrofit - библиотека для сетевых запросов
 import retrofit2.Callback; // Retrofit - обработка асинхронных ответов
@@ -31,34 +52,95 @@ import retrofit2.Response; // Retrofit - обертка для HTTP ответо
 public class MainViewModel extends AndroidViewModel {
     
     private MovieRepository repository;
-    private MutableLiveData<List<MovieWithFavorite>> moviesLiveData;
+    private MutableLiveData<List<MovieUiModel>> moviesLiveData;
     private MutableLiveData<Boolean> loadingLiveData;
     private MutableLiveData<String> errorLiveData;
-    private MutableLiveData<Integer> favoriteToggledLiveData;
+    private MutableLiveData<FavoriteChange> favoriteChangeLiveData;
+    private MutableLiveData<String> favoriteErrorLiveData;
     
-    private List<Movie> allMovies;
-    private List<Movie> filteredMovies;
-    private Map<Integer, Boolean> favoriteStatusMap;
-    private Executor executor;
+    // Неизменяемое состояние списка; заменяется целиком, фоновые задачи читают снимок
+    private final AtomicReference<MovieListState> state =
+            new AtomicReference<>(MovieListState.initial(false, "", MovieFilter.NONE, MovieSort.DEFAULT));
+    // Задачи последовательной полосы над общим diskIO-пулом; отменяются в onCleared()
+    private TaskScope tasks;
+    // Сборка списка для UI - на CPU-пуле, не ждёт чтений из Room; запросы схлопываются
+    private TaskScope publishTasks;
+    private final AtomicBoolean publishPending = new AtomicBoolean();
+    // Готовые карточки страниц в памяти по их спискам фильмов (переиспользуются между
+    // публикациями) и опубликованные строки; только в полосе publishTasks
+    private Map<List<Movie>, MovieUiModel[]> pageModels = new IdentityHashMap<>();
+    private List<MovieUiModel> publishedRows = new ArrayList<>();
+    // Совпадения поиска вне списка (ID -> модель); пишет полоса публикации целиком новой
+    // картой, главный поток ищет в ней фильм для toggleFavorite
+    private volatile Map<Integer, MovieUiModel> publishedMatches = new HashMap<>();
+    private GenreLookup publishedGenres;
+    // Порядок сортировки прошлой публикации: новые страницы вливаются в него; только в полосе publishTasks
+    private SortedMovieOrder publishedOrder = SortedMovieOrder.EMPTY;
     
-    private int currentPage = 1;
-    private int totalPages = 1;
-    private boolean isLoading = false;
-    private String currentQuery = "";
-    private boolean isSearchMode = false;
-    private Integer filterGenreId = null;
-    private Integer filterYear = null;
+    // Локальный поиск по названиям: загруженный список + избранное; только в полосе publishTasks
+    private static final int LOCAL_RESULTS = 40;
+    private final TitleSearchIndex searchIndex = new TitleSearchIndex();
+    private String localResultsQuery;
+    private int localResultsVersion = -1;
+    private List<Movie> localResults = new ArrayList<>();
+    // Текст в поле поиска (null - пусто); пишет главный поток, читает полоса публикации
+    private volatile String localQuery;
+    // Окно страниц в памяти: страницы далеко от экрана выгружаются в файлы и возвращаются,
+    // когда до них докрутили; число карточек при этом не меняется
+    private final PageWindowKeeper windowKeeper;
+    // Запас вокруг видимых карточек, в карточках
+    private static final int WINDOW_MARGIN = 40;
+    // Окно пересчитывается, когда первая видимая карточка сдвинулась на столько
+    private static final int WINDOW_STEP = 10;
+    // Видимые карточки - индексы опубликованного списка; пишет главный поток
+    private volatile int visibleFirst = -1;
+    private volatile int visibleLast = -1;
+    private int windowAnchor = -1; // только главный поток
+    private final AtomicBoolean windowPending = new AtomicBoolean();
+    // Позиция в списке для каждой опубликованной карточки (-1 - не из списка; null - строка
+    // и есть позиция: список как есть), чей это список и окно страниц прошлой публикации;
+    // только в полосе publishTasks
+    private int[] publishedPositions;
+    private int publishedListId;
+    private MoviePageWindow publishedWindow;
+    
+    // Избранное для локального поиска (без castJson)
+    private LiveData<List<MediaItem>> favoritesSource;
+    private Observer<List<MediaItem>> favoritesObserver;
+    // Отложенная запись избранного: UI обновляется сразу, Room - в фоне
+    private FavoriteWriteBehind favoriteWrites;
+    
+    // Поколение запросов: меняется при новом намерении (популярные/поиск), только главный поток
+    private int requestGeneration = 0;
+    private Call<MovieResponse> inFlightCall;
+    // Ждём первую страницу, подготовленную во время сплэша (StartupWarmup); как запрос в полёте
+    private boolean awaitingWarmPage;
     
     public MainViewModel(@NonNull Application application) {
+        this(application, new MovieRepository(application));
+    }
+    
+    /**
+     * repository - свой репозиторий (замеры и тесты: база в памяти, стенд TMDb)
+     */
+    public MainViewModel(@NonNull Application application, @NonNull MovieRepository repository) {
         super(application);
-        repository = new MovieRepository(application);
+        this.repository = repository;
         moviesLiveData = new MutableLiveData<>();
         loadingLiveData = new MutableLiveData<>();
         errorLiveData = new MutableLiveData<>();
-        favoriteToggledLiveData = new MutableLiveData<>();
-        favoriteStatusMap = new HashMap<>();
-        executor = Executors.newSingleThreadExecutor();
-        allMovies = new ArrayList<>();
+        favoriteChangeLiveData = new MutableLiveData<>();
+        favoriteErrorLiveData = new MutableLiveData<>();
+        SerialExecutor diskLane = new SerialExecutor(AppExecutors.getInstance().diskIO());
+        tasks = new TaskScope(diskLane);
+        publishTasks = new TaskScope(new SerialExecutor(AppExecutors.getInstance().cpu()));
+        favoriteWrites = new FavoriteWriteBehind(repository, this::onFavoriteWriteFailed);
+        // Файлы страниц - в той же полосе, что и чтения Room этого экрана
+        windowKeeper = new PageWindowKeeper(repository, new MoviePageStore(application), state,
+                diskLane, publishTasks, this::requestPublish);
+        favoritesSource = repository.getFavoriteTitles();
+        favoritesObserver = this::onFavoritesChanged;
+        favoritesSource.observeForever(favoritesObserver);
         // Загружаем популярные фильмы при создании ViewModel
         loadPopularMovies();
     }
@@ -67,16 +149,24 @@ public class MainViewModel extends AndroidViewModel {
      * Получить LiveData со списком фильмов
      * Activity/Fragment подписывается на изменения этих данных
      */
-    public LiveData<List<MovieWithFavorite>> getMovies() {
+    public LiveData<List<MovieUiModel>> getMovies() {
         return moviesLiveData;
     }
     
     /**
-     * Получить LiveData для уведомления об изменении избранного
-     * Возвращает ID фильма, статус которого изменился
+     * Получить LiveData точечных изменений избранного
+     * Переключение сердечка не пересобирает список: адаптер обновляет только одну карточку
      */
-    public LiveData<Integer> getFavoriteToggled() {
-        return favoriteToggledLiveData;
+    public LiveData<FavoriteChange> getFavoriteChanges() {
+        return favoriteChangeLiveData;
+    }
+    
+    /**
+     * Получить LiveData для ошибок сохранения избранного
+     * Отдельно от getError(): повтор загрузки страницы здесь не нужен
+     */
+    public LiveData<String> getFavoriteError() {
+        return favoriteErrorLiveData;
     }
     
     /**
@@ -96,88 +186,25 @@ public class MainViewModel extends AndroidViewModel {
     /**
      * Метод для загрузки популярных фильмов из API (первая страница)
      * Использует Retrofit для выполнения сетевого запроса
-     * Очищает предыдущие данные и начинает загрузку заново
+     * Новое намерение вытесняет текущий запрос (в т.ч. незавершённый поиск)
      */
     public void loadPopularMovies() {
-        if (isLoading) return;
-        
-        isSearchMode = false;
-        currentPage = 1;
-        allMovies.clear();
-        favoriteStatusMap.clear();
-        isLoading = true;
-        loadingLiveData.setValue(true);
-        
-        // Retrofit - выполнение асинхронного GET запроса к TMDb API
-        repository.getPopularMovies(currentPage).enqueue(new Callback<MovieResponse>() {
-            @Override
-            public void onResponse(Call<MovieResponse> call, Response<MovieResponse> response) {
-                isLoading = false;
-                loadingLiveData.setValue(false);
-                
-                if (response.isSuccessful() && response.body() != null) {
-                    MovieResponse movieResponse = response.body();
-                    totalPages = movieResponse.getTotalPages();
-                    allMovies.addAll(movieResponse.getResults());
-                    // Загружаем статусы избранного из Room и обновляем UI
-                    loadFavoriteStatusAndUpdate();
-                } else {
-                    errorLiveData.setValue("Ошибка загрузки фильмов");
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<MovieResponse> call, Throwable t) {
-                isLoading = false;
-                loadingLiveData.setValue(false);
-                errorLiveData.setValue("Нет подключения к интернету");
-            }
-        });
+        supersedeInFlight();
+        MovieListState previous = state.get();
+        state.set(MovieListState.initial(false, "", previous.getFilter(), previous.getSort()));
+        requestNextPage();
     }
     
     /**
      * Метод для загрузки следующей страницы фильмов (пагинация)
      * Поддерживает как обычный режим (популярные фильмы), так и режим поиска
-     * Использует Retrofit для сетевого запроса
+     * Повторные вызовы во время загрузки страницы игнорируются
      */
     public void loadNextPage() {
-        if (isLoading || currentPage >= totalPages) return;
-        
-        currentPage++;
-        isLoading = true;
-        loadingLiveData.setValue(true);
-        
-        Call<MovieResponse> call;
-        if (isSearchMode) {
-            call = repository.searchMovies(currentQuery, currentPage);
-        } else {
-            call = repository.getPopularMovies(currentPage);
-        }
-        
-        // Retrofit - выполнение запроса к API
-        call.enqueue(new Callback<MovieResponse>() {
-            @Override
-            public void onResponse(Call<MovieResponse> call, Response<MovieResponse> response) {
-                isLoading = false;
-                loadingLiveData.setValue(false);
-                
-                if (response.isSuccessful() && response.body() != null) {
-                    MovieResponse movieResponse = response.body();
-                    allMovies.addAll(movieResponse.getResults());
-                    // Обновляем статусы избранного из Room
-                    loadFavoriteStatusAndUpdate();
-                } else {
-                    errorLiveData.setValue("Ошибка загрузки следующей страницы");
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<MovieResponse> call, Throwable t) {
-                isLoading = false;
-                loadingLiveData.setValue(false);
-                errorLiveData.setValue("Нет подключения к интернету");
-            }
-        });
+        if (inFlightCall != null || awaitingWarmPage || !state.get().hasMorePages()) return;
+        // Пока показаны только локальные совпадения, конец списка близко всегда - не грузим
+        if (showsLocalOnly(state.get(), localQuery)) return;
+        requestNextPage();
     }
     
     /**
@@ -193,36 +220,106 @@ public class MainViewModel extends AndroidViewModel {
             return;
         }
         
-        if (isLoading) return;
+        supersedeInFlight();
+        // Пока идёт запрос, видны локальные совпадения; ответ сети добавится после них
+        localQuery = query;
+        MovieListState previous = state.get();
+        state.set(MovieListState.initial(true, query, previous.getFilter(), previous.getSort()));
+        requestNextPage();
+    }
+    
+    /**
+     * Текст в поле поиска изменился (каждое нажатие клавиши)
+     * Сразу показываются нечёткие совпадения среди загруженных фильмов и избранного -
+     * без запросов к API; запрос к /search/movie по-прежнему по кнопке поиска
+     * 
+     * @param text - текущий текст поля поиска
+     */
+    public void onSearchQueryChanged(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            localQuery = null;
+            if (state.get().isSearchMode()) {
+                loadPopularMovies(); // был сетевой поиск - возвращаемся к популярным
+            } else {
+                requestPublish(); // загруженный список популярных остался в состоянии
+            }
+            return;
+        }
+        localQuery = text;
+        requestPublish();
+    }
+    
+    /**
+     * Повтор последнего неудавшегося запроса
+     * Курсор страниц сдвигается только при успехе, поэтому повтор запрашивает ту же страницу
+     */
+    public void retry() {
+        if (inFlightCall == null && !awaitingWarmPage && state.get().hasMorePages()) {
+            requestNextPage();
+        }
+    }
+    
+    /**
+     * Новое намерение пользователя: отменяем запрос в полёте,
+     * а его колбэк (если уже в очереди главного потока) отбрасываем по поколению
+     */
+    private void supersedeInFlight() {
+        requestGeneration++;
+        awaitingWarmPage = false;
+        if (inFlightCall != null) {
+            inFlightCall.cancel();
+            inFlightCall = null;
+        }
+    }
+    
+    /**
+     * Запрос страницы, следующей за последней успешно загруженной
+     * Retrofit - выполнение асинхронного GET запроса к TMDb API
+     */
+    private void requestNextPage() {
+        MovieListState current = state.get();
+        int page = current.getCurrentPage() + 1;
+        final int generation = requestGeneration;
+        // Первая страница популярных при старте уже загружается во время сплэша - не дублируем
+        if (page == 1 && !current.isSearchMode()
+                && StartupWarmup.getInstance().claimFirstPage(warmPage -> onWarmPage(generation, warmPage))) {
+            awaitingWarmPage = true;
+            loadingLiveData.setValue(true);
+            return;
+        }
+        
+        String errorMessage;
+        Call<MovieResponse> call;
+        if (current.isSearchMode()) {
+            call = repository.searchMovies(current.getQuery(), page);
+            errorMessage = page == 1 ? "Ошибка поиска" : "Ошибка загрузки следующей страницы";
+        } else {
+            call = repository.getPopularMovies(page);
+            errorMessage = page == 1 ? "Ошибка загрузки фильмов" : "Ошибка загрузки следующей страницы";
+        }
         
-        isSearchMode = true;
-        currentQuery = query;
-        currentPage = 1;
-        allMovies.clear();
-        favoriteStatusMap.clear();
-        isLoading = true;
+        inFlightCall = call;
         loadingLiveData.setValue(true);
         
-        // Retrofit - выполнение запроса поиска к TMDb API
-        repository.searchMovies(query, currentPage).enqueue(new Callback<MovieResponse>() {
+        call.enqueue(new Callback<MovieResponse>() {
             @Override
             public void onResponse(Call<MovieResponse> call, Response<MovieResponse> response) {
-                isLoading = false;
+                if (generation != requestGeneration) return; // устаревший ответ
+                inFlightCall = null;
                 loadingLiveData.setValue(false);
                 
                 if (response.isSuccessful() && response.body() != null) {
                     MovieResponse movieResponse = response.body();
-                    totalPages = movieResponse.getTotalPages();
-                    allMovies.addAll(movieResponse.getResults());
-                    loadFavoriteStatusAndUpdate();
+                    appendPage(movieResponse, page, movieResponse.getTotalPages());
                 } else {
-                    errorLiveData.setValue("Ошибка поиска");
+                    errorLiveData.setValue(errorMessage);
                 }
             }
             
             @Override
             public void onFailure(Call<MovieResponse> call, Throwable t) {
-                isLoading = false;
+                if (generation != requestGeneration || call.isCanceled()) return;
+                inFlightCall = null;
                 loadingLiveData.setValue(false);
                 errorLiveData.setValue("Нет подключения к интернету");
             }
@@ -230,94 +327,421 @@ public class MainViewModel extends AndroidViewModel {
     }
     
     /**
-     * Загрузка статусов избранного из базы данных Room для всех фильмов
-     * Выполняется в фоновом потоке через Executor
+     * Первая страница из StartupWarmup (главный поток); нет страницы - обычный запрос с обработкой ошибок
+     */
+    private void onWarmPage(int generation, MovieResponse warmPage) {
+        if (generation != requestGeneration) return; // пользователь уже начал поиск
+        awaitingWarmPage = false;
+        loadingLiveData.setValue(false);
+        if (warmPage != null) {
+            appendPage(warmPage, 1, warmPage.getTotalPages());
+        } else {
+            requestNextPage();
+        }
+    }
+    
+    /**
+     * Добавление загруженной страницы в состояние (главный поток, колбэк Retrofit)
+     * Курсор страниц сдвигается здесь, т.е. только после успешного ответа
+     * Стоимость - O(размер страницы): старые элементы не копируются
+     */
+    private void appendPage(MovieResponse movieResponse, int page, int totalPages) {
+        List<Movie> results = movieResponse.getResults() != null
+                ? movieResponse.getResults() : new ArrayList<>();
+        // Рейтинг TMDb сдвигается между запросами - фильм мог уже прийти с прошлой страницей;
+        // повторы отбрасываются внутри withPage, показанные карточки остаются на своих местах
+        MovieListState updated = state.updateAndGet(current -> current.withPage(results, page, totalPages));
+        MoviePageWindow window = updated.getWindow();
+        List<Movie> pageMovies = window.pageMovies(window.pageCount());
+        PaginationStats.getInstance().onPageAppended(results.size(), results.size() - pageMovies.size());
+        // Загружаем статусы избранного из Room и обновляем UI
+        loadFavoriteStatusAndUpdate(pageMovies);
+    }
+    
+    /**
+     * Загрузка статусов избранного из базы данных Room для новой страницы
+     * Выполняется в фоновом потоке, один запрос на страницу
      * После загрузки обновляет LiveData для UI
      */
-    private void loadFavoriteStatusAndUpdate() {
-        executor.execute(() -> {
-            // Проходим по всем фильмам и проверяем их наличие в базе Room
-            for (Movie movie : allMovies) {
-                // Room - READ операция: получение записи из базы данных
-                MediaItem mediaItem = repository.getMediaItemByIdSync(movie.getId());
-                favoriteStatusMap.put(movie.getId(), mediaItem != null && mediaItem.isFavorite());
+    private void loadFavoriteStatusAndUpdate(List<Movie> pageMovies) {
+        tasks.execute(() -> {
+            // Room - READ операция: ID избранных среди фильмов страницы
+            int[] favoriteIds = repository.getFavoriteIdsSync(pageMovies);
+            if (favoriteIds.length > 0) {
+                state.updateAndGet(current -> current.withFavorites(favoriteIds));
+                // Набор избранного до списка: новые карточки привяжутся уже с ним
+                AppExecutors.getInstance().mainThread().execute(
+                        () -> emitFavoriteChange(FavoriteChange.BULK, false));
             }
-            updateMoviesWithFavoriteStatus();
+            requestPublish();
         });
     }
     
     /**
-     * Обновление списка фильмов с актуальными статусами избранного
-     * Создает объекты MovieWithFavorite и отправляет в LiveData
+     * Запрос на публикацию актуального состояния в UI
+     * Пока сборка не началась, повторные запросы не планируют новых задач
      */
-    private void updateMoviesWithFavoriteStatus() {
-        List<MovieWithFavorite> moviesWithFavorite = new ArrayList<>();
-        for (Movie movie : allMovies) {
-            boolean isFavorite = favoriteStatusMap.getOrDefault(movie.getId(), false);
-            moviesWithFavorite.add(new MovieWithFavorite(movie, isFavorite));
+    private void requestPublish() {
+        if (publishPending.compareAndSet(false, true)) {
+            publishTasks.execute(() -> {
+                publishPending.set(false);
+                publish(state.get());
+            });
         }
-        moviesLiveData.postValue(moviesWithFavorite);
     }
     
     /**
-     * Переключение статуса избранного для фильма (добавить/удалить из избранного)
-     * CRUD операции с Room: CREATE (insert), UPDATE (updateFavoriteStatus), DELETE (delete)
-     * Выполняется в фоновом потоке
-     * 
-     * @param movieId - ID фильма для переключения статуса
+     * Публикация снимка состояния в UI с учётом активных фильтров
+     * Собирает готовые карточки MovieUiModel (в фоне) и отправляет в LiveData
+     * Карточки прошлых публикаций переиспользуются: строки форматируются один раз на фильм
+     * Список как есть (без поиска, фильтров и сортировки) - PagedRows поверх карточек страниц
+     * в памяти, на месте выгруженных страниц - заглушки; сборка без обхода всего списка
+     * Прошедшие фильтры позиции берутся из индексов страниц, фильмы по одному не проверяются
+     * Сортировка поддерживается постранично: новая страница сливается с прошлым порядком
+     * Сортировка, фильтры и поиск - по страницам в памяти (applyWindow)
+     * Адаптер сравнивает списки DiffUtil в фоне, поэтому в UI уходят только изменения
      */
-    public void toggleFavorite(int movieId) {
-        executor.execute(() -> {
-            // Room - READ: проверяем, существует ли запись в базе данных
-            MediaItem existingItem = repository.getMediaItemByIdSync(movieId);
-            
-            // Находим фильм в загруженном списке
-            Movie targetMovie = null;
-            for (Movie movie : allMovies) {
-                if (movie.getId() == movieId) {
-                    targetMovie = movie;
-                    break;
+    private void publish(MovieListState snapshot) {
+        GenreLookup genres = repository.getGenreLookup();
+        snapshot = applyWindow(snapshot);
+        MoviePageWindow window = snapshot.getWindow();
+        int listId = window.getListId();
+        boolean rebuild = genres != publishedGenres || listId != publishedListId;
+        if (rebuild) {
+            // Справочник жанров обновился (подписи жанров нужно разрешить заново)
+            // или список другой - прежние карточки больше не подходят
+            pageModels = new IdentityHashMap<>();
+            publishedMatches = new HashMap<>();
+            publishedGenres = genres;
+        }
+        
+        String query = localQuery;
+        List<Movie> matches = localMatches(query, snapshot);
+        
+        ImmutableIntSet favoriteIds = snapshot.getFavoriteIds();
+        int[] matchIds = new int[matches.size()];
+        int[] discovered = new int[matches.size()];
+        int discoveredCount = 0;
+        for (int i = 0; i < matchIds.length; i++) {
+            int id = matches.get(i).getId();
+            matchIds[i] = id;
+            if (!favoriteIds.contains(id) && searchIndex.isFavorite(id) && !favoriteWrites.isPending(id)) {
+                discovered[discoveredCount++] = id;
+            }
+        }
+        if (discoveredCount > 0) {
+            // Совпадения из избранного вне загруженного списка - статус как у страниц
+            int[] ids = Arrays.copyOf(discovered, discoveredCount);
+            favoriteIds = favoriteIds.withAll(ids);
+            state.updateAndGet(current -> current.withFavorites(ids));
+        }
+        if (discoveredCount > 0 || listId != publishedListId) {
+            // Новый список (поиск, обновление) - набор адаптера сбрасывается всегда, а не только
+            // когда в списке есть избранное: иначе фильм, убранный из избранного на другом экране,
+            // остался бы с сердечком по старому набору
+            AppExecutors.getInstance().mainThread().execute(
+                    () -> emitFavoriteChange(FavoriteChange.BULK, false));
+        }
+        
+        pageModels = pageModels(window, favoriteIds, genres);
+        PagedRows byPosition = new PagedRows(window, pageModels);
+        boolean localOnly = showsLocalOnly(snapshot, query);
+        boolean asIs = matches.isEmpty() && !localOnly
+                && snapshot.getSort() == MovieSort.DEFAULT && !snapshot.hasFilters();
+        List<MovieUiModel> rows;
+        if (asIs) {
+            rows = byPosition;
+            publishedPositions = null;
+        } else {
+            rows = allRows(snapshot, byPosition, matches, matchIds, localOnly, favoriteIds, genres);
+        }
+        publishedRows = rows;
+        publishedWindow = window;
+        publishedListId = listId;
+        moviesLiveData.postValue(rows);
+    }
+    
+    /**
+     * Карточки страниц в памяти: O(фильмов в памяти), строки собираются только для новых
+     * и возвращённых страниц. Массив страницы прошлой публикации остаётся тем же, если
+     * его карточки не изменились, иначе копируется - опубликованные строки не меняются
+     */
+    private Map<List<Movie>, MovieUiModel[]> pageModels(MoviePageWindow window,
+                                                        ImmutableIntSet favoriteIds, GenreLookup genres) {
+        Map<List<Movie>, MovieUiModel[]> result = new IdentityHashMap<>();
+        ImmutableIntSet resident = window.residentPages();
+        for (int i = 0; i < resident.size(); i++) {
+            List<Movie> movies = window.pageMovies(resident.get(i));
+            MovieUiModel[] models = pageModels.get(movies);
+            boolean copied = models == null;
+            if (copied) {
+                models = new MovieUiModel[movies.size()];
+            }
+            for (int offset = 0; offset < movies.size(); offset++) {
+                Movie movie = movies.get(offset);
+                boolean isFavorite = favoriteIds.contains(movie.getId());
+                MovieUiModel current = models[offset];
+                MovieUiModel model = current != null
+                        ? current.withFavorite(isFavorite) : MovieUiModel.from(movie, isFavorite, genres);
+                if (model != current) {
+                    if (!copied) {
+                        models = models.clone();
+                        copied = true;
+                    }
+                    models[offset] = model;
                 }
             }
-            
-            if (targetMovie == null) return;
-            
-            boolean newFavoriteStatus;
-            if (existingItem != null) {
-                // Фильм уже есть в базе - переключаем статус
-                newFavoriteStatus = !existingItem.isFavorite();
-                if (newFavoriteStatus) {
-                    // Room - UPDATE: обновляем статус избранного на true
-                    repository.updateFavoriteStatus(movieId, true);
-                } else {
-                    // Room - DELETE: удаляем из избранного
-                    repository.deleteMediaItemById(movieId);
+            result.put(movies, models);
+        }
+        return result;
+    }
+    
+    /**
+     * Сборка строк с поиском, фильтрами или сортировкой: локальные совпадения, затем
+     * фильмы страниц в памяти в порядке показа
+     */
+    private List<MovieUiModel> allRows(MovieListState snapshot, PagedRows byPosition,
+                                       List<Movie> matches, int[] matchIds, boolean localOnly,
+                                       ImmutableIntSet favoriteIds, GenreLookup genres) {
+        int[] positions = localOnly ? new int[0] : visiblePositions(snapshot);
+        List<MovieUiModel> models = new ArrayList<>(matches.size() + positions.length);
+        int[] rowPositions = new int[matches.size() + positions.length];
+        Map<Integer, MovieUiModel> matchModels = new HashMap<>();
+        for (Movie movie : matches) {
+            // Совпадение из списка - карточка его позиции, из избранного вне списка - своя
+            int position = snapshot.indexOf(movie.getId());
+            rowPositions[models.size()] = position;
+            models.add(position >= 0 ? byPosition.get(position)
+                    : matchModel(movie, favoriteIds.contains(movie.getId()), genres, matchModels));
+        }
+        publishedMatches = matchModels;
+        
+        if (!localOnly) {
+            // Сетевой список (популярные или ответ поиска) - после локальных совпадений;
+            // ID фильма - stable ID карточки: показанное совпадение пропускается
+            ImmutableIntSet shown = ImmutableIntSet.of(matchIds);
+            for (int position : positions) {
+                MovieUiModel model = byPosition.get(position);
+                if (shown.size() == 0 || !shown.contains(model.getId())) {
+                    rowPositions[models.size()] = position;
+                    models.add(model);
                 }
-            } else {
-                // Room - CREATE: создаем новую запись в избранном
-                MediaItem newItem = repository.convertMovieToMediaItem(targetMovie, true, "");
-                repository.insertMediaItem(newItem);
-                newFavoriteStatus = true;
             }
-            
-            // Обновляем кэш статусов
-            favoriteStatusMap.put(movieId, newFavoriteStatus);
-            
-            // Обновляем LiveData для UI
-            updateMoviesWithFavoriteStatus();
-            
-            // Уведомляем, что статус конкретного фильма изменился
-            favoriteToggledLiveData.postValue(movieId);
+        }
+        publishedPositions = Arrays.copyOf(rowPositions, models.size());
+        return models;
+    }
+    
+    // Совпадение из избранного вне списка: карточка прошлой публикации по ID, их не больше LOCAL_RESULTS
+    private MovieUiModel matchModel(Movie movie, boolean isFavorite, GenreLookup genres,
+                                    Map<Integer, MovieUiModel> built) {
+        MovieUiModel model = publishedMatches.get(movie.getId());
+        if (model != null && model.getMovie() == movie) {
+            model = model.withFavorite(isFavorite);
+        } else {
+            model = MovieUiModel.from(movie, isFavorite, genres);
+        }
+        built.put(movie.getId(), model);
+        return model;
+    }
+    
+    /**
+     * Локальные совпадения для текста поиска (с учётом фильтров)
+     * Пересчитываются, только если изменился текст или индекс
+     */
+    private List<Movie> localMatches(String query, MovieListState snapshot) {
+        if (query == null) {
+            localResults = new ArrayList<>();
+            localResultsQuery = null;
+            return localResults;
+        }
+        if (!query.equals(localResultsQuery) || searchIndex.version() != localResultsVersion) {
+            localResults = searchIndex.search(query, LOCAL_RESULTS);
+            localResultsQuery = query;
+            localResultsVersion = searchIndex.version();
+        }
+        if (!snapshot.hasFilters()) {
+            return localResults;
+        }
+        List<Movie> filtered = new ArrayList<>(localResults.size());
+        for (Movie movie : localResults) {
+            if (snapshot.getFilter().matches(movie)) {
+                filtered.add(movie);
+            }
+        }
+        return filtered;
+    }
+    
+    /**
+     * Показывать только локальные совпадения: текст набирается и ещё не отправлен
+     * (или отличается от запроса, по которому загружен список)
+     */
+    private static boolean showsLocalOnly(MovieListState snapshot, String query) {
+        return query != null
+                && !(snapshot.isSearchMode() && query.trim().equals(snapshot.getQuery().trim()));
+    }
+    
+    /**
+     * Избранное изменилось в Room - обновляем локальный индекс поиска (полоса публикации)
+     * Фильмы, уже известные индексу, повторно не разбираются
+     */
+    private void onFavoritesChanged(List<MediaItem> items) {
+        if (items == null) return;
+        publishTasks.execute(() -> {
+            int[] ids = new int[items.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = items.get(i).getId();
+            }
+            searchIndex.setFavorites(ids, index -> MediaItemMapper.toMovie(items.get(index)));
+            if (localQuery != null) {
+                requestPublish();
+            }
         });
     }
     
+    /**
+     * Видимые карточки изменились (прокрутка списка)
+     * Окно страниц пересчитывается в фоне, когда видимая часть заметно сдвинулась
+     * 
+     * @param first - индекс первой видимой карточки
+     * @param last - индекс последней видимой карточки
+     */
+    public void onVisibleRangeChanged(int first, int last) {
+        if (first < 0) return;
+        visibleFirst = first;
+        visibleLast = last;
+        if (windowAnchor >= 0 && Math.abs(first - windowAnchor) < WINDOW_STEP) return;
+        windowAnchor = first;
+        if (windowPending.compareAndSet(false, true)) {
+            publishTasks.execute(() -> {
+                windowPending.set(false);
+                MovieListState snapshot = state.get();
+                if (applyWindow(snapshot) != snapshot) {
+                    requestPublish(); // на месте выгруженных страниц - заглушки
+                }
+            });
+        }
+    }
+    
+    /**
+     * Окно страниц в памяти (полоса публикации)
+     * Нужны страницы карточек вокруг видимых (по позициям прошлой публикации); какие страницы
+     * выгрузить и вернуть, решает PageWindowKeeper. Порядок сортировки и индекс поиска
+     * следуют за страницами в памяти: выгруженная страница уходит из них до возврата.
+     * Возвращает снимок после выгрузки (тот же, если ничего не выгружено)
+     */
+    private MovieListState applyWindow(MovieListState snapshot) {
+        if (publishedWindow != null && publishedWindow.getListId() == snapshot.getWindow().getListId()
+                && visibleFirst >= 0) {
+            snapshot = windowKeeper.apply(snapshot, neededPages());
+        }
+        publishedOrder = publishedOrder.update(snapshot.getSort(), snapshot.getWindow());
+        // Популярные индексируются для локального поиска постранично
+        if (!snapshot.isSearchMode()) {
+            searchIndex.syncList(snapshot.getWindow());
+        }
+        return snapshot;
+    }
+    
+    // Страницы карточек на экране и рядом - по строкам и окну прошлой публикации
+    private ImmutableIntSet neededPages() {
+        int from = Math.max(0, visibleFirst - WINDOW_MARGIN);
+        int to = Math.min(publishedRows.size() - 1, visibleLast + WINDOW_MARGIN);
+        int[] pages = new int[Math.max(0, to - from + 1)];
+        int count = 0;
+        for (int row = from; row <= to; row++) {
+            int page = publishedWindow.pageOf(publishedPosition(row));
+            if (page > 0 && (count == 0 || pages[count - 1] != page)) {
+                pages[count++] = page;
+            }
+        }
+        return ImmutableIntSet.of(Arrays.copyOf(pages, count));
+    }
+    
+    // Позиция в списке для строки прошлой публикации (-1 - не из списка)
+    private int publishedPosition(int row) {
+        return publishedPositions != null ? publishedPositions[row] : row;
+    }
+    
+    /**
+     * Позиции фильмов страниц в памяти в порядке показа с учётом фильтров и сортировки
+     */
+    private int[] visiblePositions(MovieListState snapshot) {
+        if (snapshot.getSort() == MovieSort.DEFAULT) {
+            return snapshot.hasFilters()
+                    ? snapshot.filteredPositions() : snapshot.getWindow().residentPositions();
+        }
+        int[] selection = snapshot.hasFilters() ? snapshot.filteredPositions() : null;
+        int[] positions = new int[selection != null ? selection.length : publishedOrder.size()];
+        int count = 0;
+        for (int i = 0; i < publishedOrder.size(); i++) {
+            int position = publishedOrder.positionAt(i);
+            if (selection == null || Arrays.binarySearch(selection, position) >= 0) {
+                positions[count++] = position;
+            }
+        }
+        return positions;
+    }
+    
+    /**
+     * Точечное изменение избранного для UI (только главный поток)
+     * Набор берётся из актуального состояния, поэтому изменения не устаревают
+     */
+    private void emitFavoriteChange(int movieId, boolean isFavorite) {
+        favoriteChangeLiveData.setValue(
+                new FavoriteChange(movieId, isFavorite, state.get().getFavoriteIds()));
+    }
+    
+    /**
+     * Переключение статуса избранного для фильма (добавить/удалить из избранного)
+     * Оптимистично: состояние и сердечко меняются сразу (главный поток), список не пересобирается,
+     * запись в Room (CREATE/UPDATE/DELETE) уходит в очередь отложенной записи
+     * При ошибке записи статус откатывается, см. onFavoriteWriteFailed
+     * 
+     * @param movieId - ID фильма для переключения статуса
+     */
+    public void toggleFavorite(int movieId) {
+        // Поиск фильма по индексу снимка - O(1)
+        Movie targetMovie = state.get().findMovie(movieId);
+        if (targetMovie == null) {
+            // Карточка локального поиска (избранное вне загруженного списка) - по ID, тоже O(1)
+            MovieUiModel match = publishedMatches.get(movieId);
+            targetMovie = match != null ? match.getMovie() : null;
+        }
+        if (targetMovie == null) return;
+        
+        // Атомарно, поверх возможных новых страниц
+        MovieListState updated = state.updateAndGet(
+                current -> current.withFavorite(movieId, !current.isFavorite(movieId)));
+        boolean newFavoriteStatus = updated.isFavorite(movieId);
+        
+        // Уведомляем, что статус конкретного фильма изменился - O(1), без публикации списка
+        emitFavoriteChange(movieId, newFavoriteStatus);
+        
+        favoriteWrites.enqueue(targetMovie, newFavoriteStatus);
+    }
+    
+    /**
+     * Запись в Room не удалась - возвращаем прежний статус и сообщаем пользователю
+     * Если пользователь уже снова нажал на сердечко, откат не нужен: в очереди более новая запись
+     */
+    private void onFavoriteWriteFailed(int movieId, boolean isFavorite) {
+        if (favoriteWrites.isPending(movieId)) return;
+        MovieListState current = state.get();
+        if (current.isFavorite(movieId) == isFavorite) {
+            state.updateAndGet(latest -> latest.withFavorite(movieId, !isFavorite));
+            emitFavoriteChange(movieId, !isFavorite);
+        }
+        favoriteErrorLiveData.setValue("Не удалось сохранить избранное");
+    }
+    
     /**
      * Проверка наличия следующих страниц для пагинации
      * 
      * @return true если есть еще страницы для загрузки
      */
     public boolean hasMorePages() {
-        return currentPage < totalPages;
+        return state.get().hasMorePages();
     }
     
     /**
@@ -327,8 +751,17 @@ public class MainViewModel extends AndroidViewModel {
      * @param genreId - ID жанра для фильтрации (28=Боевик, 35=Комедия, 18=Драма)
      */
     public void setGenreFilter(Integer genreId) {
-        this.filterGenreId = genreId;
-        applyFilters();
+        applyFilter(state.get().getFilter().withGenre(genreId));
+    }
+    
+    /**
+     * Фильтр по нескольким жанрам
+     * 
+     * @param genreIds - ID жанров; пустой массив снимает фильтр по жанру
+     * @param matchAll - true: фильм должен иметь все жанры (И), false: хотя бы один (ИЛИ)
+     */
+    public void setGenreFilters(int[] genreIds, boolean matchAll) {
+        applyFilter(state.get().getFilter().withGenres(genreIds, matchAll));
     }
     
     /**
@@ -338,8 +771,30 @@ public class MainViewModel extends AndroidViewModel {
      * @param year - год для фильтрации (например, 2024)
      */
     public void setYearFilter(Integer year) {
-        this.filterYear = year;
-        applyFilters();
+        applyFilter(state.get().getFilter().withYear(year));
+    }
+    
+    /**
+     * Фильтр по диапазону годов выпуска (включительно)
+     * 
+     * @param fromYear - первый год или null (без нижней границы)
+     * @param toYear - последний год или null (без верхней границы)
+     */
+    public void setYearRange(Integer fromYear, Integer toYear) {
+        applyFilter(state.get().getFilter().withYearRange(fromYear, toYear));
+    }
+    
+    /**
+     * Порядок загруженного списка (рейтинг, дата выхода, название или порядок API)
+     * Сортируется уже загруженное; догружаемые страницы встраиваются в выбранный порядок
+     */
+    public void setSort(MovieSort sort) {
+        state.updateAndGet(current -> current.withSort(sort));
+        requestPublish();
+    }
+    
+    public MovieSort getSort() {
+        return state.get().getSort();
     }
     
     /**
@@ -347,55 +802,31 @@ public class MainViewModel extends AndroidViewModel {
      * Показывает все загруженные фильмы
      */
     public void clearFilters() {
-        this.filterGenreId = null;
-        this.filterYear = null;
-        applyFilters();
+        applyFilter(MovieFilter.NONE);
     }
     
     /**
      * Применение активных фильтров к списку фильмов
      * Фильтрация выполняется на клиентской стороне (без запросов к API)
-     * Работает в фоновом потоке
-     */
-    private void applyFilters() {
-        executor.execute(() -> {
-            if (filterGenreId == null && filterYear == null) {
-                // Нет активных фильтров - показываем все фильмы
-                loadFavoriteStatusAndUpdate();
-                return;
-            }
-            
-            filteredMovies = new ArrayList<>();
-            for (Movie movie : allMovies) {
-                boolean matchesFilter = true;
-                
-                // Фильтр по жанру
-                if (filterGenreId != null) {
-                    if (movie.getGenreIds() == null || !movie.getGenreIds().contains(filterGenreId)) {
-                        matchesFilter = false;
-                    }
-                }
-                
-                // Фильтр по году
-                if (filterYear != null && matchesFilter) {
-                    if (movie.getReleaseDate() == null || !movie.getReleaseDate().startsWith(String.valueOf(filterYear))) {
-                        matchesFilter = false;
-                    }
-                }
-                
-                // Если фильм прошел все фильтры, добавляем его
-                if (matchesFilter) {
-                    filteredMovies.add(movie);
-                }
-            }
-            
-            // Обновляем LiveData отфильтрованными фильмами
-            List<MovieWithFavorite> moviesWithFavorite = new ArrayList<>();
-            for (Movie movie : filteredMovies) {
-                boolean isFavorite = favoriteStatusMap.getOrDefault(movie.getId(), false);
-                moviesWithFavorite.add(new MovieWithFavorite(movie, isFavorite));
-            }
-            moviesLiveData.postValue(moviesWithFavorite);
-        });
+     * Выборка - по индексу фильтров снимка в фоновом потоке публикации
+     */
+    private void applyFilter(MovieFilter filter) {
+        // Фильтры применяются к актуальному снимку (страницы могли догрузиться)
+        state.updateAndGet(current -> current.withFilter(filter));
+        requestPublish();
+    }
+    
+    /**
+     * ViewModel уничтожается - отменяем ожидающие фоновые задачи
+     * Очередь записи избранного не отменяется: выбор пользователя должен сохраниться
+     */
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        favoritesSource.removeObserver(favoritesObserver);
+        supersedeInFlight();
+        windowKeeper.cancel();
+        tasks.cancelAll();
+        publishTasks.cancelAll();
     }
 }
@@ -7,6 +7,9 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.moviecast.concurrent.AppExecutors;
+import com.example.moviecast.concurrent.SerialExecutor;
+import com.example.moviecast.concurrent.TaskScope;
 import com.example.moviecast.data.local.MediaItem;
 import com.example.moviecast.data.remote.model.Cast;
 import com.example.moviecast.data.remote.model.CreditsResponse;
@@ -16,10 +19,11 @@ import com.example.moviecast.data.remote.model.Movie;
 import com.example.moviecast.data.remote.model.Video;
 import com.example.moviecast.data.remote.model.VideosResponse;
 import com.example.moviecast.data.repository.MovieRepository;
+import com.example.moviecast.ui.utils.FrameCoalescingLiveData;
+import com.example.moviecast.ui.viewmodel.DetailsState.Source;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 import retrofit2.Call; // Retrofit - для асинхронных запросов
 import retrofit2.Callback; // Retrofit - обработка ответов
@@ -28,87 +32,62 @@ import retrofit2.Response; // Retrofit - обертка HTTP ответа
 /**
  * MovieDetailsViewModel - управление данными для экрана деталей
  * Загружает данные через Retrofit (API) и Room (локальная база)
+ * и сводит их в одно состояние DetailsState (не более одной эмиссии за кадр)
  */
 public class MovieDetailsViewModel extends AndroidViewModel {
     
     private MovieRepository repository;
     
-    private MutableLiveData<Movie> movieLiveData;
-    private MutableLiveData<List<Cast>> castLiveData;
-    private MutableLiveData<String> genresLiveData;
-    private MutableLiveData<String> trailerKeyLiveData;
-    private MutableLiveData<Boolean> loadingLiveData;
+    // Единое состояние экрана: обновляется из любого потока, эмитится раз в кадр
+    private FrameCoalescingLiveData<DetailsState> stateLiveData;
+    // Ошибки - отдельные одноразовые события, в состояние не входят
     private MutableLiveData<String> errorLiveData;
-    private MutableLiveData<Boolean> isFavoriteLiveData;
-    private MutableLiveData<String> userCommentLiveData;
     
-    private Executor executor;
+    // Последовательная полоса над общим diskIO-пулом, отменяется в onCleared()
+    private TaskScope tasks;
     
-    // Для сохранения в Room при добавлении в избранное
-    private List<Cast> currentCast;
-    private List<Genre> currentGenres;
+    // Запросы Retrofit в полёте - отменяются вместе с задачами в onCleared()
+    private final List<Call<?>> inFlightCalls = new ArrayList<>();
     
     public MovieDetailsViewModel(@NonNull Application application) {
         super(application);
         
         repository = new MovieRepository(application);
         
-        movieLiveData = new MutableLiveData<>();
-        castLiveData = new MutableLiveData<>();
-        genresLiveData = new MutableLiveData<>();
-        trailerKeyLiveData = new MutableLiveData<>();
-        loadingLiveData = new MutableLiveData<>();
+        stateLiveData = new FrameCoalescingLiveData<>(DetailsState.EMPTY);
         errorLiveData = new MutableLiveData<>();
-        isFavoriteLiveData = new MutableLiveData<>();
-        userCommentLiveData = new MutableLiveData<>();
         
-        executor = Executors.newSingleThreadExecutor();
+        tasks = new TaskScope(new SerialExecutor(AppExecutors.getInstance().diskIO()));
         
         loadGenres();
     }
     
-    public LiveData<Movie> getMovie() {
-        return movieLiveData;
-    }
-    
-    public LiveData<List<Cast>> getCast() {
-        return castLiveData;
-    }
-    
-    public LiveData<String> getGenres() {
-        return genresLiveData;
-    }
-    
-    public LiveData<String> getTrailerKey() {
-        return trailerKeyLiveData;
-    }
-    
-    public LiveData<Boolean> getLoading() {
-        return loadingLiveData;
+    public LiveData<DetailsState> getState() {
+        return stateLiveData;
     }
     
     public LiveData<String> getError() {
         return errorLiveData;
     }
     
-    public LiveData<Boolean> getIsFavorite() {
-        return isFavoriteLiveData;
-    }
-    
-    public LiveData<String> getUserComment() {
-        return userCommentLiveData;
+    // Текущий фильм (включая ещё не отрисованное состояние); безопасно из любого потока
+    public Movie getCurrentMovie() {
+        return stateLiveData.getLatest().getMovie();
     }
     
     // Загрузка жанров из кэша или API
     private void loadGenres() {
-        executor.execute(() -> {
+        tasks.execute(() -> {
             int genreCount = repository.getGenreCountSync(); // Room - READ
             
             if (genreCount == 0) {
                 // Retrofit - загрузка жанров с API
-                repository.getGenres().enqueue(new Callback<GenreResponse>() {
+                Call<GenreResponse> genresCall = repository.getGenres();
+                if (!track(genresCall)) return;
+                genresCall.enqueue(new Callback<GenreResponse>() {
                     @Override
                     public void onResponse(Call<GenreResponse> call, Response<GenreResponse> response) {
+                untrack(call);
                         if (response.isSuccessful() && response.body() != null) {
                             repository.cacheGenres(response.body().getGenres()); // Room - CREATE
                         }
@@ -116,6 +95,7 @@ public class MovieDetailsViewModel extends AndroidViewModel {
                     
                     @Override
                     public void onFailure(Call<GenreResponse> call, Throwable t) {
+                untrack(call);
                         // Не критично
                     }
                 });
@@ -125,111 +105,164 @@ public class MovieDetailsViewModel extends AndroidViewModel {
     
     // Загрузка деталей фильма из Room и API
     public void loadMovieDetails(int movieId) {
-        loadingLiveData.setValue(true);
+        stateLiveData.update(state -> state.withLoading(true));
         
         // Проверяем локальную базу (для offline и избранного)
-        executor.execute(() -> {
+        tasks.execute(() -> {
             MediaItem mediaItem = repository.getMediaItemByIdSync(movieId); // Room - READ
             
             if (mediaItem != null) {
-                // Фильм в избранном - загружаем offline данные
-                isFavoriteLiveData.postValue(mediaItem.isFavorite());
-                userCommentLiveData.postValue(mediaItem.getUserComment());
-                
-                // Жанры из кэша (GSON десериализация)
-                if (mediaItem.getGenresJson() != null) {
-                    currentGenres = repository.getGenresFromJson(mediaItem.getGenresJson());
-                    String genreNames = getGenreNames(currentGenres);
-                    genresLiveData.postValue(genreNames);
-                }
+                // Фильм в избранном - offline данные с приоритетом LOCAL:
+                // они не перезапишут то, что уже пришло из сети
+                List<Genre> cachedGenres = mediaItem.getGenresJson() != null
+                        ? repository.getGenresFromJson(mediaItem.getGenresJson()) : null; // GSON
+                List<Cast> cachedCast = mediaItem.getCastJson() != null
+                        ? repository.getCastFromJson(mediaItem.getCastJson()) : null; // GSON
+                Movie cachedMovie = toMovie(mediaItem);
                 
-                // Актеры из кэша (GSON десериализация)
-                if (mediaItem.getCastJson() != null) {
-                    currentCast = repository.getCastFromJson(mediaItem.getCastJson());
-                    castLiveData.postValue(currentCast);
-                }
+                stateLiveData.update(state -> state
+                        .withMovie(cachedMovie, Source.LOCAL)
+                        .withGenres(cachedGenres, cachedGenres != null ? getGenreNames(cachedGenres) : null,
+                                Source.LOCAL)
+                        .withCast(cachedCast, Source.LOCAL)
+                        .withFavorite(mediaItem.isFavorite())
+                        .withUserComment(mediaItem.getUserComment())
+                        .withLocalPosterPath(mediaItem.getLocalPosterPath()));
             } else {
-                isFavoriteLiveData.postValue(false);
-                userCommentLiveData.postValue("");
+                stateLiveData.update(state -> state.withFavorite(false).withUserComment(""));
             }
         });
         
         // Загрузка свежих данных из API
         // Retrofit - детали фильма
-        repository.getMovieDetails(movieId).enqueue(new Callback<Movie>() {
+        Call<Movie> detailsCall = repository.getMovieDetails(movieId);
+        if (!track(detailsCall)) return;
+        detailsCall.enqueue(new Callback<Movie>() {
             @Override
             public void onResponse(Call<Movie> call, Response<Movie> response) {
-                loadingLiveData.setValue(false);
+                untrack(call);
                 if (response.isSuccessful() && response.body() != null) {
                     Movie movie = response.body();
-                    movieLiveData.setValue(movie);
                     
-                    // Set genres from movie
+                    // Жанры из ответа, иначе по ID из справочника
+                    List<Genre> genres = null;
+                    String genreNames = null;
                     if (movie.getGenres() != null && !movie.getGenres().isEmpty()) {
-                        currentGenres = movie.getGenres();
-                        String genreNames = getGenreNames(movie.getGenres());
-                        genresLiveData.setValue(genreNames);
+                        genres = movie.getGenres();
+                        genreNames = getGenreNames(genres);
                     } else if (movie.getGenreIds() != null) {
-                        String genreNames = repository.getGenreNamesFromIds(movie.getGenreIds());
-                        genresLiveData.setValue(genreNames);
+                        genreNames = repository.getGenreNamesFromIds(movie.getGenreIds());
                     }
+                    List<Genre> networkGenres = genres;
+                    String networkGenreNames = genreNames;
+                    
+                    stateLiveData.update(state -> state
+                            .withLoading(false)
+                            .withMovie(movie, Source.NETWORK)
+                            .withGenres(networkGenres, networkGenreNames, Source.NETWORK));
                 } else {
+                    stateLiveData.update(state -> state.withLoading(false));
                     errorLiveData.setValue("Ошибка загрузки деталей фильма");
                 }
             }
             
             @Override
             public void onFailure(Call<Movie> call, Throwable t) {
-                loadingLiveData.setValue(false);
-                errorLiveData.setValue("Нет подключения к интернету");
+                untrack(call);
+                stateLiveData.update(state -> state.withLoading(false));
+                if (!call.isCanceled()) {
+                    errorLiveData.setValue("Нет подключения к интернету");
+                }
             }
         });
         
         // Retrofit - актерский состав
-        repository.getMovieCredits(movieId).enqueue(new Callback<CreditsResponse>() {
+        Call<CreditsResponse> creditsCall = repository.getMovieCredits(movieId);
+        if (!track(creditsCall)) return;
+        creditsCall.enqueue(new Callback<CreditsResponse>() {
             @Override
             public void onResponse(Call<CreditsResponse> call, Response<CreditsResponse> response) {
+                untrack(call);
                 if (response.isSuccessful() && response.body() != null) {
-                    currentCast = response.body().getCast();
-                    castLiveData.setValue(currentCast);
+                    List<Cast> cast = response.body().getCast();
+                    stateLiveData.update(state -> state.withCast(cast, Source.NETWORK));
                 }
             }
             
             @Override
             public void onFailure(Call<CreditsResponse> call, Throwable t) {
+                untrack(call);
                 // Не критично
             }
         });
         
         // Retrofit - трейлеры
-        repository.getMovieVideos(movieId).enqueue(new Callback<VideosResponse>() {
+        Call<VideosResponse> videosCall = repository.getMovieVideos(movieId);
+        if (!track(videosCall)) return;
+        videosCall.enqueue(new Callback<VideosResponse>() {
             @Override
             public void onResponse(Call<VideosResponse> call, Response<VideosResponse> response) {
+                untrack(call);
                 if (response.isSuccessful() && response.body() != null) {
-                    List<Video> videos = response.body().getResults();
-                    if (videos != null && !videos.isEmpty()) {
-                        // Ищем трейлер
-                        for (Video video : videos) {
-                            if ("Trailer".equals(video.getType()) && "YouTube".equals(video.getSite())) {
-                                trailerKeyLiveData.setValue(video.getKey());
-                                break;
-                            }
-                        }
-                        // Если не нашли, берем первое видео
-                        if (trailerKeyLiveData.getValue() == null && !videos.isEmpty()) {
-                            trailerKeyLiveData.setValue(videos.get(0).getKey());
-                        }
+                    String trailerKey = findTrailerKey(response.body().getResults());
+                    if (trailerKey != null) {
+                        stateLiveData.update(state -> state.withTrailerKey(trailerKey));
                     }
                 }
             }
             
             @Override
             public void onFailure(Call<VideosResponse> call, Throwable t) {
+                untrack(call);
                 // Не критично
             }
         });
     }
     
+    // Ищем трейлер YouTube, если не нашли - берем первое видео
+    private static String findTrailerKey(List<Video> videos) {
+        if (videos == null || videos.isEmpty()) {
+            return null;
+        }
+        for (Video video : videos) {
+            if ("Trailer".equals(video.getType()) && "YouTube".equals(video.getSite())) {
+                return video.getKey();
+            }
+        }
+        return videos.get(0).getKey();
+    }
+    
+    // Фильм из Room для offline-отображения до ответа API
+    private static Movie toMovie(MediaItem mediaItem) {
+        Movie movie = new Movie();
+        movie.setId(mediaItem.getId());
+        movie.setTitle(mediaItem.getTitle());
+        movie.setOverview(mediaItem.getOverview());
+        movie.setPosterPath(mediaItem.getPosterPath());
+        movie.setReleaseDate(mediaItem.getReleaseDate());
+        movie.setVoteAverage(mediaItem.getVoteAverage());
+        return movie;
+    }
+    
+    // Запоминаем запрос для отмены; false - ViewModel уже уничтожена
+    private boolean track(Call<?> call) {
+        synchronized (inFlightCalls) {
+            if (tasks.isCancelled()) {
+                call.cancel();
+                return false;
+            }
+            inFlightCalls.add(call);
+            return true;
+        }
+    }
+    
+    // Запрос завершён - больше не держим его до onCleared()
+    private void untrack(Call<?> call) {
+        synchronized (inFlightCalls) {
+            inFlightCalls.remove(call);
+        }
+    }
+    
     // Конвертация списка жанров в строку
     private String getGenreNames(List<Genre> genres) {
         if (genres == null || genres.isEmpty()) {
@@ -247,9 +280,10 @@ public class MovieDetailsViewModel extends AndroidViewModel {
     
     // Добавление/удаление фильма из избранного
     public void toggleFavorite(int movieId) {
-        executor.execute(() -> {
+        tasks.execute(() -> {
             MediaItem existingItem = repository.getMediaItemByIdSync(movieId); // Room - READ
-            Movie currentMovie = movieLiveData.getValue();
+            DetailsState current = stateLiveData.getLatest();
+            Movie currentMovie = current.getMovie();
             
             if (currentMovie == null) return;
             
@@ -258,41 +292,53 @@ public class MovieDetailsViewModel extends AndroidViewModel {
                 boolean newFavoriteStatus = !existingItem.isFavorite();
                 if (newFavoriteStatus) {
                     repository.updateFavoriteStatus(movieId, true); // Room - UPDATE
-                    isFavoriteLiveData.postValue(true);
+                    stateLiveData.update(state -> state.withFavorite(true));
                 } else {
                     repository.deleteMediaItemById(movieId); // Room - DELETE
-                    isFavoriteLiveData.postValue(false);
-                    userCommentLiveData.postValue("");
+                    stateLiveData.update(state -> state.withFavorite(false).withUserComment(""));
                 }
             } else {
                 // Создаем новую запись с жанрами и актерами (GSON сериализация)
                 MediaItem newItem = repository.convertMovieToMediaItemWithExtras(
-                        currentMovie, true, "", currentGenres, currentCast);
+                        currentMovie, true, "", current.getGenreList(), current.getCast());
                 repository.insertMediaItem(newItem); // Room - CREATE
-                isFavoriteLiveData.postValue(true);
+                stateLiveData.update(state -> state.withFavorite(true));
             }
         });
     }
     
     // Обновление комментария пользователя
     public void updateComment(int movieId, String comment) {
-        executor.execute(() -> {
+        tasks.execute(() -> {
             MediaItem existingItem = repository.getMediaItemByIdSync(movieId); // Room - READ
-            Movie currentMovie = movieLiveData.getValue();
+            DetailsState current = stateLiveData.getLatest();
+            Movie currentMovie = current.getMovie();
             
             if (currentMovie == null) return;
             
             if (existingItem != null) {
                 repository.updateComment(movieId, comment); // Room - UPDATE
-                userCommentLiveData.postValue(comment);
+                stateLiveData.update(state -> state.withUserComment(comment));
             } else {
                 // Фильма нет в базе - создаем новую запись
                 MediaItem newItem = repository.convertMovieToMediaItemWithExtras(
-                        currentMovie, true, comment, currentGenres, currentCast);
+                        currentMovie, true, comment, current.getGenreList(), current.getCast());
                 repository.insertMediaItem(newItem); // Room - CREATE
-                isFavoriteLiveData.postValue(true);
-                userCommentLiveData.postValue(comment);
+                stateLiveData.update(state -> state.withFavorite(true).withUserComment(comment));
             }
         });
     }
+    
+    // ViewModel уничтожается - отменяем фоновые задачи и сетевые запросы
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        synchronized (inFlightCalls) {
+            tasks.cancelAll();
+            for (Call<?> call : inFlightCalls) {
+                call.cancel();
+            }
+            inFlightCalls.clear();
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package com.example.moviecast.ui.viewmodel;
+
+import com.example.moviecast.collection.ImmutableIntSet;
+import com.example.moviecast.data.model.MoviePageWindow;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.ui.model.MovieUiModel;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PagedRows - строки списка как есть (без поиска, фильтров и сортировки) для адаптера.
+ * Строка - позиция списка: карточка страницы в памяти или общая заглушка
+ * (MovieUiModel.PLACEHOLDER) на месте выгруженной. Карточки не копируются - сборка
+ * O(страниц в памяти), а не O(длины списка). Неизменяема: DiffUtil читает её в фоне.
+ */
+final class PagedRows extends AbstractList<MovieUiModel> {
+
+    // Начала непустых страниц в памяти по возрастанию и их карточки
+    private final int[] starts;
+    private final MovieUiModel[][] models;
+    private final int count;
+    private final int size;
+
+    /**
+     * pageModels - карточки страниц в памяти по их спискам фильмов (MoviePageWindow.pageMovies)
+     */
+    PagedRows(MoviePageWindow window, Map<List<Movie>, MovieUiModel[]> pageModels) {
+        ImmutableIntSet resident = window.residentPages();
+        starts = new int[resident.size()];
+        models = new MovieUiModel[resident.size()][];
+        int count = 0;
+        for (int i = 0; i < resident.size(); i++) {
+            int page = resident.get(i);
+            List<Movie> movies = window.pageMovies(page);
+            if (movies.isEmpty()) continue; // пустая страница (одни повторы) - начало у соседней
+            starts[count] = window.start(page);
+            models[count++] = pageModels.get(movies);
+        }
+        this.count = count;
+        this.size = window.size();
+    }
+
+    @Override
+    public MovieUiModel get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        int page = Arrays.binarySearch(starts, 0, count, index);
+        if (page < 0) {
+            page = -page - 2;
+        }
+        if (page >= 0 && index - starts[page] < models[page].length) {
+            return models[page][index - starts[page]];
+        }
+        return MovieUiModel.PLACEHOLDER;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
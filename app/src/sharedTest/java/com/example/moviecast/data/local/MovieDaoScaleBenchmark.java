@@ -0,0 +1,259 @@
+package com.example.moviecast.data.local;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.moviecast.data.remote.model.Cast;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.data.repository.MediaItemMapper;
+import com.example.moviecast.testutil.LatencyStats;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Масштабируемость media_items: избранное на 10k-100k строк.
+ *
+ * Для каждого размера таблица заполняется синтетическими фильмами (состав из 10 актёров
+ * в castJson, каждая десятая строка - не в избранном, а только с комментарием) и меряются:
+ * getAllFavorites, getMediaItemByIdSync, вставка с большим castJson (120 актёров),
+ * updateFavoriteStatus, перезапрос наблюдателя после одной вставки, размер файла базы
+ * и холодное открытие. Перезапрос повторяет RoomTrackingLiveData: InvalidationTracker
+ * сообщает об изменении таблицы, запрос выполняется заново в фоне.
+ *
+ * Один и тот же класс идёт на устройстве и в Robolectric (sharedTest):
+ *   ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=\
+ *       com.example.moviecast.data.local.MovieDaoScaleBenchmark
+ *   ./gradlew testDebugUnitTest -Pbenchmarks --tests '*MovieDaoScaleBenchmark' -ProomScales=10000,30000
+ * Результаты - строки "[room-scale]" в stdout (на устройстве - logcat, тег System.out).
+ * Холодное открытие - без сброса файлового кэша ОС (без root недоступно).
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class MovieDaoScaleBenchmark {
+
+    private static final int[] DEFAULT_SCALES = {10_000, 30_000, 100_000};
+    private static final int SEED_BATCH = 1_000;
+    private static final int SEED_CAST = 10;
+    private static final int LARGE_CAST = 120;
+    private static final int NON_FAVORITE_EVERY = 10;
+
+    private static final int FULL_SCANS = 5;
+    private static final int POINT_LOOKUPS = 1_000;
+    private static final int LARGE_INSERTS = 100;
+    private static final int STATUS_UPDATES = 500;
+    private static final int OBSERVED_INSERTS = 10;
+    private static final int COLD_OPENS = 5;
+    private static final long OBSERVER_TIMEOUT_S = 30;
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private final Random random = new Random(42);
+
+    @Test
+    public void favouritesAtScale() throws Exception {
+        for (int rows : scales()) {
+            String name = "room-scale-" + rows + ".db";
+            context.deleteDatabase(name);
+            try {
+                measure(name, rows);
+            } finally {
+                context.deleteDatabase(name);
+            }
+        }
+    }
+
+    private void measure(String name, int rows) throws InterruptedException {
+        MovieDatabase database = open(name);
+        MovieDao dao = database.movieDao();
+
+        long seedStart = System.nanoTime();
+        seed(database, rows);
+        report(rows, String.format(Locale.US, "seed %.0f rows/s",
+                rows / ((System.nanoTime() - seedStart) / 1e9)));
+
+        int favorites = rows - rows / NON_FAVORITE_EVERY;
+        LatencyStats scan = new LatencyStats("getAllFavorites");
+        for (int i = 0; i < FULL_SCANS; i++) {
+            long start = System.nanoTime();
+            List<MediaItem> items = dao.getAllFavoritesSync();
+            scan.add(System.nanoTime() - start);
+            assertEquals(favorites, items.size());
+        }
+        report(rows, scan);
+
+        LatencyStats lookup = new LatencyStats("getMediaItemByIdSync");
+        for (int i = 0; i < POINT_LOOKUPS; i++) {
+            int id = 1 + random.nextInt(rows);
+            long start = System.nanoTime();
+            MediaItem item = dao.getMediaItemByIdSync(id);
+            lookup.add(System.nanoTime() - start);
+            assertNotNull(item);
+        }
+        report(rows, lookup);
+
+        // Как при добавлении в избранное с экрана деталей: одна строка - одна транзакция
+        List<Cast> largeCast = cast(LARGE_CAST);
+        LatencyStats insert = new LatencyStats("insert castJson " + LARGE_CAST);
+        for (int i = 0; i < LARGE_INSERTS; i++) {
+            MediaItem item = item(rows + 1 + i, largeCast, true);
+            long start = System.nanoTime();
+            dao.insert(item);
+            insert.add(System.nanoTime() - start);
+        }
+        report(rows, insert);
+
+        LatencyStats update = new LatencyStats("updateFavoriteStatus");
+        for (int i = 0; i < STATUS_UPDATES; i++) {
+            int id = 1 + random.nextInt(rows);
+            boolean favorite = id % NON_FAVORITE_EVERY != 0;
+            long start = System.nanoTime();
+            // Туда и обратно - размер избранного не меняется между замерами
+            dao.updateFavoriteStatus(id, !favorite);
+            dao.updateFavoriteStatus(id, favorite);
+            update.add((System.nanoTime() - start) / 2);
+        }
+        report(rows, update);
+
+        measureObserverRequery(database, rows + 1 + LARGE_INSERTS, rows);
+
+        database.close();
+        File file = context.getDatabasePath(name);
+        report(rows, String.format(Locale.US, "file %.1f MB (wal %.1f MB)",
+                file.length() / 1048576.0, new File(file.getPath() + "-wal").length() / 1048576.0));
+
+        LatencyStats coldOpen = new LatencyStats("cold open + first read");
+        for (int i = 0; i < COLD_OPENS; i++) {
+            long start = System.nanoTime();
+            MovieDatabase reopened = open(name);
+            MediaItem item = reopened.movieDao().getMediaItemByIdSync(1);
+            coldOpen.add(System.nanoTime() - start);
+            assertNotNull(item);
+            reopened.close();
+        }
+        report(rows, coldOpen);
+    }
+
+    /**
+     * Вставка одной строки -> уведомление InvalidationTracker -> повторный getAllFavorites
+     */
+    private void measureObserverRequery(MovieDatabase database, int firstId, int rows)
+            throws InterruptedException {
+        LatencyStats notify = new LatencyStats("insert -> invalidation");
+        LatencyStats requery = new LatencyStats("observer re-query");
+        AtomicLong insertedAt = new AtomicLong();
+        AtomicReference<CountDownLatch> pending = new AtomicReference<>();
+        InvalidationTracker.Observer observer = new InvalidationTracker.Observer("media_items") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                // Уведомление о записях до замера (обновления статуса) не считаем
+                CountDownLatch latch = pending.getAndSet(null);
+                if (latch == null) return;
+                long notified = System.nanoTime();
+                database.movieDao().getAllFavoritesSync();
+                requery.add(System.nanoTime() - notified);
+                notify.add(notified - insertedAt.get());
+                latch.countDown();
+            }
+        };
+        database.getInvalidationTracker().addObserver(observer);
+        // Накопленные уведомления (обновления статуса) доставляются сейчас, до замера
+        database.getInvalidationTracker().refreshVersionsSync();
+        try {
+            for (int i = 0; i < OBSERVED_INSERTS; i++) {
+                CountDownLatch latch = new CountDownLatch(1);
+                MediaItem item = item(firstId + i, cast(SEED_CAST), true);
+                insertedAt.set(System.nanoTime());
+                pending.set(latch);
+                database.movieDao().insert(item);
+                assertTrue("No invalidation", latch.await(OBSERVER_TIMEOUT_S, TimeUnit.SECONDS));
+            }
+        } finally {
+            database.getInvalidationTracker().removeObserver(observer);
+        }
+        report(rows, notify);
+        report(rows, requery);
+    }
+
+    // allowMainThreadQueries: в Robolectric тест идёт в главном потоке
+    private MovieDatabase open(String name) {
+        return Room.databaseBuilder(context, MovieDatabase.class, name)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    private void seed(MovieDatabase database, int rows) {
+        List<Cast> cast = cast(SEED_CAST);
+        for (int from = 1; from <= rows; from += SEED_BATCH) {
+            int batchStart = from;
+            database.runInTransaction(() -> {
+                for (int id = batchStart; id < batchStart + SEED_BATCH && id <= rows; id++) {
+                    database.movieDao().insert(item(id, cast, id % NON_FAVORITE_EVERY != 0));
+                }
+            });
+        }
+    }
+
+    private static MediaItem item(int id, List<Cast> cast, boolean favorite) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("Фильм " + id);
+        movie.setOverview("Синтетическое описание фильма " + id
+                + " для замера масштабируемости таблицы избранного.");
+        movie.setPosterPath("/poster_" + id + ".jpg");
+        movie.setReleaseDate((1950 + id % 75) + "-06-15");
+        movie.setVoteAverage((id % 100) / 10.0);
+        return MediaItemMapper.toMediaItem(movie, favorite, favorite ? null : "Комментарий " + id,
+                null, cast);
+    }
+
+    private static List<Cast> cast(int size) {
+        List<Cast> cast = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Cast person = new Cast();
+            person.setId(1000 + i);
+            person.setName("Актёр " + i);
+            person.setCharacter("Роль " + i);
+            person.setProfilePath("/profile_" + (1000 + i) + ".jpg");
+            cast.add(person);
+        }
+        return cast;
+    }
+
+    private static int[] scales() {
+        String value = InstrumentationRegistry.getArguments().getString("roomScales");
+        if (value == null || value.isEmpty()) {
+            value = System.getProperty("roomScales", "");
+        }
+        if (value.isEmpty()) {
+            return DEFAULT_SCALES;
+        }
+        return Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+    }
+
+    private static void report(int rows, Object line) {
+        System.out.println("[room-scale] rows=" + rows + " " + line);
+    }
+}
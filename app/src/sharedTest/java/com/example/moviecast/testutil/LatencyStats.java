@@ -0,0 +1,56 @@
+package com.example.moviecast.testutil;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * LatencyStats - выборка длительностей замера и её перцентили.
+ * Значения в наносекундах (System.nanoTime), отчёт - в миллисекундах.
+ */
+public final class LatencyStats {
+
+    private final String name;
+    private long[] samples = new long[64];
+    private int size;
+
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+
+    public void add(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public int count() {
+        return size;
+    }
+
+    /**
+     * Перцентиль p (0..100) методом ближайшего ранга, нс
+     */
+    public long percentile(double p) {
+        if (size == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100 * size);
+        return sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+
+    public long max() {
+        return percentile(100);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s n=%d p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+                name, size, millis(percentile(50)), millis(percentile(90)),
+                millis(percentile(99)), millis(max()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
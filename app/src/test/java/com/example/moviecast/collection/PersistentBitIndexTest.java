@@ -0,0 +1,73 @@
+package com.example.moviecast.collection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * PersistentBitIndex: выборки по ключам, дописывание самым свежим снимком и ветвление
+ * от старого снимка.
+ */
+public class PersistentBitIndexTest {
+
+    @Test
+    public void selectsPositionsByKeys() {
+        PersistentBitIndex index = PersistentBitIndex.empty().append(new int[][]{
+                {18, 28}, {28}, null, {35}, {18}});
+
+        assertArrayEquals(new int[]{0, 4}, PersistentBitIndex.positions(index.get(18)));
+        assertArrayEquals(new int[]{0, 1, 3}, PersistentBitIndex.positions(index.any(new int[]{28, 35})));
+        assertArrayEquals(new int[]{0}, PersistentBitIndex.positions(index.every(new int[]{18, 28})));
+        assertArrayEquals(new int[]{0, 1, 4}, PersistentBitIndex.positions(index.range(18, 30)));
+        assertEquals(5, PersistentBitIndex.count(index.all()));
+        assertEquals(0, PersistentBitIndex.count(index.get(99)));
+    }
+
+    @Test
+    public void olderSnapshotDoesNotSeeNewerPositions() {
+        PersistentBitIndex first = PersistentBitIndex.empty().append(new int[][]{{1}, {2}});
+        PersistentBitIndex second = first.append(new int[][]{{1}, {3}});
+
+        assertArrayEquals(new int[]{0}, PersistentBitIndex.positions(first.get(1)));
+        assertEquals(0, PersistentBitIndex.count(first.get(3)));
+        assertEquals(2, first.keyCount());
+        assertArrayEquals(new int[]{0, 2}, PersistentBitIndex.positions(second.get(1)));
+        assertArrayEquals(new int[]{3}, PersistentBitIndex.positions(second.get(3)));
+    }
+
+    @Test
+    public void branchKeepsOnlyItsOwnPositions() {
+        PersistentBitIndex base = PersistentBitIndex.empty().append(new int[][]{{1}, {2}});
+        PersistentBitIndex newer = base.append(new int[][]{{1}, {1}});
+        PersistentBitIndex branch = base.append(new int[][]{{2}, {4}});
+
+        assertArrayEquals(new int[]{0}, PersistentBitIndex.positions(branch.get(1)));
+        assertArrayEquals(new int[]{1, 2}, PersistentBitIndex.positions(branch.get(2)));
+        assertArrayEquals(new int[]{3}, PersistentBitIndex.positions(branch.get(4)));
+        assertArrayEquals(new int[]{0, 2, 3}, PersistentBitIndex.positions(newer.get(1)));
+        assertEquals(0, PersistentBitIndex.count(newer.get(4)));
+
+        // Дописывание в ветку не меняет исходную цепочку
+        PersistentBitIndex continued = branch.append(new int[][]{{1}});
+        assertArrayEquals(new int[]{0, 4}, PersistentBitIndex.positions(continued.get(1)));
+        assertArrayEquals(new int[]{0, 2, 3}, PersistentBitIndex.positions(newer.get(1)));
+    }
+
+    @Test
+    public void growsPastWordBoundaries() {
+        PersistentBitIndex index = PersistentBitIndex.empty();
+        PersistentBitIndex at60 = null;
+        for (int position = 0; position < 200; position++) {
+            index = index.append(new int[][]{{position % 3}});
+            if (position == 59) {
+                at60 = index;
+            }
+        }
+
+        assertEquals(67, PersistentBitIndex.count(index.get(0)));
+        assertEquals(20, PersistentBitIndex.count(at60.get(0)));
+        assertEquals(60, PersistentBitIndex.count(at60.all()));
+        assertEquals(200, PersistentBitIndex.count(index.all()));
+    }
+}
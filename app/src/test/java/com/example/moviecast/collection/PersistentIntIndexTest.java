@@ -0,0 +1,75 @@
+package com.example.moviecast.collection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * PersistentIntIndex: дописывание в общую таблицу самым свежим снимком и ветвление
+ * от старого снимка (повтор добавления после проигранного compareAndSet).
+ */
+public class PersistentIntIndexTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Test
+    public void appendToNewestKeepsFirstPositionAndOlderSnapshots() {
+        PersistentIntIndex first = PersistentIntIndex.empty().putAllIfAbsent(new int[]{5, 7, 9}, 0);
+        PersistentIntIndex second = first.putAllIfAbsent(new int[]{7, 11}, 3);
+
+        assertEquals(3, first.size());
+        assertEquals(4, second.size());
+        assertEquals(1, second.get(7)); // первая позиция ключа сохраняется
+        assertEquals(4, second.get(11));
+        assertEquals(0, first.get(5));
+        assertEquals(-1, second.get(3));
+    }
+
+    @Test
+    public void skipsNonPositiveKeys() {
+        PersistentIntIndex index = PersistentIntIndex.empty().putAllIfAbsent(new int[]{0, -4, 8}, 0);
+
+        assertEquals(1, index.size());
+        assertEquals(2, index.get(8));
+        assertEquals(-1, index.get(0));
+        assertEquals(-1, index.get(-4));
+    }
+
+    @Test
+    public void branchDoesNotSeeKeysOfNewerSnapshots() {
+        PersistentIntIndex base = PersistentIntIndex.empty().putAllIfAbsent(new int[]{1, 2}, 0);
+        PersistentIntIndex newer = base.putAllIfAbsent(new int[]{3, 4}, 2);
+        PersistentIntIndex branch = base.putAllIfAbsent(new int[]{4, 5}, 2);
+
+        assertEquals(4, newer.size());
+        assertEquals(4, branch.size());
+        assertEquals(-1, branch.get(3));
+        assertEquals(2, branch.get(4));
+        assertEquals(3, branch.get(5));
+        assertEquals(3, newer.get(4));
+        assertEquals(-1, newer.get(5));
+    }
+
+    @Test(timeout = 10_000)
+    public void repeatedBranchingKeepsTableConsistent() {
+        // Каждая страница сначала дописывается в проигравшей попытке, затем повторяется
+        // от того же снимка - повтор всегда ветвится
+        PersistentIntIndex current = PersistentIntIndex.empty();
+        int position = 0;
+        for (int page = 0; page < 50; page++) {
+            int[] ids = new int[PAGE_SIZE];
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                ids[i] = page * PAGE_SIZE + i + 1;
+            }
+            current.putAllIfAbsent(ids, position);
+            current = current.putAllIfAbsent(ids, position);
+            position += PAGE_SIZE;
+        }
+
+        assertEquals(position, current.size());
+        for (int id = 1; id <= position; id++) {
+            assertEquals(id - 1, current.get(id));
+        }
+        assertEquals(-1, current.get(position + 1));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.moviecast.collection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PersistentList: дописывание в общий массив самым свежим снимком, замены (withReplaced)
+ * и ветвление от старого снимка.
+ */
+public class PersistentListTest {
+
+    @Test
+    public void appendToNewestSharesBacking() {
+        PersistentList<Integer> first = PersistentList.copyOf(Arrays.asList(1, 2, 3));
+        PersistentList<Integer> second = first.appendAll(Arrays.asList(4, 5));
+
+        assertEquals(Arrays.asList(1, 2, 3), first);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), second);
+        assertTrue(second.startsWith(first));
+        assertFalse(first.startsWith(second));
+    }
+
+    @Test
+    public void appendToStaleSnapshotBranches() {
+        PersistentList<Integer> base = PersistentList.copyOf(Arrays.asList(1, 2));
+        PersistentList<Integer> newer = base.appendAll(Arrays.asList(3, 4));
+        PersistentList<Integer> branch = base.appendAll(Arrays.asList(7, 8, 9));
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), newer);
+        assertEquals(Arrays.asList(1, 2, 7, 8, 9), branch);
+        assertFalse(branch.startsWith(base));
+        assertFalse(branch.startsWith(newer));
+
+        // Ветка - начало своей цепочки
+        PersistentList<Integer> continued = branch.appendAll(Collections.singletonList(10));
+        assertTrue(continued.startsWith(branch));
+        assertEquals(Arrays.asList(1, 2, 3, 4), newer);
+    }
+
+    @Test
+    public void replaceInNewestStaysInChain() {
+        PersistentList<Integer> base = PersistentList.copyOf(Arrays.asList(1, 2, 3));
+        PersistentList<Integer> replaced = base.withReplaced(1, Collections.singletonList(20));
+        PersistentList<Integer> appended = replaced.appendAll(Collections.singletonList(4));
+
+        assertEquals(Arrays.asList(1, 2, 3), base);
+        assertEquals(Arrays.asList(1, 20, 3), replaced);
+        assertEquals(Arrays.asList(1, 20, 3, 4), appended);
+        assertTrue(replaced.startsWith(base));
+        assertTrue(appended.startsWith(replaced));
+    }
+
+    @Test
+    public void appendToSnapshotReplacedLaterBranches() {
+        PersistentList<Integer> base = PersistentList.copyOf(Arrays.asList(1, 2, 3));
+        PersistentList<Integer> replaced = base.withReplaced(0, Arrays.asList(10, 20));
+        // Тот же размер, но замена была после него - его элементы не должны смениться
+        PersistentList<Integer> stale = base.appendAll(Collections.singletonList(4));
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), stale);
+        assertFalse(stale.startsWith(replaced));
+
+        // Цепочка замены продолжается как самая свежая
+        PersistentList<Integer> next = replaced.appendAll(Collections.singletonList(5));
+        assertEquals(Arrays.asList(10, 20, 3, 5), next);
+        assertTrue(next.startsWith(replaced));
+
+        PersistentList<Integer> staleReplace = base.withReplaced(2, Collections.singletonList(30));
+        assertEquals(Arrays.asList(1, 2, 30), staleReplace);
+        assertEquals(Arrays.asList(10, 20, 3), replaced);
+        assertFalse(staleReplace.startsWith(replaced));
+    }
+
+    @Test
+    public void growthKeepsOlderSnapshots() {
+        PersistentList<Integer> list = PersistentList.empty();
+        PersistentList<Integer> small = null;
+        for (int i = 0; i < 100; i++) {
+            list = list.appendAll(Collections.singletonList(i));
+            if (i == 9) {
+                small = list;
+            }
+        }
+
+        assertEquals(10, small.size());
+        assertEquals(Integer.valueOf(9), small.get(9));
+        assertTrue(list.startsWith(small));
+        assertEquals(Integer.valueOf(99), list.get(99));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getBeyondSnapshotSizeThrows() {
+        PersistentList<Integer> first = PersistentList.copyOf(Arrays.asList(1, 2));
+        first.appendAll(Arrays.asList(3, 4));
+        first.get(2);
+    }
+}
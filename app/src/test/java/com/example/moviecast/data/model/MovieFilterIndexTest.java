@@ -0,0 +1,162 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.collection.PersistentBitIndex;
+import com.example.moviecast.data.remote.model.Movie;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MovieFilterIndex и фильтры MovieListState: выборка после дописывания страниц,
+ * переключение избранного, ветвление от устаревшего снимка, выгруженные страницы.
+ */
+public class MovieFilterIndexTest {
+
+    private static final int ACTION = 28;
+    private static final int DRAMA = 18;
+    private static final int COMEDY = 35;
+
+    private static final MovieFilter ACTION_OR_COMEDY =
+            MovieFilter.NONE.withGenres(new int[]{COMEDY, ACTION}, false);
+
+    @Test
+    public void selectsByGenresAndYearsAcrossPages() {
+        MovieFilterIndex index = MovieFilterIndex.empty()
+                .withPage(Arrays.asList(
+                        movie(1, "1999-10-15", DRAMA, ACTION),
+                        movie(2, "2008-07-16", ACTION),
+                        movie(3, null, COMEDY)))
+                .withPage(Arrays.asList(
+                        movie(4, "2010-07-15", ACTION, DRAMA),
+                        movie(5, "19xx", DRAMA)));
+
+        assertEquals(5, index.size());
+        assertArrayEquals(new int[]{0, 1, 3}, index.positions(MovieFilter.NONE.withGenre(ACTION)));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.positions(ACTION_OR_COMEDY));
+        assertArrayEquals(new int[]{0, 3},
+                index.positions(MovieFilter.NONE.withGenres(new int[]{ACTION, DRAMA}, true)));
+        // Год не указан или не разобран - фильм не проходит фильтр по году
+        assertArrayEquals(new int[]{1, 3}, index.positions(MovieFilter.NONE.withYearRange(2000, null)));
+        assertArrayEquals(new int[]{3},
+                index.positions(MovieFilter.NONE.withGenre(DRAMA).withYearRange(2000, 2010)));
+        assertEquals(5, index.count(MovieFilter.NONE));
+        assertEquals(0, index.count(MovieFilter.NONE.withGenre(99)));
+    }
+
+    @Test
+    public void selectionMatchesSingleMovieCheck() {
+        List<Movie> movies = Arrays.asList(
+                movie(1, "1999-10-15", DRAMA, ACTION),
+                movie(2, "2008-07-16", ACTION),
+                movie(3, "2015-01-01"),
+                movie(4, "2010-07-15", COMEDY, DRAMA));
+        MovieFilterIndex index = MovieFilterIndex.empty().withPage(movies);
+        MovieFilter[] filters = {
+                MovieFilter.NONE,
+                ACTION_OR_COMEDY,
+                MovieFilter.NONE.withGenres(new int[]{DRAMA, ACTION}, true),
+                MovieFilter.NONE.withYear(2008),
+                MovieFilter.NONE.withGenre(DRAMA).withYearRange(null, 2009)};
+
+        for (MovieFilter filter : filters) {
+            long[] selection = index.select(filter);
+            for (int position = 0; position < movies.size(); position++) {
+                assertEquals(filter + " @" + position, filter.matches(movies.get(position)),
+                        PersistentBitIndex.contains(selection, position));
+            }
+        }
+    }
+
+    @Test
+    public void stateFiltersGrowWithAppendedPages() {
+        MovieListState state = MovieListState.initial(false, null, ACTION_OR_COMEDY, MovieSort.DEFAULT)
+                .withPage(Arrays.asList(movie(1, "2001-01-01", ACTION), movie(2, "2002-01-01", DRAMA)), 1, 3);
+        assertArrayEquals(new int[]{0}, state.filteredPositions());
+
+        state = state.withPage(Arrays.asList(movie(3, "2003-01-01", COMEDY), movie(4, "2004-01-01")), 2, 3);
+        assertArrayEquals(new int[]{0, 2}, state.filteredPositions());
+
+        // Повтор фильма прошлой страницы отбрасывается и не попадает в индекс второй раз
+        state = state.withPage(Arrays.asList(movie(1, "2001-01-01", ACTION), movie(5, "2005-01-01", ACTION)), 3, 3);
+        assertEquals(5, state.getWindow().size());
+        assertArrayEquals(new int[]{0, 2, 4}, state.filteredPositions());
+    }
+
+    @Test
+    public void favoriteTogglesKeepFilterSelection() {
+        MovieListState state = MovieListState.initial(false, null, MovieFilter.NONE.withGenre(ACTION), MovieSort.DEFAULT)
+                .withPage(Arrays.asList(movie(1, "2001-01-01", ACTION), movie(2, "2002-01-01", DRAMA),
+                        movie(3, "2003-01-01", ACTION)), 1, 1);
+
+        MovieListState favorite = state.withFavorite(3, true).withFavorites(new int[]{2});
+        assertArrayEquals(new int[]{0, 2}, favorite.filteredPositions());
+        assertTrue(favorite.isFavorite(3));
+
+        MovieListState unfavorite = favorite.withFavorite(3, false);
+        assertArrayEquals(new int[]{0, 2}, unfavorite.filteredPositions());
+        assertFalse(unfavorite.isFavorite(3));
+        assertTrue(unfavorite.isFavorite(2));
+
+        // Индекс дописывается и после переключения избранного
+        MovieListState next = unfavorite.withPage(Arrays.asList(movie(4, "2004-01-01", ACTION)), 2, 2);
+        assertArrayEquals(new int[]{0, 2, 3}, next.filteredPositions());
+        assertTrue(next.isFavorite(2));
+    }
+
+    @Test
+    public void branchFromStaleSnapshotFiltersOnlyItsOwnPages() {
+        MovieListState base = MovieListState.initial(false, null, MovieFilter.NONE.withGenre(ACTION), MovieSort.DEFAULT)
+                .withPage(Arrays.asList(movie(1, "2001-01-01", ACTION), movie(2, "2002-01-01", DRAMA)), 1, 3);
+        MovieListState newer = base.withPage(
+                Arrays.asList(movie(3, "2003-01-01", ACTION), movie(4, "2004-01-01", ACTION)), 2, 3);
+        // Проигравшая CAS задача дописывает другую страницу к тому же снимку
+        MovieListState branch = base.withPage(
+                Arrays.asList(movie(5, "2005-01-01", DRAMA), movie(6, "2006-01-01", ACTION)), 2, 3);
+
+        assertArrayEquals(new int[]{0, 2, 3}, newer.filteredPositions());
+        assertArrayEquals(new int[]{0, 3}, branch.filteredPositions());
+        assertArrayEquals(new int[]{0}, base.filteredPositions());
+        assertArrayEquals(new int[]{2}, branch.withFilter(MovieFilter.NONE.withYear(2005)).filteredPositions());
+        assertEquals(0, newer.withFilter(MovieFilter.NONE.withYear(2005)).filteredPositions().length);
+
+        // Обе цепочки дописываются дальше независимо
+        MovieListState newerNext = newer.withPage(Arrays.asList(movie(7, "2007-01-01", DRAMA)), 3, 3);
+        MovieListState branchNext = branch.withPage(Arrays.asList(movie(8, "2008-01-01", ACTION)), 3, 3);
+        assertArrayEquals(new int[]{0, 2, 3}, newerNext.filteredPositions());
+        assertArrayEquals(new int[]{0, 3, 4}, branchNext.filteredPositions());
+        assertArrayEquals(new int[]{1, 4},
+                newerNext.withFilter(MovieFilter.NONE.withGenre(DRAMA)).filteredPositions());
+    }
+
+    @Test
+    public void evictedPageLeavesSelectionUntilRestored() {
+        MovieListState state = MovieListState.initial(false, null, MovieFilter.NONE.withGenre(ACTION), MovieSort.DEFAULT)
+                .withPage(Arrays.asList(movie(1, "2001-01-01", ACTION), movie(2, "2002-01-01", DRAMA)), 1, 2)
+                .withPage(Arrays.asList(movie(3, "2003-01-01", ACTION)), 2, 2);
+
+        MovieListState evicted = state.withEvictedPages(new int[]{1});
+        assertArrayEquals(new int[]{2}, evicted.filteredPositions());
+        assertEquals(3, evicted.getWindow().size());
+
+        // Индекс страницы собирается заново вместе с ней
+        MovieListState restored = evicted.withRestoredPage(evicted.getWindow().getListId(), 1,
+                Arrays.asList(movie(1, "2001-01-01", ACTION), movie(2, "2002-01-01", ACTION)));
+        assertArrayEquals(new int[]{0, 1, 2}, restored.filteredPositions());
+    }
+
+    private static Movie movie(int id, String releaseDate, Integer... genreIds) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("Фильм " + id);
+        movie.setReleaseDate(releaseDate);
+        movie.setGenreIds(Arrays.asList(genreIds));
+        return movie;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.collection.ImmutableIntSet;
+import com.example.moviecast.data.remote.model.Movie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MoviePageWindow: страницы и их границы, повторы, выгрузка и возврат страниц
+ * (в том числе со сдвинувшимся рейтингом), выбор страниц для выгрузки.
+ */
+public class MoviePageWindowTest {
+
+    private static final int ACTION = 28;
+    private static final int DRAMA = 18;
+
+    @Test
+    public void pagesAppendWithoutRepeatedMovies() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(Arrays.asList(movie(1), movie(2), movie(2)))
+                .withPage(Arrays.asList(movie(3), movie(1), movie(4)));
+
+        assertEquals(2, window.pageCount());
+        assertEquals(4, window.size());
+        assertEquals(0, window.start(1));
+        assertEquals(2, window.end(1));
+        assertEquals(2, window.start(2));
+        assertEquals(4, window.end(2));
+        assertEquals(Arrays.asList(3, 4), ids(window.pageMovies(2)));
+        assertEquals(3, window.indexOf(4));
+        assertEquals(-1, window.indexOf(99));
+        assertEquals(3, window.get(2).getId());
+    }
+
+    @Test
+    public void pageOfSkipsEmptyPages() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(Arrays.asList(movie(1), movie(2)))
+                .withPage(Arrays.asList(movie(1), movie(2))) // одни повторы - пустая страница
+                .withPage(Collections.singletonList(movie(3)));
+
+        assertEquals(3, window.pageCount());
+        assertEquals(1, window.pageOf(1));
+        assertEquals(3, window.pageOf(2));
+        assertEquals(-1, window.pageOf(3));
+        assertEquals(-1, window.pageOf(-1));
+        assertArrayEquals(new int[]{0, 1, 2}, window.residentPositions());
+    }
+
+    @Test
+    public void evictedPageKeepsItsBoundsButNotItsMovies() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(Arrays.asList(movie(1), movie(2)))
+                .withPage(Arrays.asList(movie(3), movie(4)));
+
+        MoviePageWindow evicted = window.withEvicted(new int[]{1});
+        assertTrue(evicted.isEvicted(1));
+        assertEquals(4, evicted.size());
+        assertEquals(1, evicted.residentCount());
+        assertEquals(1, evicted.evictedCount());
+        assertEquals(2, evicted.end(1));
+        assertEquals(1, evicted.pageOf(0));
+        assertNull(evicted.pageMovies(1));
+        assertNull(evicted.get(0));
+        assertEquals(-1, evicted.indexOf(1));
+        assertEquals(2, evicted.indexOf(3));
+        assertArrayEquals(new int[]{2, 3}, evicted.residentPositions());
+        // Прежний снимок не меняется
+        assertEquals(0, window.indexOf(1));
+
+        assertSame(evicted, evicted.withEvicted(new int[]{1, 7}));
+    }
+
+    @Test
+    public void evictedMovieMayComeBackOnNewPage() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(Arrays.asList(movie(1), movie(2)))
+                .withPage(Collections.singletonList(movie(3)))
+                .withEvicted(new int[]{1})
+                .withPage(Arrays.asList(movie(2), movie(5)));
+
+        assertEquals(3, window.indexOf(2));
+
+        // Вернувшаяся страница теряет фильм, уже показанный ниже, и становится короче
+        MoviePageWindow restored = window.withRestored(window.getListId(), 1, Arrays.asList(movie(1), movie(2)));
+        assertEquals(Arrays.asList(1), ids(restored.pageMovies(1)));
+        assertEquals(2, restored.indexOf(2));
+        assertEquals(4, restored.size());
+    }
+
+    @Test
+    public void restoredPageIsReadAgain() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(Arrays.asList(movie(1), movie(2)))
+                .withPage(Arrays.asList(movie(3), movie(4)));
+        List<Movie> stored = window.pageMovies(1);
+        MoviePageWindow evicted = window.withEvicted(new int[]{1});
+
+        MoviePageWindow restored = evicted.withRestored(evicted.getListId(), 1, stored);
+        assertFalse(restored.isEvicted(1));
+        assertEquals(Arrays.asList(1, 2), ids(restored.pageMovies(1)));
+        assertEquals(1, restored.indexOf(2));
+        assertEquals(4, restored.size());
+        // Страница второй раз и страница другого списка - без изменений
+        assertSame(restored, restored.withRestored(restored.getListId(), 1, stored));
+        assertSame(evicted, evicted.withRestored(MoviePageWindow.create().getListId(), 1, stored));
+    }
+
+    @Test
+    public void driftedPageIsCappedOrShortened() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(Arrays.asList(movie(1), movie(2), movie(3)))
+                .withPage(Arrays.asList(movie(4), movie(5)))
+                .withEvicted(new int[]{1});
+
+        // Рейтинг сдвинулся: на странице новый фильм и фильм со следующей страницы
+        MoviePageWindow capped = window.withRestored(window.getListId(), 1,
+                Arrays.asList(movie(1), movie(4), movie(7), movie(2), movie(3)));
+        assertEquals(Arrays.asList(1, 7, 2), ids(capped.pageMovies(1)));
+        assertEquals(3, capped.start(2));
+        assertEquals(5, capped.size());
+
+        // Фильмов меньше - страница короче, следующие позиции сдвигаются
+        MoviePageWindow shortened = window.withRestored(window.getListId(), 1, Arrays.asList(movie(1), movie(5)));
+        assertEquals(Arrays.asList(1), ids(shortened.pageMovies(1)));
+        assertEquals(1, shortened.end(1));
+        assertEquals(1, shortened.start(2));
+        assertEquals(3, shortened.size());
+        assertEquals(2, shortened.indexOf(5));
+        assertEquals(2, shortened.pageOf(2));
+    }
+
+    @Test
+    public void pagesToEvictKeepsNeededAndLastPages() {
+        MoviePageWindow window = MoviePageWindow.create();
+        for (int page = 1; page <= 8; page++) {
+            window = window.withPage(Arrays.asList(movie(page * 10), movie(page * 10 + 1)));
+        }
+
+        // Нужны 4 и 5: сначала выгружаются самые дальние - 1, затем 2 и 7 (при равных - верхняя)
+        assertArrayEquals(new int[]{1, 2, 7}, window.pagesToEvict(ImmutableIntSet.of(new int[]{4, 5}), 5));
+        assertEquals(0, window.pagesToEvict(ImmutableIntSet.of(new int[]{4, 5}), 8).length);
+        assertEquals(0, window.pagesToEvict(ImmutableIntSet.EMPTY, 2).length);
+        // Нужных больше предела - выгружаются только ненужные
+        int[] evict = window.pagesToEvict(ImmutableIntSet.of(new int[]{1, 2, 3, 4}), 2);
+        assertArrayEquals(new int[]{5, 6, 7}, sorted(evict));
+    }
+
+    @Test
+    public void longScrollKeepsResidentPagesBounded() {
+        int maxResident = 3;
+        MoviePageWindow window = MoviePageWindow.create();
+        for (int page = 1; page <= 200; page++) {
+            List<Movie> movies = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                movies.add(movie(page * 100 + i));
+            }
+            window = window.withPage(movies);
+            window = window.withEvicted(window.pagesToEvict(ImmutableIntSet.of(new int[]{page}), maxResident));
+            assertTrue("page " + page, window.residentCount() <= maxResident);
+        }
+        assertEquals(200, window.pageCount());
+        assertEquals(4000, window.size());
+        assertEquals(3 * 20, window.residentPositions().length);
+        assertEquals(-1, window.indexOf(100));
+        assertEquals(3999, window.indexOf(20019));
+    }
+
+    @Test
+    public void filteredPositionsSpanResidentPages() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(Arrays.asList(movie(1, ACTION), movie(2, DRAMA)))
+                .withPage(Arrays.asList(movie(3, DRAMA), movie(4, ACTION)))
+                .withPage(Arrays.asList(movie(5, ACTION)));
+        MovieFilter action = MovieFilter.NONE.withGenre(ACTION);
+
+        assertArrayEquals(new int[]{0, 3, 4}, window.filteredPositions(action));
+        assertArrayEquals(new int[]{3, 4}, window.withEvicted(new int[]{1}).filteredPositions(action));
+    }
+
+    @Test
+    public void everyWindowHasItsOwnListId() {
+        assertNotEquals(MoviePageWindow.create().getListId(), MoviePageWindow.create().getListId());
+        MoviePageWindow window = MoviePageWindow.create();
+        assertEquals(window.getListId(), window.withPage(Collections.singletonList(movie(1))).getListId());
+    }
+
+    private static int[] sorted(int[] values) {
+        int[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static List<Integer> ids(List<Movie> movies) {
+        List<Integer> ids = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            ids.add(movie.getId());
+        }
+        return ids;
+    }
+
+    private static Movie movie(int id, Integer... genreIds) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("Фильм " + id);
+        movie.setReleaseDate("2001-01-01");
+        movie.setGenreIds(Arrays.asList(genreIds));
+        return movie;
+    }
+}
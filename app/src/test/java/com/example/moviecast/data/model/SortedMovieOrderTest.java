@@ -0,0 +1,221 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.data.remote.model.Movie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * SortedMovieOrder: постраничное слияние против полной сортировки, равные ключи,
+ * смена порядка, ветвление списка, выгруженные и возвращённые страницы.
+ */
+public class SortedMovieOrderTest {
+
+    @Test
+    public void incrementalMergeMatchesFullSort() {
+        Random random = new Random(42);
+        for (MovieSort sort : new MovieSort[]{MovieSort.RATING, MovieSort.RELEASE_DATE, MovieSort.TITLE}) {
+            MoviePageWindow window = MoviePageWindow.create();
+            SortedMovieOrder incremental = SortedMovieOrder.EMPTY;
+            List<List<Movie>> loaded = new ArrayList<>();
+            int nextId = 1;
+            for (int step = 0; step < 40; step++) {
+                int page = 1 + random.nextInt(Math.max(1, window.pageCount()));
+                if (step < 12 || random.nextInt(3) == 0) {
+                    List<Movie> movies = new ArrayList<>();
+                    for (int i = 0, k = 1 + random.nextInt(20); i < k; i++) {
+                        // Мало различных значений - много равных ключей
+                        Movie movie = movie(nextId++, random.nextInt(5));
+                        movie.setReleaseDate(random.nextInt(4) == 0
+                                ? null : (2010 + random.nextInt(3)) + "-01-0" + (1 + random.nextInt(2)));
+                        movie.setTitle(TITLES[random.nextInt(TITLES.length)]);
+                        movies.add(movie);
+                    }
+                    loaded.add(movies);
+                    window = window.withPage(movies);
+                } else if (window.isEvicted(page)) {
+                    // Возврат, иногда без последнего фильма - страница короче, позиции за ней сдвигаются
+                    List<Movie> movies = new ArrayList<>(loaded.get(page - 1));
+                    if (random.nextBoolean() && !movies.isEmpty()) {
+                        movies.remove(movies.size() - 1);
+                    }
+                    window = window.withRestored(window.getListId(), page, movies);
+                } else {
+                    window = window.withEvicted(new int[]{page});
+                }
+                incremental = incremental.update(sort, window);
+
+                SortedMovieOrder full = SortedMovieOrder.EMPTY.update(sort, window);
+                assertEquals(sort + " step " + step, positions(full), positions(incremental));
+            }
+        }
+    }
+
+    @Test
+    public void equalKeysKeepListOrderWhateverThePages() {
+        MoviePageWindow onePage = MoviePageWindow.create().withPage(Arrays.asList(
+                movie(1, 7.0), movie(2, 8.0), movie(3, 7.0), movie(4, 8.0), movie(5, 7.0)));
+        MoviePageWindow pages = MoviePageWindow.create().withPage(Arrays.asList(movie(1, 7.0), movie(2, 8.0)));
+        SortedMovieOrder order = SortedMovieOrder.EMPTY.update(MovieSort.RATING, pages);
+        pages = pages.withPage(Collections.singletonList(movie(3, 7.0)));
+        order = order.update(MovieSort.RATING, pages);
+        pages = pages.withPage(Arrays.asList(movie(4, 8.0), movie(5, 7.0)));
+        order = order.update(MovieSort.RATING, pages);
+
+        assertEquals(Arrays.asList(1, 3, 0, 2, 4), positions(order));
+        assertEquals(positions(SortedMovieOrder.EMPTY.update(MovieSort.RATING, onePage)), positions(order));
+    }
+
+    @Test
+    public void datesNewestFirstWithUnknownLast() {
+        Movie full = movie(1, 0);
+        full.setReleaseDate("2010-07-15");
+        Movie yearOnly = movie(2, 0);
+        yearOnly.setReleaseDate("2010");
+        Movie unknown = movie(3, 0);
+        unknown.setReleaseDate("");
+        Movie newest = movie(4, 0);
+        newest.setReleaseDate("2024-05-17");
+
+        SortedMovieOrder order = SortedMovieOrder.EMPTY.update(MovieSort.RELEASE_DATE,
+                MoviePageWindow.create().withPage(Arrays.asList(full, yearOnly, unknown, newest)));
+        assertEquals(Arrays.asList(3, 0, 1, 2), positions(order));
+    }
+
+    @Test
+    public void titlesIgnoreCase() {
+        MoviePageWindow window = MoviePageWindow.create().withPage(Arrays.asList(
+                titled(1, "бойцовский клуб"), titled(2, "Амели"), titled(3, "Бойцовский Клуб"),
+                titled(4, null), titled(5, "ёлки")));
+        SortedMovieOrder order = SortedMovieOrder.EMPTY.update(MovieSort.TITLE, window);
+
+        // Без названия - пустой ключ, в начале; одинаковые без учёта регистра - в порядке списка
+        assertEquals(Arrays.asList(3, 1, 0, 2, 4), positions(order));
+    }
+
+    @Test
+    public void defaultOrderIsListOrderAndSwitchingSortsAgain() {
+        MoviePageWindow window = MoviePageWindow.create().withPage(Arrays.asList(movie(1, 5.0), movie(2, 9.0)));
+        SortedMovieOrder order = SortedMovieOrder.EMPTY.update(MovieSort.DEFAULT, window);
+        assertEquals(MovieSort.DEFAULT, order.getSort());
+        assertEquals(0, order.size());
+
+        window = window.withPage(Collections.singletonList(movie(3, 7.0)));
+        order = order.update(MovieSort.DEFAULT, window).update(MovieSort.RATING, window);
+        assertEquals(Arrays.asList(1, 2, 0), positions(order));
+        assertSame(order, order.update(MovieSort.RATING, window));
+    }
+
+    @Test
+    public void branchSortsOnlyItsOwnPages() {
+        MoviePageWindow base = MoviePageWindow.create().withPage(Arrays.asList(movie(1, 5.0), movie(2, 6.0)));
+        SortedMovieOrder order = SortedMovieOrder.EMPTY.update(MovieSort.RATING, base);
+        MoviePageWindow newer = base.withPage(Collections.singletonList(movie(3, 9.0)));
+        order = order.update(MovieSort.RATING, newer);
+        assertEquals(Arrays.asList(2, 1, 0), positions(order));
+
+        // Ветка от base (повтор после CAS): вторая страница там - другие фильмы
+        MoviePageWindow branch = base.withPage(Arrays.asList(movie(4, 1.0), movie(5, 5.5)));
+        order = order.update(MovieSort.RATING, branch);
+        assertEquals(Arrays.asList(1, 3, 0, 2), positions(order));
+
+        // Ветка продолжается слиянием
+        branch = branch.withPage(Collections.singletonList(movie(6, 8.0)));
+        order = order.update(MovieSort.RATING, branch);
+        assertEquals(positions(SortedMovieOrder.EMPTY.update(MovieSort.RATING, branch)), positions(order));
+    }
+
+    @Test
+    public void newListIsSortedFromScratch() {
+        MoviePageWindow popular = MoviePageWindow.create().withPage(Arrays.asList(movie(1, 5.0), movie(2, 6.0)));
+        SortedMovieOrder order = SortedMovieOrder.EMPTY.update(MovieSort.RATING, popular);
+
+        MoviePageWindow search = MoviePageWindow.create().withPage(Arrays.asList(movie(7, 9.0), movie(8, 1.0)));
+        order = order.update(MovieSort.RATING, search);
+        assertEquals(Arrays.asList(7, 8), ids(order, search));
+    }
+
+    @Test
+    public void evictedPageLeavesOrderUntilRestored() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(page(10, 9.0, 11, 8.9, 12, 8.8))
+                .withPage(page(20, 5.2, 21, 5.1, 22, 5.0))
+                .withPage(page(30, 7.2, 31, 7.1, 32, 7.0));
+        SortedMovieOrder order = SortedMovieOrder.EMPTY.update(MovieSort.RATING, window);
+        assertEquals(Arrays.asList(10, 11, 12, 30, 31, 32, 20, 21, 22), ids(order, window));
+
+        MoviePageWindow evicted = window.withEvicted(new int[]{1});
+        order = order.update(MovieSort.RATING, evicted);
+        assertEquals(Arrays.asList(30, 31, 32, 20, 21, 22), ids(order, evicted));
+
+        // Страница запрошена заново: рейтинг фильма 11 успел упасть
+        MoviePageWindow restored = evicted.withRestored(evicted.getListId(), 1, page(10, 9.0, 11, 5.15, 12, 8.8));
+        order = order.update(MovieSort.RATING, restored);
+        assertEquals(Arrays.asList(10, 12, 30, 31, 32, 20, 11, 21, 22), ids(order, restored));
+    }
+
+    @Test
+    public void shorterRestoredPageShiftsLaterPositions() {
+        MoviePageWindow window = MoviePageWindow.create()
+                .withPage(page(10, 9.0, 11, 8.9, 12, 8.8))
+                .withPage(page(20, 5.2, 21, 5.1));
+        SortedMovieOrder order = SortedMovieOrder.EMPTY.update(MovieSort.RATING, window);
+        MoviePageWindow evicted = window.withEvicted(new int[]{1});
+        order = order.update(MovieSort.RATING, evicted);
+
+        // Фильм 12 ушёл на другую страницу - первая стала короче, вторая начинается с позиции 2
+        MoviePageWindow restored = evicted.withRestored(evicted.getListId(), 1, page(10, 9.0, 11, 8.9));
+        order = order.update(MovieSort.RATING, restored);
+        assertEquals(Arrays.asList(0, 1, 2, 3), positions(order));
+        assertEquals(Arrays.asList(10, 11, 20, 21), ids(order, restored));
+    }
+
+    private static final String[] TITLES = {"Матрица", "матрица", "Амели", "Ёж", "ёлка", "Жара", "Alpha", ""};
+
+    private static List<Integer> positions(SortedMovieOrder order) {
+        List<Integer> positions = new ArrayList<>(order.size());
+        for (int i = 0; i < order.size(); i++) {
+            positions.add(order.positionAt(i));
+        }
+        return positions;
+    }
+
+    private static List<Integer> ids(SortedMovieOrder order, MoviePageWindow window) {
+        List<Integer> ids = new ArrayList<>(order.size());
+        for (int i = 0; i < order.size(); i++) {
+            ids.add(window.get(order.positionAt(i)).getId());
+        }
+        return ids;
+    }
+
+    // Пары (ID, рейтинг)
+    private static List<Movie> page(Number... idsAndRatings) {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < idsAndRatings.length; i += 2) {
+            movies.add(movie(idsAndRatings[i].intValue(), idsAndRatings[i + 1].doubleValue()));
+        }
+        return movies;
+    }
+
+    private static Movie titled(int id, String title) {
+        Movie movie = movie(id, 0);
+        movie.setTitle(title);
+        return movie;
+    }
+
+    private static Movie movie(int id, double rating) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("Фильм " + id);
+        movie.setVoteAverage(rating);
+        return movie;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.moviecast.data.model;
+
+import com.example.moviecast.data.remote.model.Movie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TitleSearchIndex: нечёткое совпадение и ранжирование, постраничная синхронизация списка
+ * (syncList), новый список, избранное, выгруженные и возвращённые страницы.
+ */
+public class TitleSearchIndexTest {
+
+    @Test
+    public void findsTyposPrefixesAndYo() {
+        TitleSearchIndex index = new TitleSearchIndex();
+        index.syncList(window(Arrays.asList(
+                movie(1, "Амели"), movie(2, "Тёмный рыцарь"), movie(3, "Матрица"), movie(4, "Мстители"))));
+
+        assertEquals(Arrays.asList(1), ids(index.search("амли", 5)));
+        assertEquals(Arrays.asList(2), ids(index.search("темный", 5)));
+        assertEquals(Arrays.asList(2), ids(index.search("рыцарь тем", 5)));
+        assertEquals(Arrays.asList(3), ids(index.search("Матр", 5)));
+        assertEquals(Arrays.asList(3), ids(index.search("матрица!", 5)));
+        // Одна-две буквы - только начало слова
+        assertEquals(Arrays.asList(3, 4), ids(index.search("м", 5)));
+        assertTrue(index.search("xyz", 5).isEmpty());
+        assertTrue(index.search("  ", 5).isEmpty());
+    }
+
+    @Test
+    public void exactMatchRanksFirstThenListPosition() {
+        TitleSearchIndex index = new TitleSearchIndex();
+        index.syncList(window(Arrays.asList(
+                movie(1, "Матрица 2"), movie(2, "Матрица"), movie(3, "Матрица 3"),
+                movie(4, "Матрешка"), movie(5, "Матрица: Революция"))));
+
+        List<Integer> found = ids(index.search("матрица", 10));
+        // Короткое название - большая доля совпавших n-грамм; равные - по месту в списке
+        assertEquals(Arrays.asList(2, 1, 3, 5), found.subList(0, 4));
+        assertEquals(Arrays.asList(2, 1), ids(index.search("матрица", 2)));
+    }
+
+    @Test
+    public void syncListIndexesOnlyNewPages() {
+        TitleSearchIndex index = new TitleSearchIndex();
+        MoviePageWindow list = window(Arrays.asList(movie(1, "Амели")));
+        index.syncList(list);
+        int version = index.version();
+
+        index.syncList(list);
+        assertEquals(version, index.version());
+
+        list = list.withPage(Arrays.asList(movie(2, "Леон"), movie(1, "Амели")));
+        index.syncList(list);
+        assertTrue(index.version() != version);
+        assertEquals(Arrays.asList(2), ids(index.search("леон", 5)));
+        // Повтор фильма в списке - один результат
+        assertEquals(Arrays.asList(1), ids(index.search("амели", 5)));
+        // Фильм берётся из списка, а не из индекса
+        assertSame(list.get(1), index.search("леон", 5).get(0));
+    }
+
+    @Test
+    public void unrelatedListReplacesOldMoviesButKeepsFavorites() {
+        TitleSearchIndex index = new TitleSearchIndex();
+        MoviePageWindow popular = window(Arrays.asList(movie(1, "Амели"), movie(2, "Леон")));
+        index.syncList(popular);
+        Movie favorite = movie(2, "Леон");
+        index.setFavorites(new int[]{2}, i -> favorite);
+        assertTrue(index.isFavorite(2));
+
+        // Другой список (новый поиск) - не продолжение прежнего
+        MoviePageWindow search = window(Arrays.asList(movie(3, "Матрица"), movie(4, "Мстители")));
+        index.syncList(search);
+
+        assertTrue(index.search("амели", 5).isEmpty());
+        assertEquals(Arrays.asList(3), ids(index.search("матрица", 5)));
+        assertEquals(Arrays.asList(2), ids(index.search("леон", 5)));
+        assertSame(favorite, index.search("леон", 5).get(0));
+
+        index.setFavorites(new int[0], i -> null);
+        assertFalse(index.isFavorite(2));
+        assertTrue(index.search("леон", 5).isEmpty());
+    }
+
+    @Test
+    public void favoritesOutsideListAreFound() {
+        TitleSearchIndex index = new TitleSearchIndex();
+        index.syncList(window(Collections.singletonList(movie(1, "Амели"))));
+        List<Movie> favorites = Arrays.asList(movie(7, "Побег из Шоушенка"), movie(1, "Амели"));
+        index.setFavorites(new int[]{7, 1}, favorites::get);
+
+        assertEquals(Arrays.asList(7), ids(index.search("шоушенк", 5)));
+        assertTrue(index.isFavorite(1));
+        assertEquals(Arrays.asList(1), ids(index.search("амели", 5)));
+    }
+
+    @Test
+    public void evictedPageLeavesSearchUntilRestored() {
+        MoviePageWindow window = window(
+                Arrays.asList(movie(1, "Бойцовский клуб"), movie(2, "Зелёная миля")),
+                Arrays.asList(movie(3, "Матрица"), movie(4, "Амели")));
+        TitleSearchIndex index = new TitleSearchIndex();
+        index.syncList(window);
+        Movie favorite = movie(1, "Бойцовский клуб");
+        index.setFavorites(new int[]{1}, i -> favorite);
+
+        MoviePageWindow evicted = window.withEvicted(new int[]{1});
+        index.syncList(evicted);
+        assertTrue(index.search("миля", 5).isEmpty());
+        // Избранное остаётся в поиске и без своей страницы
+        assertSame(favorite, index.search("бойцовский", 5).get(0));
+        assertEquals(Arrays.asList(3), ids(index.search("матрица", 5)));
+
+        MoviePageWindow restored = evicted.withRestored(evicted.getListId(), 1,
+                Arrays.asList(movie(1, "Бойцовский клуб"), movie(2, "Зелёная миля")));
+        index.syncList(restored);
+        List<Movie> found = index.search("миля", 5);
+        assertEquals(Arrays.asList(2), ids(found));
+        assertSame(restored.get(1), found.get(0));
+        assertSame(restored.get(0), index.search("бойцовский", 5).get(0));
+    }
+
+    @Test
+    public void restoredPageIsIndexedAgain() {
+        MoviePageWindow window = window(
+                Arrays.asList(movie(1, "Бойцовский клуб"), movie(2, "Зелёная миля")),
+                Arrays.asList(movie(3, "Матрица")));
+        TitleSearchIndex index = new TitleSearchIndex();
+        index.syncList(window);
+
+        MoviePageWindow evicted = window.withEvicted(new int[]{1});
+        index.syncList(evicted);
+        // Страница запрошена заново, название фильма 2 успело смениться
+        MoviePageWindow restored = evicted.withRestored(evicted.getListId(), 1,
+                Arrays.asList(movie(1, "Бойцовский клуб"), movie(2, "Побег из Шоушенка")));
+        index.syncList(restored);
+
+        assertEquals(Arrays.asList(2), ids(index.search("шоушенк", 5)));
+        assertTrue(index.search("миля", 5).isEmpty());
+    }
+
+    @Test
+    public void renamedFavoriteKeepsOneEntry() {
+        TitleSearchIndex index = new TitleSearchIndex();
+        Movie favorite = movie(2, "Зелёная миля");
+        index.setFavorites(new int[]{2}, i -> favorite);
+
+        index.syncList(window(Arrays.asList(movie(2, "Зеленая миля (1999)"))));
+        assertEquals(Arrays.asList(2), ids(index.search("миля", 5)));
+        assertTrue(index.isFavorite(2));
+
+        // Страница ушла из памяти - фильм остаётся в поиске как избранное
+        index.syncList(window(Arrays.asList(movie(3, "Матрица"))));
+        assertEquals(Arrays.asList(2), ids(index.search("миля", 5)));
+        index.setFavorites(new int[0], i -> null);
+        assertTrue(index.search("миля", 5).isEmpty());
+    }
+
+    @SafeVarargs
+    private static MoviePageWindow window(List<Movie>... pages) {
+        MoviePageWindow window = MoviePageWindow.create();
+        for (List<Movie> page : pages) {
+            window = window.withPage(page);
+        }
+        return window;
+    }
+
+    private static List<Integer> ids(List<Movie> movies) {
+        List<Integer> ids = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            ids.add(movie.getId());
+        }
+        return ids;
+    }
+
+    private static Movie movie(int id, String title) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        return movie;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.moviecast.ui.adapter;
+
+import android.app.Application;
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.widget.ImageView;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.moviecast.R;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.data.repository.GenreLookup;
+import com.example.moviecast.ui.model.MovieUiModel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Привязка карточки не выделяет память сверх запроса постера.
+ *
+ * Главный замер - прокрутка: переиспользованные карточки (holder) по кругу привязываются
+ * к другим фильмам, как при переработке RecyclerView. Модели собраны заранее, одна на фильм,
+ * как их переиспользует MainViewModel между публикациями. Постер грузится настоящим Glide;
+ * выделенное внутри запроса Glide замеряется отдельно и вычитается, остальное должно быть нулём.
+ * URL постера собирается лениво при первой привязке модели (зависит от ширины ячейки)
+ * и запоминается - в замер входят только уже запомненные URL.
+ * Карточки не измеряются и не раскладываются: вёрстка текста - работа кадра, не привязки.
+ *
+ * Отдельно - перепривязка той же карточки к новым экземплярам с тем же содержимым
+ * (пересборка всех карточек, перепривязка DiffUtil): здесь нет и запроса постера.
+ * Память меряется счётчиком выделений потока JVM (com.sun.management.ThreadMXBean).
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(application = Application.class)
+public class MovieAdapterBindAllocationTest {
+
+    private static final int HOLDERS = 6;
+    // Больше, чем карточек: карточка каждый раунд получает другой фильм
+    private static final int MOVIES = 15;
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long threadId = Thread.currentThread().getId();
+
+    private Context context;
+    private GenreLookup genres;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(), R.style.Theme_MovieCast);
+        genres = GenreLookup.of(new int[]{28, 18}, new String[]{"Боевик", "Драма"});
+    }
+
+    @Test
+    public void bindingRecycledHolderToOtherMovieAllocatesOnlyPosterRequest() {
+        MeasuringGlideLoader posterLoader = new MeasuringGlideLoader();
+        MovieAdapter adapter = new MovieAdapter(null, null, posterLoader);
+        MovieAdapter.MovieViewHolder[] holders = createHolders(adapter);
+
+        MovieUiModel[] models = new MovieUiModel[MOVIES];
+        for (int m = 0; m < MOVIES; m++) {
+            models[m] = MovieUiModel.from(movie(550 + m), m % 3 == 0, genres);
+        }
+
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            bindRotated(holders, models, round);
+        }
+        posterLoader.reset();
+
+        long overhead = counterOverhead();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int round = WARM_UP_ROUNDS; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            bindRotated(holders, models, round);
+        }
+        long total = threads.getThreadAllocatedBytes(threadId) - before;
+        // Каждый запрос постера добавляет пару вызовов счётчика
+        long outsidePoster = total - posterLoader.allocated - (posterLoader.requests + 1) * overhead;
+
+        assertEquals("poster requests", MEASURED_ROUNDS * HOLDERS, posterLoader.requests);
+        assertEquals("bytes allocated by bind outside the poster request", 0, outsidePoster);
+    }
+
+    @Test
+    public void rebindingEqualContentAllocatesNothing() {
+        int[] posterRequests = new int[1];
+        MovieAdapter adapter = new MovieAdapter(null, null, (target, url) -> posterRequests[0]++);
+        MovieAdapter.MovieViewHolder[] holders = createHolders(adapter);
+
+        Movie[] movies = new Movie[HOLDERS];
+        for (int h = 0; h < HOLDERS; h++) {
+            movies[h] = movie(550 + h);
+            holders[h].bind(MovieUiModel.from(movies[h], false, genres));
+        }
+
+        // Модели собираются до замера: сборка карточки выделяет память, привязка - нет
+        int rounds = WARM_UP_ROUNDS + MEASURED_ROUNDS;
+        MovieUiModel[][] models = new MovieUiModel[rounds][HOLDERS];
+        for (int round = 0; round < rounds; round++) {
+            for (int h = 0; h < HOLDERS; h++) {
+                models[round][h] = MovieUiModel.from(movies[h], false, genres);
+            }
+        }
+
+        bindRounds(holders, models, 0, WARM_UP_ROUNDS);
+        int requestsBefore = posterRequests[0];
+
+        long overhead = counterOverhead();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        bindRounds(holders, models, WARM_UP_ROUNDS, rounds);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        assertEquals("bytes allocated while rebinding equal content", 0, allocated);
+        assertEquals("poster requests while rebinding equal content", requestsBefore, posterRequests[0]);
+    }
+
+    private MovieAdapter.MovieViewHolder[] createHolders(MovieAdapter adapter) {
+        RecyclerView parent = new RecyclerView(context);
+        parent.setLayoutManager(new GridLayoutManager(context, 2));
+        MovieAdapter.MovieViewHolder[] holders = new MovieAdapter.MovieViewHolder[HOLDERS];
+        for (int h = 0; h < HOLDERS; h++) {
+            holders[h] = adapter.createViewHolder(parent, 0);
+        }
+        return holders;
+    }
+
+    // Цена самих вызовов счётчика - вычитается из замера
+    private long counterOverhead() {
+        long start = threads.getThreadAllocatedBytes(threadId);
+        return threads.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    private static void bindRotated(MovieAdapter.MovieViewHolder[] holders, MovieUiModel[] models, int round) {
+        for (int h = 0; h < holders.length; h++) {
+            holders[h].bind(models[(round + h) % models.length]);
+        }
+    }
+
+    private static void bindRounds(MovieAdapter.MovieViewHolder[] holders, MovieUiModel[][] models,
+                                   int from, int to) {
+        for (int round = from; round < to; round++) {
+            for (int h = 0; h < holders.length; h++) {
+                holders[h].bind(models[round][h]);
+            }
+        }
+    }
+
+    /**
+     * Настоящий запрос Glide (PosterLoader.GLIDE); выделенное внутри него считается отдельно
+     */
+    private final class MeasuringGlideLoader implements PosterLoader {
+        long allocated;
+        int requests;
+
+        @Override
+        public void load(ImageView target, String url) {
+            long start = threads.getThreadAllocatedBytes(threadId);
+            PosterLoader.GLIDE.load(target, url);
+            allocated += threads.getThreadAllocatedBytes(threadId) - start;
+            requests++;
+        }
+
+        void reset() {
+            allocated = 0;
+            requests = 0;
+        }
+    }
+
+    private static Movie movie(int id) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("Бойцовский клуб " + id);
+        movie.setReleaseDate((1990 + id % 30) + "-10-15");
+        movie.setVoteAverage(5 + id % 40 / 10.0);
+        movie.setPosterPath("/pB8BM7pdSp6B6Ih7QZ4DrQ3PmJK" + id + ".jpg");
+        movie.setGenreIds(id % 2 == 0 ? Arrays.asList(18, 28) : Arrays.asList(28));
+        return movie;
+    }
+}
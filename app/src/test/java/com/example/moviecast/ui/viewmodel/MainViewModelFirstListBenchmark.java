@@ -0,0 +1,223 @@
+package com.example.moviecast.ui.viewmodel;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.moviecast.data.local.MovieDatabase;
+import com.example.moviecast.data.remote.RetrofitClient;
+import com.example.moviecast.data.remote.TMDbApiService;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.data.repository.MediaItemMapper;
+import com.example.moviecast.data.repository.MovieRepository;
+import com.example.moviecast.testutil.LatencyStats;
+import com.example.moviecast.tmdbstub.LatencyModel;
+import com.example.moviecast.tmdbstub.TmdbStubServer;
+import com.example.moviecast.ui.model.MovieUiModel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import retrofit2.Retrofit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Путь главного экрана целиком: конструктор MainViewModel -> getPopularMovies -> Gson ->
+ * loadFavoriteStatusAndUpdate -> публикация в moviesLiveData.
+ *
+ * Сеть - TmdbStubServer (модуль :tmdb-stub) на свободном порту, база - Room в памяти
+ * с избранным среди фильмов каталога, поэтому каждая страница проходит и чтение Room.
+ * Меряются:
+ *   - первая непустая публикация от создания ViewModel (новая ViewModel на каждый замер);
+ *   - дозагрузка страницы N от loadNextPage() до публикации, выросшей на страницу,
+ *     по группам N - если цена страницы зависит от уже загруженного, поздние группы
+ *     медленнее ранних.
+ *
+ *   ./gradlew testDebugUnitTest -Pbenchmarks --tests '*MainViewModelFirstListBenchmark'
+ * Результаты - строки "[first-list]" в stdout. Задержка стенда по умолчанию нулевая
+ * (меряется своя работа приложения); -PtmdbLatency=lognormal:120:0.5 добавляет сеть.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MainViewModelFirstListBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_RUNS = 5;
+    private static final int FIRST_LIST_RUNS = 30;
+    private static final int GROWTH_ROUNDS = 3;
+    private static final int[] PAGE_GROUPS = {10, 50, 100, 200, 300};
+    private static final int FAVORITE_EVERY = 7;
+    private static final long EMISSION_TIMEOUT_MS = 30_000;
+
+    private final Application application = ApplicationProvider.getApplicationContext();
+
+    private TmdbStubServer server;
+    private MovieDatabase database;
+    private TMDbApiService apiService;
+
+    // Последняя публикация и её время; наблюдатель вызывается в главном потоке теста
+    private List<MovieUiModel> published;
+    private long publishedAt;
+    private String error;
+
+    @Before
+    public void setUp() throws IOException {
+        int lastPage = PAGE_GROUPS[PAGE_GROUPS.length - 1];
+        server = new TmdbStubServer.Builder()
+                .latency(LatencyModel.parse(System.getProperty("tmdb.latency", "none")))
+                .catalogPages(lastPage)
+                .build();
+        server.start();
+        // Общий клиент (конфигурация картинок, офлайн-постеры) тоже смотрит на стенд
+        RetrofitClient.configure(server.baseUrl(), null);
+
+        // На JVM Retrofit отдаёт ответы в потоках OkHttp; в приложении - в главном
+        Handler main = new Handler(Looper.getMainLooper());
+        Retrofit retrofit = RetrofitClient.create(server.baseUrl(), null)
+                .newBuilder()
+                .callbackExecutor(main::post)
+                .build();
+        apiService = retrofit.create(TMDbApiService.class);
+
+        database = Room.inMemoryDatabaseBuilder(application, MovieDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        seedFavorites(lastPage);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        database.close();
+        server.close();
+        RetrofitClient.configure(null, null);
+    }
+
+    @Test
+    public void firstList() {
+        LatencyStats firstList = new LatencyStats("first list");
+        for (int run = 0; run < WARMUP_RUNS + FIRST_LIST_RUNS; run++) {
+            MainViewModel viewModel = null;
+            Observer<List<MovieUiModel>> observer = this::onPublished;
+            reset();
+            long start = System.nanoTime();
+            try {
+                viewModel = new MainViewModel(application, repository());
+                viewModel.getMovies().observeForever(observer);
+                viewModel.getError().observeForever(message -> error = message);
+                awaitSize(PAGE_SIZE);
+                if (run >= WARMUP_RUNS) {
+                    firstList.add(publishedAt - start);
+                }
+            } finally {
+                if (viewModel != null) {
+                    viewModel.getMovies().removeObserver(observer);
+                    viewModel.onCleared();
+                }
+            }
+        }
+        report(firstList);
+    }
+
+    @Test
+    public void nextPageAsListGrows() {
+        LatencyStats[] groups = new LatencyStats[PAGE_GROUPS.length];
+        int from = 2;
+        for (int i = 0; i < PAGE_GROUPS.length; i++) {
+            groups[i] = new LatencyStats("page " + from + "-" + PAGE_GROUPS[i]);
+            from = PAGE_GROUPS[i] + 1;
+        }
+
+        for (int round = 0; round < GROWTH_ROUNDS; round++) {
+            reset();
+            MainViewModel viewModel = new MainViewModel(application, repository());
+            Observer<List<MovieUiModel>> observer = this::onPublished;
+            viewModel.getMovies().observeForever(observer);
+            viewModel.getError().observeForever(message -> error = message);
+            try {
+                awaitSize(PAGE_SIZE);
+                int group = 0;
+                for (int page = 2; page <= PAGE_GROUPS[PAGE_GROUPS.length - 1]; page++) {
+                    long start = System.nanoTime();
+                    viewModel.loadNextPage();
+                    awaitSize(page * PAGE_SIZE);
+                    if (page > PAGE_GROUPS[group]) group++;
+                    // Первый проход - прогрев JIT, в выборку не идёт
+                    if (round > 0) {
+                        groups[group].add(publishedAt - start);
+                    }
+                }
+            } finally {
+                viewModel.getMovies().removeObserver(observer);
+                viewModel.onCleared();
+            }
+        }
+        for (LatencyStats stats : groups) {
+            report(stats);
+        }
+    }
+
+    private MovieRepository repository() {
+        return new MovieRepository(application, database, apiService);
+    }
+
+    private void onPublished(List<MovieUiModel> movies) {
+        published = movies;
+        publishedAt = System.nanoTime();
+    }
+
+    private void reset() {
+        published = null;
+        publishedAt = 0;
+        error = null;
+    }
+
+    /**
+     * Крутит главный Looper (ответы Retrofit, postValue), пока в списке не станет size фильмов
+     */
+    private void awaitSize(int size) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(EMISSION_TIMEOUT_MS);
+        while (published == null || published.size() < size) {
+            shadowOf(Looper.getMainLooper()).idle();
+            assertNull("Load failed", error);
+            if (System.nanoTime() > deadline) {
+                fail("No list of " + size + " within " + EMISSION_TIMEOUT_MS + " ms, last "
+                        + (published == null ? "none" : published.size()));
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        assertEquals(size, published.size());
+    }
+
+    /**
+     * Каждый FAVORITE_EVERY-й фильм каталога - в избранном (синтетические ID стенда)
+     */
+    private void seedFavorites(int pages) {
+        database.runInTransaction(() -> {
+            for (int index = PAGE_SIZE; index < pages * PAGE_SIZE; index += FAVORITE_EVERY) {
+                Movie movie = new Movie();
+                movie.setId(10_000_000 + index);
+                movie.setTitle("Избранное " + index);
+                database.movieDao().insert(MediaItemMapper.toMediaItem(movie, true, null, null, null));
+            }
+        });
+    }
+
+    private static void report(Object line) {
+        System.out.println("[first-list] " + line);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.moviecast.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Генерация baseline profile по тем же сценариям, что и замеры.
+ *
+ * Нужен эмулятор/устройство с root или API 33+:
+ *   ./gradlew :benchmark:connectedBenchmarkAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.example.moviecast.benchmark.BaselineProfileGenerator
+ * Результат (BaselineProfileGenerator_generate-baseline-prof.txt в additional_test_output
+ * на устройстве и в build/outputs модуля) копируется в app/src/main/baseline-prof.txt.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @ClassRule
+    public static final TmdbStandIn standIn = new TmdbStandIn();
+
+    @Rule
+    public final BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(Journeys.PACKAGE, scope -> {
+            Journeys.startAndWaitForGrid(scope);
+            Journeys.flingGrid(scope.getDevice(), 6);
+            Journeys.openDetailsAndBack(scope.getDevice());
+            Journeys.prepareFavorites(scope, 2);
+            Journeys.openFavorites(scope.getDevice());
+            Journeys.scrollFavorites(scope.getDevice(), 2);
+            return Unit.INSTANCE;
+        });
+    }
+}
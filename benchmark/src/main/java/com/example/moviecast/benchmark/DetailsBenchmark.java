@@ -0,0 +1,51 @@
+package com.example.moviecast.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Открытие деталей из сетки (переход, детали, актёры) и возврат обратно.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class DetailsBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @ClassRule
+    public static final TmdbStandIn standIn = new TmdbStandIn();
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void openDetailsAndReturn() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                CompilationMode.DEFAULT,
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    Journeys.startAndWaitForGrid(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.openDetailsAndBack(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
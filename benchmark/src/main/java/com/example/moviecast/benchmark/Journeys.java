@@ -0,0 +1,122 @@
+package com.example.moviecast.benchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Journeys - пользовательские сценарии, общие для замеров и генерации baseline profile:
+ * что измеряем, то и компилируем заранее.
+ */
+final class Journeys {
+
+    static final String PACKAGE = "com.example.moviecast";
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Journeys() {
+    }
+
+    /**
+     * Запуск с домашнего экрана до первого кадра сетки с карточками
+     */
+    static void startAndWaitForGrid(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        waitForList(scope.getDevice());
+    }
+
+    /**
+     * Непрерывный fling сетки: flings жестов, за каждым дозагрузка страниц
+     */
+    static void flingGrid(UiDevice device, int flings) {
+        fling(device, waitForList(device), flings);
+    }
+
+    /**
+     * Открыть детали первой карточки, дождаться актёров и вернуться в сетку
+     */
+    static void openDetailsAndBack(UiDevice device) {
+        UiObject2 grid = waitForList(device);
+        grid.findObject(By.res(PACKAGE, "titleTextView")).click();
+        require(device.wait(Until.hasObject(By.res(PACKAGE, "castRecyclerView")), TIMEOUT_MS),
+                "Details not shown");
+        device.waitForIdle();
+        device.pressBack();
+        waitForList(device);
+    }
+
+    /**
+     * Чистое избранное из первых screens экранов сетки: данные приложения сбрасываются,
+     * иначе сердечки от прошлого прогона снимались бы повторным нажатием
+     */
+    static void prepareFavorites(MacrobenchmarkScope scope, int screens) {
+        try {
+            scope.getDevice().executeShellCommand("pm clear " + PACKAGE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot clear app data", e);
+        }
+        startAndWaitForGrid(scope);
+        UiDevice device = scope.getDevice();
+        UiObject2 grid = waitForList(device);
+        for (int i = 0; i < screens; i++) {
+            List<UiObject2> hearts = grid.findObjects(By.res(PACKAGE, "favoriteImageButton"));
+            for (UiObject2 heart : hearts) {
+                heart.click();
+            }
+            device.waitForIdle();
+            grid.scroll(Direction.DOWN, 0.8f);
+        }
+    }
+
+    /**
+     * Перейти в избранное через нижнюю навигацию
+     */
+    static void openFavorites(UiDevice device) {
+        device.findObject(By.res(PACKAGE, "nav_favorites")).click();
+        require(device.wait(Until.hasObject(By.res(PACKAGE, "posterImageView")), TIMEOUT_MS),
+                "Favorites not shown");
+    }
+
+    /**
+     * Прокрутка списка избранного вниз и обратно
+     */
+    static void scrollFavorites(UiDevice device, int flings) {
+        UiObject2 list = waitForList(device);
+        fling(device, list, flings);
+        for (int i = 0; i < flings; i++) {
+            list.fling(Direction.UP);
+            device.waitForIdle();
+        }
+    }
+
+    private static void fling(UiDevice device, UiObject2 list, int flings) {
+        // Отступ жеста, чтобы не задеть системную навигацию
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < flings; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+    }
+
+    // recyclerView - и в сетке, и в избранном; ждём и сам список, и первую карточку в нём
+    private static UiObject2 waitForList(UiDevice device) {
+        UiObject2 list = device.wait(Until.findObject(By.res(PACKAGE, "recyclerView")), TIMEOUT_MS);
+        require(list != null, "List not shown");
+        require(list.wait(Until.hasObject(By.res(PACKAGE, "posterImageView")), TIMEOUT_MS),
+                "List is empty");
+        return list;
+    }
+
+    private static void require(Boolean condition, String message) {
+        if (condition == null || !condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.moviecast.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Кадры прокрутки: длинный fling сетки с дозагрузкой страниц и прокрутка избранного.
+ * Сборка скомпилирована по baseline profile - как после установки из магазина.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class ScrollBenchmark {
+
+    private static final int ITERATIONS = 5;
+    // Страница - 10 рядов по 2 карточки; 12 жестов проходят несколько страниц
+    private static final int GRID_FLINGS = 12;
+    private static final int FAVORITE_SCREENS = 4;
+    private static final int FAVORITE_FLINGS = 3;
+
+    @ClassRule
+    public static final TmdbStandIn standIn = new TmdbStandIn();
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void gridFling() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                CompilationMode.DEFAULT,
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    Journeys.startAndWaitForGrid(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.flingGrid(scope.getDevice(), GRID_FLINGS);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void favoritesScroll() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                CompilationMode.DEFAULT,
+                null,
+                ITERATIONS,
+                scope -> {
+                    Journeys.prepareFavorites(scope, FAVORITE_SCREENS);
+                    Journeys.openFavorites(scope.getDevice());
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.scrollFavorites(scope.getDevice(), FAVORITE_FLINGS);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.moviecast.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Холодный и тёплый запуск до первого кадра сетки с карточками.
+ * TTID - первый кадр сплэша, TTFD - reportFullyDrawn() после первой страницы в сетке.
+ * Каждый режим - без AOT и с baseline profile: разница показывает вклад профиля.
+ */
+@LargeTest
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @ClassRule
+    public static final TmdbStandIn standIn = new TmdbStandIn();
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final StartupMode startupMode;
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmark(StartupMode startupMode, CompilationMode compilationMode) {
+        this.startupMode = startupMode;
+        this.compilationMode = compilationMode;
+    }
+
+    @Parameterized.Parameters(name = "{0},{1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (StartupMode mode : new StartupMode[]{StartupMode.COLD, StartupMode.WARM}) {
+            parameters.add(new Object[]{mode, new CompilationMode.None()});
+            parameters.add(new Object[]{mode, new CompilationMode.Partial(BaselineProfileMode.Require)});
+        }
+        return parameters;
+    }
+
+    @Test
+    public void startToFirstGridFrame() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> Unit.INSTANCE,
+                scope -> {
+                    Journeys.startAndWaitForGrid(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.moviecast.benchmark;
+
+import com.example.moviecast.tmdbstub.TmdbStubServer;
+
+import org.junit.rules.ExternalResource;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * TmdbStandIn - TmdbStubServer (модуль :tmdb-stub) на время класса замеров: сборка
+ * benchmark в :app ходит на 127.0.0.1:PORT, поэтому сценарии не зависят от интернета.
+ * Помехи выключены - замеры UI не должны шуметь из-за сети; каталог больше, чем
+ * успевает пролистать fling.
+ */
+public class TmdbStandIn extends ExternalResource {
+
+    // Должен совпадать с TMDB_BASE_URL сборки benchmark
+    static final int PORT = 8089;
+
+    private static final int CATALOG_PAGES = 500;
+
+    private TmdbStubServer server;
+
+    @Override
+    protected void before() throws IOException {
+        server = new TmdbStubServer.Builder()
+                .catalogPages(CATALOG_PAGES)
+                .build();
+        server.start(InetAddress.getByName("127.0.0.1"), PORT);
+    }
+
+    @Override
+    protected void after() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Порт освободится вместе с процессом теста
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.moviecast.jmh;
+
+import com.example.moviecast.data.remote.model.Cast;
+import com.example.moviecast.data.remote.model.CreditsResponse;
+import com.example.moviecast.data.remote.model.Genre;
+import com.example.moviecast.data.remote.model.GenreResponse;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.data.remote.model.MovieResponse;
+import com.google.gson.Gson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BenchmarkData - данные замеров из фикстур TMDb модуля :tmdb-stub.
+ * Большие объёмы (список в 10k фильмов, состав в 100+ актёров) размножаются из фикстур
+ * с новыми ID - форма и длина строк те же, что в реальных ответах.
+ */
+final class BenchmarkData {
+
+    static final Gson GSON = new Gson();
+    static final int PAGE_SIZE = 20;
+
+    private BenchmarkData() {
+    }
+
+    /** Первая страница популярного как её отдаёт TMDb (20 фильмов) */
+    static byte[] popularPageBytes() {
+        return fixture("movie_popular.json");
+    }
+
+    /** count фильмов: страницы фикстуры подряд, ID уникальны */
+    static List<Movie> movies(int count) {
+        String page = new String(popularPageBytes(), StandardCharsets.UTF_8);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int pageNumber = 1; movies.size() < count; pageNumber++) {
+            for (Movie movie : GSON.fromJson(page, MovieResponse.class).getResults()) {
+                if (movies.size() == count) break;
+                movie.setId(movies.size() + 1);
+                movie.setTitle(movie.getTitle() + " #" + pageNumber);
+                movies.add(movie);
+            }
+        }
+        return movies;
+    }
+
+    /** Состав из size актёров с уникальными ID */
+    static List<Cast> cast(int size) {
+        String credits = new String(fixture("movie_credits.json"), StandardCharsets.UTF_8);
+        List<Cast> cast = new ArrayList<>(size);
+        while (cast.size() < size) {
+            for (Cast person : GSON.fromJson(credits, CreditsResponse.class).getCast()) {
+                if (cast.size() == size) break;
+                person.setId(cast.size() + 1);
+                person.setProfilePath("/profile_" + person.getId() + ".jpg");
+                cast.add(person);
+            }
+        }
+        return cast;
+    }
+
+    static List<Genre> genres() {
+        return GSON.fromJson(new String(fixture("genre_movie_list.json"), StandardCharsets.UTF_8),
+                GenreResponse.class).getGenres();
+    }
+
+    private static byte[] fixture(String name) {
+        try (InputStream in = BenchmarkData.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IOException("No fixture " + name);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
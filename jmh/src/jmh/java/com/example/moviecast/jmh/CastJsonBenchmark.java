@@ -0,0 +1,50 @@
+package com.example.moviecast.jmh;
+
+import com.example.moviecast.data.local.MediaItem;
+import com.example.moviecast.data.remote.model.Cast;
+import com.example.moviecast.data.remote.model.Genre;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.data.repository.MediaItemMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Офлайн-данные избранного: сериализация состава в MediaItem
+ * (convertMovieToMediaItemWithExtras) и разбор обратно (getCastFromJson).
+ * 12 - состав из фикстуры, 120 - типичный полный состав блокбастера в /credits.
+ */
+@State(Scope.Benchmark)
+public class CastJsonBenchmark {
+
+    @Param({"12", "120"})
+    public int castSize;
+
+    private Movie movie;
+    private List<Genre> genres;
+    private List<Cast> cast;
+    private String castJson;
+
+    @Setup
+    public void setUp() {
+        movie = BenchmarkData.movies(1).get(0);
+        genres = BenchmarkData.genres().subList(0, 3);
+        cast = BenchmarkData.cast(castSize);
+        castJson = MediaItemMapper.castToJson(cast);
+    }
+
+    @Benchmark
+    public MediaItem toMediaItemWithExtras() {
+        return MediaItemMapper.toMediaItem(movie, true, "Комментарий", genres, cast);
+    }
+
+    @Benchmark
+    public List<Cast> castFromJson() {
+        return MediaItemMapper.castFromJson(castJson);
+    }
+}
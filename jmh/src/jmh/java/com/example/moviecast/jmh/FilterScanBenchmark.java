@@ -0,0 +1,85 @@
+package com.example.moviecast.jmh;
+
+import com.example.moviecast.data.model.MovieFilter;
+import com.example.moviecast.data.model.MovieListState;
+import com.example.moviecast.data.model.MoviePageWindow;
+import com.example.moviecast.data.model.MovieSort;
+import com.example.moviecast.data.remote.model.Movie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Выборка по фильтрам MainViewModel (applyFilter -> publish) в накопленном списке:
+ * снимок собирается постранично, как при прокрутке. scan - проверка каждого фильма
+ * (MovieFilter.matches), index - битсеты MovieFilterIndex снимка.
+ */
+@State(Scope.Benchmark)
+public class FilterScanBenchmark {
+
+    @Param({"1000", "10000"})
+    public int listSize;
+
+    // none, genre (драма), year (1994), both, anyGenre (драма ИЛИ комедия),
+    // allGenres (драма И криминал), decade (1990-1999)
+    @Param({"none", "genre", "year", "both", "anyGenre", "allGenres", "decade"})
+    public String filter;
+
+    private MovieListState state;
+
+    @Setup
+    public void setUp() {
+        List<Movie> movies = BenchmarkData.movies(listSize);
+        MovieListState snapshot = MovieListState.initial(false, null, MovieFilter.NONE, MovieSort.DEFAULT);
+        int page = 0;
+        for (int from = 0; from < movies.size(); from += BenchmarkData.PAGE_SIZE) {
+            List<Movie> pageMovies = movies.subList(from, Math.min(movies.size(), from + BenchmarkData.PAGE_SIZE));
+            snapshot = snapshot.withPage(pageMovies, ++page, Integer.MAX_VALUE);
+        }
+        state = snapshot.withFilter(filter(filter));
+    }
+
+    private static MovieFilter filter(String name) {
+        switch (name) {
+            case "genre":
+                return MovieFilter.NONE.withGenre(18);
+            case "year":
+                return MovieFilter.NONE.withYear(1994);
+            case "both":
+                return MovieFilter.NONE.withGenre(18).withYear(1994);
+            case "anyGenre":
+                return MovieFilter.NONE.withGenres(new int[]{18, 35}, false);
+            case "allGenres":
+                return MovieFilter.NONE.withGenres(new int[]{18, 80}, true);
+            case "decade":
+                return MovieFilter.NONE.withYearRange(1990, 1999);
+            default:
+                return MovieFilter.NONE;
+        }
+    }
+
+    @Benchmark
+    public int scan() {
+        MovieFilter active = state.getFilter();
+        MoviePageWindow window = state.getWindow();
+        int matches = 0;
+        for (int page = 1; page <= window.pageCount(); page++) {
+            for (Movie movie : window.pageMovies(page)) {
+                if (active.matches(movie)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int index() {
+        return state.filteredPositions().length;
+    }
+}
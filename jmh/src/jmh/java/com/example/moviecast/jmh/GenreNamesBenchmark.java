@@ -0,0 +1,64 @@
+package com.example.moviecast.jmh;
+
+import com.example.moviecast.data.remote.model.Genre;
+import com.example.moviecast.data.remote.model.Movie;
+import com.example.moviecast.data.repository.GenreLookup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * getGenreNamesFromIds по накопленному списку в 10k фильмов: строка жанров для каждой карточки.
+ * memoised - установившийся режим со снимком, уже видевшим эти комбинации;
+ * freshLookup - первая публикация после обновления справочника (мемо-кэш пуст).
+ */
+@State(Scope.Benchmark)
+public class GenreNamesBenchmark {
+
+    private static final int MOVIES = 10_000;
+
+    private List<List<Integer>> genreIds;
+    private GenreLookup lookup;
+    private int[] ids;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        genreIds = new ArrayList<>(MOVIES);
+        for (Movie movie : BenchmarkData.movies(MOVIES)) {
+            genreIds.add(movie.getGenreIds());
+        }
+        List<Genre> genres = BenchmarkData.genres();
+        ids = new int[genres.size()];
+        names = new String[genres.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = genres.get(i).getId();
+            names[i] = genres.get(i).getName();
+        }
+        lookup = GenreLookup.of(ids, names);
+        joinAll(lookup, null);
+    }
+
+    @Benchmark
+    public void memoised(Blackhole blackhole) {
+        joinAll(lookup, blackhole);
+    }
+
+    @Benchmark
+    public void freshLookup(Blackhole blackhole) {
+        joinAll(GenreLookup.of(ids, names), blackhole);
+    }
+
+    private void joinAll(GenreLookup genres, Blackhole blackhole) {
+        for (int i = 0, n = genreIds.size(); i < n; i++) {
+            String joined = genres.joinNames(genreIds.get(i));
+            if (blackhole != null) blackhole.consume(joined);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.moviecast.jmh;
+
+import com.example.moviecast.data.remote.model.MovieResponse;
+import com.google.gson.TypeAdapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Разбор страницы /movie/popular (20 фильмов) тем же путём, что GsonConverterFactory:
+ * байты ответа -> JsonReader -> адаптер MovieResponse.
+ */
+@State(Scope.Benchmark)
+public class MovieResponseParsingBenchmark {
+
+    private TypeAdapter<MovieResponse> adapter;
+    private byte[] page;
+
+    @Setup
+    public void setUp() {
+        adapter = BenchmarkData.GSON.getAdapter(MovieResponse.class);
+        page = BenchmarkData.popularPageBytes();
+    }
+
+    @Benchmark
+    public MovieResponse parsePage() throws IOException {
+        return adapter.read(BenchmarkData.GSON.newJsonReader(
+                new InputStreamReader(new ByteArrayInputStream(page), StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.moviecast.jmh;
+
+import com.example.moviecast.data.model.MoviePageWindow;
+import com.example.moviecast.data.model.MovieSort;
+import com.example.moviecast.data.model.SortedMovieOrder;
+import com.example.moviecast.data.remote.model.Movie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Сортированный порядок MainViewModel после догрузки страницы: слияние новой страницы
+ * с готовым порядком (mergePage) против полной сортировки списка (fullSort).
+ */
+@State(Scope.Benchmark)
+public class SortMergeBenchmark {
+
+    @Param({"1000", "10000"})
+    public int listSize;
+
+    @Param({"RATING", "RELEASE_DATE", "TITLE"})
+    public MovieSort sort;
+
+    private SortedMovieOrder sorted;
+    private MoviePageWindow extended;
+
+    @Setup
+    public void setUp() {
+        List<Movie> movies = BenchmarkData.movies(listSize + BenchmarkData.PAGE_SIZE);
+        // Все страницы в памяти, как если бы окно страниц было не меньше списка
+        MoviePageWindow loaded = MoviePageWindow.create();
+        for (int from = 0; from < listSize; from += BenchmarkData.PAGE_SIZE) {
+            loaded = loaded.withPage(movies.subList(from, Math.min(listSize, from + BenchmarkData.PAGE_SIZE)));
+        }
+        sorted = SortedMovieOrder.EMPTY.update(sort, loaded);
+        extended = loaded.withPage(movies.subList(listSize, movies.size()));
+    }
+
+    @Benchmark
+    public SortedMovieOrder mergePage() {
+        return sorted.update(sort, extended);
+    }
+
+    @Benchmark
+    public SortedMovieOrder fullSort() {
+        return SortedMovieOrder.EMPTY.update(sort, extended);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.moviecast.tmdbstub;
+
+import java.util.Random;
+
+/**
+ * LatencyModel - распределение задержки ответа (до заголовков), мс.
+ * Случайность - из Random сервера с фиксированным seed, поэтому прогоны повторяемы.
+ */
+public abstract class LatencyModel {
+
+    // Хвост логнормального распределения обрезается - запрос не должен упереться в таймаут клиента
+    private static final long MAX_DELAY_MS = 30_000;
+
+    public static final LatencyModel NONE = fixed(0);
+
+    public abstract long nextDelayMs(Random random);
+
+    public static LatencyModel fixed(long delayMs) {
+        return new LatencyModel() {
+            @Override
+            public long nextDelayMs(Random random) {
+                return delayMs;
+            }
+
+            @Override
+            public String toString() {
+                return "fixed:" + delayMs;
+            }
+        };
+    }
+
+    /**
+     * Равномерно в [minMs, maxMs]
+     */
+    public static LatencyModel uniform(long minMs, long maxMs) {
+        if (maxMs < minMs) throw new IllegalArgumentException("max < min");
+        return new LatencyModel() {
+            @Override
+            public long nextDelayMs(Random random) {
+                return minMs + (long) (random.nextDouble() * (maxMs - minMs + 1));
+            }
+
+            @Override
+            public String toString() {
+                return "uniform:" + minMs + ":" + maxMs;
+            }
+        };
+    }
+
+    /**
+     * Логнормальное с медианой medianMs: типичная форма задержки мобильной сети,
+     * sigma 0.3 - ровная сеть, 1.0 - длинный хвост
+     */
+    public static LatencyModel logNormal(long medianMs, double sigma) {
+        if (medianMs <= 0 || sigma < 0) throw new IllegalArgumentException("median <= 0 or sigma < 0");
+        double mu = Math.log(medianMs);
+        return new LatencyModel() {
+            @Override
+            public long nextDelayMs(Random random) {
+                return Math.min(MAX_DELAY_MS, Math.round(Math.exp(mu + sigma * random.nextGaussian())));
+            }
+
+            @Override
+            public String toString() {
+                return "lognormal:" + medianMs + ":" + sigma;
+            }
+        };
+    }
+
+    /**
+     * Из строки: none, fixed:50, uniform:20:200, lognormal:120:0.5
+     */
+    public static LatencyModel parse(String spec) {
+        String[] parts = spec.split(":");
+        try {
+            switch (parts[0]) {
+                case "none":
+                    return NONE;
+                case "fixed":
+                    return fixed(Long.parseLong(parts[1]));
+                case "uniform":
+                    return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "lognormal":
+                    return logNormal(Long.parseLong(parts[1]), Double.parseDouble(parts[2]));
+                default:
+                    break;
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Bad latency spec: " + spec, e);
+        }
+        throw new IllegalArgumentException("Unknown latency model: " + spec);
+    }
+}
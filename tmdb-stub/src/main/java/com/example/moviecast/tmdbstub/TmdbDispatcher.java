@@ -0,0 +1,153 @@
+package com.example.moviecast.tmdbstub;
+
+import com.google.gson.JsonObject;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * TmdbDispatcher - маршруты TMDbApiService и картинок поверх фикстур плюс помехи:
+ * задержка, ограничение полосы, 429 и ошибки сервера. Вызывается из потоков MockWebServer.
+ */
+final class TmdbDispatcher extends Dispatcher {
+
+    private static final String API_PREFIX = "/3/";
+    static final String IMAGE_PREFIX = "/t/p/";
+    // Полоса выдаётся порциями раз в THROTTLE_PERIOD_MS - поток байтов ровный, а не рывками в секунду
+    private static final long THROTTLE_PERIOD_MS = 100;
+
+    private final TmdbFixtures fixtures;
+    private final TmdbStubServer.Builder config;
+    private final Random random;
+
+    final AtomicInteger requests = new AtomicInteger();
+    final AtomicInteger rateLimited = new AtomicInteger();
+    final AtomicInteger failed = new AtomicInteger();
+
+    TmdbDispatcher(TmdbFixtures fixtures, TmdbStubServer.Builder config) {
+        this.fixtures = fixtures;
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        requests.incrementAndGet();
+        HttpUrl url = request.getRequestUrl();
+        String path = url.encodedPath();
+        double roll;
+        long delayMs;
+        // Один Random на все потоки: при том же порядке запросов - те же помехи
+        synchronized (random) {
+            roll = random.nextDouble();
+            delayMs = config.latency.nextDelayMs(random);
+        }
+
+        MockResponse response;
+        if (path.startsWith(IMAGE_PREFIX)) {
+            // CDN картинок не ограничивает частоту - только задержка и полоса
+            response = new MockResponse()
+                    .setHeader("Content-Type", "image/jpeg")
+                    .setBody(new Buffer().write(fixtures.placeholderImage()));
+        } else if (!path.startsWith(API_PREFIX)) {
+            response = error(404, 34, "The resource you requested could not be found.");
+        } else if (roll < config.rateLimitRate) {
+            rateLimited.incrementAndGet();
+            response = error(429, 25, "Your request count (#) is over the allowed limit of (40).")
+                    .setHeader("Retry-After", "1");
+        } else if (roll < config.rateLimitRate + config.errorRate) {
+            failed.incrementAndGet();
+            response = error(503, 9, "Service offline: This service is temporarily offline, try again later.");
+        } else {
+            response = route(url, path.substring(API_PREFIX.length()));
+        }
+
+        if (delayMs > 0) {
+            response.setHeadersDelay(delayMs, TimeUnit.MILLISECONDS);
+        }
+        if (config.bandwidthBytesPerSecond > 0) {
+            long bytesPerPeriod = Math.max(1, config.bandwidthBytesPerSecond * THROTTLE_PERIOD_MS / 1000);
+            response.throttleBody(bytesPerPeriod, THROTTLE_PERIOD_MS, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private MockResponse route(HttpUrl url, String endpoint) {
+        String[] segments = endpoint.split("/");
+        JsonObject body;
+        switch (endpoint) {
+            case "configuration":
+                body = fixtures.configuration(url.newBuilder()
+                        .encodedPath(IMAGE_PREFIX).query(null).build().toString());
+                break;
+            case "genre/movie/list":
+                body = fixtures.genres();
+                break;
+            case "movie/popular":
+                body = fixtures.popularPage(intParam(url, "page"), config.catalogPages);
+                break;
+            case "search/movie":
+                body = fixtures.searchPage(intParam(url, "page"), config.searchPages);
+                break;
+            default:
+                body = movieResource(segments);
+                break;
+        }
+        if (body == null) {
+            return error(404, 34, "The resource you requested could not be found.");
+        }
+        return json(200, body);
+    }
+
+    // movie/{id}, movie/{id}/credits, movie/{id}/videos
+    private JsonObject movieResource(String[] segments) {
+        if (segments.length < 2 || segments.length > 3 || !segments[0].equals("movie")) return null;
+        int id;
+        try {
+            id = Integer.parseInt(segments[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        JsonObject movie = fixtures.movie(id, config.catalogPages, config.searchPages);
+        if (movie == null || segments.length == 2) return movie;
+        switch (segments[2]) {
+            case "credits":
+                return fixtures.credits(id);
+            case "videos":
+                return fixtures.videos(id);
+            default:
+                return null;
+        }
+    }
+
+    private static MockResponse error(int code, int statusCode, String message) {
+        JsonObject body = new JsonObject();
+        body.addProperty("success", false);
+        body.addProperty("status_code", statusCode);
+        body.addProperty("status_message", message);
+        return json(code, body);
+    }
+
+    private static MockResponse json(int code, JsonObject body) {
+        return new MockResponse()
+                .setResponseCode(code)
+                .setHeader("Content-Type", "application/json;charset=utf-8")
+                .setBody(body.toString());
+    }
+
+    private static int intParam(HttpUrl url, String name) {
+        String value = url.queryParameter(name);
+        try {
+            return value != null ? Integer.parseInt(value) : 1;
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.moviecast.tmdbstub;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TmdbFixtures - ответы TMDb (ru-RU) из resources/fixtures и синтетический каталог поверх них.
+ *
+ * Первая страница популярного и поиска - фикстуры как есть. Дальние страницы собираются
+ * из фильмов первой: ID из отдельного диапазона, к названию добавляется номер страницы,
+ * поэтому каталог любого размера детерминирован и не хранится в памяти. Детали, актёры
+ * и видео любого фильма каталога строятся из фикстур movie_details/credits/videos.
+ */
+final class TmdbFixtures {
+
+    static final int PAGE_SIZE = 20;
+    // Выше реальных ID TMDb - синтетические фильмы не пересекаются с записанными
+    private static final int POPULAR_ID_BASE = 10_000_000;
+    private static final int SEARCH_ID_BASE = 20_000_000;
+    // Поля деталей, которых нет в элементе списка
+    private static final String[] DETAIL_ONLY_FIELDS = {"runtime", "tagline", "status", "budget", "revenue"};
+
+    private final JsonObject configuration;
+    private final JsonObject genres;
+    private final JsonArray popular;
+    private final JsonArray search;
+    private final JsonObject details;
+    private final JsonObject credits;
+    private final JsonObject videos;
+    private final byte[] placeholderImage;
+
+    private final Map<Integer, String> genreNames = new HashMap<>();
+    // Записанные фильмы по ID - из первой страницы популярного и поиска
+    private final Map<Integer, JsonObject> recorded = new HashMap<>();
+
+    private TmdbFixtures() throws IOException {
+        configuration = json("configuration.json");
+        genres = json("genre_movie_list.json");
+        popular = json("movie_popular.json").getAsJsonArray("results");
+        search = json("search_movie.json").getAsJsonArray("results");
+        details = json("movie_details.json");
+        credits = json("movie_credits.json");
+        videos = json("movie_videos.json");
+        placeholderImage = bytes("placeholder.jpg");
+        for (JsonElement genre : genres.getAsJsonArray("genres")) {
+            JsonObject object = genre.getAsJsonObject();
+            genreNames.put(object.get("id").getAsInt(), object.get("name").getAsString());
+        }
+        for (JsonArray list : new JsonArray[]{popular, search}) {
+            for (JsonElement movie : list) {
+                recorded.put(movie.getAsJsonObject().get("id").getAsInt(), movie.getAsJsonObject());
+            }
+        }
+    }
+
+    static TmdbFixtures load() {
+        try {
+            return new TmdbFixtures();
+        } catch (IOException e) {
+            throw new IllegalStateException("TMDb fixtures missing from classpath", e);
+        }
+    }
+
+    /**
+     * Конфигурация с базовым URL картинок на самом стенде
+     */
+    JsonObject configuration(String imageBaseUrl) {
+        JsonObject copy = configuration.deepCopy();
+        JsonObject images = copy.getAsJsonObject("images");
+        images.addProperty("base_url", imageBaseUrl);
+        images.addProperty("secure_base_url", imageBaseUrl);
+        return copy;
+    }
+
+    JsonObject genres() {
+        return genres;
+    }
+
+    JsonObject popularPage(int page, int totalPages) {
+        return page(popular, POPULAR_ID_BASE, page, totalPages);
+    }
+
+    JsonObject searchPage(int page, int totalPages) {
+        return page(search, SEARCH_ID_BASE, page, totalPages);
+    }
+
+    /**
+     * Детали фильма каталога; null - такого ID нет
+     */
+    JsonObject movie(int id, int popularPages, int searchPages) {
+        if (id == details.get("id").getAsInt()) {
+            return details;
+        }
+        JsonObject movie = listEntry(id, popularPages, searchPages);
+        if (movie == null) return null;
+        JsonObject result = movie.deepCopy();
+        JsonArray genreList = new JsonArray();
+        for (JsonElement genreId : result.remove("genre_ids").getAsJsonArray()) {
+            JsonObject genre = new JsonObject();
+            genre.addProperty("id", genreId.getAsInt());
+            genre.addProperty("name", genreNames.get(genreId.getAsInt()));
+            genreList.add(genre);
+        }
+        result.add("genres", genreList);
+        for (String field : DETAIL_ONLY_FIELDS) {
+            result.add(field, details.get(field));
+        }
+        return result;
+    }
+
+    JsonObject credits(int id) {
+        JsonObject copy = credits.deepCopy();
+        copy.addProperty("id", id);
+        return copy;
+    }
+
+    JsonObject videos(int id) {
+        JsonObject copy = videos.deepCopy();
+        copy.addProperty("id", id);
+        return copy;
+    }
+
+    byte[] placeholderImage() {
+        return placeholderImage;
+    }
+
+    private JsonObject page(JsonArray firstPage, int idBase, int page, int totalPages) {
+        JsonArray results = new JsonArray();
+        if (page == 1) {
+            results = firstPage;
+        } else if (page >= 2 && page <= totalPages) {
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                results.add(synthetic(firstPage, idBase, (page - 1) * PAGE_SIZE + i));
+            }
+        }
+        JsonObject response = new JsonObject();
+        response.addProperty("page", page);
+        response.add("results", results);
+        response.addProperty("total_pages", totalPages);
+        response.addProperty("total_results", (totalPages - 1) * PAGE_SIZE + firstPage.size());
+        return response;
+    }
+
+    // Фильм номер index каталога (с нуля, без первой страницы) по шаблону из первой страницы
+    private static JsonObject synthetic(JsonArray firstPage, int idBase, int index) {
+        JsonObject template = firstPage.get(index % firstPage.size()).getAsJsonObject();
+        JsonObject movie = template.deepCopy();
+        int id = idBase + index;
+        movie.addProperty("id", id);
+        movie.addProperty("title", template.get("title").getAsString() + " #" + (index / PAGE_SIZE + 1));
+        movie.addProperty("poster_path", "/poster_" + id + ".jpg");
+        movie.addProperty("backdrop_path", "/backdrop_" + id + ".jpg");
+        return movie;
+    }
+
+    private JsonObject listEntry(int id, int popularPages, int searchPages) {
+        JsonObject movie = recorded.get(id);
+        if (movie != null) return movie;
+        if (id >= SEARCH_ID_BASE) {
+            int index = id - SEARCH_ID_BASE;
+            return index >= PAGE_SIZE && index < searchPages * PAGE_SIZE
+                    ? synthetic(search, SEARCH_ID_BASE, index) : null;
+        }
+        if (id >= POPULAR_ID_BASE) {
+            int index = id - POPULAR_ID_BASE;
+            return index >= PAGE_SIZE && index < popularPages * PAGE_SIZE
+                    ? synthetic(popular, POPULAR_ID_BASE, index) : null;
+        }
+        return null;
+    }
+
+    private static JsonObject json(String name) throws IOException {
+        try (Reader in = new InputStreamReader(open(name), StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(in).getAsJsonObject();
+        }
+    }
+
+    private static byte[] bytes(String name) throws IOException {
+        try (InputStream in = open(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static InputStream open(String name) throws IOException {
+        InputStream in = TmdbFixtures.class.getResourceAsStream("/fixtures/" + name);
+        if (in == null) throw new IOException("No fixture " + name);
+        return in;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.moviecast.tmdbstub;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * TmdbStubServer - локальная замена TMDb: все конечные точки TMDbApiService и картинки
+ * из фикстур (см. TmdbFixtures) с настраиваемыми помехами.
+ *
+ * Приложение и тесты получают адрес через baseUrl() (RetrofitClient.configure в JVM-тестах,
+ * TMDB_BASE_URL сборки benchmark на устройстве). Помехи детерминированы seed, поэтому
+ * замеры репозитория и ViewModel повторяемы:
+ *
+ *   TmdbStubServer server = new TmdbStubServer.Builder()
+ *           .latency(LatencyModel.logNormal(120, 0.5))
+ *           .bandwidthBytesPerSecond(256 * 1024)
+ *           .rateLimitRate(0.02)
+ *           .catalogPages(5000)
+ *           .build();
+ *   server.start();
+ */
+public final class TmdbStubServer implements Closeable {
+
+    public static final class Builder {
+        LatencyModel latency = LatencyModel.NONE;
+        long bandwidthBytesPerSecond;
+        double errorRate;
+        double rateLimitRate;
+        int catalogPages = 500; // предел TMDb для /movie/popular
+        int searchPages = 1;
+        long seed = 42;
+
+        /** Задержка до заголовков ответа */
+        public Builder latency(LatencyModel latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /** Полоса на один ответ, байт/с; 0 - без ограничения */
+        public Builder bandwidthBytesPerSecond(long bytesPerSecond) {
+            if (bytesPerSecond < 0) throw new IllegalArgumentException("bandwidth < 0");
+            this.bandwidthBytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /** Доля запросов API, отвечающих 503 */
+        public Builder errorRate(double rate) {
+            this.errorRate = checkRate(rate);
+            return this;
+        }
+
+        /** Доля запросов API, отвечающих 429 с Retry-After */
+        public Builder rateLimitRate(double rate) {
+            this.rateLimitRate = checkRate(rate);
+            return this;
+        }
+
+        /** Страниц в /movie/popular; тысячи страниц не занимают памяти - они синтетические */
+        public Builder catalogPages(int pages) {
+            if (pages < 1) throw new IllegalArgumentException("pages < 1");
+            this.catalogPages = pages;
+            return this;
+        }
+
+        /** Страниц в /search/movie для любого запроса */
+        public Builder searchPages(int pages) {
+            if (pages < 1) throw new IllegalArgumentException("pages < 1");
+            this.searchPages = pages;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public TmdbStubServer build() {
+            if (errorRate + rateLimitRate > 1) throw new IllegalArgumentException("errorRate + rateLimitRate > 1");
+            return new TmdbStubServer(this);
+        }
+
+        private static double checkRate(double rate) {
+            if (rate < 0 || rate > 1) throw new IllegalArgumentException("rate outside [0, 1]");
+            return rate;
+        }
+    }
+
+    private final MockWebServer server = new MockWebServer();
+    private final TmdbDispatcher dispatcher;
+
+    private TmdbStubServer(Builder builder) {
+        dispatcher = new TmdbDispatcher(TmdbFixtures.load(), builder);
+        server.setDispatcher(dispatcher);
+    }
+
+    /** На свободном порту localhost */
+    public void start() throws IOException {
+        server.start();
+    }
+
+    public void start(int port) throws IOException {
+        server.start(port);
+    }
+
+    public void start(InetAddress address, int port) throws IOException {
+        server.start(address, port);
+    }
+
+    /** Базовый URL API ("http://127.0.0.1:8089/3/") */
+    public String baseUrl() {
+        return server.url("/3/").toString();
+    }
+
+    /** Базовый URL картинок - его же выдаёт /configuration */
+    public String imageBaseUrl() {
+        return server.url(TmdbDispatcher.IMAGE_PREFIX).toString();
+    }
+
+    public int getRequestCount() {
+        return dispatcher.requests.get();
+    }
+
+    public int getRateLimitedCount() {
+        return dispatcher.rateLimited.get();
+    }
+
+    public int getErrorCount() {
+        return dispatcher.failed.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Отдельный процесс: --port 8089 --latency lognormal:120:0.5 --bandwidth 262144
+     * --error-rate 0.01 --rate-limit 0.02 --pages 5000 --search-pages 3 --seed 42
+     */
+    public static void main(String[] args) throws IOException {
+        Builder builder = new Builder();
+        int port = 8089;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "--latency":
+                    builder.latency(LatencyModel.parse(value));
+                    break;
+                case "--bandwidth":
+                    builder.bandwidthBytesPerSecond(Long.parseLong(value));
+                    break;
+                case "--error-rate":
+                    builder.errorRate(Double.parseDouble(value));
+                    break;
+                case "--rate-limit":
+                    builder.rateLimitRate(Double.parseDouble(value));
+                    break;
+                case "--pages":
+                    builder.catalogPages(Integer.parseInt(value));
+                    break;
+                case "--search-pages":
+                    builder.searchPages(Integer.parseInt(value));
+                    break;
+                case "--seed":
+                    builder.seed(Long.parseLong(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        TmdbStubServer server = builder.build();
+        server.start(InetAddress.getByName("127.0.0.1"), port);
+        System.out.println("TMDb stand-in at " + server.baseUrl() + " (latency " + builder.latency + ")");
+        System.out.println("Press Enter to stop");
+        System.in.read();
+        server.close();
+    }
+}